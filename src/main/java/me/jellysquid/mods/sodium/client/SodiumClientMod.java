@@ -1,8 +1,10 @@
 package me.jellysquid.mods.sodium.client;
 
+import me.jellysquid.mods.sodium.client.command.ClientCommands;
 import me.jellysquid.mods.sodium.client.data.fingerprint.FingerprintMeasure;
 import me.jellysquid.mods.sodium.client.data.fingerprint.HashedFingerprint;
 import me.jellysquid.mods.sodium.client.gui.SodiumGameOptions;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.IExtensionPoint;
 import net.minecraftforge.fml.ModList;
 import net.minecraftforge.fml.ModLoadingContext;
@@ -53,6 +55,8 @@ public class SodiumClientMod {
         }
         eventBus.addListener(this::onClientSetup);
 
+        MinecraftForge.EVENT_BUS.addListener(ClientCommands::register);
+
         try {
             updateFingerprint();
         } catch (Throwable t) {
@@ -0,0 +1,75 @@
+package me.jellysquid.mods.sodium.client.command;
+
+import com.mojang.brigadier.Command;
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry.ChunkBuildTelemetry;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTracker;
+import net.minecraft.client.Minecraft;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.client.event.RegisterClientCommandsEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The client commands used to collect diagnostics:
+ * <ul>
+ *     <li>{@code /embeddium chunk_telemetry <dump|reset>}</li>
+ *     <li>{@code /embeddium native_memory dump}</li>
+ * </ul>
+ * Reports are written to the {@code debug} folder of the game directory.
+ */
+public class ClientCommands {
+    public static void register(RegisterClientCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal(SodiumClientMod.MODID)
+                .then(Commands.literal("chunk_telemetry")
+                        .then(Commands.literal("dump").executes(ctx -> dumpChunkTelemetry(ctx.getSource())))
+                        .then(Commands.literal("reset").executes(ctx -> resetChunkTelemetry(ctx.getSource()))))
+                .then(Commands.literal("native_memory")
+                        .then(Commands.literal("dump").executes(ctx -> dumpNativeMemory(ctx.getSource())))));
+    }
+
+    private static int dumpChunkTelemetry(CommandSourceStack source) {
+        if (!ChunkBuildTelemetry.isEnabled()) {
+            source.sendFailure(Component.translatable("sodium.commands.chunk_telemetry.disabled"));
+            return 0;
+        }
+
+        try {
+            var path = ChunkBuildTelemetry.writeReport(getReportDirectory());
+            source.sendSuccess(() -> Component.translatable("sodium.commands.chunk_telemetry.dumped", path.toString()), false);
+        } catch (IOException e) {
+            SodiumClientMod.logger().error("Failed to write chunk build report", e);
+            source.sendFailure(Component.translatable("sodium.commands.report_failed"));
+            return 0;
+        }
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int resetChunkTelemetry(CommandSourceStack source) {
+        ChunkBuildTelemetry.reset();
+        source.sendSuccess(() -> Component.translatable("sodium.commands.chunk_telemetry.reset"), false);
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int dumpNativeMemory(CommandSourceStack source) {
+        try {
+            var path = NativeMemoryTracker.writeReport(getReportDirectory());
+            source.sendSuccess(() -> Component.translatable("sodium.commands.native_memory.dumped", path.toString()), false);
+        } catch (IOException e) {
+            SodiumClientMod.logger().error("Failed to write native memory report", e);
+            source.sendFailure(Component.translatable("sodium.commands.report_failed"));
+            return 0;
+        }
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static Path getReportDirectory() {
+        return Minecraft.getInstance().gameDirectory.toPath().resolve("debug");
+    }
+}
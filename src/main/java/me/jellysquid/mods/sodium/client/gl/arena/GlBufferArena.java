@@ -7,15 +7,12 @@ import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Stream;
 
 public class GlBufferArena {
-    static final boolean CHECK_ASSERTIONS = false;
-
     private static final GlBufferUsage BUFFER_USAGE = GlBufferUsage.STATIC_DRAW;
 
     /**
@@ -38,14 +35,15 @@ public class GlBufferArena {
      */
     private static final float EXPECTED_SIZE_TARGET_FACTOR = 1.5f;
 
+    /**
+     * The fraction of the arena's capacity which may be moved when trying to make room for uploads without resizing.
+     */
+    private static final float MAX_DEFRAGMENT_COPY_FACTOR = 0.125f;
+
     private final StagingBuffer stagingBuffer;
     private GlMutableBuffer arenaBuffer;
 
-    private GlBufferSegment head;
-
-    private long capacity;
-    private long used;
-    private int segmentCount;
+    private final GlBufferSegmentAllocator allocator;
 
     private final int stride;
 
@@ -54,15 +52,11 @@ public class GlBufferArena {
     private static int freeBufferCount = 0;
 
     public GlBufferArena(CommandList commands, int initialCapacity, int stride, StagingBuffer stagingBuffer) {
-        this.capacity = initialCapacity;
         this.stride = stride;
 
-        this.head = new GlBufferSegment(this, 0, this.capacity);
-        this.head.setFree(true);
-
-        this.arenaBuffer = getBufferOfSizeAtLeast(commands, this.capacity * stride);
+        this.arenaBuffer = getBufferOfSizeAtLeast(commands, (long) initialCapacity * stride);
         // Capacity may be larger than requested if we reused a buffer
-        this.capacity = this.arenaBuffer.getSize() / stride;
+        this.allocator = new GlBufferSegmentAllocator(this.arenaBuffer.getSize() / stride);
 
         this.stagingBuffer = stagingBuffer;
     }
@@ -125,74 +119,9 @@ public class GlBufferArena {
     }
 
     private void resize(CommandList commandList, long newCapacity) {
-        if (this.used > newCapacity) {
-            throw new UnsupportedOperationException("New capacity must be larger than used size");
-        }
-
-        this.checkAssertions();
-
-        long tail = newCapacity - this.used;
-
-        List<GlBufferSegment> usedSegments = this.getUsedSegments();
-        List<PendingBufferCopyCommand> pendingCopies = this.buildTransferList(usedSegments, tail);
+        List<PendingBufferCopyCommand> pendingCopies = this.allocator.compact(newCapacity);
 
         this.transferSegments(commandList, pendingCopies, newCapacity);
-
-        this.head = new GlBufferSegment(this, 0, tail);
-        this.head.setFree(true);
-
-        if (usedSegments.isEmpty()) {
-            this.head.setNext(null);
-        } else {
-            this.head.setNext(usedSegments.get(0));
-            this.head.getNext()
-                    .setPrev(this.head);
-        }
-
-        this.checkAssertions();
-    }
-
-    private List<PendingBufferCopyCommand> buildTransferList(List<GlBufferSegment> usedSegments, long base) {
-        List<PendingBufferCopyCommand> pendingCopies = new ArrayList<>();
-        PendingBufferCopyCommand currentCopyCommand = null;
-
-        long writeOffset = base;
-
-        for (int i = 0; i < usedSegments.size(); i++) {
-            GlBufferSegment s = usedSegments.get(i);
-
-            if (currentCopyCommand == null || currentCopyCommand.getReadOffset() + currentCopyCommand.getLength() != s.getOffset()) {
-                if (currentCopyCommand != null) {
-                    pendingCopies.add(currentCopyCommand);
-                }
-
-                currentCopyCommand = new PendingBufferCopyCommand(s.getOffset(), writeOffset, s.getLength());
-            } else {
-                currentCopyCommand.setLength(currentCopyCommand.getLength() + s.getLength());
-            }
-
-            s.setOffset(writeOffset);
-
-            if (i + 1 < usedSegments.size()) {
-                s.setNext(usedSegments.get(i + 1));
-            } else {
-                s.setNext(null);
-            }
-
-            if (i - 1 < 0) {
-                s.setPrev(null);
-            } else {
-                s.setPrev(usedSegments.get(i - 1));
-            }
-
-            writeOffset += s.getLength();
-        }
-
-        if (currentCopyCommand != null) {
-            pendingCopies.add(currentCopyCommand);
-        }
-
-        return pendingCopies;
     }
 
     private void transferSegments(CommandList commandList, Collection<PendingBufferCopyCommand> list, long capacity) {
@@ -216,114 +145,55 @@ public class GlBufferArena {
 
         this.arenaBuffer = dstBufferObj;
         // Capacity may be larger than requested if we reused a buffer
-        this.capacity = this.arenaBuffer.getSize() / this.stride;
+        this.allocator.expand(this.arenaBuffer.getSize() / this.stride);
     }
 
-    private ArrayList<GlBufferSegment> getUsedSegments() {
-        ArrayList<GlBufferSegment> used = new ArrayList<>();
-        GlBufferSegment seg = this.head;
-
-        while (seg != null) {
-            GlBufferSegment next = seg.getNext();
-
-            if (!seg.isFree()) {
-                used.add(seg);
-            }
+    /**
+     * Tries to make room for the largest of the given uploads by moving a limited amount of existing data within the
+     * current buffer, which avoids copying the entire arena into a new buffer when it is merely fragmented.
+     *
+     * @return True if any segments were moved
+     */
+    private boolean defragment(CommandList commandList, List<PendingUpload> queue) {
+        long remainingElements = 0;
+        long largestElements = 0;
 
-            seg = next;
+        for (var upload : queue) {
+            long elements = upload.getDataBuffer().getLength() / this.stride;
+            remainingElements += elements;
+            largestElements = Math.max(largestElements, elements);
         }
 
-        return used;
-    }
-
-    public long getDeviceUsedMemory() {
-        return this.used * this.stride;
-    }
-
-    public long getDeviceAllocatedMemory() {
-        return this.capacity * this.stride;
-    }
-
-    private GlBufferSegment alloc(int size) {
-        GlBufferSegment a = this.findFree(size);
-
-        if (a == null) {
-            return null;
+        // Moving segments around can only help if there is enough free space in total
+        if (remainingElements > this.allocator.getFree()) {
+            return false;
         }
 
-        GlBufferSegment result;
-
-        if (a.getLength() == size) {
-            a.setFree(false);
+        long maxCopyLength = (long) (this.allocator.getCapacity() * MAX_DEFRAGMENT_COPY_FACTOR);
+        List<PendingBufferCopyCommand> pendingCopies = this.allocator.defragment(largestElements, maxCopyLength);
 
-            result = a;
-        } else {
-            GlBufferSegment b = new GlBufferSegment(this, a.getEnd() - size, size);
-            b.setNext(a.getNext());
-            b.setPrev(a);
-
-            if (b.getNext() != null) {
-                b.getNext()
-                        .setPrev(b);
-            }
-
-            a.setLength(a.getLength() - size);
-            a.setNext(b);
-
-            result = b;
+        // Each copy moves a segment into free space which never overlaps its previous location, so copying within
+        // the same buffer is safe
+        for (PendingBufferCopyCommand cmd : pendingCopies) {
+            commandList.copyBufferSubData(this.arenaBuffer, this.arenaBuffer,
+                    cmd.getReadOffset() * this.stride,
+                    cmd.getWriteOffset() * this.stride,
+                    cmd.getLength() * this.stride);
         }
 
-        this.used += result.getLength();
-        this.segmentCount++;
-        this.checkAssertions();
-
-        return result;
+        return !pendingCopies.isEmpty();
     }
 
-    private GlBufferSegment findFree(int size) {
-        GlBufferSegment entry = this.head;
-        GlBufferSegment best = null;
-
-        while (entry != null) {
-            if (entry.isFree()) {
-                if (entry.getLength() == size) {
-                    return entry;
-                } else if (entry.getLength() >= size) {
-                    if (best == null || best.getLength() > entry.getLength()) {
-                        best = entry;
-                    }
-                }
-            }
-
-            entry = entry.getNext();
-        }
+    public long getDeviceUsedMemory() {
+        return this.allocator.getUsed() * this.stride;
+    }
 
-        return best;
+    public long getDeviceAllocatedMemory() {
+        return this.allocator.getCapacity() * this.stride;
     }
 
     public void free(GlBufferSegment entry) {
-        if (entry.isFree()) {
-            throw new IllegalStateException("Already freed");
-        }
-
-        entry.setFree(true);
-
-        this.used -= entry.getLength();
-        this.segmentCount--;
-
-        GlBufferSegment next = entry.getNext();
-
-        if (next != null && next.isFree()) {
-            entry.mergeInto(next);
-        }
-
-        GlBufferSegment prev = entry.getPrev();
-
-        if (prev != null && prev.isFree()) {
-            prev.mergeInto(entry);
-        }
-
-        this.checkAssertions();
+        this.allocator.free(entry);
     }
 
     public void delete(CommandList commands) {
@@ -331,13 +201,19 @@ public class GlBufferArena {
     }
 
     public boolean isEmpty() {
-        return this.used <= 0;
+        return this.allocator.isEmpty();
     }
 
     public GlBuffer getBufferObject() {
         return this.arenaBuffer;
     }
 
+    /**
+     * Uploads the given data into the arena, growing or defragmenting it as necessary.
+     *
+     * @return True if the buffer object was replaced or existing segments were moved to a different offset, in which
+     * case any cached offsets or tessellations referring to the arena must be refreshed
+     */
     public boolean upload(CommandList commandList, Stream<PendingUpload> stream) {
         // Record the buffer object before we start any work
         // If the arena needs to re-allocate a buffer, this will allow us to check and return an appropriate flag
@@ -353,7 +229,16 @@ public class GlBufferArena {
 
         // Try to upload all the data into free segments first,
         // but only attempt this if there is enough free space assuming no fragmentation
-        if (totalUploadSize < (this.capacity - this.used) * this.stride) {
+        if (totalUploadSize < this.allocator.getFree() * this.stride) {
+            this.tryUploads(commandList, queue);
+        }
+
+        boolean segmentsMoved = false;
+
+        // If there is enough free space but it is too fragmented, try to move some segments out of the way first
+        if (!queue.isEmpty() && this.defragment(commandList, queue)) {
+            segmentsMoved = true;
+
             this.tryUploads(commandList, queue);
         }
 
@@ -371,7 +256,7 @@ public class GlBufferArena {
             }
         }
 
-        return this.arenaBuffer != buffer;
+        return segmentsMoved || this.arenaBuffer != buffer;
     }
 
     private void tryUploads(CommandList commandList, List<PendingUpload> queue) {
@@ -385,7 +270,7 @@ public class GlBufferArena {
 
         int elementCount = data.remaining() / this.stride;
 
-        GlBufferSegment dst = this.alloc(elementCount);
+        GlBufferSegment dst = this.allocator.alloc(elementCount);
 
         if (dst == null) {
             return false;
@@ -414,9 +299,9 @@ public class GlBufferArena {
         long remainingElements = remainingUploadSize / this.stride;
 
         // The required total size after the uploads are allocated
-        long requiredTotalSize = remainingElements + this.used;
+        long requiredTotalSize = remainingElements + this.allocator.getUsed();
 
-        int newSegmentCount = this.segmentCount + queue.size();
+        int newSegmentCount = this.allocator.getSegmentCount() + queue.size();
 
         // Use average segment size if we have enough segments to make it an accurate value
         long newCapacity;
@@ -433,71 +318,4 @@ public class GlBufferArena {
 
         return newCapacity;
     }
-
-    private void checkAssertions() {
-        if (CHECK_ASSERTIONS) {
-            this.checkAssertions0();
-        }
-    }
-
-    private void checkAssertions0() {
-        GlBufferSegment seg = this.head;
-        long used = 0;
-
-        while (seg != null) {
-            // Note: getOffset() returns unsigned value so it's never negative
-            if (seg.getEnd() > this.capacity) {
-                throw new IllegalStateException("segment.end > arena.capacity: out of bounds");
-            }
-
-            if (!seg.isFree()) {
-                used += seg.getLength();
-            }
-
-            GlBufferSegment next = seg.getNext();
-
-            if (next != null) {
-                if (next.getOffset() < seg.getEnd()) {
-                    throw new IllegalStateException("segment.next.start < segment.end: overlapping segments (corrupted)");
-                } else if (next.getOffset() > seg.getEnd()) {
-                    throw new IllegalStateException("segment.next.start > segment.end: not truly connected (sparsity error)");
-                }
-
-                if (next.isFree() && next.getNext() != null) {
-                    if (next.getNext().isFree()) {
-                        throw new IllegalStateException("segment.free && segment.next.free: not merged consecutive segments");
-                    }
-                }
-            }
-
-            GlBufferSegment prev = seg.getPrev();
-
-            if (prev != null) {
-                if (prev.getEnd() > seg.getOffset()) {
-                    throw new IllegalStateException("segment.prev.end > segment.start: overlapping segments (corrupted)");
-                } else if (prev.getEnd() < seg.getOffset()) {
-                    throw new IllegalStateException("segment.prev.end < segment.start: not truly connected (sparsity error)");
-                }
-
-                if (prev.isFree() && prev.getPrev() != null) {
-                    if (prev.getPrev().isFree()) {
-                        throw new IllegalStateException("segment.free && segment.prev.free: not merged consecutive segments");
-                    }
-                }
-            }
-
-            seg = next;
-        }
-
-        if (this.used < 0) {
-            throw new IllegalStateException("arena.used < 0: failure to track");
-        } else if (this.used > this.capacity) {
-            throw new IllegalStateException("arena.used > arena.capacity: failure to track");
-        }
-
-        if (this.used != used) {
-            throw new IllegalStateException("arena.used is invalid");
-        }
-    }
-
 }
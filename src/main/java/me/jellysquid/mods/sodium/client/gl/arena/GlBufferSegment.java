@@ -3,7 +3,7 @@ package me.jellysquid.mods.sodium.client.gl.arena;
 import me.jellysquid.mods.sodium.client.util.UInt32;
 
 public class GlBufferSegment {
-    private final GlBufferArena arena;
+    private final GlBufferSegmentAllocator allocator;
 
     private boolean free = false;
 
@@ -13,14 +13,18 @@ public class GlBufferSegment {
     private GlBufferSegment next;
     private GlBufferSegment prev;
 
-    public GlBufferSegment(GlBufferArena arena, long offset, long length) {
-        this.arena = arena;
+    // Links within the allocator's free list for this segment's size class, only valid while the segment is free
+    private GlBufferSegment nextFree;
+    private GlBufferSegment prevFree;
+
+    public GlBufferSegment(GlBufferSegmentAllocator allocator, long offset, long length) {
+        this.allocator = allocator;
         this.offset = UInt32.downcast(offset);
         this.length = UInt32.downcast(length);
     }
 
     public void delete() {
-        this.arena.free(this);
+        this.allocator.free(this);
     }
 
     /* UInt32 */
@@ -70,6 +74,22 @@ public class GlBufferSegment {
         this.prev = prev;
     }
 
+    protected GlBufferSegment getNextFree() {
+        return this.nextFree;
+    }
+
+    protected void setNextFree(GlBufferSegment nextFree) {
+        this.nextFree = nextFree;
+    }
+
+    protected GlBufferSegment getPrevFree() {
+        return this.prevFree;
+    }
+
+    protected void setPrevFree(GlBufferSegment prevFree) {
+        this.prevFree = prevFree;
+    }
+
     protected void mergeInto(GlBufferSegment entry) {
         this.setLength(this.getLength() + entry.getLength());
         this.setNext(entry.getNext());
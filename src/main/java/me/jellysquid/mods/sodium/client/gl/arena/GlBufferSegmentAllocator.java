@@ -0,0 +1,577 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sub-allocates ranges of elements out of a linear address space for {@link GlBufferArena}. The allocator does not
+ * touch any graphics state, and instead returns the list of copies which must be performed whenever it moves
+ * existing segments.
+ *
+ * <p>Free segments are kept in segregated free lists, one for each power-of-two size class. Any segment within a
+ * size class larger than the request is guaranteed to fit, so finding a free segment only needs to search the
+ * request's own size class before picking the first entry of the next non-empty one. Neighboring free segments are
+ * coalesced in constant time when a segment is released, using the address-ordered links between segments.</p>
+ */
+public class GlBufferSegmentAllocator {
+    static final boolean CHECK_ASSERTIONS = false;
+
+    /**
+     * The number of size classes. Segment lengths are 32-bit unsigned integers, so each bit position has a class.
+     */
+    private static final int BIN_COUNT = 32;
+
+    private final GlBufferSegment[] freeBins = new GlBufferSegment[BIN_COUNT];
+    private int nonEmptyBins;
+
+    private GlBufferSegment head;
+
+    private long capacity;
+    private long used;
+    private int segmentCount;
+
+    public GlBufferSegmentAllocator(long capacity) {
+        this.capacity = capacity;
+
+        this.head = new GlBufferSegment(this, 0, capacity);
+        this.head.setFree(true);
+
+        this.insertFree(this.head);
+    }
+
+    /**
+     * Allocates a segment of the given size.
+     *
+     * @return The allocated segment, or null if no free segment was large enough
+     */
+    public GlBufferSegment alloc(long size) {
+        GlBufferSegment a = this.findFree(size);
+
+        if (a == null) {
+            return null;
+        }
+
+        this.removeFree(a);
+
+        GlBufferSegment result;
+
+        if (a.getLength() == size) {
+            a.setFree(false);
+
+            result = a;
+        } else {
+            GlBufferSegment b = new GlBufferSegment(this, a.getEnd() - size, size);
+            b.setNext(a.getNext());
+            b.setPrev(a);
+
+            if (b.getNext() != null) {
+                b.getNext()
+                        .setPrev(b);
+            }
+
+            a.setLength(a.getLength() - size);
+            a.setNext(b);
+
+            this.insertFree(a);
+
+            result = b;
+        }
+
+        this.used += result.getLength();
+        this.segmentCount++;
+        this.checkAssertions();
+
+        return result;
+    }
+
+    /**
+     * Returns whether a single segment of the given size could currently be allocated without moving any data.
+     */
+    public boolean canAllocate(long size) {
+        return this.findFree(size) != null;
+    }
+
+    private GlBufferSegment findFree(long size) {
+        int bin = size > 0 ? binIndex(size) : 0;
+
+        // Segments in the same size class as the request may still be too small, so search it for the best fit
+        GlBufferSegment best = null;
+
+        for (GlBufferSegment entry = this.freeBins[bin]; entry != null; entry = entry.getNextFree()) {
+            long length = entry.getLength();
+
+            if (length == size) {
+                return entry;
+            } else if (length > size && (best == null || best.getLength() > length)) {
+                best = entry;
+            }
+        }
+
+        if (best != null) {
+            return best;
+        }
+
+        // Any segment from a larger size class will fit, so take the head of the smallest one available
+        int largerBins = bin + 1 < BIN_COUNT ? this.nonEmptyBins & (-1 << (bin + 1)) : 0;
+
+        if (largerBins == 0) {
+            return null;
+        }
+
+        return this.freeBins[Integer.numberOfTrailingZeros(largerBins)];
+    }
+
+    public void free(GlBufferSegment entry) {
+        if (entry.isFree()) {
+            throw new IllegalStateException("Already freed");
+        }
+
+        entry.setFree(true);
+
+        this.used -= entry.getLength();
+        this.segmentCount--;
+
+        GlBufferSegment next = entry.getNext();
+
+        if (next != null && next.isFree()) {
+            this.removeFree(next);
+            entry.mergeInto(next);
+        }
+
+        GlBufferSegment prev = entry.getPrev();
+
+        if (prev != null && prev.isFree()) {
+            this.removeFree(prev);
+            prev.mergeInto(entry);
+
+            entry = prev;
+        }
+
+        this.insertFree(entry);
+        this.checkAssertions();
+    }
+
+    /**
+     * Packs every used segment against the end of an address space of the given capacity, leaving a single free
+     * segment at the start.
+     *
+     * @return The copies which must be performed to move the data of each segment to its new location
+     */
+    public List<PendingBufferCopyCommand> compact(long newCapacity) {
+        if (this.used > newCapacity) {
+            throw new UnsupportedOperationException("New capacity must be larger than used size");
+        }
+
+        this.checkAssertions();
+
+        long tail = newCapacity - this.used;
+
+        List<GlBufferSegment> usedSegments = this.getUsedSegments();
+        List<PendingBufferCopyCommand> pendingCopies = this.buildTransferList(usedSegments, tail);
+
+        Arrays.fill(this.freeBins, null);
+        this.nonEmptyBins = 0;
+
+        this.head = new GlBufferSegment(this, 0, tail);
+        this.head.setFree(true);
+
+        if (usedSegments.isEmpty()) {
+            this.head.setNext(null);
+        } else {
+            this.head.setNext(usedSegments.get(0));
+            this.head.getNext()
+                    .setPrev(this.head);
+        }
+
+        this.insertFree(this.head);
+        this.capacity = newCapacity;
+
+        this.checkAssertions();
+
+        return pendingCopies;
+    }
+
+    /**
+     * Extends the address space to the given capacity, making the added space available at the end.
+     */
+    public void expand(long newCapacity) {
+        if (newCapacity <= this.capacity) {
+            return;
+        }
+
+        GlBufferSegment last = this.head;
+
+        while (last.getNext() != null) {
+            last = last.getNext();
+        }
+
+        long extra = newCapacity - this.capacity;
+
+        if (last.isFree()) {
+            this.removeFree(last);
+            last.setLength(last.getLength() + extra);
+            this.insertFree(last);
+        } else {
+            GlBufferSegment segment = new GlBufferSegment(this, this.capacity, extra);
+            segment.setFree(true);
+            segment.setPrev(last);
+            last.setNext(segment);
+
+            this.insertFree(segment);
+        }
+
+        this.capacity = newCapacity;
+
+        this.checkAssertions();
+    }
+
+    /**
+     * Relocates used segments which sit between two free segments into other free space, so that their neighbors
+     * coalesce into a larger free segment. This stops as soon as a segment of the target size can be allocated or the
+     * copy budget has been exhausted.
+     *
+     * @param targetSize The size of the free segment which is needed
+     * @param maxCopyLength The maximum number of elements which may be moved
+     * @return The copies which must be performed to move the data of each relocated segment, in order
+     */
+    public List<PendingBufferCopyCommand> defragment(long targetSize, long maxCopyLength) {
+        List<PendingBufferCopyCommand> pendingCopies = new ArrayList<>();
+        long copied = 0;
+
+        GlBufferSegment seg = this.head;
+
+        while (seg != null && !this.canAllocate(targetSize)) {
+            GlBufferSegment next = seg.getNext();
+
+            if (next == null) {
+                break;
+            }
+
+            // The segment following a free segment is always in use, and is never modified by relocating this one
+            GlBufferSegment following = next.getNext();
+
+            if (!seg.isFree() && next.isFree() && seg.getPrev() != null && seg.getPrev().isFree()) {
+                long length = seg.getLength();
+
+                if (copied + length <= maxCopyLength) {
+                    long readOffset = seg.getOffset();
+
+                    if (this.relocate(seg)) {
+                        pendingCopies.add(new PendingBufferCopyCommand(readOffset, seg.getOffset(), length));
+                        copied += length;
+                    }
+                }
+            }
+
+            seg = next.isFree() ? following : next;
+        }
+
+        return pendingCopies;
+    }
+
+    /**
+     * Moves a used segment into another free segment, keeping the identity of the segment object so that any
+     * holders of it will observe the new offset.
+     */
+    private boolean relocate(GlBufferSegment segment) {
+        GlBufferSegment placeholder = this.alloc(segment.getLength());
+
+        if (placeholder == null) {
+            return false;
+        }
+
+        this.swap(segment, placeholder);
+        this.free(placeholder);
+
+        return true;
+    }
+
+    /**
+     * Exchanges the positions of two used segments of equal length.
+     */
+    private void swap(GlBufferSegment a, GlBufferSegment b) {
+        long offset = a.getOffset();
+        a.setOffset(b.getOffset());
+        b.setOffset(offset);
+
+        if (a.getNext() == b) {
+            swapAdjacent(a, b);
+        } else if (b.getNext() == a) {
+            swapAdjacent(b, a);
+        } else {
+            GlBufferSegment aPrev = a.getPrev(), aNext = a.getNext();
+            GlBufferSegment bPrev = b.getPrev(), bNext = b.getNext();
+
+            a.setPrev(bPrev);
+            a.setNext(bNext);
+            b.setPrev(aPrev);
+            b.setNext(aNext);
+
+            if (bPrev != null) {
+                bPrev.setNext(a);
+            }
+
+            if (bNext != null) {
+                bNext.setPrev(a);
+            }
+
+            if (aPrev != null) {
+                aPrev.setNext(b);
+            }
+
+            if (aNext != null) {
+                aNext.setPrev(b);
+            }
+        }
+
+        if (this.head == a) {
+            this.head = b;
+        } else if (this.head == b) {
+            this.head = a;
+        }
+    }
+
+    private static void swapAdjacent(GlBufferSegment first, GlBufferSegment second) {
+        GlBufferSegment prev = first.getPrev();
+        GlBufferSegment next = second.getNext();
+
+        second.setPrev(prev);
+        second.setNext(first);
+        first.setPrev(second);
+        first.setNext(next);
+
+        if (prev != null) {
+            prev.setNext(second);
+        }
+
+        if (next != null) {
+            next.setPrev(first);
+        }
+    }
+
+    private List<PendingBufferCopyCommand> buildTransferList(List<GlBufferSegment> usedSegments, long base) {
+        List<PendingBufferCopyCommand> pendingCopies = new ArrayList<>();
+        PendingBufferCopyCommand currentCopyCommand = null;
+
+        long writeOffset = base;
+
+        for (int i = 0; i < usedSegments.size(); i++) {
+            GlBufferSegment s = usedSegments.get(i);
+
+            if (currentCopyCommand == null || currentCopyCommand.getReadOffset() + currentCopyCommand.getLength() != s.getOffset()) {
+                if (currentCopyCommand != null) {
+                    pendingCopies.add(currentCopyCommand);
+                }
+
+                currentCopyCommand = new PendingBufferCopyCommand(s.getOffset(), writeOffset, s.getLength());
+            } else {
+                currentCopyCommand.setLength(currentCopyCommand.getLength() + s.getLength());
+            }
+
+            s.setOffset(writeOffset);
+
+            if (i + 1 < usedSegments.size()) {
+                s.setNext(usedSegments.get(i + 1));
+            } else {
+                s.setNext(null);
+            }
+
+            if (i - 1 < 0) {
+                s.setPrev(null);
+            } else {
+                s.setPrev(usedSegments.get(i - 1));
+            }
+
+            writeOffset += s.getLength();
+        }
+
+        if (currentCopyCommand != null) {
+            pendingCopies.add(currentCopyCommand);
+        }
+
+        return pendingCopies;
+    }
+
+    private ArrayList<GlBufferSegment> getUsedSegments() {
+        ArrayList<GlBufferSegment> used = new ArrayList<>();
+        GlBufferSegment seg = this.head;
+
+        while (seg != null) {
+            GlBufferSegment next = seg.getNext();
+
+            if (!seg.isFree()) {
+                used.add(seg);
+            }
+
+            seg = next;
+        }
+
+        return used;
+    }
+
+    private void insertFree(GlBufferSegment segment) {
+        long length = segment.getLength();
+
+        // Empty segments can never satisfy an allocation, so they are not tracked
+        if (length == 0) {
+            return;
+        }
+
+        int bin = binIndex(length);
+        GlBufferSegment first = this.freeBins[bin];
+
+        segment.setPrevFree(null);
+        segment.setNextFree(first);
+
+        if (first != null) {
+            first.setPrevFree(segment);
+        }
+
+        this.freeBins[bin] = segment;
+        this.nonEmptyBins |= 1 << bin;
+    }
+
+    private void removeFree(GlBufferSegment segment) {
+        long length = segment.getLength();
+
+        if (length == 0) {
+            return;
+        }
+
+        int bin = binIndex(length);
+
+        GlBufferSegment prev = segment.getPrevFree();
+        GlBufferSegment next = segment.getNextFree();
+
+        if (prev != null) {
+            prev.setNextFree(next);
+        } else {
+            this.freeBins[bin] = next;
+        }
+
+        if (next != null) {
+            next.setPrevFree(prev);
+        }
+
+        segment.setPrevFree(null);
+        segment.setNextFree(null);
+
+        if (this.freeBins[bin] == null) {
+            this.nonEmptyBins &= ~(1 << bin);
+        }
+    }
+
+    private static int binIndex(long length) {
+        return 63 - Long.numberOfLeadingZeros(length);
+    }
+
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    public long getUsed() {
+        return this.used;
+    }
+
+    public long getFree() {
+        return this.capacity - this.used;
+    }
+
+    public int getSegmentCount() {
+        return this.segmentCount;
+    }
+
+    public boolean isEmpty() {
+        return this.used <= 0;
+    }
+
+    private void checkAssertions() {
+        if (CHECK_ASSERTIONS) {
+            this.checkAssertions0();
+        }
+    }
+
+    private void checkAssertions0() {
+        GlBufferSegment seg = this.head;
+        long used = 0;
+        int freeTracked = 0;
+
+        while (seg != null) {
+            // Note: getOffset() returns unsigned value so it's never negative
+            if (seg.getEnd() > this.capacity) {
+                throw new IllegalStateException("segment.end > arena.capacity: out of bounds");
+            }
+
+            if (!seg.isFree()) {
+                used += seg.getLength();
+            } else if (seg.getLength() > 0) {
+                freeTracked++;
+            }
+
+            GlBufferSegment next = seg.getNext();
+
+            if (next != null) {
+                if (next.getOffset() < seg.getEnd()) {
+                    throw new IllegalStateException("segment.next.start < segment.end: overlapping segments (corrupted)");
+                } else if (next.getOffset() > seg.getEnd()) {
+                    throw new IllegalStateException("segment.next.start > segment.end: not truly connected (sparsity error)");
+                }
+
+                if (next.isFree() && next.getNext() != null) {
+                    if (next.getNext().isFree()) {
+                        throw new IllegalStateException("segment.free && segment.next.free: not merged consecutive segments");
+                    }
+                }
+            }
+
+            GlBufferSegment prev = seg.getPrev();
+
+            if (prev != null) {
+                if (prev.getEnd() > seg.getOffset()) {
+                    throw new IllegalStateException("segment.prev.end > segment.start: overlapping segments (corrupted)");
+                } else if (prev.getEnd() < seg.getOffset()) {
+                    throw new IllegalStateException("segment.prev.end < segment.start: not truly connected (sparsity error)");
+                }
+
+                if (prev.isFree() && prev.getPrev() != null) {
+                    if (prev.getPrev().isFree()) {
+                        throw new IllegalStateException("segment.free && segment.prev.free: not merged consecutive segments");
+                    }
+                }
+            }
+
+            seg = next;
+        }
+
+        for (int bin = 0; bin < BIN_COUNT; bin++) {
+            if ((this.freeBins[bin] != null) != ((this.nonEmptyBins & (1 << bin)) != 0)) {
+                throw new IllegalStateException("size class mask does not match free lists");
+            }
+
+            for (GlBufferSegment entry = this.freeBins[bin]; entry != null; entry = entry.getNextFree()) {
+                if (!entry.isFree()) {
+                    throw new IllegalStateException("used segment in free list");
+                } else if (binIndex(entry.getLength()) != bin) {
+                    throw new IllegalStateException("free segment in wrong size class");
+                }
+
+                freeTracked--;
+            }
+        }
+
+        if (freeTracked != 0) {
+            throw new IllegalStateException("free lists do not contain every free segment");
+        }
+
+        if (this.used < 0) {
+            throw new IllegalStateException("arena.used < 0: failure to track");
+        } else if (this.used > this.capacity) {
+            throw new IllegalStateException("arena.used > arena.capacity: failure to track");
+        }
+
+        if (this.used != used) {
+            throw new IllegalStateException("arena.used is invalid");
+        }
+    }
+}
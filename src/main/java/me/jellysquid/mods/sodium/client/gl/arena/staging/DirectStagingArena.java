@@ -0,0 +1,187 @@
+package me.jellysquid.mods.sodium.client.gl.arena.staging;
+
+import it.unimi.dsi.fastutil.PriorityQueue;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+import me.jellysquid.mods.sodium.client.gl.arena.GlBufferSegment;
+import me.jellysquid.mods.sodium.client.gl.arena.GlBufferSegmentAllocator;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferMapFlags;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferMapping;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferStorageFlags;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlImmutableBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.gl.sync.GlFence;
+import me.jellysquid.mods.sodium.client.gl.util.EnumBitField;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A persistently mapped buffer which other threads can reserve memory from, so that data written into it (such as the
+ * meshes of chunk build workers) only needs to be copied on the GPU when it is uploaded. Unlike the ring buffer of
+ * {@link MappedStagingBuffer}, reservations can be released in any order, so they are sub-allocated in blocks of
+ * {@link #BLOCK_SIZE} bytes using a {@link GlBufferSegmentAllocator}.
+ *
+ * <p>A released reservation may still be read by copies which the GPU hasn't executed yet, so it only becomes
+ * available again once a fence which was issued after its release has been signalled.</p>
+ */
+class DirectStagingArena implements NativeBuffer.Owner {
+    private static final int BLOCK_SIZE = 64;
+
+    private static final EnumBitField<GlBufferStorageFlags> STORAGE_FLAGS =
+            EnumBitField.of(GlBufferStorageFlags.PERSISTENT, GlBufferStorageFlags.CLIENT_STORAGE, GlBufferStorageFlags.MAP_WRITE);
+
+    private static final EnumBitField<GlBufferMapFlags> MAP_FLAGS =
+            EnumBitField.of(GlBufferMapFlags.PERSISTENT, GlBufferMapFlags.INVALIDATE_BUFFER, GlBufferMapFlags.WRITE, GlBufferMapFlags.EXPLICIT_FLUSH);
+
+    private final GlImmutableBuffer buffer;
+    private final GlBufferMapping map;
+
+    private final long address;
+    private final int capacity;
+
+    // These are guarded by the arena's monitor, as reservations are made and released from other threads
+    private final GlBufferSegmentAllocator allocator;
+    private final Long2ReferenceOpenHashMap<GlBufferSegment> reservations = new Long2ReferenceOpenHashMap<>();
+    private List<GlBufferSegment> pendingReleases = new ArrayList<>();
+    private boolean deleted;
+
+    private final PriorityQueue<FencedRelease> fencedReleases = new ObjectArrayFIFOQueue<>();
+
+    DirectStagingArena(CommandList commandList, int capacity) {
+        this.buffer = commandList.createImmutableBuffer(capacity, STORAGE_FLAGS);
+        this.map = commandList.mapBuffer(this.buffer, 0, capacity, MAP_FLAGS);
+
+        this.address = MemoryUtil.memAddress(this.map.getMemoryBuffer());
+        this.capacity = capacity;
+
+        this.allocator = new GlBufferSegmentAllocator(capacity / BLOCK_SIZE);
+    }
+
+    public synchronized @Nullable NativeBuffer tryReserve(int length) {
+        if (this.deleted) {
+            return null;
+        }
+
+        GlBufferSegment segment = this.allocator.alloc(Math.max(1, (length + BLOCK_SIZE - 1) / BLOCK_SIZE));
+
+        if (segment == null) {
+            return null;
+        }
+
+        long offset = segment.getOffset() * BLOCK_SIZE;
+        this.reservations.put(offset, segment);
+
+        return new NativeBuffer(this.address + offset, (int) (segment.getLength() * BLOCK_SIZE), length, this);
+    }
+
+    @Override
+    public synchronized void release(long address, int capacity) {
+        // The memory of any outstanding reservations went away with the mapping
+        if (this.deleted) {
+            return;
+        }
+
+        GlBufferSegment segment = this.reservations.remove(address - this.address);
+
+        if (segment == null) {
+            throw new IllegalStateException("Released memory was not reserved from this arena");
+        }
+
+        this.pendingReleases.add(segment);
+    }
+
+    /**
+     * {@return true if the given data lies within the memory of this arena}
+     */
+    public boolean contains(ByteBuffer data) {
+        long start = MemoryUtil.memAddress(data);
+
+        return start >= this.address && start + data.remaining() <= this.address + this.capacity;
+    }
+
+    public void enqueueCopy(CommandList commandList, ByteBuffer data, GlBuffer dst, long writeOffset) {
+        int readOffset = (int) (MemoryUtil.memAddress(data) - this.address);
+        int length = data.remaining();
+
+        commandList.flushMappedRange(this.map, readOffset, length);
+        commandList.copyBufferSubData(this.buffer, dst, readOffset, writeOffset, length);
+    }
+
+    /**
+     * Issues a fence guarding the reservations which were released since the last call. As the fence follows any
+     * copies which were issued for them, they can be reused once it has been signalled.
+     */
+    public void fenceReleases(CommandList commandList) {
+        List<GlBufferSegment> segments;
+
+        synchronized (this) {
+            if (this.pendingReleases.isEmpty()) {
+                return;
+            }
+
+            segments = this.pendingReleases;
+            this.pendingReleases = new ArrayList<>();
+        }
+
+        this.fencedReleases.enqueue(new FencedRelease(commandList.createFence(), segments));
+    }
+
+    /**
+     * Makes the reservations guarded by any signalled fences available again.
+     */
+    public void flip() {
+        while (!this.fencedReleases.isEmpty()) {
+            var release = this.fencedReleases.first();
+            var fence = release.fence();
+
+            if (!fence.isCompleted()) {
+                break;
+            }
+
+            fence.delete();
+
+            this.fencedReleases.dequeue();
+
+            synchronized (this) {
+                for (GlBufferSegment segment : release.segments()) {
+                    this.allocator.free(segment);
+                }
+            }
+        }
+    }
+
+    public void delete(CommandList commandList) {
+        while (!this.fencedReleases.isEmpty()) {
+            var fence = this.fencedReleases.dequeue().fence();
+            fence.sync();
+            fence.delete();
+        }
+
+        synchronized (this) {
+            this.deleted = true;
+            this.reservations.clear();
+            this.pendingReleases.clear();
+        }
+
+        commandList.unmap(this.map);
+        commandList.deleteBuffer(this.buffer);
+    }
+
+    public synchronized long getUsedBytes() {
+        return this.allocator.getUsed() * BLOCK_SIZE;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    private record FencedRelease(GlFence fence, List<GlBufferSegment> segments) {
+
+    }
+}
@@ -9,6 +9,8 @@ import me.jellysquid.mods.sodium.client.gl.functions.BufferStorageFunctions;
 import me.jellysquid.mods.sodium.client.gl.sync.GlFence;
 import me.jellysquid.mods.sodium.client.gl.util.EnumBitField;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -24,6 +26,7 @@ public class MappedStagingBuffer implements StagingBuffer {
             EnumBitField.of(GlBufferMapFlags.PERSISTENT, GlBufferMapFlags.INVALIDATE_BUFFER, GlBufferMapFlags.WRITE, GlBufferMapFlags.EXPLICIT_FLUSH);
 
     private final FallbackStagingBuffer fallbackStagingBuffer;
+    private final @Nullable DirectStagingArena directArena;
 
     private final MappedBuffer mappedBuffer;
     private final PriorityQueue<CopyCommand> pendingCopies = new ObjectArrayFIFOQueue<>();
@@ -36,10 +39,18 @@ public class MappedStagingBuffer implements StagingBuffer {
     private int remaining;
 
     public MappedStagingBuffer(CommandList commandList) {
-        this(commandList, 1024 * 1024 * 16 /* 16 MB */);
+        this(commandList, false);
     }
 
-    public MappedStagingBuffer(CommandList commandList, int capacity) {
+    public MappedStagingBuffer(CommandList commandList, boolean allowReservations) {
+        this(commandList, 1024 * 1024 * 16 /* 16 MB */, allowReservations ? 1024 * 1024 * 32 /* 32 MB */ : 0);
+    }
+
+    /**
+     * @param reservableCapacity The size of the separate mapped buffer which {@link #tryReserve(int)} takes memory
+     *                           from, or zero to not support reservations
+     */
+    public MappedStagingBuffer(CommandList commandList, int capacity, int reservableCapacity) {
         GlImmutableBuffer buffer = commandList.createImmutableBuffer(capacity, STORAGE_FLAGS);
         GlBufferMapping map = commandList.mapBuffer(buffer, 0, capacity, MAP_FLAGS);
 
@@ -47,14 +58,28 @@ public class MappedStagingBuffer implements StagingBuffer {
         this.fallbackStagingBuffer = new FallbackStagingBuffer(commandList);
         this.capacity = capacity;
         this.remaining = this.capacity;
+
+        this.directArena = reservableCapacity > 0 ? new DirectStagingArena(commandList, reservableCapacity) : null;
     }
 
     public static boolean isSupported(RenderDevice instance) {
         return instance.getDeviceFunctions().getBufferStorageFunctions() != BufferStorageFunctions.NONE;
     }
 
+    @Override
+    public @Nullable NativeBuffer tryReserve(int length) {
+        return this.directArena != null ? this.directArena.tryReserve(length) : null;
+    }
+
     @Override
     public void enqueueCopy(CommandList commandList, ByteBuffer data, GlBuffer dst, long writeOffset) {
+        // Data which was written into reserved memory is already mapped, and only needs to be copied by the GPU
+        if (this.directArena != null && this.directArena.contains(data)) {
+            this.directArena.enqueueCopy(commandList, data, dst, writeOffset);
+
+            return;
+        }
+
         int length = data.remaining();
 
         if (length > this.remaining) {
@@ -88,6 +113,10 @@ public class MappedStagingBuffer implements StagingBuffer {
 
     @Override
     public void flush(CommandList commandList) {
+        if (this.directArena != null) {
+            this.directArena.fenceReleases(commandList);
+        }
+
         if (this.pendingCopies.isEmpty()) {
             return;
         }
@@ -146,6 +175,11 @@ public class MappedStagingBuffer implements StagingBuffer {
 
         this.mappedBuffer.delete(commandList);
         this.fallbackStagingBuffer.delete(commandList);
+
+        if (this.directArena != null) {
+            this.directArena.delete(commandList);
+        }
+
         this.pendingCopies.clear();
     }
 
@@ -164,6 +198,10 @@ public class MappedStagingBuffer implements StagingBuffer {
             this.fencedRegions.dequeue();
             this.remaining += region.length();
         }
+
+        if (this.directArena != null) {
+            this.directArena.flip();
+        }
     }
 
     @Override
@@ -207,6 +245,11 @@ public class MappedStagingBuffer implements StagingBuffer {
 
     @Override
     public String toString() {
+        if (this.directArena != null) {
+            return "Mapped (%s/%s MiB, direct %s/%s MiB)".formatted(MathUtil.toMib(this.remaining), MathUtil.toMib(this.capacity),
+                    MathUtil.toMib(this.directArena.getCapacity() - this.directArena.getUsedBytes()), MathUtil.toMib(this.directArena.getCapacity()));
+        }
+
         return "Mapped (%s/%s MiB)".formatted(MathUtil.toMib(this.remaining), MathUtil.toMib(this.capacity));
     }
 }
@@ -2,12 +2,26 @@ package me.jellysquid.mods.sodium.client.gl.arena.staging;
 
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.ByteBuffer;
 
 public interface StagingBuffer {
     void enqueueCopy(CommandList commandList, ByteBuffer data, GlBuffer dst, long writeOffset);
 
+    /**
+     * Reserves memory within the staging buffer itself, which the caller can fill and later pass to
+     * {@link #enqueueCopy(CommandList, ByteBuffer, GlBuffer, long)} without the data being copied again on the CPU.
+     * Unlike the other methods, this can be called from any thread.
+     *
+     * @return A buffer of the given length, or null if the staging buffer does not support reservations or has no
+     * room left, in which case the caller should use its own memory instead
+     */
+    default @Nullable NativeBuffer tryReserve(int length) {
+        return null;
+    }
+
     void flush(CommandList commandList);
 
     void delete(CommandList commandList);
@@ -1,5 +1,7 @@
 package me.jellysquid.mods.sodium.client.gl.device;
 
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTag;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTracker;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryUtil;
 import org.lwjgl.system.Pointer;
@@ -19,12 +21,14 @@ public final class MultiDrawBatch {
     public int size;
     public boolean isFilled;
 
+    private int indexBufferSize = -1;
+
     public MultiDrawBatch(int capacity) {
-        this.pElementPointer = MemoryUtil.nmemAlignedAlloc(32, (long) capacity * Pointer.POINTER_SIZE);
+        this.pElementPointer = NativeMemoryTracker.alignedAlloc(NativeMemoryTag.DRAW_BATCH, 32, (long) capacity * Pointer.POINTER_SIZE);
         MemoryUtil.memSet(this.pElementPointer, 0x0, (long) capacity * Pointer.POINTER_SIZE);
 
-        this.pElementCount = MemoryUtil.nmemAlignedAlloc(32, (long) capacity * Integer.BYTES);
-        this.pBaseVertex = MemoryUtil.nmemAlignedAlloc(32, (long) capacity * Integer.BYTES);
+        this.pElementCount = NativeMemoryTracker.alignedAlloc(NativeMemoryTag.DRAW_BATCH, 32, (long) capacity * Integer.BYTES);
+        this.pBaseVertex = NativeMemoryTracker.alignedAlloc(NativeMemoryTag.DRAW_BATCH, 32, (long) capacity * Integer.BYTES);
 
         this.capacity = capacity;
     }
@@ -40,12 +44,13 @@ public final class MultiDrawBatch {
     public void clear() {
         this.size = 0;
         this.isFilled = false;
+        this.indexBufferSize = -1;
     }
 
     public void delete() {
-        MemoryUtil.nmemAlignedFree(this.pElementPointer);
-        MemoryUtil.nmemAlignedFree(this.pElementCount);
-        MemoryUtil.nmemAlignedFree(this.pBaseVertex);
+        NativeMemoryTracker.alignedFree(NativeMemoryTag.DRAW_BATCH, this.pElementPointer, (long) this.capacity * Pointer.POINTER_SIZE);
+        NativeMemoryTracker.alignedFree(NativeMemoryTag.DRAW_BATCH, this.pElementCount, (long) this.capacity * Integer.BYTES);
+        NativeMemoryTracker.alignedFree(NativeMemoryTag.DRAW_BATCH, this.pBaseVertex, (long) this.capacity * Integer.BYTES);
     }
 
     public boolean isEmpty() {
@@ -53,12 +58,21 @@ public final class MultiDrawBatch {
     }
 
     public int getIndexBufferSize() {
+        // The batch is reused across frames while it remains filled, so only scan the commands once
+        if (this.isFilled && this.indexBufferSize >= 0) {
+            return this.indexBufferSize;
+        }
+
         int elements = 0;
 
         for (var index = 0; index < this.size; index++) {
             elements = Math.max(elements, MemoryUtil.memGetInt(this.pElementCount + ((long) index * Integer.BYTES)));
         }
 
+        if (this.isFilled) {
+            this.indexBufferSize = elements;
+        }
+
         return elements;
     }
 }
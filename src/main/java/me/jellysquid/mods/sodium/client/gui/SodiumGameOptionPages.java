@@ -432,6 +432,16 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setId(StandardOptions.Option.SHARED_GEOMETRY_BUFFERS)
+                        .setName(Component.translatable("embeddium.options.use_shared_geometry_buffers.name"))
+                        .setTooltip(Component.translatable("embeddium.options.use_shared_geometry_buffers.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.advanced.useSharedGeometryBuffers = value, opts -> opts.advanced.useSharedGeometryBuffers)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .add(OptionImpl.createBuilder(int.class, sodiumOpts)
                         .setId(StandardOptions.Option.CPU_FRAMES_AHEAD)
                         .setName(Component.translatable("sodium.options.cpu_render_ahead_limit.name"))
@@ -17,6 +17,8 @@ import java.lang.reflect.Modifier;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static me.jellysquid.mods.sodium.client.SodiumClientMod.MODID;
 
@@ -27,6 +29,7 @@ public class SodiumGameOptions {
     public final AdvancedSettings advanced = new AdvancedSettings();
     public final PerformanceSettings performance = new PerformanceSettings();
     public final NotificationSettings notifications = new NotificationSettings();
+    public final BlockEntitySettings blockEntities = new BlockEntitySettings();
 
     private boolean readOnly;
 
@@ -58,9 +61,42 @@ public class SodiumGameOptions {
     public static class AdvancedSettings {
         public boolean enableMemoryTracing = false;
         public boolean useAdvancedStagingBuffers = true;
+        public boolean useSharedGeometryBuffers = false;
+
+        /**
+         * Whether chunk build workers should write their meshes directly into mapped staging memory, which saves a
+         * copy on the render thread. This has no effect unless {@link #useAdvancedStagingBuffers} is also enabled.
+         */
+        public boolean useDirectStagingUploads = false;
+
+        /**
+         * Whether adjacent, identical faces of solid blocks should be merged into larger quads during chunk builds, see
+         * {@code GreedyFaceMerger}. This is only supported with the compact vertex format and without shader packs.
+         * Merged quads are split wherever other geometry in the section would meet them partway along an edge, which
+         * could otherwise leave cracks along those seams. This isn't possible for the geometry of neighbouring sections.
+         */
+        public boolean useGreedyFaceMerging = false;
+
         public boolean disableIncompatibleModWarnings = false;
 
         public int cpuRenderAheadLimit = 3;
+
+        public int chunkUploadSizeLimitMiB = 16;
+        public int chunkUploadTimeLimitMs = 4;
+
+        public boolean useParallelEntityGeometry = false;
+
+        /**
+         * Whether the timings of each frame should be kept for the render profiler overlay. The timings are always
+         * available to JFR recordings regardless of this option.
+         */
+        public boolean enableRenderProfiler = false;
+
+        /**
+         * Whether the time spent rendering each block model should be recorded during chunk builds, see
+         * {@code ChunkBuildTelemetry}. This slows down chunk builds while enabled.
+         */
+        public boolean enableChunkBuildTelemetry = false;
     }
 
     public static class QualitySettings {
@@ -72,6 +108,68 @@ public class SodiumGameOptions {
         public boolean useQuadNormalsForShading = false;
     }
 
+    public static class BlockEntitySettings {
+        /**
+         * Whether block entities can be rendered at reduced rates or skipped based on their distance and size.
+         */
+        public boolean useRenderThrottling = false;
+
+        /**
+         * The distance (in blocks) within which block entities are always rendered every frame. Beyond it, the interval
+         * between frames in which a block entity is rendered grows by one frame for each multiple of this distance.
+         */
+        public int fullRateDistance = 32;
+
+        /**
+         * The largest number of frames between renders of a far away block entity.
+         */
+        public int maxFrameInterval = 8;
+
+        /**
+         * The size (in pixels) below which block entities are not rendered at all, or zero to always render them.
+         */
+        public float minScreenSize = 1.0f;
+
+        /**
+         * Overrides of the above settings for each type of block entity, keyed by the registry name of the type.
+         */
+        public Map<String, BlockEntityTypeSettings> typeOverrides = createDefaultTypeOverrides();
+
+        private static Map<String, BlockEntityTypeSettings> createDefaultTypeOverrides() {
+            var overrides = new LinkedHashMap<String, BlockEntityTypeSettings>();
+
+            // The text on signs only changes when their data is updated, apart from the outline of glowing text which is
+            // handled by BlockEntityRenderThrottler
+            for (var type : new String[] { "minecraft:sign", "minecraft:hanging_sign" }) {
+                var settings = new BlockEntityTypeSettings();
+                settings.cacheStaticOutput = true;
+
+                overrides.put(type, settings);
+            }
+
+            return overrides;
+        }
+    }
+
+    /**
+     * The settings for a single type of block entity. Any setting which is absent uses the global value.
+     */
+    public static class BlockEntityTypeSettings {
+        /**
+         * Whether block entities of this type can be rendered at reduced rates when far away.
+         */
+        public Boolean throttle;
+
+        /**
+         * Whether the output of block entities of this type only depends on their data, block state, and light, so that
+         * it can be recorded once and replayed until one of these changes. Signs with glowing text are never cached this
+         * way, as their outline depends on the distance to the camera.
+         */
+        public Boolean cacheStaticOutput;
+
+        public Float minScreenSize;
+    }
+
     public static class NotificationSettings {
         public boolean forceDisableDonationPrompts = false;
 
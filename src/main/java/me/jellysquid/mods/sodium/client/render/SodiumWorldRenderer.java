@@ -7,14 +7,17 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.SheetedDecalTextureGenerator;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.blaze3d.vertex.VertexMultiConsumer;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
 import me.jellysquid.mods.sodium.client.model.quad.blender.BlendedColorProvider;
+import me.jellysquid.mods.sodium.client.render.blockentity.BlockEntityRenderThrottler;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderMatrices;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSectionManager;
+import me.jellysquid.mods.sodium.client.render.entity.EntityCullingState;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderList;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.SortedRenderLists;
 import me.jellysquid.mods.sodium.client.render.chunk.map.ChunkStatus;
@@ -23,6 +26,8 @@ import me.jellysquid.mods.sodium.client.render.chunk.map.ChunkTrackerHolder;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderProfiler;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderStage;
 import me.jellysquid.mods.sodium.client.render.viewport.Viewport;
 import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 import me.jellysquid.mods.sodium.client.util.iterator.ByteIterator;
@@ -47,6 +52,7 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.fml.loading.FMLLoader;
+import org.embeddedt.embeddium.api.render.chunk.SectionVisibility;
 
 import java.util.*;
 import java.util.function.Consumer;
@@ -69,10 +75,15 @@ public class SodiumWorldRenderer {
 
     private boolean useEntityCulling;
 
+    private int entityCullingPass;
+    private final Long2IntOpenHashMap entityCullingBuckets = new Long2IntOpenHashMap();
+
     private Viewport currentViewport;
 
     private RenderSectionManager renderSectionManager;
 
+    private final BlockEntityRenderThrottler blockEntityThrottler = new BlockEntityRenderThrottler();
+
     /**
      * @return The SodiumWorldRenderer based on the current dimension
      */
@@ -134,6 +145,8 @@ public class SodiumWorldRenderer {
             this.renderSectionManager = null;
         }
 
+        this.blockEntityThrottler.clear();
+
         this.world = null;
     }
 
@@ -158,7 +171,7 @@ public class SodiumWorldRenderer {
      * @return True if no chunks are pending rebuilds
      */
     public boolean isTerrainRenderComplete() {
-        return this.renderSectionManager.getBuilder().isBuildQueueEmpty();
+        return this.renderSectionManager.getBuilder().isBuildQueueEmpty() && this.renderSectionManager.isUploadQueueEmpty();
     }
 
     /**
@@ -235,6 +248,10 @@ public class SodiumWorldRenderer {
 
         this.renderSectionManager.tickVisibleRenders();
 
+        profiler.popPush("entity_culling");
+
+        this.cullEntities();
+
         profiler.pop();
 
         Entity.setViewScale(Mth.clamp((double) this.client.options.getEffectiveRenderDistance() / 8.0D, 1.0D, 2.5D) * this.client.options.entityDistanceScaling().get());
@@ -413,8 +430,14 @@ public class SodiumWorldRenderer {
 
         this.blockEntityRequestedOutline = false;
 
+        this.blockEntityThrottler.beginFrame();
+
+        long start = RenderProfiler.begin();
+
         this.renderBlockEntities(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer);
         this.renderGlobalBlockEntities(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer);
+
+        RenderProfiler.end(RenderStage.RENDER_BLOCK_ENTITIES, start);
     }
 
     private void renderBlockEntities(PoseStack matrices,
@@ -455,6 +478,9 @@ public class SodiumWorldRenderer {
 
                     if (blockEntity.hasCustomOutlineRendering(this.client.player)) {
                         this.blockEntityRequestedOutline = true;
+                    } else if (this.blockEntityThrottler.isActive() && !blockBreakingProgressions.containsKey(blockEntity.getBlockPos().asLong()) &&
+                            this.blockEntityThrottler.render(blockEntity, matrices, immediate, tickDelta, x, y, z, blockEntityRenderer)) {
+                        continue;
                     }
 
                     renderBlockEntity(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer, blockEntity);
@@ -543,8 +569,9 @@ public class SodiumWorldRenderer {
 
 
 
-    // the volume of a section multiplied by the number of sections to be checked at most
-    private static final double MAX_ENTITY_CHECK_VOLUME = 16 * 16 * 16 * 15;
+    // The number of sections along any axis of an entity's box above which it is not checked against the visible
+    // sections, as it is already culled against the frustum
+    private static final int MAX_ENTITY_CHECK_SECTIONS = 32;
 
     private static boolean isInfiniteExtentsBox(AABB box) {
         return Double.isInfinite(box.minX) || Double.isInfinite(box.minY) || Double.isInfinite(box.minZ)
@@ -560,6 +587,36 @@ public class SodiumWorldRenderer {
             return true;
         }
 
+        // Use the result of the culling pass for this frame if the entity was present when it ran
+        if (entity instanceof EntityCullingState state && state.embeddium$getCullingPass() == this.entityCullingPass) {
+            return state.embeddium$isVisible();
+        }
+
+        return this.computeEntityVisibility(entity);
+    }
+
+    /**
+     * Computes the visibility of all entities in the world at once, after the visible sections have been determined.
+     * Entities are bucketed by the range of sections their box covers, so that crowds of entities in the same place
+     * only need to be checked against the visible sections once.
+     */
+    private void cullEntities() {
+        this.entityCullingPass++;
+
+        if (!this.useEntityCulling) {
+            return;
+        }
+
+        this.entityCullingBuckets.clear();
+
+        for (Entity entity : this.world.entitiesForRendering()) {
+            if (entity instanceof EntityCullingState state) {
+                state.embeddium$setVisibility(this.entityCullingPass, this.computeEntityVisibility(entity));
+            }
+        }
+    }
+
+    private boolean computeEntityVisibility(Entity entity) {
         // Ensure entities with outlines or nametags are always visible
         if (this.client.shouldEntityAppearGlowing(entity) || entity.shouldShowName()) {
             return true;
@@ -567,47 +624,95 @@ public class SodiumWorldRenderer {
 
         AABB box = entity.getBoundingBoxForCulling();
 
-
         if (isInfiniteExtentsBox(box)) {
             return true;
         }
 
-        // bail on very large entities to avoid checking many sections
-        double entityVolume = (box.maxX - box.minX) * (box.maxY - box.minY) * (box.maxZ - box.minZ);
-        if (entityVolume > MAX_ENTITY_CHECK_VOLUME) {
-            // TODO: do a frustum check instead, even large entities aren't visible if they're outside the frustum
+        if (this.isOutsideWorldHeight(box.minY, box.maxY)) {
             return true;
         }
 
-        return this.isBoxVisible(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
-    }
+        int minX = getMinSectionCoord(box.minX);
+        int minY = getMinSectionCoord(box.minY);
+        int minZ = getMinSectionCoord(box.minZ);
 
-    public boolean isBoxVisible(double x1, double y1, double z1, double x2, double y2, double z2) {
-        // Boxes outside the valid world height will never map to a rendered chunk
-        // Always render these boxes or they'll be culled incorrectly!
-        if (y2 < this.world.getMinBuildHeight() + 0.5D || y1 > this.world.getMaxBuildHeight() - 0.5D) {
+        int maxX = getMaxSectionCoord(box.maxX);
+        int maxY = getMaxSectionCoord(box.maxY);
+        int maxZ = getMaxSectionCoord(box.maxZ);
+
+        int sizeX = maxX - minX, sizeY = maxY - minY, sizeZ = maxZ - minZ;
+
+        // Very large entities are only culled against the frustum, which has already been done by vanilla
+        if (Math.max(sizeX, Math.max(sizeY, sizeZ)) >= MAX_ENTITY_CHECK_SECTIONS) {
             return true;
         }
 
-        int minX = SectionPos.posToSectionCoord(x1 - 0.5D);
-        int minY = SectionPos.posToSectionCoord(y1 - 0.5D);
-        int minZ = SectionPos.posToSectionCoord(z1 - 0.5D);
+        var visibleSections = this.renderSectionManager.getVisibleSections();
 
-        int maxX = SectionPos.posToSectionCoord(x2 + 0.5D);
-        int maxY = SectionPos.posToSectionCoord(y2 + 0.5D);
-        int maxZ = SectionPos.posToSectionCoord(z2 + 0.5D);
+        // Most entities cover no more than two sections along each axis, so they can share their result with any other
+        // entity covering the same range of sections
+        if ((sizeX | sizeY | sizeZ) > 1) {
+            return visibleSections.isAnySectionVisible(minX, minY, minZ, maxX, maxY, maxZ);
+        }
 
-        for (int x = minX; x <= maxX; x++) {
-            for (int z = minZ; z <= maxZ; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    if (this.renderSectionManager.isSectionVisible(x, y, z)) {
-                        return true;
-                    }
-                }
+        long key = SectionPos.asLong(minX, minY, minZ);
+        int bucket = sizeX | (sizeY << 1) | (sizeZ << 2);
+
+        // The low 8 bits of each entry mark which ranges have been computed, and the high 8 bits mark which are visible
+        int entry = this.entityCullingBuckets.get(key);
+
+        if ((entry & (1 << bucket)) == 0) {
+            entry |= 1 << bucket;
+
+            if (visibleSections.isAnySectionVisible(minX, minY, minZ, maxX, maxY, maxZ)) {
+                entry |= 1 << (8 + bucket);
             }
+
+            this.entityCullingBuckets.put(key, entry);
         }
 
-        return false;
+        return (entry & (1 << (8 + bucket))) != 0;
+    }
+
+    public boolean isBoxVisible(double x1, double y1, double z1, double x2, double y2, double z2) {
+        if (this.isOutsideWorldHeight(y1, y2)) {
+            return true;
+        }
+
+        int minX = getMinSectionCoord(x1);
+        int minY = getMinSectionCoord(y1);
+        int minZ = getMinSectionCoord(z1);
+
+        int maxX = getMaxSectionCoord(x2);
+        int maxY = getMaxSectionCoord(y2);
+        int maxZ = getMaxSectionCoord(z2);
+
+        return this.renderSectionManager.getVisibleSections()
+                .isAnySectionVisible(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Boxes outside the valid world height will never map to a rendered chunk. Always render these boxes or they'll be
+     * culled incorrectly!
+     */
+    private boolean isOutsideWorldHeight(double minY, double maxY) {
+        return maxY < this.world.getMinBuildHeight() + 0.5D || minY > this.world.getMaxBuildHeight() - 0.5D;
+    }
+
+    // Boxes are grown by half a block on each side before being mapped to sections
+    private static int getMinSectionCoord(double min) {
+        return SectionPos.posToSectionCoord(min - 0.5D);
+    }
+
+    private static int getMaxSectionCoord(double max) {
+        return SectionPos.posToSectionCoord(max + 0.5D);
+    }
+
+    /**
+     * @return The sections which were reached by the last culling pass, or null if no world is being rendered
+     */
+    public SectionVisibility getSectionVisibility() {
+        return this.renderSectionManager != null ? this.renderSectionManager.getVisibleSections() : null;
     }
 
     public String getChunksDebugString() {
@@ -627,13 +732,7 @@ public class SodiumWorldRenderer {
      * Schedules chunk rebuilds for all chunks in the specified chunk region.
      */
     public void scheduleRebuildForChunks(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
-        for (int chunkX = minX; chunkX <= maxX; chunkX++) {
-            for (int chunkY = minY; chunkY <= maxY; chunkY++) {
-                for (int chunkZ = minZ; chunkZ <= maxZ; chunkZ++) {
-                    this.scheduleRebuildForChunk(chunkX, chunkY, chunkZ, important);
-                }
-            }
-        }
+        this.renderSectionManager.scheduleRebuilds(minX, minY, minZ, maxX, maxY, maxZ, important);
     }
 
     /**
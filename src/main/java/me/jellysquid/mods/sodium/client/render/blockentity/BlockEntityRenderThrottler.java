@@ -0,0 +1,416 @@
+package me.jellysquid.mods.sodium.client.render.blockentity;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.PoseStack;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.gui.SodiumGameOptions;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatRegistry;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.blockentity.BlockEntityRenderDispatcher;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.minecraft.world.phys.AABB;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Reduces the cost of rendering block entities which are far away, small on screen, or whose output rarely changes.
+ *
+ * <ul>
+ *     <li>Block entities which would cover less than {@link SodiumGameOptions.BlockEntitySettings#minScreenSize} pixels
+ *     are not rendered at all.</li>
+ *     <li>Block entities beyond {@link SodiumGameOptions.BlockEntitySettings#fullRateDistance} only run their renderer
+ *     every few frames. In the frames in between, the vertices recorded the last time are replayed with the current
+ *     pose, so the block entity keeps being drawn, but its animations update at a lower rate.</li>
+ *     <li>Block entity types which are marked as static (such as signs) only run their renderer again once their data,
+ *     block state, or light changes.</li>
+ * </ul>
+ *
+ * <p>Renderers which draw directly instead of through the provided buffer source can not be recorded, so the affected
+ * types should be excluded with {@link SodiumGameOptions.BlockEntitySettings#typeOverrides}.</p>
+ */
+public class BlockEntityRenderThrottler {
+    // How often cached outputs which were not used recently are deleted
+    private static final int EVICTION_INTERVAL = 64;
+
+    private final Reference2ObjectOpenHashMap<BlockEntity, CachedBlockEntityOutput> outputs = new Reference2ObjectOpenHashMap<>();
+    private final Reference2ObjectOpenHashMap<BlockEntityType<?>, TypePolicy> policies = new Reference2ObjectOpenHashMap<>();
+
+    // Block entity types whose output can't be recorded or replayed, and so are always rendered normally
+    private final ReferenceOpenHashSet<BlockEntityType<?>> unsupportedTypes = new ReferenceOpenHashSet<>();
+
+    private final Recorder recorder = new Recorder();
+
+    private NativeBuffer scratch;
+
+    private SodiumGameOptions.BlockEntitySettings settings;
+    private boolean active;
+
+    // The text filtering setting changes what signs display, so their cached outputs are discarded when it changes
+    private boolean textFilteringEnabled;
+
+    private int frame;
+    private double projectionScale;
+
+    /**
+     * Prepares for rendering the block entities of a new frame. Must be called before {@link #render}.
+     */
+    public void beginFrame() {
+        this.settings = SodiumClientMod.options().blockEntities;
+        this.active = this.settings.useRenderThrottling;
+
+        this.frame++;
+
+        // The settings can be changed at any time, so the policy of each type is resolved again every frame
+        this.policies.clear();
+
+        if (!this.active) {
+            if (!this.outputs.isEmpty()) {
+                this.deleteOutputs();
+            }
+
+            return;
+        }
+
+        var client = Minecraft.getInstance();
+
+        if (client.isTextFilteringEnabled() != this.textFilteringEnabled) {
+            this.textFilteringEnabled = client.isTextFilteringEnabled();
+            this.deleteOutputs();
+        }
+
+        // The size of one unit at a distance of one unit from the camera, in pixels
+        var window = client.getWindow();
+        this.projectionScale = RenderSystem.getProjectionMatrix().m11() * window.getHeight() * 0.5;
+
+        if ((this.frame % EVICTION_INTERVAL) == 0) {
+            this.evictUnusedOutputs();
+        }
+    }
+
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * Renders a block entity according to the configured policy.
+     *
+     * @return True if the block entity was handled, otherwise false if it must be rendered normally
+     */
+    public boolean render(BlockEntity blockEntity, PoseStack matrices, MultiBufferSource bufferSource, float tickDelta,
+                          double cameraX, double cameraY, double cameraZ, BlockEntityRenderDispatcher dispatcher) {
+        if (this.unsupportedTypes.contains(blockEntity.getType())) {
+            return false;
+        }
+
+        var renderer = dispatcher.getRenderer(blockEntity);
+
+        // The renderer may refuse to draw the block entity from where the camera is (signs beyond their view distance,
+        // for example), in which case nothing must be recorded or replayed, and the normal path won't draw it either
+        if (renderer == null || !renderer.shouldRender(blockEntity, dispatcher.camera.getPosition())) {
+            this.deleteOutput(blockEntity);
+            return false;
+        }
+
+        var policy = this.policies.computeIfAbsent(blockEntity.getType(), this::createPolicy);
+
+        BlockPos pos = blockEntity.getBlockPos();
+        AABB box = blockEntity.getRenderBoundingBox();
+
+        double distance;
+        boolean finite = Double.isFinite(box.minX) && Double.isFinite(box.minY) && Double.isFinite(box.minZ) &&
+                Double.isFinite(box.maxX) && Double.isFinite(box.maxY) && Double.isFinite(box.maxZ);
+
+        if (finite) {
+            var center = box.getCenter();
+            distance = Math.sqrt(center.distanceToSqr(cameraX, cameraY, cameraZ));
+
+            double radius = Math.sqrt(box.getXsize() * box.getXsize() + box.getYsize() * box.getYsize() + box.getZsize() * box.getZsize()) * 0.5;
+
+            if (policy.minScreenSize > 0.0f && distance > radius && (radius / distance) * this.projectionScale < policy.minScreenSize) {
+                return true;
+            }
+        } else {
+            distance = Math.sqrt(pos.distToCenterSqr(cameraX, cameraY, cameraZ));
+        }
+
+        boolean isStatic = policy.cacheStaticOutput && blockEntity instanceof BlockEntityRenderVersion &&
+                !hasCameraDependentOutput(blockEntity);
+        int interval = policy.throttle ? this.getFrameInterval(distance) : 1;
+
+        if (!isStatic && interval <= 1) {
+            this.deleteOutput(blockEntity);
+            return false;
+        }
+
+        var level = blockEntity.getLevel();
+
+        if (level == null) {
+            return false;
+        }
+
+        int light = LevelRenderer.getLightColor(level, pos);
+        int renderVersion = isStatic ? ((BlockEntityRenderVersion) blockEntity).embeddium$getRenderVersion() : 0;
+
+        var output = this.outputs.get(blockEntity);
+
+        boolean valid = output != null && output.light == light && output.blockState == blockEntity.getBlockState() &&
+                output.renderVersion == renderVersion;
+
+        // Spread the renders of throttled block entities across frames so that they don't all happen at once
+        boolean expired = !isStatic && ((this.frame + (int) (pos.asLong() * 0x9E3779B97F4A7C15L >>> 40)) % interval) == 0;
+
+        if (!valid || expired) {
+            this.deleteOutput(blockEntity);
+
+            var parts = this.record(blockEntity, tickDelta, dispatcher);
+
+            if (parts == null) {
+                // The type is marked as unsupported, and the caller will render the block entity normally in this frame
+                this.unsupportedTypes.add(blockEntity.getType());
+                return false;
+            }
+
+            if (isStatic && parts.length == 0) {
+                // An empty output is likely to be transient (the renderer may not have had anything to draw yet), and
+                // as static outputs are only recorded again when the block entity changes, it must not be cached
+                return true;
+            }
+
+            output = new CachedBlockEntityOutput(parts, blockEntity.getBlockState(), light, renderVersion);
+
+            this.outputs.put(blockEntity, output);
+        }
+
+        output.lastUsedFrame = this.frame;
+
+        matrices.pushPose();
+        matrices.translate((double) pos.getX() - cameraX, (double) pos.getY() - cameraY, (double) pos.getZ() - cameraZ);
+
+        boolean replayed;
+
+        try {
+            replayed = output.replay(bufferSource, matrices.last(), this.getScratch(output.getMaxPartLength()));
+        } finally {
+            matrices.popPose();
+        }
+
+        if (!replayed) {
+            this.deleteOutput(blockEntity);
+            this.unsupportedTypes.add(blockEntity.getType());
+        }
+
+        return replayed;
+    }
+
+    /**
+     * {@return true if the output of the block entity depends on the camera, even though its type is marked as static}
+     */
+    private static boolean hasCameraDependentOutput(BlockEntity blockEntity) {
+        // Glowing text is outlined only while the camera is close to the sign or scoping, see SignRenderer
+        return blockEntity instanceof SignBlockEntity sign &&
+                (sign.getFrontText().hasGlowingText() || sign.getBackText().hasGlowingText());
+    }
+
+    private int getFrameInterval(double distance) {
+        int fullRateDistance = Math.max(1, this.settings.fullRateDistance);
+
+        if (distance <= fullRateDistance) {
+            return 1;
+        }
+
+        return (int) Math.min(this.settings.maxFrameInterval, 1 + (long) (distance / fullRateDistance));
+    }
+
+    /**
+     * {@return the vertices written by the renderer of the block entity, or null if they can't be replayed}
+     */
+    private CachedBlockEntityOutput.Part[] record(BlockEntity blockEntity, float tickDelta, BlockEntityRenderDispatcher dispatcher) {
+        // Record the vertices in the local space of the block entity, so they can be replayed with any pose
+        var matrices = new PoseStack();
+
+        try {
+            dispatcher.render(blockEntity, tickDelta, matrices, this.recorder);
+        } catch (RuntimeException e) {
+            this.recorder.discard();
+
+            // See SodiumWorldRenderer#renderBlockEntity
+            if (!blockEntity.isRemoved()) {
+                throw e;
+            }
+
+            return new CachedBlockEntityOutput.Part[0];
+        }
+
+        return this.recorder.finish();
+    }
+
+    private TypePolicy createPolicy(BlockEntityType<?> type) {
+        var key = BlockEntityType.getKey(type);
+        var override = key != null ? this.settings.typeOverrides.get(key.toString()) : null;
+
+        var policy = new TypePolicy();
+        policy.throttle = true;
+        policy.cacheStaticOutput = false;
+        policy.minScreenSize = this.settings.minScreenSize;
+
+        if (override != null) {
+            if (override.throttle != null) {
+                policy.throttle = override.throttle;
+            }
+
+            if (override.cacheStaticOutput != null) {
+                policy.cacheStaticOutput = override.cacheStaticOutput;
+            }
+
+            if (override.minScreenSize != null) {
+                policy.minScreenSize = override.minScreenSize;
+            }
+        }
+
+        return policy;
+    }
+
+    private long getScratch(int length) {
+        if (this.scratch == null || this.scratch.getLength() < length) {
+            if (this.scratch != null) {
+                this.scratch.free();
+            }
+
+            this.scratch = new NativeBuffer(Math.max(length, 64 * 1024));
+        }
+
+        return MemoryUtil.memAddress(this.scratch.getDirectBuffer());
+    }
+
+    private void evictUnusedOutputs() {
+        var iterator = this.outputs.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+
+            if (entry.getKey().isRemoved() || (this.frame - entry.getValue().lastUsedFrame) > EVICTION_INTERVAL) {
+                entry.getValue().delete();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void deleteOutput(BlockEntity blockEntity) {
+        var output = this.outputs.remove(blockEntity);
+
+        if (output != null) {
+            output.delete();
+        }
+    }
+
+    private void deleteOutputs() {
+        for (var output : this.outputs.values()) {
+            output.delete();
+        }
+
+        this.outputs.clear();
+    }
+
+    /**
+     * Deletes all cached outputs, for when the world is unloaded.
+     */
+    public void clear() {
+        this.deleteOutputs();
+
+        if (this.scratch != null) {
+            this.scratch.free();
+            this.scratch = null;
+        }
+    }
+
+    private static class TypePolicy {
+        private boolean throttle;
+        private boolean cacheStaticOutput;
+        private float minScreenSize;
+    }
+
+    /**
+     * A buffer source which collects everything written to it into a separate buffer builder for each render type.
+     */
+    private static class Recorder implements MultiBufferSource {
+        private final Reference2ObjectOpenHashMap<RenderType, BufferBuilder> builders = new Reference2ObjectOpenHashMap<>();
+        private final ObjectArrayList<RenderType> activeTypes = new ObjectArrayList<>();
+
+        private boolean supported = true;
+
+        @Override
+        public BufferBuilder getBuffer(RenderType type) {
+            var builder = this.builders.computeIfAbsent(type, (key) -> new BufferBuilder(type.bufferSize()));
+
+            if (!builder.building()) {
+                builder.begin(type.mode(), type.format());
+                this.activeTypes.add(type);
+            }
+
+            if (!VertexFormatRegistry.instance().get(type.format()).isSimpleFormat()) {
+                this.supported = false;
+            }
+
+            return builder;
+        }
+
+        /**
+         * {@return the vertices written for each render type, or null if they can't be replayed}
+         */
+        private CachedBlockEntityOutput.Part[] finish() {
+            var parts = new ObjectArrayList<CachedBlockEntityOutput.Part>(this.activeTypes.size());
+
+            for (var type : this.activeTypes) {
+                var buffer = this.builders.get(type).endOrDiscardIfEmpty();
+
+                if (buffer == null) {
+                    continue;
+                }
+
+                try {
+                    if (this.supported) {
+                        var drawState = buffer.drawState();
+                        var format = VertexFormatRegistry.instance().get(drawState.format());
+
+                        parts.add(new CachedBlockEntityOutput.Part(type, format, NativeBuffer.copy(buffer.vertexBuffer()), drawState.vertexCount()));
+                    }
+                } finally {
+                    buffer.release();
+                }
+            }
+
+            this.activeTypes.clear();
+
+            if (!this.supported) {
+                this.supported = true;
+
+                for (var part : parts) {
+                    part.vertices().free();
+                }
+
+                return null;
+            }
+
+            return parts.toArray(CachedBlockEntityOutput.Part[]::new);
+        }
+
+        private void discard() {
+            for (var type : this.activeTypes) {
+                this.builders.get(type).discard();
+            }
+
+            this.activeTypes.clear();
+            this.supported = true;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package me.jellysquid.mods.sodium.client.render.blockentity;
+
+/**
+ * Tracks changes to the data of a block entity which may affect how it is rendered. Implemented by all block entities
+ * through a mixin.
+ */
+public interface BlockEntityRenderVersion {
+    /**
+     * {@return a counter which is incremented whenever the data or block state of the block entity changes}
+     */
+    int embeddium$getRenderVersion();
+
+    /**
+     * Increments the render version, for changes to the data of the block entity which don't replace it as a whole.
+     */
+    void embeddium$invalidateRenderVersion();
+}
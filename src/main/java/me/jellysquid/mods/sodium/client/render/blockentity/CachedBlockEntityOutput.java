@@ -0,0 +1,121 @@
+package me.jellysquid.mods.sodium.client.render.blockentity;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
+import net.caffeinemc.mods.sodium.api.vertex.attributes.CommonVertexAttribute;
+import net.caffeinemc.mods.sodium.api.vertex.attributes.common.NormalAttribute;
+import net.caffeinemc.mods.sodium.api.vertex.attributes.common.PositionAttribute;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.world.level.block.state.BlockState;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * The vertices written by a block entity renderer in a previous frame, in the local space of the block entity. These can
+ * be replayed into the buffers of the current frame by transforming them with the current pose.
+ */
+public class CachedBlockEntityOutput {
+    private final Part[] parts;
+
+    // The inputs of the renderer at the time the output was recorded
+    final BlockState blockState;
+    final int light;
+    final int renderVersion;
+
+    int lastUsedFrame;
+
+    CachedBlockEntityOutput(Part[] parts, BlockState blockState, int light, int renderVersion) {
+        this.parts = parts;
+        this.blockState = blockState;
+        this.light = light;
+        this.renderVersion = renderVersion;
+    }
+
+    /**
+     * Writes the recorded vertices into the buffers of the given buffer source.
+     *
+     * <p>The buffer of each part is only requested right before its vertices are written, as a
+     * {@link MultiBufferSource.BufferSource} shares one builder between all render types without a fixed buffer, and
+     * requesting the buffer of another type ends the batch of the previous one. Whether the buffers can be written to
+     * directly is instead decided without requesting any of them: the recorder only accepts parts with simple vertex
+     * formats, and the builders of a buffer source always use the format of their render type, so each of them accepts
+     * its part directly.</p>
+     *
+     * @param scratch A buffer with enough space for the vertices of the largest part, see {@link #getMaxPartLength()}
+     * @return False if the buffer source can not be written to directly, in which case nothing was written
+     */
+    boolean replay(MultiBufferSource source, PoseStack.Pose pose, long scratch) {
+        if (!(source instanceof MultiBufferSource.BufferSource)) {
+            return false;
+        }
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            for (var part : this.parts) {
+                var writer = VertexBufferWriter.of(source.getBuffer(part.type));
+
+                MemoryUtil.memCopy(MemoryUtil.memAddress(part.vertices.getDirectBuffer()), scratch, part.vertices.getLength());
+                transform(scratch, part.vertexCount, part.format, pose);
+
+                writer.push(stack, scratch, part.vertexCount, part.format);
+            }
+        }
+
+        return true;
+    }
+
+    private static void transform(long ptr, int vertexCount, VertexFormatDescription format, PoseStack.Pose pose) {
+        var positionMatrix = pose.pose();
+        var normalMatrix = pose.normal();
+
+        int stride = format.stride();
+        int positionOffset = format.getElementOffset(CommonVertexAttribute.POSITION);
+        int normalOffset = format.containsElement(CommonVertexAttribute.NORMAL) ? format.getElementOffset(CommonVertexAttribute.NORMAL) : -1;
+
+        for (int vertexIndex = 0; vertexIndex < vertexCount; vertexIndex++) {
+            long position = ptr + positionOffset;
+
+            float x = PositionAttribute.getX(position);
+            float y = PositionAttribute.getY(position);
+            float z = PositionAttribute.getZ(position);
+
+            PositionAttribute.put(position,
+                    MatrixHelper.transformPositionX(positionMatrix, x, y, z),
+                    MatrixHelper.transformPositionY(positionMatrix, x, y, z),
+                    MatrixHelper.transformPositionZ(positionMatrix, x, y, z));
+
+            if (normalOffset >= 0) {
+                long normal = ptr + normalOffset;
+                NormalAttribute.set(normal, MatrixHelper.transformNormal(normalMatrix, NormalAttribute.get(normal)));
+            }
+
+            ptr += stride;
+        }
+    }
+
+    /**
+     * {@return the length in bytes of the largest recorded part}
+     */
+    int getMaxPartLength() {
+        int length = 0;
+
+        for (var part : this.parts) {
+            length = Math.max(length, part.vertices.getLength());
+        }
+
+        return length;
+    }
+
+    void delete() {
+        for (var part : this.parts) {
+            part.vertices.free();
+        }
+    }
+
+    record Part(RenderType type, VertexFormatDescription format, NativeBuffer vertices, int vertexCount) {
+
+    }
+}
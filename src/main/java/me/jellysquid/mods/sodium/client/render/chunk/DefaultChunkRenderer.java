@@ -74,10 +74,17 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                 continue;
             }
 
-            var batch = region.getCachedBatch(renderPass);
+            var cachedBatch = region.getCachedBatchState(renderPass);
+            var batch = cachedBatch.getBatch();
 
-            if (!batch.isFilled) {
-                fillCommandBuffer(batch, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+            // Commands only need to be regenerated when the region's visible sections or meshes change, or when the
+            // camera moves into another section (which changes the visible faces)
+            boolean faceCulling = useBlockFaceCulling && !renderPass.isSorted();
+            int cameraSectionX = camera.intX >> 4, cameraSectionY = camera.intY >> 4, cameraSectionZ = camera.intZ >> 4;
+
+            if (!cachedBatch.isValid(renderList, storage, renderPass.isReverseOrder(), faceCulling, cameraSectionX, cameraSectionY, cameraSectionZ)) {
+                fillCommandBuffer(batch, region, storage, renderList, cameraSectionX, cameraSectionY, cameraSectionZ, renderPass, faceCulling);
+                cachedBatch.update(renderList, storage, faceCulling, cameraSectionX, cameraSectionY, cameraSectionZ);
             }
 
             if (batch.isEmpty()) {
@@ -101,7 +108,7 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                                           RenderRegion renderRegion,
                                           SectionRenderDataStorage renderDataStorage,
                                           ChunkRenderList renderList,
-                                          CameraTransform camera,
+                                          int cameraSectionX, int cameraSectionY, int cameraSectionZ,
                                           TerrainRenderPass pass,
                                           boolean useBlockFaceCulling) {
         batch.clear();
@@ -109,6 +116,7 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
         var iterator = renderList.sectionsWithGeometryIterator(pass.isReverseOrder());
 
         if (iterator == null) {
+            batch.isFilled = true;
             return;
         }
 
@@ -129,8 +137,8 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
 
             int slices;
 
-            if (useBlockFaceCulling && !pass.isSorted()) {
-                slices = getVisibleFaces(camera.intX, camera.intY, camera.intZ, chunkX, chunkY, chunkZ);
+            if (useBlockFaceCulling) {
+                slices = getVisibleFaces(cameraSectionX, cameraSectionY, cameraSectionZ, chunkX, chunkY, chunkZ);
             } else {
                 slices = ModelQuadFacing.ALL;
             }
@@ -173,7 +181,7 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
     private static final int MODEL_NEG_Y      = ModelQuadFacing.NEG_Y.ordinal();
     private static final int MODEL_NEG_Z      = ModelQuadFacing.NEG_Z.ordinal();
 
-    private static int getVisibleFaces(int originX, int originY, int originZ, int chunkX, int chunkY, int chunkZ) {
+    private static int getVisibleFaces(int cameraSectionX, int cameraSectionY, int cameraSectionZ, int chunkX, int chunkY, int chunkZ) {
         // This is carefully written so that we can keep everything branch-less.
         //
         // Normally, this would be a ridiculous way to handle the problem. But the Hotspot VM's
@@ -197,20 +205,21 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
         // because it manages to a) correctly evaluate the cost of instructions, and b) go so far
         // as to actually produce vector code.  (https://godbolt.org/z/GaaEx39T9)
 
-        int boundsMinX = (chunkX << 4), boundsMaxX = boundsMinX + 16;
-        int boundsMinY = (chunkY << 4), boundsMaxY = boundsMinY + 16;
-        int boundsMinZ = (chunkZ << 4), boundsMaxZ = boundsMinZ + 16;
+        // Faces are only culled using the section the camera is in, so that the result doesn't change until the
+        // camera crosses a section boundary. A face is visible when the camera is less than 3 blocks behind its plane,
+        // which is always true from the section itself and further in front, and never true from two or more sections
+        // behind. For the adjacent section behind the plane, we conservatively treat the face as visible.
 
         // the "unassigned" plane is always front-facing, since we can't check it
         int planes = (1 << MODEL_UNASSIGNED);
 
-        planes |= BitwiseMath.greaterThan(originX, (boundsMinX - 3)) << MODEL_POS_X;
-        planes |= BitwiseMath.greaterThan(originY, (boundsMinY - 3)) << MODEL_POS_Y;
-        planes |= BitwiseMath.greaterThan(originZ, (boundsMinZ - 3)) << MODEL_POS_Z;
+        planes |= BitwiseMath.greaterThan(cameraSectionX, (chunkX - 2)) << MODEL_POS_X;
+        planes |= BitwiseMath.greaterThan(cameraSectionY, (chunkY - 2)) << MODEL_POS_Y;
+        planes |= BitwiseMath.greaterThan(cameraSectionZ, (chunkZ - 2)) << MODEL_POS_Z;
 
-        planes |=    BitwiseMath.lessThan(originX, (boundsMaxX + 3)) << MODEL_NEG_X;
-        planes |=    BitwiseMath.lessThan(originY, (boundsMaxY + 3)) << MODEL_NEG_Y;
-        planes |=    BitwiseMath.lessThan(originZ, (boundsMaxZ + 3)) << MODEL_NEG_Z;
+        planes |=    BitwiseMath.lessThan(cameraSectionX, (chunkX + 2)) << MODEL_NEG_X;
+        planes |=    BitwiseMath.lessThan(cameraSectionY, (chunkY + 2)) << MODEL_NEG_Y;
+        planes |=    BitwiseMath.lessThan(cameraSectionZ, (chunkZ + 2)) << MODEL_NEG_Z;
 
         return planes;
     }
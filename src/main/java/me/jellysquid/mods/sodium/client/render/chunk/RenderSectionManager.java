@@ -4,6 +4,8 @@ import com.mojang.blaze3d.systems.RenderSystem;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceMaps;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.objects.*;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import net.minecraft.world.phys.BlockHitResult;
@@ -24,17 +26,20 @@ import me.jellysquid.mods.sodium.client.render.chunk.lists.SortedRenderLists;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.VisibleChunkCollector;
 import me.jellysquid.mods.sodium.client.render.chunk.occlusion.GraphDirection;
 import me.jellysquid.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.SectionVisibilityBitmap;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegionManager;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkMeshFormats;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderProfiler;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderStage;
 import me.jellysquid.mods.sodium.client.render.texture.SpriteUtil;
 import me.jellysquid.mods.sodium.client.render.viewport.CameraTransform;
 import me.jellysquid.mods.sodium.client.render.viewport.Viewport;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
-import me.jellysquid.mods.sodium.client.util.iterator.ByteIterator;
+import me.jellysquid.mods.sodium.client.util.NativeBufferPool;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSectionCache;
@@ -51,12 +56,15 @@ import net.minecraft.world.phys.Vec3;
 import org.apache.commons.lang3.ArrayUtils;
 import org.embeddedt.embeddium.api.ChunkMeshEvent;
 import org.embeddedt.embeddium.render.ShaderModBridge;
+import org.embeddedt.embeddium.render.chunk.ChunkUploadScheduler;
+import org.embeddedt.embeddium.render.chunk.sorting.TranslucencySortScheduler;
 import org.embeddedt.embeddium.render.chunk.sorting.TranslucentQuadAnalyzer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class RenderSectionManager {
     private final ChunkBuilder builder;
@@ -69,7 +77,13 @@ public class RenderSectionManager {
     private final Long2ReferenceMap<RenderSection> sectionByPosition = new Long2ReferenceOpenHashMap<>();
 
     private final ConcurrentLinkedDeque<ChunkJobResult<ChunkBuildOutput>> buildResults = new ConcurrentLinkedDeque<>();
-    private final ConcurrentLinkedDeque<Runnable> asyncSubmittedTasks = new ConcurrentLinkedDeque<>();
+
+    // Rebuilds requested from other threads, which are applied in bulk when the render thread next updates
+    private final ConcurrentLinkedQueue<PendingRebuild> asyncRebuilds = new ConcurrentLinkedQueue<>();
+
+    // The sections with a pending rebuild, deduplicated so that each is only invalidated and promoted once
+    private final LongOpenHashSet pendingRebuilds = new LongOpenHashSet();
+    private final LongOpenHashSet pendingImportantRebuilds = new LongOpenHashSet();
 
     private final ChunkRenderer chunkRenderer;
 
@@ -79,6 +93,8 @@ public class RenderSectionManager {
 
     private final OcclusionCuller occlusionCuller;
 
+    private final SectionVisibilityBitmap visibleSections;
+
     private final int renderDistance;
 
     private final ChunkVertexType vertexType;
@@ -101,6 +117,15 @@ public class RenderSectionManager {
 
     private final boolean translucencySorting;
 
+    private final TranslucencySortScheduler sortScheduler = new TranslucencySortScheduler();
+
+    private final ChunkUploadScheduler uploadScheduler;
+
+    private boolean uploadImmediately;
+
+    private long lastFrameTime;
+    private long lastFrameDuration;
+
     public RenderSectionManager(ClientLevel world, int renderDistance, CommandList commandList) {
         ChunkVertexType vertexType = SodiumClientMod.canUseVanillaVertices() ? ChunkMeshFormats.VANILLA_LIKE : ChunkMeshFormats.COMPACT;
 
@@ -109,16 +134,17 @@ public class RenderSectionManager {
         this.vertexType = vertexType;
 
         this.world = world;
-        this.builder = new ChunkBuilder(world, vertexType);
+        this.regions = new RenderRegionManager(commandList);
+        this.builder = new ChunkBuilder(world, vertexType, this.regions.getStagingBuffer());
 
         this.needsUpdate = true;
         this.renderDistance = renderDistance;
 
-        this.regions = new RenderRegionManager(commandList);
         this.sectionCache = new ClonedChunkSectionCache(this.world);
 
         this.renderLists = SortedRenderLists.empty();
         this.occlusionCuller = new OcclusionCuller(Long2ReferenceMaps.unmodifiable(this.sectionByPosition), this.world);
+        this.visibleSections = new SectionVisibilityBitmap(renderDistance, this.world.getMinSection(), this.world.getMaxSection());
 
         this.rebuildLists = new EnumMap<>(ChunkUpdateType.class);
 
@@ -127,14 +153,20 @@ public class RenderSectionManager {
         }
 
         this.translucencySorting = SodiumClientMod.canApplyTranslucencySorting();
+
+        var advanced = SodiumClientMod.options().advanced;
+        this.uploadScheduler = new ChunkUploadScheduler(advanced.chunkUploadSizeLimitMiB * 1024L * 1024L,
+                advanced.chunkUploadTimeLimitMs * 1_000_000L);
     }
 
     public void runAsyncTasks() {
-        Runnable task;
+        PendingRebuild rebuild;
 
-        while ((task = this.asyncSubmittedTasks.poll()) != null) {
-            task.run();
+        while ((rebuild = this.asyncRebuilds.poll()) != null) {
+            this.addPendingRebuilds(rebuild.minX, rebuild.minY, rebuild.minZ, rebuild.maxX, rebuild.maxY, rebuild.maxZ, rebuild.important);
         }
+
+        this.applyPendingRebuilds();
     }
 
     public void update(Camera camera, Viewport viewport, int frame, boolean spectator) {
@@ -155,75 +187,12 @@ public class RenderSectionManager {
         this.lastUpdatedFrame = frame;
     }
 
-    private void checkTranslucencyChange() {
+    private void checkTranslucencyChange(Viewport viewport, int frame) {
         if(!this.translucencySorting || lastCameraPosition == null)
             return;
 
-        int camSectionX = SectionPos.blockToSectionCoord(cameraPosition.x);
-        int camSectionY = SectionPos.blockToSectionCoord(cameraPosition.y);
-        int camSectionZ = SectionPos.blockToSectionCoord(cameraPosition.z);
-
-        this.scheduleTranslucencyUpdates(camSectionX, camSectionY, camSectionZ);
-    }
-
-    private void scheduleTranslucencyUpdates(int camSectionX, int camSectionY, int camSectionZ) {
-        var sortRebuildList = this.rebuildLists.get(ChunkUpdateType.SORT);
-        var importantSortRebuildList = this.rebuildLists.get(ChunkUpdateType.IMPORTANT_SORT);
-        var allowImportant = allowImportantRebuilds();
-        for (Iterator<ChunkRenderList> it = this.renderLists.iterator(); it.hasNext(); ) {
-            ChunkRenderList entry = it.next();
-            var region = entry.getRegion();
-            ByteIterator sectionIterator = entry.sectionsWithGeometryIterator(false);
-            if (sectionIterator == null) {
-                continue;
-            }
-            while (sectionIterator.hasNext()) {
-                var section = region.getSection(sectionIterator.nextByteAsInt());
-
-                if (section == null || !section.isBuilt()) {
-                    // Nonexistent/unbuilt sections are not relevant
-                    continue;
-                }
-
-                boolean hasTranslucentData = section.isNeedsDynamicTranslucencySorting();
-
-                if (!hasTranslucentData) {
-                    // Sections without sortable translucent data are not relevant
-                    continue;
-                }
-
-                ChunkUpdateType update = ChunkUpdateType.getPromotionUpdateType(section.getPendingUpdate(), (allowImportant && this.shouldPrioritizeRebuild(section)) ? ChunkUpdateType.IMPORTANT_SORT : ChunkUpdateType.SORT);
-
-                if (update == null) {
-                    // We wouldn't be able to resort this section anyway
-                    continue;
-                }
-
-                double dx = cameraPosition.x - section.lastCameraX;
-                double dy = cameraPosition.y - section.lastCameraY;
-                double dz = cameraPosition.z - section.lastCameraZ;
-                double camDelta = (dx * dx) + (dy * dy) + (dz * dz);
-
-                if (camDelta < 1) {
-                    // Didn't move enough, ignore
-                    continue;
-                }
-
-                boolean cameraChangedSection = camSectionX != SectionPos.blockToSectionCoord(section.lastCameraX) ||
-                        camSectionY != SectionPos.blockToSectionCoord(section.lastCameraY) ||
-                        camSectionZ != SectionPos.blockToSectionCoord(section.lastCameraZ);
-
-                if (cameraChangedSection || section.isAlignedWithSectionOnGrid(camSectionX, camSectionY, camSectionZ)) {
-                    section.setPendingUpdate(update);
-                    // Inject it into the rebuild lists
-                    (update == ChunkUpdateType.IMPORTANT_SORT ? importantSortRebuildList : sortRebuildList).add(section);
-
-                    section.lastCameraX = cameraPosition.x;
-                    section.lastCameraY = cameraPosition.y;
-                    section.lastCameraZ = cameraPosition.z;
-                }
-            }
-        }
+        this.sortScheduler.scheduleUpdates(this.rebuildLists, viewport, this.cameraPosition, frame,
+                allowImportantRebuilds(), this::shouldPrioritizeRebuild);
     }
 
     private void createTerrainRenderList(Camera camera, Viewport viewport, int frame, boolean spectator) {
@@ -232,14 +201,19 @@ public class RenderSectionManager {
         final var searchDistance = this.getSearchDistance();
         final var useOcclusionCulling = this.shouldUseOcclusionCulling(camera, spectator);
 
-        var visitor = new VisibleChunkCollector(frame);
+        var origin = viewport.getChunkCoord();
+        this.visibleSections.reset(origin.getX(), origin.getZ());
 
+        var visitor = new VisibleChunkCollector(frame, this.visibleSections);
+
+        long cullingStart = RenderProfiler.begin();
         this.occlusionCuller.findVisible(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+        RenderProfiler.end(RenderStage.OCCLUSION_CULLING, cullingStart);
 
         this.renderLists = visitor.createRenderLists();
         this.rebuildLists = visitor.getRebuildLists();
 
-        this.checkTranslucencyChange();
+        this.checkTranslucencyChange(viewport, frame);
     }
 
     private float getSearchDistance() {
@@ -321,6 +295,8 @@ public class RenderSectionManager {
 
         this.disconnectNeighborNodes(section);
         this.updateSectionInfo(section, null);
+        this.sortScheduler.onSectionRemoved(section);
+        this.visibleSections.remove(x, y, z);
 
         section.delete();
 
@@ -330,10 +306,14 @@ public class RenderSectionManager {
     public void renderLayer(ChunkRenderMatrices matrices, TerrainRenderPass pass, double x, double y, double z) {
         RenderDevice device = RenderDevice.INSTANCE;
 
+        long start = RenderProfiler.begin();
+
         try (CommandList commandList = device.createCommandList()) {
             this.chunkRenderer.render(matrices, commandList, this.renderLists, pass, new CameraTransform(x, y, z));
             commandList.flush();
         }
+
+        RenderProfiler.end(RenderStage.RENDER_TERRAIN, pass, start);
     }
 
     public void tickVisibleRenders() {
@@ -370,16 +350,22 @@ public class RenderSectionManager {
     }
 
     public boolean isSectionVisible(int x, int y, int z) {
-        RenderSection render = this.getRenderSection(x, y, z);
-
-        if (render == null) {
-            return false;
-        }
+        return this.visibleSections.isSectionVisible(x, y, z);
+    }
 
-        return render.getLastVisibleFrame() == this.lastUpdatedFrame;
+    /**
+     * {@return the sections which were reached by the last culling pass}
+     */
+    public SectionVisibilityBitmap getVisibleSections() {
+        return this.visibleSections;
     }
 
     public void updateChunks(boolean updateImmediately) {
+        // This is called once per frame, so the time between calls is the duration of the previous frame
+        long now = System.nanoTime();
+        this.lastFrameDuration = this.lastFrameTime != 0L ? now - this.lastFrameTime : 0L;
+        this.lastFrameTime = now;
+
         this.sectionCache.cleanup();
         this.regions.update();
 
@@ -391,37 +377,58 @@ public class RenderSectionManager {
         this.submitRebuildTasks(updateImmediately ? blockingRebuilds : deferredRebuilds, ChunkUpdateType.REBUILD);
         this.submitRebuildTasks(updateImmediately ? blockingRebuilds : deferredRebuilds, ChunkUpdateType.INITIAL_BUILD);
 
-        // Count sort tasks as requiring a quarter of the resources of a mesh task
-        var deferredSorts = new ChunkJobCollector(Math.max(4, this.builder.getSchedulingBudget() * 4), this.buildResults::add);
+        // The number of sort tasks is limited by the measured cost of sorting, see TranslucencySortScheduler
+        var deferredSorts = new ChunkJobCollector(this.sortScheduler.getSortTaskBudget(this.builder.getTotalThreadCount(), this.builder.getSchedulingBudget()), this.buildResults::add);
         this.submitRebuildTasks(updateImmediately ? blockingRebuilds : deferredSorts, ChunkUpdateType.SORT);
 
         blockingRebuilds.awaitCompletion(this.builder);
+
+        // When the caller waits for all rebuilds to finish, it also expects all of them to be visible this frame
+        this.uploadImmediately = updateImmediately;
     }
 
     public void uploadChunks() {
-        var results = this.collectChunkBuildResults();
+        for (var result : this.collectChunkBuildResults()) {
+            this.uploadScheduler.enqueue(result);
+        }
 
-        if (results.isEmpty()) {
+        if (this.uploadScheduler.isEmpty()) {
             return;
         }
 
+        long start = RenderProfiler.begin();
+
+        // Sections close to the camera are always uploaded, so that blocks placed or broken by the player don't lag
+        var results = this.uploadScheduler.dequeue(this.cameraPosition, this.lastUpdatedFrame, this.lastFrameDuration,
+                this.regions.getStagingBuffer().getUploadSizeLimit(this.lastFrameDuration), this.uploadImmediately, this::shouldPrioritizeRebuild);
+
         this.processChunkBuildResults(results);
 
         for (var result : results) {
             result.delete();
         }
 
+        RenderProfiler.end(RenderStage.UPLOAD_CHUNKS, start);
+
         this.needsUpdate = true;
     }
 
-    private void processChunkBuildResults(ArrayList<ChunkBuildOutput> results) {
-        var filtered = filterChunkBuildResults(results);
+    private void processChunkBuildResults(List<ChunkBuildOutput> results) {
+        long uploadStart = System.nanoTime();
 
         try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
-            this.regions.uploadMeshes(commandList, filtered);
+            this.regions.uploadMeshes(commandList, results);
         }
 
-        for (var result : filtered) {
+        long uploadBytes = 0;
+
+        for (var result : results) {
+            uploadBytes += result.getUploadSize();
+        }
+
+        this.uploadScheduler.onUploadFinished(uploadBytes, System.nanoTime() - uploadStart);
+
+        for (var result : results) {
             if(result.info != null) {
                 this.updateSectionInfo(result.render, result.info);
                 if (this.translucencySorting) {
@@ -437,6 +444,10 @@ public class RenderSectionManager {
             }
 
             result.render.setLastBuiltFrame(result.buildTime);
+
+            if (result.isIndexOnlyUpload()) {
+                this.sortScheduler.onSortCompleted(result.getExecutionTime());
+            }
         }
     }
 
@@ -448,6 +459,7 @@ public class RenderSectionManager {
             }
         }
         render.setTranslucencySortStates(sortStates.isEmpty() ? Collections.emptyMap() : sortStates);
+        this.sortScheduler.onSortStatesChanged(render);
     }
 
     private void updateSectionInfo(RenderSection render, BuiltSectionInfo info) {
@@ -460,25 +472,6 @@ public class RenderSectionManager {
         }
     }
 
-    private static List<ChunkBuildOutput> filterChunkBuildResults(ArrayList<ChunkBuildOutput> outputs) {
-        var map = new Reference2ReferenceLinkedOpenHashMap<RenderSection, ChunkBuildOutput>();
-
-        for (var output : outputs) {
-            if (output.render.isDisposed() || output.render.getLastBuiltFrame() > output.buildTime) {
-                continue;
-            }
-
-            var render = output.render;
-            var previous = map.get(render);
-
-            if (previous == null || previous.buildTime < output.buildTime) {
-                map.put(render, output);
-            }
-        }
-
-        return new ArrayList<>(map.values());
-    }
-
     private ArrayList<ChunkBuildOutput> collectChunkBuildResults() {
         ArrayList<ChunkBuildOutput> results = new ArrayList<>();
         ChunkJobResult<ChunkBuildOutput> result;
@@ -493,6 +486,12 @@ public class RenderSectionManager {
     private void submitRebuildTasks(ChunkJobCollector collector, ChunkUpdateType type) {
         var queue = this.rebuildLists.get(type);
 
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        long start = RenderProfiler.begin();
+
         while (!queue.isEmpty() && collector.canOffer()) {
             RenderSection section = queue.remove();
 
@@ -541,10 +540,14 @@ public class RenderSectionManager {
             section.setLastSubmittedFrame(frame);
             section.setPendingUpdate(null);
         }
+
+        RenderProfiler.end(RenderStage.SUBMIT_REBUILDS, type, start);
     }
 
     public @Nullable ChunkBuilderMeshingTask createRebuildTask(RenderSection render, int frame) {
+        long start = RenderProfiler.begin();
         ChunkRenderContext context = WorldSlice.prepare(this.world, render.getPosition(), this.sectionCache);
+        RenderProfiler.end(RenderStage.PREPARE_SECTIONS, start);
 
         if (context == null) {
             return null;
@@ -568,6 +571,13 @@ public class RenderSectionManager {
         return this.needsUpdate;
     }
 
+    /**
+     * {@return whether all completed chunk build outputs have been uploaded}
+     */
+    public boolean isUploadQueueEmpty() {
+        return this.uploadScheduler.isEmpty() && this.buildResults.isEmpty();
+    }
+
     public ChunkBuilder getBuilder() {
         return this.builder;
     }
@@ -579,7 +589,12 @@ public class RenderSectionManager {
             result.delete(); // delete resources for any pending tasks (including those that were cancelled)
         }
 
+        NativeBufferPool.clear();
+
+        this.uploadScheduler.clear();
+
         this.sectionsWithGlobalEntities.clear();
+        this.sortScheduler.clear();
         this.resetRenderLists();
 
         try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
@@ -604,13 +619,9 @@ public class RenderSectionManager {
         return sections;
     }
 
-    private void scheduleRebuildOffThread(int x, int y, int z, boolean important) {
-        asyncSubmittedTasks.add(() -> this.scheduleRebuild(x, y, z, important));
-    }
-
     public void scheduleRebuild(int x, int y, int z, boolean important) {
-        if (Thread.currentThread() != renderThread) {
-            this.scheduleRebuildOffThread(x, y, z, important);
+        if (Thread.currentThread() != this.renderThread) {
+            this.asyncRebuilds.add(new PendingRebuild(x, y, z, x, y, z, important));
             return;
         }
 
@@ -618,22 +629,97 @@ public class RenderSectionManager {
 
         RenderSection section = this.sectionByPosition.get(SectionPos.asLong(x, y, z));
 
-        if (section != null) {
-            ChunkUpdateType pendingUpdate;
+        if (section != null && this.promoteRebuild(section, important)) {
+            this.needsUpdate = true;
+        }
+    }
 
-            if (allowImportantRebuilds() && (important || this.shouldPrioritizeRebuild(section))) {
-                pendingUpdate = ChunkUpdateType.IMPORTANT_REBUILD;
-            } else {
-                pendingUpdate = ChunkUpdateType.REBUILD;
+    /**
+     * Schedules rebuilds for all sections within the given range of section coordinates (inclusive). Unlike calling
+     * {@link #scheduleRebuild(int, int, int, boolean)} for each section, the cloned section cache is only locked once,
+     * and a call from another thread only enqueues the range itself.
+     */
+    public void scheduleRebuilds(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
+        if (Thread.currentThread() != this.renderThread) {
+            this.asyncRebuilds.add(new PendingRebuild(minX, minY, minZ, maxX, maxY, maxZ, important));
+            return;
+        }
+
+        this.addPendingRebuilds(minX, minY, minZ, maxX, maxY, maxZ, important);
+        this.applyPendingRebuilds();
+    }
+
+    private void addPendingRebuilds(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    long pos = SectionPos.asLong(x, y, z);
+
+                    this.pendingRebuilds.add(pos);
+
+                    if (important) {
+                        this.pendingImportantRebuilds.add(pos);
+                    }
+                }
             }
+        }
+    }
+
+    private void applyPendingRebuilds() {
+        if (this.pendingRebuilds.isEmpty()) {
+            return;
+        }
+
+        this.sectionCache.invalidate(this.pendingRebuilds);
 
-            pendingUpdate = ChunkUpdateType.getPromotionUpdateType(section.getPendingUpdate(), pendingUpdate);
-            if (pendingUpdate != null) {
-                section.setPendingUpdate(pendingUpdate);
+        boolean anyPromoted = false;
+        boolean anyImportant = !this.pendingImportantRebuilds.isEmpty();
 
-                this.needsUpdate = true;
+        for (LongIterator it = this.pendingRebuilds.iterator(); it.hasNext(); ) {
+            long pos = it.nextLong();
+
+            RenderSection section = this.sectionByPosition.get(pos);
+
+            if (section != null) {
+                anyPromoted |= this.promoteRebuild(section, anyImportant && this.pendingImportantRebuilds.contains(pos));
             }
         }
+
+        this.pendingRebuilds.clear();
+        this.pendingImportantRebuilds.clear();
+
+        if (anyPromoted) {
+            this.needsUpdate = true;
+        }
+    }
+
+    /**
+     * Promotes the pending update of a section to a rebuild.
+     *
+     * @return True if the pending update of the section was changed
+     */
+    private boolean promoteRebuild(RenderSection section, boolean important) {
+        ChunkUpdateType pendingUpdate;
+
+        if (allowImportantRebuilds() && (important || this.shouldPrioritizeRebuild(section))) {
+            pendingUpdate = ChunkUpdateType.IMPORTANT_REBUILD;
+        } else {
+            pendingUpdate = ChunkUpdateType.REBUILD;
+        }
+
+        pendingUpdate = ChunkUpdateType.getPromotionUpdateType(section.getPendingUpdate(), pendingUpdate);
+
+        if (pendingUpdate != null) {
+            section.setPendingUpdate(pendingUpdate);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private record PendingRebuild(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
+
     }
 
     private static final float NEARBY_REBUILD_DISTANCE = Mth.square(16.0f);
@@ -754,13 +840,7 @@ public class RenderSectionManager {
 
         long indexUsed = 0, indexAllocated = 0;
 
-        for (var region : this.regions.getLoadedRegions()) {
-            var resources = region.getResources();
-
-            if (resources == null) {
-                continue;
-            }
-
+        for (var resources : this.regions.getAllocatedResources()) {
             var buffer = resources.getGeometryArena();
 
             deviceUsed += buffer.getDeviceUsedMemory();
@@ -782,6 +862,7 @@ public class RenderSectionManager {
             list.add(String.format("Index Pool: %d/%d MiB (%d buffers)", MathUtil.toMib(indexUsed), MathUtil.toMib(indexAllocated), indexCount));
         }
         list.add(String.format("Transfer Queue: %s", this.regions.getStagingBuffer().toString()));
+        list.add(this.uploadScheduler.getDebugString());
 
         list.add(String.format("Chunk Builder: Permits=%02d | Busy=%02d | Total=%02d",
                 this.builder.getScheduledJobCount(), this.builder.getBusyThreadCount(), this.builder.getTotalThreadCount())
@@ -796,6 +877,7 @@ public class RenderSectionManager {
 
         if(this.translucencySorting) {
             list.addAll(getSortingStrings());
+            list.add(this.sortScheduler.getDebugString());
         }
 
         return list;
@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.util.VertexRange;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.BakedChunkModelBuilder;
@@ -11,13 +12,13 @@ import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRende
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.Material;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.builder.ChunkMeshBufferBuilder;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.builder.GreedyFaceMerger;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import me.jellysquid.mods.sodium.client.util.NativeBufferPool;
 import org.embeddedt.embeddium.render.chunk.sorting.TranslucentQuadAnalyzer;
-
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
 
 /**
  * A collection of temporary buffers for each worker thread which will be used to build chunk meshes for given render
@@ -29,9 +30,13 @@ public class ChunkBuildBuffers {
     private final Reference2ReferenceOpenHashMap<TerrainRenderPass, BakedChunkModelBuilder> builders = new Reference2ReferenceOpenHashMap<>();
 
     private final ChunkVertexType vertexType;
+    private final StagingBuffer stagingBuffer;
+    private final @Nullable GreedyFaceMerger faceMerger;
 
-    public ChunkBuildBuffers(ChunkVertexType vertexType) {
+    public ChunkBuildBuffers(ChunkVertexType vertexType, StagingBuffer stagingBuffer) {
         this.vertexType = vertexType;
+        this.stagingBuffer = stagingBuffer;
+        this.faceMerger = GreedyFaceMerger.isEnabled(vertexType) ? GreedyFaceMerger.forBlockAtlas() : null;
 
         for (TerrainRenderPass pass : DefaultTerrainRenderPasses.ALL) {
             var vertexBuffers = new ChunkMeshBufferBuilder[ModelQuadFacing.COUNT];
@@ -61,66 +66,62 @@ public class ChunkBuildBuffers {
     /**
      * Creates immutable baked chunk meshes from all non-empty scratch buffers. This is used after all blocks
      * have been rendered to pass the finished meshes over to the graphics card. This function can be called multiple
-     * times to return multiple copies.
+     * times to return multiple copies. The mesh buffers are allocated with {@link #allocateOutput(int)}.
      */
     public BuiltSectionMeshParts createMesh(TerrainRenderPass pass) {
         var builder = this.builders.get(pass);
 
-        List<ByteBuffer> vertexBuffers = new ArrayList<>();
-        VertexRange[] vertexRanges = new VertexRange[ModelQuadFacing.COUNT];
-
-        int vertexCount = 0;
-
         ModelQuadFacing[] facingsToUpload = pass.isSorted() ? ONLY_UNASSIGNED : ModelQuadFacing.VALUES;
-        TranslucentQuadAnalyzer.SortState sortState = pass.isSorted() ? builder.getVertexBuffer(ModelQuadFacing.UNASSIGNED).getSortState() : null;
-
-        for (ModelQuadFacing facing : facingsToUpload) {
-            var buffer = builder.getVertexBuffer(facing);
 
-            if (buffer.isEmpty()) {
-                continue;
-            }
+        if (this.faceMerger != null && pass == DefaultTerrainRenderPasses.SOLID) {
+            this.mergeFaces(builder, facingsToUpload);
+        }
 
-            vertexBuffers.add(buffer.slice());
-            vertexRanges[facing.ordinal()] = new VertexRange(vertexCount, buffer.count());
+        int vertexCount = 0;
 
-            vertexCount += buffer.count();
+        for (ModelQuadFacing facing : facingsToUpload) {
+            vertexCount += builder.getVertexBuffer(facing).count();
         }
 
         if (vertexCount == 0) {
             return null;
         }
 
+        TranslucentQuadAnalyzer.SortState sortState = pass.isSorted() ? builder.getVertexBuffer(ModelQuadFacing.UNASSIGNED).getSortState() : null;
+        VertexRange[] vertexRanges = new VertexRange[ModelQuadFacing.COUNT];
+
         NativeBuffer mergedBuffer = null;
         NativeBuffer mergedIndexBuffer = null;
 
         try {
-            mergedBuffer = new NativeBuffer(vertexCount * this.vertexType.getVertexFormat().getStride());
-            var mergedBufferBuilder = mergedBuffer.getDirectBuffer();
+            mergedBuffer = this.allocateOutput(vertexCount * this.vertexType.getVertexFormat().getStride());
+            long mergedBufferPtr = MemoryUtil.memAddress(mergedBuffer.getDirectBuffer());
 
-            for (var buffer : vertexBuffers) {
-                mergedBufferBuilder.put(buffer);
+            if (pass.isSorted()) {
+                mergedIndexBuffer = this.allocateOutput((vertexCount / 4 * 6) * 4);
             }
 
-            mergedBufferBuilder.flip();
+            int vertexOffset = 0;
 
-            if (pass.isSorted()) {
-                // Generate the canonical index buffer
-                mergedIndexBuffer = new NativeBuffer((vertexCount / 4 * 6) * 4);
-                int bufOffset = 0;
-                for (ModelQuadFacing facing : facingsToUpload) {
-                    var buffer = builder.getVertexBuffer(facing);
+            for (ModelQuadFacing facing : facingsToUpload) {
+                var buffer = builder.getVertexBuffer(facing);
 
-                    if (buffer.isEmpty()) {
-                        continue;
-                    }
+                if (buffer.isEmpty()) {
+                    continue;
+                }
 
-                    int numPrimitives = buffer.count() / 4;
+                var slice = buffer.slice();
+                MemoryUtil.memCopy(MemoryUtil.memAddress(slice), mergedBufferPtr, slice.remaining());
+                mergedBufferPtr += slice.remaining();
 
-                    ChunkBufferSorter.generateSimpleIndexBuffer(mergedIndexBuffer, numPrimitives, bufOffset);
+                vertexRanges[facing.ordinal()] = new VertexRange(vertexOffset, buffer.count());
 
-                    bufOffset += numPrimitives * 6;
+                if (mergedIndexBuffer != null) {
+                    // Generate the canonical index buffer
+                    ChunkBufferSorter.generateSimpleIndexBuffer(mergedIndexBuffer, buffer.count() / 4, vertexOffset / 4 * 6);
                 }
+
+                vertexOffset += buffer.count();
             }
 
             return new BuiltSectionMeshParts(mergedBuffer, mergedIndexBuffer, sortState, vertexRanges);
@@ -136,10 +137,44 @@ public class ChunkBuildBuffers {
         }
     }
 
+    /**
+     * Merges the faces of the given builder. The vertices of every pass are added to the merger first, so that merged
+     * quads don't pass through the corners of geometry in other passes.
+     */
+    private void mergeFaces(BakedChunkModelBuilder builder, ModelQuadFacing[] facings) {
+        var merger = this.faceMerger;
+        merger.begin();
+
+        for (var otherBuilder : this.builders.values()) {
+            for (ModelQuadFacing facing : ModelQuadFacing.VALUES) {
+                otherBuilder.getVertexBuffer(facing).addSectionVertices(merger);
+            }
+        }
+
+        for (ModelQuadFacing facing : facings) {
+            builder.getVertexBuffer(facing).mergeQuads(merger, facing);
+        }
+    }
+
+    /**
+     * Allocates a buffer for data which will be uploaded once the build has finished. Where possible, the buffer is
+     * reserved from the staging buffer so that it does not have to be copied again before the upload, and otherwise
+     * it is taken from the {@link NativeBufferPool}. Either way, it is returned when the build output is deleted.
+     */
+    public NativeBuffer allocateOutput(int length) {
+        NativeBuffer buffer = this.stagingBuffer.tryReserve(length);
+
+        return buffer != null ? buffer : NativeBufferPool.acquire(length);
+    }
+
     public void destroy() {
         for (var builder : this.builders.values()) {
             builder.destroy();
         }
+
+        if (this.faceMerger != null) {
+            this.faceMerger.destroy();
+        }
     }
 
     public ChunkVertexType getVertexType() {
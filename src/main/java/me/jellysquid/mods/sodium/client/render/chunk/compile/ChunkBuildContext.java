@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
@@ -15,8 +16,8 @@ public class ChunkBuildContext {
     private final ObjectOpenHashSet<TextureAtlasSprite> additionalCapturedSprites;
     private boolean captureAdditionalSprites;
 
-    public ChunkBuildContext(ClientLevel world, ChunkVertexType vertexType) {
-        this.buffers = new ChunkBuildBuffers(vertexType);
+    public ChunkBuildContext(ClientLevel world, ChunkVertexType vertexType, StagingBuffer stagingBuffer) {
+        this.buffers = new ChunkBuildBuffers(vertexType, stagingBuffer);
         this.cache = new BlockRenderCache(Minecraft.getInstance(), world);
         this.additionalCapturedSprites = new ObjectOpenHashSet<>();
     }
@@ -22,6 +22,8 @@ public class ChunkBuildOutput {
 
     private boolean partialUpload;
 
+    private long executionTime;
+
     public ChunkBuildOutput(RenderSection render, BuiltSectionInfo info, Map<TerrainRenderPass, BuiltSectionMeshParts> meshes, int buildTime) {
         this.render = render;
         this.info = info;
@@ -45,6 +47,24 @@ public class ChunkBuildOutput {
         }
     }
 
+    /**
+     * {@return the number of bytes which will be copied to the GPU when this output is uploaded}
+     */
+    public long getUploadSize() {
+        long size = 0;
+
+        for (BuiltSectionMeshParts data : this.meshes.values()) {
+            if(data.getVertexData() != null && !this.partialUpload) {
+                size += data.getVertexData().getLength();
+            }
+            if(data.getIndexData() != null) {
+                size += data.getIndexData().getLength();
+            }
+        }
+
+        return size;
+    }
+
     public boolean isIndexOnlyUpload() {
         return partialUpload;
     }
@@ -52,4 +72,15 @@ public class ChunkBuildOutput {
     public void setIndexOnlyUpload(boolean flag) {
         partialUpload = flag;
     }
+
+    /**
+     * {@return the time in nanoseconds the worker spent producing this output, or zero if it was not measured}
+     */
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    public void setExecutionTime(long nanos) {
+        executionTime = nanos;
+    }
 }
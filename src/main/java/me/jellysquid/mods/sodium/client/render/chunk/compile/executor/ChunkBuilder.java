@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.client.render.chunk.compile.executor;
 
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.compat.forge.ForgeBlockRenderer;
+import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkUpdateType;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderTask;
@@ -44,14 +45,18 @@ public class ChunkBuilder {
 
     private final ChunkBuildContext localContext;
 
-    public ChunkBuilder(ClientLevel world, ChunkVertexType vertexType) {
+    /**
+     * @param stagingBuffer The staging buffer which the finished meshes will be uploaded through, which workers may
+     *                      reserve memory from to write their meshes into directly
+     */
+    public ChunkBuilder(ClientLevel world, ChunkVertexType vertexType, StagingBuffer stagingBuffer) {
         GlobalChunkBuildContext.setMainThread();
         ForgeBlockRenderer.init();
 
         int count = getThreadCount();
 
         for (int i = 0; i < count; i++) {
-            ChunkBuildContext context = new ChunkBuildContext(world, vertexType);
+            ChunkBuildContext context = new ChunkBuildContext(world, vertexType, stagingBuffer);
             WorkerRunnable worker = new WorkerRunnable(context);
 
             Thread thread = new WorkerThread(worker, "Chunk Render Task Executor #" + i, context);
@@ -63,7 +68,7 @@ public class ChunkBuilder {
 
         LOGGER.info("Started {} worker threads", this.threads.size());
 
-        this.localContext = new ChunkBuildContext(world, vertexType);
+        this.localContext = new ChunkBuildContext(world, vertexType, stagingBuffer);
     }
 
     /**
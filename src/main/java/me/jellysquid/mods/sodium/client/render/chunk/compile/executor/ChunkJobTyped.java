@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.client.render.chunk.compile.executor;
 
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderTask;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderProfiler;
 
 import java.util.function.Consumer;
 
@@ -40,9 +41,13 @@ public class ChunkJobTyped<TASK extends ChunkBuilderTask<OUTPUT>, OUTPUT>
 
         ChunkJobResult<OUTPUT> result;
 
+        long start = RenderProfiler.beginJob();
+
         try {
             var output = this.task.execute(context, this);
 
+            RenderProfiler.endJob(this.task, start);
+
             // Task was cancelled while executing
             if (output == null) {
                 return;
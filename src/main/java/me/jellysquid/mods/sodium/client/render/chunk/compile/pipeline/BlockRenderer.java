@@ -16,6 +16,8 @@ import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFlags;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadOrientation;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuilder;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry.BlockRenderTimer;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry.ChunkBuildStage;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.DefaultMaterials;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.Material;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
@@ -90,6 +92,8 @@ public class BlockRenderer {
 
     private final boolean useRenderPassOptimization;
 
+    private final BlockRenderTimer timer = new BlockRenderTimer();
+
     public BlockRenderer(ColorProviderRegistry colorRegistry, LightPipelineProvider lighters) {
         this.colorProviderRegistry = colorRegistry;
         this.lighters = lighters;
@@ -168,11 +172,23 @@ public class BlockRenderer {
         }
     }
 
+    /**
+     * {@return the timer of the stages of rendering a model, which is only enabled while chunk build telemetry is
+     * being collected}
+     */
+    public BlockRenderTimer getTimer() {
+        return this.timer;
+    }
+
     private List<BakedQuad> getGeometry(BlockRenderContext ctx, Direction face) {
         var random = this.random;
         random.setSeed(ctx.seed());
 
-        return ctx.model().getQuads(ctx.state(), face, random, ctx.modelData(), ctx.renderLayer());
+        long start = this.timer.start();
+        var quads = ctx.model().getQuads(ctx.state(), face, random, ctx.modelData(), ctx.renderLayer());
+        this.timer.stop(ChunkBuildStage.QUAD_FETCH, start);
+
+        return quads;
     }
 
     private boolean isFaceVisible(BlockRenderContext ctx, Direction face) {
@@ -254,6 +270,8 @@ public class BlockRenderer {
             final var lightData = this.getVertexLight(ctx, quad.hasAmbientOcclusion() ? lighter : this.lighters.getLighter(LightMode.FLAT), cullFace, quad);
             final var vertexColors = this.getVertexColors(ctx, colorizer, quad);
 
+            long writeStart = this.timer.start();
+
             ChunkModelBuilder builder = this.chooseOptimalBuilder(material, buffers, defaultBuilder, quad);
 
             this.writeGeometry(ctx, builder, offset, material, quad, vertexColors, lightData);
@@ -263,12 +281,17 @@ public class BlockRenderer {
             if (sprite != null) {
                 builder.addSprite(sprite);
             }
+
+            this.timer.stop(ChunkBuildStage.WRITE, writeStart);
         }
     }
 
     private QuadLightData getVertexLight(BlockRenderContext ctx, LightPipeline lighter, Direction cullFace, BakedQuadView quad) {
         QuadLightData light = this.quadLightData;
+
+        long start = this.timer.start();
         lighter.calculate(quad, ctx.pos(), light, cullFace, quad.getLightFace(), quad.hasShade());
+        this.timer.stop(ChunkBuildStage.LIGHTING, start);
 
         return light;
     }
@@ -276,6 +299,8 @@ public class BlockRenderer {
     private int[] getVertexColors(BlockRenderContext ctx, ColorProvider<BlockState> colorProvider, BakedQuadView quad) {
         final int[] vertexColors = this.quadColors;
 
+        long start = this.timer.start();
+
         if (colorProvider != null && quad.hasColor()) {
             colorProvider.getColors(ctx.world(), ctx.pos(), ctx.state(), quad, vertexColors);
             // Force full alpha on all colors
@@ -286,6 +311,8 @@ public class BlockRenderer {
             Arrays.fill(vertexColors, 0xFFFFFFFF);
         }
 
+        this.timer.stop(ChunkBuildStage.COLOR, start);
+
         return vertexColors;
     }
 
@@ -9,6 +9,8 @@ import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockRenderCache;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockRenderContext;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry.BlockRenderTimer;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry.ChunkBuildTelemetry;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
@@ -76,6 +78,9 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
 
     @Override
     public ChunkBuildOutput execute(ChunkBuildContext buildContext, CancellationToken cancellationToken) {
+        boolean telemetry = ChunkBuildTelemetry.isEnabled();
+        long sectionStart = telemetry ? System.nanoTime() : 0L;
+
         BuiltSectionInfo.Builder renderData = new BuiltSectionInfo.Builder();
         VisGraph occluder = new VisGraph();
 
@@ -101,6 +106,9 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
 
         BlockRenderContext context = new BlockRenderContext(slice);
 
+        BlockRenderTimer timer = cache.getBlockRenderer().getTimer();
+        timer.setEnabled(telemetry);
+
         try {
             for (int y = minY; y < maxY; y++) {
                 if (cancellationToken.isCancelled()) {
@@ -135,8 +143,13 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
 
                             for (RenderType layer : model.getRenderTypes(blockState, random, modelData)) {
                                 context.update(blockPos, modelOffset, blockState, model, seed, modelData, layer);
-                                cache.getBlockRenderer()
-                                        .renderModel(context, buffers);
+
+                                if (telemetry) {
+                                    this.renderModelTimed(cache, context, buffers, timer);
+                                } else {
+                                    cache.getBlockRenderer()
+                                            .renderModel(context, buffers);
+                                }
                             }
                         }
 
@@ -199,9 +212,23 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
 
         ChunkDataBuiltEvent.BUS.post(new ChunkDataBuiltEvent(renderData));
 
+        if (telemetry) {
+            ChunkBuildTelemetry.recordSection(System.nanoTime() - sectionStart);
+        }
+
         return new ChunkBuildOutput(this.render, renderData.build(), meshes, this.buildTime);
     }
 
+    private void renderModelTimed(BlockRenderCache cache, BlockRenderContext context, ChunkBuildBuffers buffers, BlockRenderTimer timer) {
+        timer.reset();
+
+        long start = System.nanoTime();
+        cache.getBlockRenderer()
+                .renderModel(context, buffers);
+
+        ChunkBuildTelemetry.recordBlock(context.model(), context.state(), System.nanoTime() - start, timer);
+    }
+
     private ReportedException fillCrashInfo(CrashReport report, WorldSlice slice, BlockPos pos) {
         CrashReportCategory crashReportSection = report.addCategory("Block being rendered", 1);
 
@@ -38,13 +38,14 @@ public class ChunkBuilderSortTask extends ChunkBuilderTask<ChunkBuildOutput> {
 
     @Override
     public ChunkBuildOutput execute(ChunkBuildContext context, CancellationToken cancellationSource) {
+        long startTime = System.nanoTime();
         Map<TerrainRenderPass, BuiltSectionMeshParts> meshes = new Reference2ReferenceOpenHashMap<>();
         NativeBuffer currentBuffer = null;
 
         try {
             for (Map.Entry<TerrainRenderPass, TranslucentQuadAnalyzer.SortState> entry : translucentMeshes.entrySet()) {
                 var sortBuffer = entry.getValue();
-                currentBuffer = new NativeBuffer(ChunkBufferSorter.getIndexBufferSize(sortBuffer.centers().length / 3));
+                currentBuffer = context.buffers.allocateOutput(ChunkBufferSorter.getIndexBufferSize(sortBuffer.centers().length / 3));
                 ChunkBufferSorter.sort(currentBuffer, sortBuffer, cameraX - this.render.getOriginX(), cameraY - this.render.getOriginY(), cameraZ - this.render.getOriginZ());
                 meshes.put(entry.getKey(), new BuiltSectionMeshParts(
                         null,
@@ -56,6 +57,7 @@ public class ChunkBuilderSortTask extends ChunkBuilderTask<ChunkBuildOutput> {
             }
             ChunkBuildOutput result = new ChunkBuildOutput(render, null, meshes, this.frame);
             result.setIndexOnlyUpload(true);
+            result.setExecutionTime(System.nanoTime() - startTime);
             return result;
         } catch (Throwable t) {
             // Clean up the current buffer if it was allocated but not yet stored
@@ -0,0 +1,42 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates the time spent in each {@link ChunkBuildStage} while rendering a block. Each meshing thread has its own
+ * timer, which does nothing beyond a field read unless it has been enabled for the current section.
+ */
+public class BlockRenderTimer {
+    private final long[] stageTimes = new long[ChunkBuildStage.COUNT];
+
+    private boolean enabled;
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * {@return the start time to pass to {@link #stop(ChunkBuildStage, long)}, or zero if the timer is disabled}
+     */
+    public long start() {
+        return this.enabled ? System.nanoTime() : 0L;
+    }
+
+    public void stop(ChunkBuildStage stage, long start) {
+        if (start != 0L) {
+            this.stageTimes[stage.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    public long getStageTime(ChunkBuildStage stage) {
+        return this.stageTimes[stage.ordinal()];
+    }
+
+    public void reset() {
+        Arrays.fill(this.stageTimes, 0L);
+    }
+}
@@ -0,0 +1,24 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry;
+
+/**
+ * The stages of rendering a block model which are timed by the chunk build telemetry.
+ */
+public enum ChunkBuildStage {
+    QUAD_FETCH("quad_fetch"),
+    LIGHTING("lighting"),
+    COLOR("color"),
+    WRITE("write");
+
+    public static final ChunkBuildStage[] VALUES = ChunkBuildStage.values();
+    public static final int COUNT = VALUES.length;
+
+    private final String name;
+
+    ChunkBuildStage(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+}
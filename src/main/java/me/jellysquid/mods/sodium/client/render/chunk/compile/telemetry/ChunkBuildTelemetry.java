@@ -0,0 +1,141 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import net.minecraft.Util;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Optional instrumentation of chunk meshing, which attributes the time spent rendering each block to the class of its
+ * model and to the mod which registered the block. This is meant to help find the models which limit the throughput
+ * of chunk builds, and is only active while enabled in the options, since timing each quad has a noticeable cost.
+ */
+public class ChunkBuildTelemetry {
+    private static final Map<Class<?>, BlockStats> STATS_BY_MODEL = new ConcurrentHashMap<>();
+    private static final Map<String, BlockStats> STATS_BY_MOD = new ConcurrentHashMap<>();
+
+    private static final TimeHistogram SECTION_TIMES = new TimeHistogram();
+
+    private static volatile long startTime = System.currentTimeMillis();
+
+    public static boolean isEnabled() {
+        return SodiumClientMod.options().advanced.enableChunkBuildTelemetry;
+    }
+
+    /**
+     * Records the time spent rendering a block model. This can be called from any thread.
+     *
+     * @param time The total time spent rendering the model
+     * @param timer The timer which was used while rendering the model, with the time spent in each stage
+     */
+    public static void recordBlock(BakedModel model, BlockState state, long time, BlockRenderTimer timer) {
+        STATS_BY_MODEL.computeIfAbsent(model.getClass(), k -> new BlockStats())
+                .record(time, timer);
+        STATS_BY_MOD.computeIfAbsent(BuiltInRegistries.BLOCK.getKey(state.getBlock()).getNamespace(), k -> new BlockStats())
+                .record(time, timer);
+    }
+
+    /**
+     * Records the time spent by a meshing task on a whole section. This can be called from any thread.
+     */
+    public static void recordSection(long time) {
+        SECTION_TIMES.record(time);
+    }
+
+    public static void reset() {
+        STATS_BY_MODEL.clear();
+        STATS_BY_MOD.clear();
+
+        SECTION_TIMES.reset();
+
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes a report of everything recorded since the last reset to a new file in the given directory.
+     *
+     * @return The path of the report
+     */
+    public static Path writeReport(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        Path path = directory.resolve("chunk-build-" + Util.getFilenameFormattedDateTime() + ".txt");
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.printf("%s chunk build report, covering %d seconds%n%n", SodiumClientMod.MODNAME,
+                    (System.currentTimeMillis() - startTime) / 1000L);
+
+            writer.println("Sections");
+            writer.printf("%-14s %12s %10s %10s %10s %10s %10s%n", "", "total (ms)", "mean (us)", "p50 (us)", "p90 (us)", "p99 (us)", "max (us)");
+            writeHistogram(writer, "", SECTION_TIMES);
+            writer.println();
+
+            writeTable(writer, "Block models", STATS_BY_MODEL, Class::getName);
+            writeTable(writer, "Mods", STATS_BY_MOD, Function.identity());
+        }
+
+        return path;
+    }
+
+    private static <K> void writeTable(PrintWriter writer, String title, Map<K, BlockStats> stats, Function<K, String> naming) {
+        var entries = new ArrayList<>(stats.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<K, BlockStats> entry) -> entry.getValue().time.getTotal()).reversed());
+
+        writer.printf("%s (%d), by total time%n", title, entries.size());
+
+        for (var entry : entries) {
+            var blockStats = entry.getValue();
+
+            writer.println();
+            writer.printf("%s: %d blocks%n", naming.apply(entry.getKey()), blockStats.time.getCount());
+            writer.printf("  %-12s %12s %10s %10s %10s %10s %10s%n", "stage", "total (ms)", "mean (us)", "p50 (us)", "p90 (us)", "p99 (us)", "max (us)");
+            writeHistogram(writer, "  all", blockStats.time);
+
+            for (var stage : ChunkBuildStage.VALUES) {
+                writeHistogram(writer, "  " + stage.getName(), blockStats.stageTimes[stage.ordinal()]);
+            }
+        }
+
+        writer.println();
+    }
+
+    private static void writeHistogram(PrintWriter writer, String label, TimeHistogram histogram) {
+        writer.printf("%-14s %12.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n", label,
+                histogram.getTotal() / 1_000_000.0D,
+                histogram.getMean() / 1_000.0D,
+                histogram.getPercentile(0.50D) / 1_000.0D,
+                histogram.getPercentile(0.90D) / 1_000.0D,
+                histogram.getPercentile(0.99D) / 1_000.0D,
+                histogram.getMax() / 1_000.0D);
+    }
+
+    private static class BlockStats {
+        private final TimeHistogram time = new TimeHistogram();
+        private final TimeHistogram[] stageTimes = new TimeHistogram[ChunkBuildStage.COUNT];
+
+        private BlockStats() {
+            for (int i = 0; i < this.stageTimes.length; i++) {
+                this.stageTimes[i] = new TimeHistogram();
+            }
+        }
+
+        private void record(long time, BlockRenderTimer timer) {
+            this.time.record(time);
+
+            for (var stage : ChunkBuildStage.VALUES) {
+                this.stageTimes[stage.ordinal()].record(timer.getStageTime(stage));
+            }
+        }
+    }
+}
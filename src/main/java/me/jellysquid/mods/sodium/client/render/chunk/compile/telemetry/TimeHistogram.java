@@ -0,0 +1,122 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds with a fixed relative precision, in the style of an HDR histogram. Every
+ * power of two is split into {@link #SUB_BUCKETS} linear buckets, so a value read back from the histogram is never
+ * more than about 6% larger than the recorded value. Values can be recorded from any thread without locking.
+ */
+public class TimeHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Larger values (over 30 minutes) are recorded as the largest value which can be stored
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        value = Math.max(0L, Math.min(value, MAX_VALUE));
+
+        this.buckets.incrementAndGet(getBucketIndex(value));
+
+        this.count.increment();
+        this.total.add(value);
+        this.max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Removes all recorded values. Values which are recorded concurrently may be partially removed.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets.set(i, 0L);
+        }
+
+        this.count.reset();
+        this.total.reset();
+        this.max.set(0L);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getTotal() {
+        return this.total.sum();
+    }
+
+    public long getMax() {
+        return this.max.get();
+    }
+
+    public long getMean() {
+        long count = this.getCount();
+
+        return count == 0L ? 0L : this.getTotal() / count;
+    }
+
+    /**
+     * {@return the smallest value which at least the given fraction of the recorded values are equivalent to or less
+     * than, or zero if nothing has been recorded}
+     */
+    public long getPercentile(double fraction) {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0L;
+
+        // Take a snapshot first, since values may be recorded concurrently
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+
+        if (count == 0L) {
+            return 0L;
+        }
+
+        long target = Math.max(1L, (long) Math.ceil(fraction * count));
+        long seen = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+
+            if (seen >= target) {
+                return Math.min(getHighestEquivalentValue(i), this.getMax());
+            }
+        }
+
+        return this.getMax();
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long getHighestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -14,6 +14,8 @@ public class SectionRenderDataStorage {
 
     private final long pMeshDataArray;
 
+    private int version;
+
     public SectionRenderDataStorage() {
         this.pMeshDataArray = SectionRenderDataUnsafe.allocateHeap(RenderRegion.REGION_SIZE);
     }
@@ -64,6 +66,8 @@ public class SectionRenderDataStorage {
         }
 
         SectionRenderDataUnsafe.setSliceMask(pMeshData, sliceMask);
+
+        this.version++;
     }
 
     public void removeMeshes(int localSectionIndex) {
@@ -72,6 +76,8 @@ public class SectionRenderDataStorage {
             this.allocations[localSectionIndex] = null;
 
             SectionRenderDataUnsafe.clear(this.getDataPointer(localSectionIndex));
+
+            this.version++;
         }
 
         removeIndexBuffer(localSectionIndex);
@@ -81,6 +87,8 @@ public class SectionRenderDataStorage {
         if (this.indexAllocations[localSectionIndex] != null) {
             this.indexAllocations[localSectionIndex].delete();
             this.indexAllocations[localSectionIndex] = null;
+
+            this.version++;
         }
     }
 
@@ -98,12 +106,23 @@ public class SectionRenderDataStorage {
             int indexCount = SectionRenderDataUnsafe.getElementCount(pMeshData, facingIndex);
             indexOffset += indexCount * 4L;
         }
+
+        this.version++;
     }
 
     public void onBufferResized() {
         for (int sectionIndex = 0; sectionIndex < RenderRegion.REGION_SIZE; sectionIndex++) {
             this.updateMeshes(sectionIndex);
         }
+
+        this.version++;
+    }
+
+    /**
+     * {@return a counter which changes whenever the draw data of any section in this storage changes}
+     */
+    public int getVersion() {
+        return this.version;
     }
 
     private void updateMeshes(int sectionIndex) {
@@ -150,6 +169,6 @@ public class SectionRenderDataStorage {
         Arrays.fill(this.allocations, null);
         Arrays.fill(this.indexAllocations, null);
 
-        SectionRenderDataUnsafe.freeHeap(this.pMeshDataArray);
+        SectionRenderDataUnsafe.freeHeap(this.pMeshDataArray, RenderRegion.REGION_SIZE);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.chunk.data;
 
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTag;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTracker;
 import me.jellysquid.mods.sodium.client.util.UInt32;
 import org.lwjgl.system.MemoryUtil;
 
@@ -44,11 +46,11 @@ public class SectionRenderDataUnsafe {
     }
 
     public static long allocateHeap(int count) {
-        return MemoryUtil.nmemCalloc(count, STRIDE);
+        return NativeMemoryTracker.calloc(NativeMemoryTag.SECTION_RENDER_DATA, count, STRIDE);
     }
 
-    public static void freeHeap(long pointer) {
-        MemoryUtil.nmemFree(pointer);
+    public static void freeHeap(long pointer, int count) {
+        NativeMemoryTracker.free(NativeMemoryTag.SECTION_RENDER_DATA, pointer, count * STRIDE);
     }
 
     public static void clear(long pointer) {
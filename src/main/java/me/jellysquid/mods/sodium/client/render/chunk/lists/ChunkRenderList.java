@@ -8,11 +8,14 @@ import me.jellysquid.mods.sodium.client.util.iterator.ByteArrayIterator;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
 public class ChunkRenderList {
     private final RenderRegion region;
 
     private final byte[] sectionsWithGeometry = new byte[RenderRegion.REGION_SIZE];
     private int sectionsWithGeometryCount = 0;
+    private final long[] sectionsWithGeometryMask = new long[RenderRegion.REGION_SIZE / Long.SIZE];
 
     private final byte[] sectionsWithSprites = new byte[RenderRegion.REGION_SIZE];
     private int sectionsWithSpritesCount = 0;
@@ -33,11 +36,13 @@ public class ChunkRenderList {
         this.sectionsWithSpritesCount = 0;
         this.sectionsWithEntitiesCount = 0;
 
+        Arrays.fill(this.sectionsWithGeometryMask, 0L);
+
         this.size = 0;
         this.lastVisibleFrame = frame;
 
-        // Invalidate cached draw command batches since the visible sections changed
-        this.region.clearAllCachedBatches();
+        // Cached draw command batches are not invalidated here, the renderer compares them against the new contents
+        // of the list and only regenerates those of regions which actually changed
     }
 
     public void add(RenderSection render) {
@@ -52,6 +57,7 @@ public class ChunkRenderList {
 
         this.sectionsWithGeometry[this.sectionsWithGeometryCount] = (byte) index;
         this.sectionsWithGeometryCount += (flags >>> RenderSectionFlags.HAS_BLOCK_GEOMETRY) & 1;
+        this.sectionsWithGeometryMask[index >> 6] |= (long) ((flags >>> RenderSectionFlags.HAS_BLOCK_GEOMETRY) & 1) << (index & 63);
 
         this.sectionsWithSprites[this.sectionsWithSpritesCount] = (byte) index;
         this.sectionsWithSpritesCount += (flags >>> RenderSectionFlags.HAS_ANIMATED_SPRITES) & 1;
@@ -84,6 +90,37 @@ public class ChunkRenderList {
         return new ByteArrayIterator(this.sectionsWithEntities, this.sectionsWithEntitiesCount);
     }
 
+    /**
+     * Copies the indices of the sections with geometry, in the order they were added, into the given array.
+     * @return The number of sections copied
+     */
+    public int copyGeometrySections(byte[] dst) {
+        System.arraycopy(this.sectionsWithGeometry, 0, dst, 0, this.sectionsWithGeometryCount);
+        return this.sectionsWithGeometryCount;
+    }
+
+    /**
+     * Copies the bitmask of sections with geometry (indexed by local section index) into the given array.
+     */
+    public void copyGeometrySectionMask(long[] dst) {
+        System.arraycopy(this.sectionsWithGeometryMask, 0, dst, 0, this.sectionsWithGeometryMask.length);
+    }
+
+    /**
+     * {@return whether this list contains exactly the given sections with geometry, in the same order}
+     */
+    public boolean matchesGeometrySections(byte[] sections, int count) {
+        return count == this.sectionsWithGeometryCount &&
+                Arrays.equals(this.sectionsWithGeometry, 0, count, sections, 0, count);
+    }
+
+    /**
+     * {@return whether this list contains the same set of sections with geometry as the given bitmask}
+     */
+    public boolean matchesGeometrySectionMask(long[] mask) {
+        return Arrays.equals(this.sectionsWithGeometryMask, mask);
+    }
+
     public int getSectionsWithGeometryCount() {
         return this.sectionsWithGeometryCount;
     }
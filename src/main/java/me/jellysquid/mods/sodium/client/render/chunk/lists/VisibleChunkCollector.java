@@ -8,19 +8,22 @@ import java.util.EnumMap;
 import java.util.Map;
 import java.util.Queue;
 import me.jellysquid.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.SectionVisibilityBitmap;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 import org.embeddedt.embeddium.util.sodium.FlawlessFrames;
 
 public class VisibleChunkCollector implements OcclusionCuller.Visitor {
     private final ObjectArrayList<ChunkRenderList> sortedRenderLists;
     private final EnumMap<ChunkUpdateType, ArrayDeque<RenderSection>> sortedRebuildLists;
+    private final SectionVisibilityBitmap visibleSections;
 
     private final int frame;
 
     private final boolean ignoreQueueSizeLimit;
 
-    public VisibleChunkCollector(int frame) {
+    public VisibleChunkCollector(int frame, SectionVisibilityBitmap visibleSections) {
         this.frame = frame;
+        this.visibleSections = visibleSections;
 
         this.sortedRenderLists = new ObjectArrayList<>();
         this.sortedRebuildLists = new EnumMap<>(ChunkUpdateType.class);
@@ -44,6 +47,8 @@ public class VisibleChunkCollector implements OcclusionCuller.Visitor {
             this.sortedRenderLists.add(renderList);
         }
 
+        this.visibleSections.add(section.getChunkX(), section.getChunkY(), section.getChunkZ());
+
         if (visible && section.getFlags() != 0) {
             renderList.add(section);
         }
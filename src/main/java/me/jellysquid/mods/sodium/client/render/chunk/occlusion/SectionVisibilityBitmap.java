@@ -0,0 +1,177 @@
+package me.jellysquid.mods.sodium.client.render.chunk.occlusion;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.SectionPos;
+import org.embeddedt.embeddium.api.render.chunk.SectionVisibility;
+
+import java.util.Arrays;
+
+/**
+ * A dense bitmap of the sections which were reached by the last occlusion culling pass, centered on the camera.
+ *
+ * <p>There is one bit for each section within the render distance (plus a margin for the sections which are visited
+ * just outside of it) and between the minimum and maximum section of the world. Rows of sections along the X axis
+ * are stored in whole words, so that testing a run of sections only takes one or two bit tests. Sections outside the
+ * bitmap can still be reached, for example when a mod widens the render distance filter, and are tracked separately
+ * so that queries are always exact.</p>
+ */
+public class SectionVisibilityBitmap implements SectionVisibility {
+    // Sections up to one step beyond the search distance are visited, and the search distance is rounded up
+    private static final int RADIUS_MARGIN = 2;
+
+    private final int radius;
+    private final int minY, sizeY;
+    private final int size;
+    private final int wordsPerRow;
+
+    private final long[] words;
+    private final LongOpenHashSet outsideSections = new LongOpenHashSet();
+
+    private int originX, originZ;
+
+    public SectionVisibilityBitmap(int renderDistance, int minSectionY, int maxSectionY) {
+        this.radius = renderDistance + RADIUS_MARGIN;
+        this.size = (this.radius * 2) + 1;
+        this.wordsPerRow = (this.size + 63) >>> 6;
+
+        this.minY = minSectionY;
+        this.sizeY = maxSectionY - minSectionY;
+
+        this.words = new long[this.wordsPerRow * this.size * this.sizeY];
+    }
+
+    /**
+     * Clears the bitmap and moves it to be centered on the given section.
+     */
+    public void reset(int centerX, int centerZ) {
+        this.originX = centerX - this.radius;
+        this.originZ = centerZ - this.radius;
+
+        Arrays.fill(this.words, 0L);
+        this.outsideSections.clear();
+    }
+
+    public void add(int x, int y, int z) {
+        int index = this.getBitIndex(x, y, z);
+
+        if (index < 0) {
+            this.outsideSections.add(SectionPos.asLong(x, y, z));
+        } else {
+            this.words[index >>> 6] |= 1L << index;
+        }
+    }
+
+    public void remove(int x, int y, int z) {
+        int index = this.getBitIndex(x, y, z);
+
+        if (index < 0) {
+            this.outsideSections.remove(SectionPos.asLong(x, y, z));
+        } else {
+            this.words[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    @Override
+    public boolean isSectionVisible(int x, int y, int z) {
+        int index = this.getBitIndex(x, y, z);
+
+        if (index < 0) {
+            return !this.outsideSections.isEmpty() && this.outsideSections.contains(SectionPos.asLong(x, y, z));
+        }
+
+        return (this.words[index >>> 6] & (1L << index)) != 0L;
+    }
+
+    @Override
+    public boolean isAnySectionVisible(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        // Only the part of the box within the bitmap can be tested with words, and anything outside the bitmap can
+        // only be visible if some section outside the bitmap was reached
+        if (!this.outsideSections.isEmpty() && !this.containsBox(minX, minY, minZ, maxX, maxY, maxZ)) {
+            return this.isAnySectionVisibleSlow(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        int localMinX = Math.max(minX - this.originX, 0);
+        int localMaxX = Math.min(maxX - this.originX, this.size - 1);
+        int localMinY = Math.max(minY - this.minY, 0);
+        int localMaxY = Math.min(maxY - this.minY, this.sizeY - 1);
+        int localMinZ = Math.max(minZ - this.originZ, 0);
+        int localMaxZ = Math.min(maxZ - this.originZ, this.size - 1);
+
+        if (localMinX > localMaxX || localMinY > localMaxY || localMinZ > localMaxZ) {
+            return false;
+        }
+
+        int minWord = localMinX >>> 6;
+        int maxWord = localMaxX >>> 6;
+
+        long minMask = -1L << localMinX;
+        long maxMask = -1L >>> (63 - (localMaxX & 63));
+
+        for (int y = localMinY; y <= localMaxY; y++) {
+            for (int z = localMinZ; z <= localMaxZ; z++) {
+                int rowOffset = this.getRowOffset(y, z);
+
+                if (minWord == maxWord) {
+                    if ((this.words[rowOffset + minWord] & minMask & maxMask) != 0L) {
+                        return true;
+                    }
+                } else {
+                    if ((this.words[rowOffset + minWord] & minMask) != 0L) {
+                        return true;
+                    }
+
+                    for (int word = minWord + 1; word < maxWord; word++) {
+                        if (this.words[rowOffset + word] != 0L) {
+                            return true;
+                        }
+                    }
+
+                    if ((this.words[rowOffset + maxWord] & maxMask) != 0L) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isAnySectionVisibleSlow(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    if (this.isSectionVisible(x, y, z)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean containsBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return minX >= this.originX && maxX < this.originX + this.size &&
+                minY >= this.minY && maxY < this.minY + this.sizeY &&
+                minZ >= this.originZ && maxZ < this.originZ + this.size;
+    }
+
+    private int getRowOffset(int localY, int localZ) {
+        return ((localY * this.size) + localZ) * this.wordsPerRow;
+    }
+
+    /**
+     * {@return the index of the bit for a section, or -1 if the section is outside the bitmap}
+     */
+    private int getBitIndex(int x, int y, int z) {
+        int localX = x - this.originX;
+        int localY = y - this.minY;
+        int localZ = z - this.originZ;
+
+        if (localX < 0 || localX >= this.size || localY < 0 || localY >= this.sizeY || localZ < 0 || localZ >= this.size) {
+            return -1;
+        }
+
+        return (this.getRowOffset(localY, localZ) << 6) + localX;
+    }
+}
@@ -0,0 +1,78 @@
+package me.jellysquid.mods.sodium.client.render.chunk.region;
+
+import me.jellysquid.mods.sodium.client.gl.device.MultiDrawBatch;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.data.SectionRenderDataStorage;
+import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderList;
+
+/**
+ * A draw command batch for one render pass of a region, along with the inputs it was generated from. The batch is
+ * kept across frames and is only regenerated when those inputs change, so that regions whose visible sections, meshes
+ * and relative camera position are unchanged don't need their commands to be rebuilt each time the render lists are.
+ */
+public class CachedDrawBatch {
+    private final MultiDrawBatch batch = new MultiDrawBatch((ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE) + 1);
+
+    private final byte[] sections = new byte[RenderRegion.REGION_SIZE];
+    private int sectionCount;
+    private final long[] sectionMask = new long[RenderRegion.REGION_SIZE / Long.SIZE];
+
+    private SectionRenderDataStorage storage;
+    private int storageVersion;
+
+    private boolean faceCulling;
+    private int cameraSectionX, cameraSectionY, cameraSectionZ;
+
+    public MultiDrawBatch getBatch() {
+        return this.batch;
+    }
+
+    /**
+     * Returns whether the commands in the batch are still valid for the given inputs.
+     *
+     * @param ordered Whether the order of the sections matters for this pass, or only the set of visible sections
+     * @param faceCulling Whether draw commands are culled by face using the camera's section position
+     */
+    public boolean isValid(ChunkRenderList renderList, SectionRenderDataStorage storage, boolean ordered, boolean faceCulling,
+                           int cameraSectionX, int cameraSectionY, int cameraSectionZ) {
+        if (!this.batch.isFilled || this.storage != storage || this.storageVersion != storage.getVersion()) {
+            return false;
+        }
+
+        if (this.faceCulling != faceCulling || (faceCulling && (this.cameraSectionX != cameraSectionX ||
+                this.cameraSectionY != cameraSectionY || this.cameraSectionZ != cameraSectionZ))) {
+            return false;
+        }
+
+        if (ordered) {
+            return renderList.matchesGeometrySections(this.sections, this.sectionCount);
+        } else {
+            return renderList.matchesGeometrySectionMask(this.sectionMask);
+        }
+    }
+
+    /**
+     * Records the inputs which the batch was just generated from.
+     */
+    public void update(ChunkRenderList renderList, SectionRenderDataStorage storage, boolean faceCulling,
+                       int cameraSectionX, int cameraSectionY, int cameraSectionZ) {
+        this.sectionCount = renderList.copyGeometrySections(this.sections);
+        renderList.copyGeometrySectionMask(this.sectionMask);
+
+        this.storage = storage;
+        this.storageVersion = storage.getVersion();
+
+        this.faceCulling = faceCulling;
+        this.cameraSectionX = cameraSectionX;
+        this.cameraSectionY = cameraSectionY;
+        this.cameraSectionZ = cameraSectionZ;
+    }
+
+    public void invalidate() {
+        this.batch.clear();
+    }
+
+    public void delete() {
+        this.batch.delete();
+    }
+}
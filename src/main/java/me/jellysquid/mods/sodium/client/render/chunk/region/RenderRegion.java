@@ -8,7 +8,6 @@ import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.MultiDrawBatch;
 import me.jellysquid.mods.sodium.client.gl.tessellation.GlTessellation;
-import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.SodiumWorldRenderer;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.data.SectionRenderDataStorage;
@@ -18,6 +17,7 @@ import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkMeshForm
 import me.jellysquid.mods.sodium.client.util.MathUtil;
 import net.minecraft.core.SectionPos;
 import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -44,6 +44,7 @@ public class RenderRegion {
     }
 
     private final StagingBuffer stagingBuffer;
+    private final @Nullable DeviceResources sharedResources;
     private final int x, y, z;
 
     private final ChunkRenderList renderList;
@@ -52,15 +53,24 @@ public class RenderRegion {
     private int sectionCount;
 
     private final Map<TerrainRenderPass, SectionRenderDataStorage> sectionRenderData = new Reference2ReferenceOpenHashMap<>();
-    private final Map<TerrainRenderPass, MultiDrawBatch> cachedBatches = new Reference2ReferenceOpenHashMap<>();
+    private final Map<TerrainRenderPass, CachedDrawBatch> cachedBatches = new Reference2ReferenceOpenHashMap<>();
     private DeviceResources resources;
 
     public RenderRegion(int x, int y, int z, StagingBuffer stagingBuffer) {
+        this(x, y, z, stagingBuffer, null);
+    }
+
+    /**
+     * @param sharedResources The device resources shared between all regions, or null if this region should allocate
+     *                        its own buffers
+     */
+    public RenderRegion(int x, int y, int z, StagingBuffer stagingBuffer, @Nullable DeviceResources sharedResources) {
         this.x = x;
         this.y = y;
         this.z = z;
 
         this.stagingBuffer = stagingBuffer;
+        this.sharedResources = sharedResources;
         this.renderList = new ChunkRenderList(this);
     }
 
@@ -112,7 +122,11 @@ public class RenderRegion {
         this.sectionRenderData.clear();
 
         if (this.resources != null) {
-            this.resources.delete(commandList);
+            // Shared resources are owned by the region manager, and outlive any single region
+            if (this.resources != this.sharedResources) {
+                this.resources.delete(commandList);
+            }
+
             this.resources = null;
         }
 
@@ -125,11 +139,11 @@ public class RenderRegion {
     }
 
     /**
-     * Clears all cached draw command batches. Call when the render list changes.
+     * Clears all cached draw command batches, forcing them to be regenerated on the next frame.
      */
     public void clearAllCachedBatches() {
         for (var batch : this.cachedBatches.values()) {
-            batch.clear();
+            batch.invalidate();
         }
     }
 
@@ -137,12 +151,20 @@ public class RenderRegion {
      * Gets or creates a cached draw command batch for the given render pass.
      */
     public MultiDrawBatch getCachedBatch(TerrainRenderPass pass) {
-        MultiDrawBatch batch = this.cachedBatches.get(pass);
+        return this.getCachedBatchState(pass).getBatch();
+    }
+
+    /**
+     * Gets or creates a cached draw command batch for the given render pass, along with the inputs it was generated
+     * from.
+     */
+    public CachedDrawBatch getCachedBatchState(TerrainRenderPass pass) {
+        CachedDrawBatch batch = this.cachedBatches.get(pass);
         if (batch != null) {
             return batch;
         }
 
-        batch = new MultiDrawBatch((ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE) + 1);
+        batch = new CachedDrawBatch();
         this.cachedBatches.put(pass, batch);
         return batch;
     }
@@ -215,14 +237,14 @@ public class RenderRegion {
 
     public DeviceResources createResources(CommandList commandList) {
         if (this.resources == null) {
-            this.resources = new DeviceResources(commandList, this.stagingBuffer);
+            this.resources = this.sharedResources != null ? this.sharedResources : new DeviceResources(commandList, this.stagingBuffer);
         }
 
         return this.resources;
     }
 
     public void update(CommandList commandList) {
-        if (this.resources != null && this.resources.shouldDelete()) {
+        if (this.resources != null && this.resources != this.sharedResources && this.resources.shouldDelete()) {
             this.resources.delete(commandList);
             this.resources = null;
         }
@@ -239,6 +261,13 @@ public class RenderRegion {
         private GlTessellation indexedTessellation;
 
         public DeviceResources(CommandList commandList, StagingBuffer stagingBuffer) {
+            this(commandList, stagingBuffer, 1);
+        }
+
+        /**
+         * @param regionCount The number of regions the initial capacity of the buffers should be sized for
+         */
+        public DeviceResources(CommandList commandList, StagingBuffer stagingBuffer, int regionCount) {
             int stride;
             if(!SodiumClientMod.canUseVanillaVertices()) {
                 // this line must be left unchanged for the Oculus mixin to apply
@@ -246,8 +275,8 @@ public class RenderRegion {
             } else {
                 stride = ChunkMeshFormats.VANILLA_LIKE.getVertexFormat().getStride();
             }
-            this.geometryArena = new GlBufferArena(commandList, REGION_SIZE * 756, stride, stagingBuffer);
-            this.indexArena = new GlBufferArena(commandList, (REGION_SIZE * 378) / 4 * 6, 4, stagingBuffer);
+            this.geometryArena = new GlBufferArena(commandList, regionCount * REGION_SIZE * 756, stride, stagingBuffer);
+            this.indexArena = new GlBufferArena(commandList, regionCount * ((REGION_SIZE * 378) / 4 * 6), 4, stagingBuffer);
         }
 
         public void updateTessellation(CommandList commandList, GlTessellation tessellation) {
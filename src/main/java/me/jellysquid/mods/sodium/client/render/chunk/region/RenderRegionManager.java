@@ -10,22 +10,42 @@ import me.jellysquid.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
+import me.jellysquid.mods.sodium.client.gui.SodiumGameOptions;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
 public class RenderRegionManager {
     private final Long2ReferenceOpenHashMap<RenderRegion> regions = new Long2ReferenceOpenHashMap<>();
 
+    /**
+     * The number of regions which the shared geometry buffers are initially sized for.
+     */
+    private static final int SHARED_BUFFER_INITIAL_REGIONS = 4;
+
     private final StagingBuffer stagingBuffer;
 
+    /**
+     * The buffers shared by every region when {@link SodiumGameOptions.AdvancedSettings#useSharedGeometryBuffers} is
+     * enabled. Sharing one vertex and index buffer lets consecutive regions reuse the same vertex array binding, and
+     * avoids reserving slack space in a separate buffer for every region.
+     */
+    private final @Nullable RenderRegion.DeviceResources sharedResources;
+
     public RenderRegionManager(CommandList commandList) {
         this.stagingBuffer = createStagingBuffer(commandList);
+
+        if (SodiumClientMod.options().advanced.useSharedGeometryBuffers) {
+            this.sharedResources = new RenderRegion.DeviceResources(commandList, this.stagingBuffer, SHARED_BUFFER_INITIAL_REGIONS);
+        } else {
+            this.sharedResources = null;
+        }
     }
 
     public void update() {
@@ -92,7 +112,7 @@ public class RenderRegionManager {
         // If any of the buffers changed, the tessellation will need to be updated
         // Once invalidated the tessellation will be re-created on the next attempted use
         if (bufferChanged) {
-            region.refresh(commandList);
+            this.refresh(commandList, region);
         }
 
         // Collect the upload results
@@ -139,7 +159,7 @@ public class RenderRegionManager {
         // If any of the buffers changed, the tessellation will need to be updated
         // Once invalidated the tessellation will be re-created on the next attempted use
         if (bufferChanged) {
-            region.refresh(commandList);
+            this.refresh(commandList, region);
         }
 
         // Collect the upload results
@@ -149,6 +169,17 @@ public class RenderRegionManager {
         }
     }
 
+    private void refresh(CommandList commandList, RenderRegion region) {
+        if (this.sharedResources != null) {
+            // Every region holds allocations in the shared buffers, so all of their offsets may have changed
+            for (RenderRegion other : this.regions.values()) {
+                other.refresh(commandList);
+            }
+        } else {
+            region.refresh(commandList);
+        }
+    }
+
     private Reference2ReferenceMap.FastEntrySet<RenderRegion, List<ChunkBuildOutput>> createMeshUploadQueues(Collection<ChunkBuildOutput> results) {
         var map = new Reference2ReferenceOpenHashMap<RenderRegion, List<ChunkBuildOutput>>();
 
@@ -166,6 +197,11 @@ public class RenderRegionManager {
         }
 
         this.regions.clear();
+
+        if (this.sharedResources != null) {
+            this.sharedResources.delete(commandList);
+        }
+
         this.stagingBuffer.delete(commandList);
     }
 
@@ -173,6 +209,25 @@ public class RenderRegionManager {
         return this.regions.values();
     }
 
+    /**
+     * {@return the distinct device resources which are currently allocated for the loaded regions}
+     */
+    public Collection<RenderRegion.DeviceResources> getAllocatedResources() {
+        if (this.sharedResources != null) {
+            return List.of(this.sharedResources);
+        }
+
+        var resources = new ArrayList<RenderRegion.DeviceResources>();
+
+        for (var region : this.regions.values()) {
+            if (region.getResources() != null) {
+                resources.add(region.getResources());
+            }
+        }
+
+        return resources;
+    }
+
     public StagingBuffer getStagingBuffer() {
         return this.stagingBuffer;
     }
@@ -189,7 +244,7 @@ public class RenderRegionManager {
         var instance = this.regions.get(key);
 
         if (instance == null) {
-            this.regions.put(key, instance = new RenderRegion(x, y, z, this.stagingBuffer));
+            this.regions.put(key, instance = new RenderRegion(x, y, z, this.stagingBuffer, this.sharedResources));
         }
 
         return instance;
@@ -208,7 +263,7 @@ public class RenderRegionManager {
 
     private static StagingBuffer createStagingBuffer(CommandList commandList) {
         if (SodiumClientMod.options().advanced.useAdvancedStagingBuffers && MappedStagingBuffer.isSupported(RenderDevice.INSTANCE)) {
-            return new MappedStagingBuffer(commandList);
+            return new MappedStagingBuffer(commandList, SodiumClientMod.options().advanced.useDirectStagingUploads);
         }
 
         return new FallbackStagingBuffer(commandList);
@@ -1,7 +1,9 @@
 package me.jellysquid.mods.sodium.client.render.chunk.shader;
 
 import me.jellysquid.mods.sodium.client.gl.shader.ShaderConstants;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.builder.GreedyFaceMerger;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkMeshFormats;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import org.embeddedt.embeddium.render.ShaderModBridge;
@@ -29,6 +31,10 @@ public record ChunkShaderOptions(ChunkFogMode fog, TerrainRenderPass pass, Chunk
             constants.add("USE_VERTEX_COMPRESSION");
         }
 
+        if (this.pass == DefaultTerrainRenderPasses.SOLID && GreedyFaceMerger.isEnabled(this.vertexType)) {
+            constants.add("USE_FACE_MERGING");
+        }
+
         constants.add("VERT_POS_SCALE", String.valueOf(this.vertexType.getPositionScale()));
         constants.add("VERT_POS_OFFSET", String.valueOf(this.vertexType.getPositionOffset()));
         constants.add("VERT_TEX_SCALE", String.valueOf(this.vertexType.getTextureScale()));
@@ -4,6 +4,13 @@ public class MaterialParameters {
     public static final int OFFSET_USE_MIP = 0;
     public static final int OFFSET_ALPHA_CUTOFF = 1;
 
+    /**
+     * Set on quads which were merged by the {@code GreedyFaceMerger}, and which repeat their sprite across each block
+     * they cover. The size of the sprite is stored in the following four bits.
+     */
+    public static final int OFFSET_TILED = 3;
+    public static final int OFFSET_TILE_SCALE = 4;
+
     public static int pack(AlphaCutoffParameter alphaCutoff, boolean useMipmaps) {
         return (((useMipmaps ? 1 : 0) << OFFSET_USE_MIP) |
                 ((alphaCutoff.ordinal()) << OFFSET_ALPHA_CUTOFF));
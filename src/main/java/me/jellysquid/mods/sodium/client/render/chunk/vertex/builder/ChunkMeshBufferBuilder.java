@@ -1,8 +1,11 @@
 package me.jellysquid.mods.sodium.client.render.chunk.vertex.builder;
 
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.Material;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTag;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTracker;
 import org.embeddedt.embeddium.render.chunk.sorting.TranslucentQuadAnalyzer;
 import org.jetbrains.annotations.Nullable;
 import org.lwjgl.system.MemoryUtil;
@@ -37,7 +40,7 @@ public class ChunkMeshBufferBuilder {
         var vertexCount = vertices.length;
 
         if (this.count + vertexCount >= this.capacity) {
-            this.grow(this.stride * vertexCount);
+            this.grow(vertexCount);
         }
 
         long ptr = MemoryUtil.memAddress(this.buffer, this.count * this.stride);
@@ -55,17 +58,24 @@ public class ChunkMeshBufferBuilder {
         this.count += vertexCount;
     }
 
-    private void grow(int len) {
+    private void grow(int vertexCount) {
         // The new capacity will at least as large as the write it needs to service
-        int cap = Math.max(this.capacity * 2, this.capacity + len);
+        int cap = Math.max(this.capacity * 2, this.capacity + vertexCount);
 
         // Update the buffer and capacity now
-        this.setBufferSize(cap * this.stride);
+        this.setBufferSize(cap);
     }
 
+    /**
+     * Resizes the buffer to hold the given number of vertices, preserving its contents.
+     */
     private void setBufferSize(int capacity) {
+        int oldBytes = this.buffer != null ? this.buffer.capacity() : 0;
+
         this.buffer = MemoryUtil.memRealloc(this.buffer, capacity * this.stride);
         this.capacity = capacity;
+
+        NativeMemoryTracker.recordReallocation(NativeMemoryTag.CHUNK_MESH_BUILDER, oldBytes, this.buffer.capacity());
     }
 
     public void start(int sectionIndex) {
@@ -75,7 +85,32 @@ public class ChunkMeshBufferBuilder {
             this.analyzer.clear();
         }
 
-        this.setBufferSize(this.initialCapacity);
+        // The buffer is kept at its largest size between builds, as the next section will likely need as much space
+        if (this.buffer == null) {
+            this.setBufferSize(this.initialCapacity);
+        }
+    }
+
+    /**
+     * Adds the vertices in this buffer to the vertices of the section which the given merger must not merge across.
+     */
+    public void addSectionVertices(GreedyFaceMerger merger) {
+        if (this.count == 0) {
+            return;
+        }
+
+        merger.addSectionVertices(MemoryUtil.memAddress(this.buffer), this.count);
+    }
+
+    /**
+     * Merges the quads in this buffer with the given merger, which all must have the given facing.
+     */
+    public void mergeQuads(GreedyFaceMerger merger, ModelQuadFacing facing) {
+        if (this.count == 0) {
+            return;
+        }
+
+        this.count = merger.merge(MemoryUtil.memAddress(this.buffer), this.count, facing);
     }
 
     @Nullable
@@ -85,6 +120,7 @@ public class ChunkMeshBufferBuilder {
 
     public void destroy() {
         if (this.buffer != null) {
+            NativeMemoryTracker.recordFree(NativeMemoryTag.CHUNK_MESH_BUILDER, this.buffer.capacity());
             MemoryUtil.memFree(this.buffer);
         }
 
@@ -0,0 +1,785 @@
+package me.jellysquid.mods.sodium.client.render.chunk.vertex.builder;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.DefaultMaterials;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.parameters.MaterialParameters;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkMeshFormats;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.impl.CompactChunkVertex;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTag;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTracker;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.texture.MissingTextureAtlasSprite;
+import net.minecraft.client.renderer.texture.TextureAtlas;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import org.embeddedt.embeddium.render.ShaderModBridge;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Arrays;
+
+/**
+ * Merges coplanar, adjacent quads of the solid material which each cover exactly one block face and are identical in
+ * sprite, texture orientation, color and light into larger quads. Flat terrain is mostly made of such quads, so this
+ * greatly reduces the size of its meshes.
+ *
+ * <p>A merged quad repeats its sprite across every block it covers, but the sprite is part of the block atlas and so
+ * can't be repeated by the sampler. Instead, the texture coordinates of a merged quad are its coordinates in whole
+ * tiles, and the shader wraps them into the sprite itself. The position of the sprite in the atlas (in units of its
+ * own size) is stored in the upper bytes of the light coordinates, which are otherwise unused, and the size of the
+ * sprite is stored in the material bits, see {@link MaterialParameters#OFFSET_TILED}. This limits merging to sprites
+ * with a power-of-two size which are aligned to their size within the atlas, and requires the compact vertex format
+ * and the default terrain shaders, see {@link #isEnabled(ChunkVertexType)}.</p>
+ *
+ * <p>Only quads whose vertices all have the same color and light are merged, as interpolating those across a larger
+ * quad gives the same values. A vertex of other geometry which lies inside the edge of a merged quad (a T-junction)
+ * could leave single-pixel cracks, as the two edges would be rasterized differently. To avoid this, the vertices of
+ * every mesh in the section are collected first with {@link #addSectionVertices(long, int)}, and merged quads are split
+ * at any of them which they would pass through. The geometry of neighbouring sections is not known here, so quads on
+ * the faces of the section are never merged. Merged quads which run along the edges of the section can still meet the
+ * vertices of neighbouring sections partway along; splitting them at every block there would propagate through the
+ * whole plane, as every split adds corners of its own.</p>
+ *
+ * <p>Quads with equal depth are resolved by their draw order, so candidates are only moved to the end of the buffer
+ * while no later quad overlaps them. Otherwise, they are written out before that quad, in their original order.</p>
+ */
+public class GreedyFaceMerger {
+    /**
+     * The largest number of blocks which a merged quad can cover along each axis. This must match the value of
+     * {@code TILE_COORD_RANGE} in the terrain shaders.
+     */
+    public static final int MAX_SPAN = 16;
+
+    private static final int STRIDE = CompactChunkVertex.STRIDE;
+    private static final int QUAD_STRIDE = STRIDE * 4;
+
+    private static final int OFFSET_POSITION = 0;
+    private static final int OFFSET_MATERIAL = 6;
+    private static final int OFFSET_COLOR = 8;
+    private static final int OFFSET_TEXTURE = 12;
+    private static final int OFFSET_LIGHT = 16;
+
+    private static final int MAX_TEXTURE_VALUE = 32768;
+    private static final int MAX_TILE_INDEX = 255;
+
+    private static final int GRID_SIZE = 16;
+    private static final int EMPTY = -1;
+
+    // The encoded positions of the section's origin and far corner, and the encoded length of one block
+    private static final int POSITION_ORIGIN = Short.toUnsignedInt(CompactChunkVertex.encodePosition(0.0f));
+    private static final int POSITION_LIMIT = Short.toUnsignedInt(CompactChunkVertex.encodePosition(GRID_SIZE));
+    private static final int POSITION_UNIT = Short.toUnsignedInt(CompactChunkVertex.encodePosition(1.0f)) - POSITION_ORIGIN;
+
+    private final int atlasWidth, atlasHeight;
+
+    // The quads which can be merged are copied here, as the vertex buffer is compacted while they are being collected
+    private long scratch;
+    private int scratchCapacity;
+
+    private int candidateCount;
+    private int[] color = new int[256], light = new int[256];
+    private int[] spriteOrigin = new int[256], spriteSize = new int[256];
+    private int[] layout = new int[256];
+
+    // The candidates in each plane, keyed by the encoded position along the facing's axis
+    private final Int2ObjectOpenHashMap<int[]> planes = new Int2ObjectOpenHashMap<>();
+    private final ObjectArrayList<int[]> freeGrids = new ObjectArrayList<>();
+
+    private final int[] tileU = new int[4], tileV = new int[4];
+
+    private final IntArrayList overlappedCandidates = new IntArrayList();
+
+    // The number of vertices of the section at each grid point, keyed by the axis and encoded position of the plane
+    private final Int2ObjectOpenHashMap<int[]> sectionVertices = new Int2ObjectOpenHashMap<>();
+    private final ObjectArrayList<int[]> freePointGrids = new ObjectArrayList<>();
+
+    // The candidate in each cell of the plane being merged, and the rectangles of cells which are written for it
+    private final int[] cells = new int[GRID_SIZE * GRID_SIZE];
+    private final int[] rectA = new int[GRID_SIZE * GRID_SIZE], rectB = new int[GRID_SIZE * GRID_SIZE];
+    private final int[] rectWidth = new int[GRID_SIZE * GRID_SIZE], rectHeight = new int[GRID_SIZE * GRID_SIZE];
+    private int rectCount;
+
+    /**
+     * @param atlasWidth The width of the block atlas in pixels
+     * @param atlasHeight The height of the block atlas in pixels
+     */
+    public GreedyFaceMerger(int atlasWidth, int atlasHeight) {
+        this.atlasWidth = atlasWidth;
+        this.atlasHeight = atlasHeight;
+    }
+
+    /**
+     * Creates a merger for the current block atlas. This must be called on the main thread.
+     */
+    public static GreedyFaceMerger forBlockAtlas() {
+        TextureAtlasSprite sprite = Minecraft.getInstance().getTextureAtlas(TextureAtlas.LOCATION_BLOCKS)
+                .apply(MissingTextureAtlasSprite.getLocation());
+
+        return new GreedyFaceMerger(Math.round(sprite.contents().width() / (sprite.getU1() - sprite.getU0())),
+                Math.round(sprite.contents().height() / (sprite.getV1() - sprite.getV0())));
+    }
+
+    /**
+     * {@return true if faces should be merged for meshes of the given vertex type}
+     */
+    public static boolean isEnabled(ChunkVertexType vertexType) {
+        return SodiumClientMod.options().advanced.useGreedyFaceMerging && vertexType == ChunkMeshFormats.COMPACT &&
+                !ShaderModBridge.areShadersEnabled();
+    }
+
+    /**
+     * Forgets the vertices of the previous section. This must be called before the vertices of a section are added.
+     */
+    public void begin() {
+        this.freePointGrids.addAll(this.sectionVertices.values());
+        this.sectionVertices.clear();
+    }
+
+    /**
+     * Adds the vertices of a mesh in the section, which must be of the compact vertex format. Merged quads are split
+     * so that none of these vertices lie inside of their edges. This must be called for every mesh of the section,
+     * including the meshes which are merged afterwards, before any of them are merged.
+     */
+    public void addSectionVertices(long ptr, int vertexCount) {
+        for (int i = 0; i < vertexCount; i++) {
+            long vertex = ptr + ((long) i * STRIDE);
+
+            int x = getEncodedPosition(vertex, 0), y = getEncodedPosition(vertex, 1), z = getEncodedPosition(vertex, 2);
+
+            this.addSectionVertex(0, x, y, z);
+            this.addSectionVertex(1, y, x, z);
+            this.addSectionVertex(2, z, x, y);
+        }
+    }
+
+    private void addSectionVertex(int axis, int plane, int a, int b) {
+        // Quads on the faces of the section are never merged
+        if (plane <= POSITION_ORIGIN || plane >= POSITION_LIMIT) {
+            return;
+        }
+
+        int offsetA = a - POSITION_ORIGIN, offsetB = b - POSITION_ORIGIN;
+        boolean alignedA = Math.floorMod(offsetA, POSITION_UNIT) == 0, alignedB = Math.floorMod(offsetB, POSITION_UNIT) == 0;
+
+        // A vertex inside of a cell can't lie on the edge of any quad in the grid
+        if (!alignedA && !alignedB) {
+            return;
+        }
+
+        int[] points = this.getSectionVertices(axis, plane);
+        int gridA = Math.floorDiv(offsetA, POSITION_UNIT), gridB = Math.floorDiv(offsetB, POSITION_UNIT);
+
+        // A vertex between two grid points can only lie inside of an edge which passes through either of them
+        addPoint(points, gridA, gridB, 1);
+
+        if (!alignedA) {
+            addPoint(points, gridA + 1, gridB, 1);
+        } else if (!alignedB) {
+            addPoint(points, gridA, gridB + 1, 1);
+        }
+    }
+
+    private int[] getSectionVertices(int axis, int plane) {
+        int key = (axis << 16) | plane;
+        int[] points = this.sectionVertices.get(key);
+
+        if (points == null) {
+            points = this.freePointGrids.isEmpty() ? new int[(GRID_SIZE + 1) * (GRID_SIZE + 1)] : this.freePointGrids.pop();
+            Arrays.fill(points, 0);
+
+            this.sectionVertices.put(key, points);
+        }
+
+        return points;
+    }
+
+    /**
+     * Merges the quads in the given vertex data in place, which must be of the compact vertex format and only contain
+     * quads of the given facing. The vertices of the section must have been added with
+     * {@link #addSectionVertices(long, int)} first.
+     *
+     * @return The number of vertices after merging, which is never more than before
+     */
+    public int merge(long ptr, int vertexCount, ModelQuadFacing facing) {
+        int axis = getAxis(facing);
+
+        if (axis < 0) {
+            return vertexCount;
+        }
+
+        int quadCount = vertexCount / 4;
+
+        this.ensureCapacity(quadCount);
+        this.candidateCount = 0;
+
+        // Move every quad which can't be merged to the front of the buffer, and collect the others
+        int writeIndex = 0;
+
+        for (int quadIndex = 0; quadIndex < quadCount; quadIndex++) {
+            long quadPtr = ptr + ((long) quadIndex * QUAD_STRIDE);
+
+            if (this.tryAddCandidate(quadPtr, axis)) {
+                continue;
+            }
+
+            writeIndex = this.writeOverlappedCandidates(quadPtr, axis, ptr, writeIndex);
+
+            if (writeIndex != quadIndex) {
+                MemoryUtil.memCopy(quadPtr, ptr + ((long) writeIndex * QUAD_STRIDE), QUAD_STRIDE);
+            }
+
+            writeIndex++;
+        }
+
+        for (var entry : this.planes.int2ObjectEntrySet()) {
+            writeIndex = this.mergePlane(axis, entry.getIntKey(), entry.getValue(), ptr, writeIndex);
+
+            this.freeGrids.add(entry.getValue());
+        }
+
+        this.planes.clear();
+
+        return writeIndex * 4;
+    }
+
+    private int mergePlane(int axis, int plane, int[] grid, long ptr, int writeIndex) {
+        int[] points = this.getSectionVertices(axis, plane);
+        int[] cells = this.cells;
+
+        System.arraycopy(grid, 0, cells, 0, grid.length);
+
+        // The candidates are replaced by the merged quads as vertices of the section
+        for (int b = 0; b < GRID_SIZE; b++) {
+            for (int a = 0; a < GRID_SIZE; a++) {
+                if (cells[getCellIndex(a, b)] != EMPTY) {
+                    addCorners(points, a, b, 1, 1, -1);
+                }
+            }
+        }
+
+        this.rectCount = 0;
+
+        for (int b = 0; b < GRID_SIZE; b++) {
+            for (int a = 0; a < GRID_SIZE; a++) {
+                int candidate = grid[getCellIndex(a, b)];
+
+                if (candidate == EMPTY) {
+                    continue;
+                }
+
+                int width = 1;
+
+                while (a + width < GRID_SIZE && this.canMerge(candidate, grid[getCellIndex(a + width, b)])) {
+                    width++;
+                }
+
+                int height = 1;
+
+                expand:
+                while (b + height < GRID_SIZE) {
+                    for (int i = 0; i < width; i++) {
+                        if (!this.canMerge(candidate, grid[getCellIndex(a + i, b + height)])) {
+                            break expand;
+                        }
+                    }
+
+                    height++;
+                }
+
+                for (int j = 0; j < height; j++) {
+                    Arrays.fill(grid, getCellIndex(a, b + j), getCellIndex(a + width, b + j), EMPTY);
+                }
+
+                this.setRect(this.rectCount++, a, b, width, height);
+                addCorners(points, a, b, width, height, 1);
+            }
+        }
+
+        // Splitting a rectangle adds new corners, which other rectangles may pass through, so this repeats until none
+        // of them change. Every split adds a rectangle, and there can't be more rectangles than cells.
+        boolean split;
+
+        do {
+            split = false;
+
+            for (int i = 0; i < this.rectCount; i++) {
+                split |= this.trySplitRect(points, i);
+            }
+        } while (split);
+
+        for (int i = 0; i < this.rectCount; i++) {
+            int a = this.rectA[i], b = this.rectB[i];
+            int width = this.rectWidth[i], height = this.rectHeight[i];
+
+            // Every cell of the rectangle has a candidate which can be merged with the others
+            int candidate = cells[getCellIndex(a, b)];
+            long dst = ptr + ((long) writeIndex * QUAD_STRIDE);
+
+            if (width == 1 && height == 1) {
+                MemoryUtil.memCopy(this.scratch + ((long) candidate * QUAD_STRIDE), dst, QUAD_STRIDE);
+            } else {
+                this.writeMergedQuad(candidate, a, b, width, height, dst);
+            }
+
+            writeIndex++;
+        }
+
+        return writeIndex;
+    }
+
+    /**
+     * Splits a rectangle in two at the first vertex of the section which lies inside of one of its edges, if any.
+     *
+     * @return True if the rectangle was split
+     */
+    private boolean trySplitRect(int[] points, int rect) {
+        int a = this.rectA[rect], b = this.rectB[rect];
+        int width = this.rectWidth[rect], height = this.rectHeight[rect];
+
+        for (int i = 1; i < width; i++) {
+            if (isSectionVertex(points, a + i, b) || isSectionVertex(points, a + i, b + height)) {
+                addCorners(points, a, b, width, height, -1);
+
+                this.setRect(rect, a, b, i, height);
+                this.setRect(this.rectCount++, a + i, b, width - i, height);
+
+                addCorners(points, a, b, i, height, 1);
+                addCorners(points, a + i, b, width - i, height, 1);
+
+                return true;
+            }
+        }
+
+        for (int i = 1; i < height; i++) {
+            if (isSectionVertex(points, a, b + i) || isSectionVertex(points, a + width, b + i)) {
+                addCorners(points, a, b, width, height, -1);
+
+                this.setRect(rect, a, b, width, i);
+                this.setRect(this.rectCount++, a, b + i, width, height - i);
+
+                addCorners(points, a, b, width, i, 1);
+                addCorners(points, a, b + i, width, height - i, 1);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void setRect(int rect, int a, int b, int width, int height) {
+        this.rectA[rect] = a;
+        this.rectB[rect] = b;
+        this.rectWidth[rect] = width;
+        this.rectHeight[rect] = height;
+    }
+
+    /**
+     * {@return true if a merged quad can't pass through the given grid point}
+     */
+    private static boolean isSectionVertex(int[] points, int a, int b) {
+        return points[getPointIndex(a, b)] > 0;
+    }
+
+    private static void addCorners(int[] points, int a, int b, int width, int height, int count) {
+        addPoint(points, a, b, count);
+        addPoint(points, a + width, b, count);
+        addPoint(points, a, b + height, count);
+        addPoint(points, a + width, b + height, count);
+    }
+
+    private static void addPoint(int[] points, int a, int b, int count) {
+        if (a >= 0 && b >= 0 && a <= GRID_SIZE && b <= GRID_SIZE) {
+            points[getPointIndex(a, b)] += count;
+        }
+    }
+
+    /**
+     * Removes the candidates which lie under the cells covered by a quad in the same plane from their grid, and writes
+     * them out in their original order, so that they are still drawn before that quad. The quad itself is written by
+     * the caller afterwards. This can't overwrite any quads which were not read yet, as the candidates being written
+     * were read before the quad.
+     */
+    private int writeOverlappedCandidates(long quadPtr, int axis, long ptr, int writeIndex) {
+        if (this.planes.isEmpty()) {
+            return writeIndex;
+        }
+
+        int plane = Short.toUnsignedInt(MemoryUtil.memGetShort(quadPtr + OFFSET_POSITION + (axis * 2)));
+
+        for (int i = 1; i < 4; i++) {
+            if (Short.toUnsignedInt(MemoryUtil.memGetShort(quadPtr + ((long) i * STRIDE) + OFFSET_POSITION + (axis * 2))) != plane) {
+                return writeIndex;
+            }
+        }
+
+        int[] grid = this.planes.get(plane);
+
+        if (grid == null) {
+            return writeIndex;
+        }
+
+        int axisA = getPlaneAxisA(axis), axisB = getPlaneAxisB(axis);
+
+        float minA = Float.POSITIVE_INFINITY, maxA = Float.NEGATIVE_INFINITY;
+        float minB = Float.POSITIVE_INFINITY, maxB = Float.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < 4; i++) {
+            long vertex = quadPtr + ((long) i * STRIDE);
+
+            float a = getPosition(vertex, axisA), b = getPosition(vertex, axisB);
+
+            minA = Math.min(minA, a);
+            maxA = Math.max(maxA, a);
+            minB = Math.min(minB, b);
+            maxB = Math.max(maxB, b);
+        }
+
+        int startA = Math.max(0, (int) Math.floor(minA)), endA = Math.min(GRID_SIZE, Math.max((int) Math.ceil(maxA), startA + 1));
+        int startB = Math.max(0, (int) Math.floor(minB)), endB = Math.min(GRID_SIZE, Math.max((int) Math.ceil(maxB), startB + 1));
+
+        var overlapped = this.overlappedCandidates;
+
+        for (int b = startB; b < endB; b++) {
+            for (int a = startA; a < endA; a++) {
+                int cell = getCellIndex(a, b);
+
+                if (grid[cell] != EMPTY) {
+                    overlapped.add(grid[cell]);
+                    grid[cell] = EMPTY;
+                }
+            }
+        }
+
+        if (overlapped.isEmpty()) {
+            return writeIndex;
+        }
+
+        // Candidates are numbered in the order they were read
+        IntArrays.quickSort(overlapped.elements(), 0, overlapped.size());
+
+        for (int i = 0; i < overlapped.size(); i++) {
+            MemoryUtil.memCopy(this.scratch + ((long) overlapped.getInt(i) * QUAD_STRIDE), ptr + ((long) writeIndex * QUAD_STRIDE), QUAD_STRIDE);
+            writeIndex++;
+        }
+
+        overlapped.clear();
+
+        return writeIndex;
+    }
+
+    private boolean canMerge(int candidate, int other) {
+        return other != EMPTY &&
+                this.color[candidate] == this.color[other] &&
+                this.light[candidate] == this.light[other] &&
+                this.spriteOrigin[candidate] == this.spriteOrigin[other] &&
+                this.spriteSize[candidate] == this.spriteSize[other] &&
+                this.layout[candidate] == this.layout[other];
+    }
+
+    private void writeMergedQuad(int candidate, int cellA, int cellB, int width, int height, long dst) {
+        long src = this.scratch + ((long) candidate * QUAD_STRIDE);
+        MemoryUtil.memCopy(src, dst, QUAD_STRIDE);
+
+        int layout = this.layout[candidate];
+        int spriteOrigin = this.spriteOrigin[candidate];
+        int spriteWidth = this.spriteSize[candidate] & 0xFFFF;
+
+        int axis = getAxisFromLayout(layout);
+        int axisA = getPlaneAxisA(axis), axisB = getPlaneAxisB(axis);
+
+        // The texture coordinates in tiles are an affine function of the position within the quad, which is found
+        // from the corners of the original quad and then evaluated over the larger quad
+        int u0 = 0, uA = 0, uB = 0, v0 = 0, vA = 0, vB = 0;
+
+        for (int i = 0; i < 4; i++) {
+            int corner = getVertexCorner(layout, i);
+            int u = getVertexTexU(layout, i), v = getVertexTexV(layout, i);
+
+            switch (corner) {
+                case 0 -> { u0 = u; v0 = v; }
+                case 1 -> { uA = u; vA = v; }
+                case 2 -> { uB = u; vB = v; }
+            }
+        }
+
+        int[] tileU = this.tileU, tileV = this.tileV;
+        int minU = Integer.MAX_VALUE, minV = Integer.MAX_VALUE;
+
+        for (int i = 0; i < 4; i++) {
+            int corner = getVertexCorner(layout, i);
+            int a = (corner & 1) * width, b = (corner >> 1) * height;
+
+            tileU[i] = u0 + ((uA - u0) * a) + ((uB - u0) * b);
+            tileV[i] = v0 + ((vA - v0) * a) + ((vB - v0) * b);
+
+            minU = Math.min(minU, tileU[i]);
+            minV = Math.min(minV, tileV[i]);
+        }
+
+        int scale = 15 - Integer.numberOfTrailingZeros(spriteWidth);
+        int material = DefaultMaterials.SOLID.bits() | (1 << MaterialParameters.OFFSET_TILED) | (scale << MaterialParameters.OFFSET_TILE_SCALE);
+
+        int tileIndexU = (spriteOrigin & 0xFFFF) / spriteWidth;
+        int tileIndexV = (spriteOrigin >>> 16) / (this.spriteSize[candidate] >>> 16);
+        int light = this.light[candidate] | (tileIndexU << 8) | (tileIndexV << 24);
+
+        for (int i = 0; i < 4; i++) {
+            long vertex = dst + ((long) i * STRIDE);
+            int corner = getVertexCorner(layout, i);
+
+            MemoryUtil.memPutShort(vertex + OFFSET_POSITION + (axisA * 2),
+                    CompactChunkVertex.encodePosition(cellA + ((corner & 1) * width)));
+            MemoryUtil.memPutShort(vertex + OFFSET_POSITION + (axisB * 2),
+                    CompactChunkVertex.encodePosition(cellB + ((corner >> 1) * height)));
+
+            MemoryUtil.memPutByte(vertex + OFFSET_MATERIAL, (byte) material);
+
+            // Subtracting whole tiles doesn't change how the sprite repeats, but keeps the coordinates positive
+            MemoryUtil.memPutShort(vertex + OFFSET_TEXTURE, CompactChunkVertex.encodeTexture((float) (tileU[i] - minU) / MAX_SPAN));
+            MemoryUtil.memPutShort(vertex + OFFSET_TEXTURE + 2, CompactChunkVertex.encodeTexture((float) (tileV[i] - minV) / MAX_SPAN));
+
+            MemoryUtil.memPutInt(vertex + OFFSET_LIGHT, light);
+        }
+    }
+
+    /**
+     * Checks whether a quad covers exactly one block face with one uniform color, light and full sprite, and if so,
+     * copies it into the scratch buffer and adds it to the grid of its plane.
+     */
+    private boolean tryAddCandidate(long quadPtr, int axis) {
+        int axisA = getPlaneAxisA(axis), axisB = getPlaneAxisB(axis);
+
+        int material = Byte.toUnsignedInt(MemoryUtil.memGetByte(quadPtr + OFFSET_MATERIAL));
+        int plane = Short.toUnsignedInt(MemoryUtil.memGetShort(quadPtr + OFFSET_POSITION + (axis * 2)));
+        int color = MemoryUtil.memGetInt(quadPtr + OFFSET_COLOR);
+        int light = MemoryUtil.memGetInt(quadPtr + OFFSET_LIGHT);
+
+        // The upper bytes of the light coordinates are needed for the position of the sprite
+        if (material != DefaultMaterials.SOLID.bits() || (light & 0xFF00FF00) != 0) {
+            return false;
+        }
+
+        // The geometry of neighbouring sections which meets the faces of the section is not known
+        if (plane <= POSITION_ORIGIN || plane >= POSITION_LIMIT) {
+            return false;
+        }
+
+        float minA = Float.POSITIVE_INFINITY, minB = Float.POSITIVE_INFINITY;
+        int minU = Integer.MAX_VALUE, maxU = Integer.MIN_VALUE, minV = Integer.MAX_VALUE, maxV = Integer.MIN_VALUE;
+
+        for (int i = 0; i < 4; i++) {
+            long vertex = quadPtr + ((long) i * STRIDE);
+
+            if (Byte.toUnsignedInt(MemoryUtil.memGetByte(vertex + OFFSET_MATERIAL)) != material ||
+                    Short.toUnsignedInt(MemoryUtil.memGetShort(vertex + OFFSET_POSITION + (axis * 2))) != plane ||
+                    MemoryUtil.memGetInt(vertex + OFFSET_COLOR) != color ||
+                    MemoryUtil.memGetInt(vertex + OFFSET_LIGHT) != light) {
+                return false;
+            }
+
+            minA = Math.min(minA, getPosition(vertex, axisA));
+            minB = Math.min(minB, getPosition(vertex, axisB));
+
+            int u = getTexture(vertex, 0), v = getTexture(vertex, 1);
+
+            minU = Math.min(minU, u);
+            maxU = Math.max(maxU, u);
+            minV = Math.min(minV, v);
+            maxV = Math.max(maxV, v);
+        }
+
+        // The quad must cover exactly one cell of the section
+        if (minA != (int) minA || minB != (int) minB || minA < 0 || minA >= GRID_SIZE || minB < 0 || minB >= GRID_SIZE) {
+            return false;
+        }
+
+        int spriteWidth = maxU - minU, spriteHeight = maxV - minV;
+
+        if (!this.isTileableSprite(minU, minV, spriteWidth, spriteHeight)) {
+            return false;
+        }
+
+        // Each vertex must sit on a different corner of the cell, and map to a different corner of the sprite
+        int layout = axis << 16;
+        int corners = 0, texCorners = 0;
+
+        for (int i = 0; i < 4; i++) {
+            long vertex = quadPtr + ((long) i * STRIDE);
+
+            float a = getPosition(vertex, axisA) - minA, b = getPosition(vertex, axisB) - minB;
+            int u = getTexture(vertex, 0) - minU, v = getTexture(vertex, 1) - minV;
+
+            if ((a != 0.0f && a != 1.0f) || (b != 0.0f && b != 1.0f) || (u != 0 && u != spriteWidth) || (v != 0 && v != spriteHeight)) {
+                return false;
+            }
+
+            int corner = (int) a | ((int) b << 1);
+            int texCorner = (u != 0 ? 1 : 0) | (v != 0 ? 2 : 0);
+
+            corners |= 1 << corner;
+            texCorners |= 1 << texCorner;
+
+            layout |= (corner | (texCorner << 2)) << (i * 4);
+        }
+
+        if (corners != 0xF || texCorners != 0xF || !isAffine(layout)) {
+            return false;
+        }
+
+        int[] grid = this.planes.get(plane);
+
+        if (grid == null) {
+            grid = this.freeGrids.isEmpty() ? new int[GRID_SIZE * GRID_SIZE] : this.freeGrids.pop();
+            Arrays.fill(grid, EMPTY);
+
+            this.planes.put(plane, grid);
+        }
+
+        int cell = getCellIndex((int) minA, (int) minB);
+
+        // A quad which overlaps an earlier candidate can't be merged, and the earlier candidate is then written out before
+        // it, see writeOverlappedCandidates
+        if (grid[cell] != EMPTY) {
+            return false;
+        }
+
+        int index = this.candidateCount++;
+        grid[cell] = index;
+
+        this.color[index] = color;
+        this.light[index] = light;
+        this.spriteOrigin[index] = minU | (minV << 16);
+        this.spriteSize[index] = spriteWidth | (spriteHeight << 16);
+        this.layout[index] = layout;
+
+        MemoryUtil.memCopy(quadPtr, this.scratch + ((long) index * QUAD_STRIDE), QUAD_STRIDE);
+
+        return true;
+    }
+
+    /**
+     * {@return true if the shader can locate the sprite from its index and size alone}
+     */
+    private boolean isTileableSprite(int u, int v, int width, int height) {
+        if (width <= 0 || height <= 0 || Integer.bitCount(width) != 1 || width > MAX_TEXTURE_VALUE) {
+            return false;
+        }
+
+        // The shader derives the height of the sprite from its width, assuming that it is square in pixels
+        if (((long) width * this.atlasWidth) != ((long) height * this.atlasHeight)) {
+            return false;
+        }
+
+        return (u % width) == 0 && (v % height) == 0 && (u / width) <= MAX_TILE_INDEX && (v / height) <= MAX_TILE_INDEX;
+    }
+
+    /**
+     * {@return true if the texture coordinates of a quad are a rotation or reflection of its corners}
+     */
+    private static boolean isAffine(int layout) {
+        // The texture corner of each cell corner, packed into 2 bits each
+        int tex = 0;
+
+        for (int i = 0; i < 4; i++) {
+            tex |= ((layout >> ((i * 4) + 2)) & 3) << (getVertexCorner(layout, i) * 2);
+        }
+
+        for (int bit = 0; bit < 2; bit++) {
+            int t0 = (tex >> bit) & 1, tA = (tex >> (2 + bit)) & 1, tB = (tex >> (4 + bit)) & 1, tAB = (tex >> (6 + bit)) & 1;
+
+            if (tAB != tA + tB - t0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int getVertexCorner(int layout, int vertex) {
+        return (layout >> (vertex * 4)) & 3;
+    }
+
+    private static int getVertexTexU(int layout, int vertex) {
+        return (layout >> ((vertex * 4) + 2)) & 1;
+    }
+
+    private static int getVertexTexV(int layout, int vertex) {
+        return (layout >> ((vertex * 4) + 3)) & 1;
+    }
+
+    private static int getAxisFromLayout(int layout) {
+        return (layout >> 16) & 3;
+    }
+
+    private static float getPosition(long vertex, int axis) {
+        return CompactChunkVertex.decodePosition(MemoryUtil.memGetShort(vertex + OFFSET_POSITION + (axis * 2)));
+    }
+
+    private static int getEncodedPosition(long vertex, int axis) {
+        return Short.toUnsignedInt(MemoryUtil.memGetShort(vertex + OFFSET_POSITION + (axis * 2)));
+    }
+
+    private static int getTexture(long vertex, int component) {
+        return Short.toUnsignedInt(MemoryUtil.memGetShort(vertex + OFFSET_TEXTURE + (component * 2)));
+    }
+
+    private static int getCellIndex(int a, int b) {
+        return (b * GRID_SIZE) + a;
+    }
+
+    private static int getPointIndex(int a, int b) {
+        return (b * (GRID_SIZE + 1)) + a;
+    }
+
+    private static int getAxis(ModelQuadFacing facing) {
+        return switch (facing) {
+            case POS_X, NEG_X -> 0;
+            case POS_Y, NEG_Y -> 1;
+            case POS_Z, NEG_Z -> 2;
+            default -> -1;
+        };
+    }
+
+    private static int getPlaneAxisA(int axis) {
+        return axis == 0 ? 1 : 0;
+    }
+
+    private static int getPlaneAxisB(int axis) {
+        return axis == 2 ? 1 : 2;
+    }
+
+    private void ensureCapacity(int quadCount) {
+        if (quadCount > this.scratchCapacity) {
+            int capacity = Math.max(quadCount, this.scratchCapacity * 2);
+
+            this.scratch = NativeMemoryTracker.realloc(NativeMemoryTag.CHUNK_MESH_BUILDER, this.scratch,
+                    (long) this.scratchCapacity * QUAD_STRIDE, (long) capacity * QUAD_STRIDE);
+
+            if (this.scratch == MemoryUtil.NULL) {
+                throw new OutOfMemoryError("Couldn't allocate scratch memory for merging faces");
+            }
+
+            this.scratchCapacity = capacity;
+        }
+
+        if (quadCount > this.color.length) {
+            this.color = IntArrays.grow(this.color, quadCount);
+            this.light = IntArrays.grow(this.light, quadCount);
+            this.spriteOrigin = IntArrays.grow(this.spriteOrigin, quadCount);
+            this.spriteSize = IntArrays.grow(this.spriteSize, quadCount);
+            this.layout = IntArrays.grow(this.layout, quadCount);
+        }
+    }
+
+    public void destroy() {
+        NativeMemoryTracker.free(NativeMemoryTag.CHUNK_MESH_BUILDER, this.scratch, (long) this.scratchCapacity * QUAD_STRIDE);
+
+        this.scratch = MemoryUtil.NULL;
+        this.scratchCapacity = 0;
+    }
+}
@@ -68,7 +68,7 @@ public class CompactChunkVertex implements ChunkVertexType {
         };
     }
 
-    private static short encodePosition(float value) {
+    public static short encodePosition(float value) {
         return (short) ((MODEL_ORIGIN + value) * MODEL_SCALE_INV);
     }
 
@@ -76,7 +76,7 @@ public class CompactChunkVertex implements ChunkVertexType {
         return (((float)Short.toUnsignedInt(value)) / MODEL_SCALE_INV) - MODEL_ORIGIN;
     }
 
-    private static short encodeTexture(float value) {
+    public static short encodeTexture(float value) {
         return (short) (Math.round(value * TEXTURE_MAX_VALUE) & 0xFFFF);
     }
 }
@@ -0,0 +1,19 @@
+package me.jellysquid.mods.sodium.client.render.entity;
+
+/**
+ * Holds the result of the batched entity culling pass for an entity, so that it can be looked up when the entity is
+ * rendered without any hashing. Implemented by all entities through a mixin.
+ */
+public interface EntityCullingState {
+    /**
+     * {@return the culling pass the visibility of this entity was last computed in}
+     */
+    int embeddium$getCullingPass();
+
+    /**
+     * {@return whether the entity was visible in the pass returned by {@link #embeddium$getCullingPass()}}
+     */
+    boolean embeddium$isVisible();
+
+    void embeddium$setVisibility(int pass, boolean visible);
+}
@@ -10,6 +10,8 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.Tesselator;
 import com.mojang.blaze3d.vertex.VertexBuffer;
 import com.mojang.blaze3d.vertex.VertexFormat;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 import net.caffeinemc.mods.sodium.api.util.ColorABGR;
 import net.caffeinemc.mods.sodium.api.util.ColorARGB;
 import net.caffeinemc.mods.sodium.api.util.ColorMixer;
@@ -26,9 +28,11 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.Resource;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.ResourceProvider;
+import net.minecraft.Util;
 import net.minecraft.util.Mth;
 import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.effect.MobEffects;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.material.FogType;
 import net.minecraft.world.phys.Vec3;
 import org.embeddedt.embeddium.api.render.clouds.ModifyCloudRenderingEvent;
@@ -37,9 +41,11 @@ import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
 import org.lwjgl.opengl.GL30C;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 public class CloudRenderer {
     private static final ResourceLocation CLOUDS_TEXTURE_ID = new ResourceLocation("textures/environment/clouds.png");
@@ -78,7 +84,18 @@ public class CloudRenderer {
     // 1024 / 128 = 8
     private static final float CLOUD_PIXELS_TO_MAXIMUM_RENDER_DISTANCE = 0.0078125F;
 
-    private VertexBuffer vertexBuffer;
+    // The number of cloud cells along each side of a tile
+    private static final int TILE_SIZE = 32;
+
+    // Tiles which leave the visible area are kept until they are this many tiles away from it, so that moving back and
+    // forth across a tile boundary doesn't rebuild them
+    private static final int TILE_RETENTION_DISTANCE = 1;
+
+    private final Long2ObjectOpenHashMap<CloudTile> tiles = new Long2ObjectOpenHashMap<>();
+    private final Matrix4f tileModelViewMatrix = new Matrix4f();
+
+    private int tileMinX, tileMinZ, tileMaxX, tileMaxZ;
+
     private CloudEdges edges;
     private ShaderInstance shader;
     private final FogRenderer.FogData fogData = new FogRenderer.FogData(FogRenderer.FogMode.FOG_TERRAIN);
@@ -124,28 +141,24 @@ public class CloudRenderer {
         int centerCellX = (int) (Math.floor(cloudCenterX / this.cloudSizeX));
         int centerCellZ = (int) (Math.floor(cloudCenterZ / this.cloudSizeZ));
 
-        if (this.vertexBuffer == null || this.prevCenterCellX != centerCellX || this.prevCenterCellY != centerCellZ || this.cachedRenderDistance != renderDistance || cloudRenderMode != Minecraft.getInstance().options.getCloudsType()) {
-            BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
-            bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+        CloudStatus cloudStatus = Minecraft.getInstance().options.getCloudsType();
 
-            this.cloudRenderMode = Minecraft.getInstance().options.getCloudsType();
-
-            this.rebuildGeometry(bufferBuilder, cloudDistance, centerCellX, centerCellZ);
-
-            if (this.vertexBuffer == null) {
-                this.vertexBuffer = new VertexBuffer(VertexBuffer.Usage.DYNAMIC);
-            }
-
-            this.vertexBuffer.bind();
-            this.vertexBuffer.upload(bufferBuilder.end());
+        if (this.cloudRenderMode != cloudStatus) {
+            // Fast and fancy clouds have different geometry, so every tile needs to be rebuilt
+            this.clearTiles();
+            this.cloudRenderMode = cloudStatus;
+        }
 
-            VertexBuffer.unbind();
+        if (this.tiles.isEmpty() || this.prevCenterCellX != centerCellX || this.prevCenterCellY != centerCellZ || this.cachedRenderDistance != renderDistance) {
+            this.updateTiles(cloudDistance, centerCellX, centerCellZ);
 
             this.prevCenterCellX = centerCellX;
             this.prevCenterCellY = centerCellZ;
             this.cachedRenderDistance = renderDistance;
         }
 
+        this.uploadFinishedTiles();
+
         float previousEnd = RenderSystem.getShaderFogEnd();
         float previousStart = RenderSystem.getShaderFogStart();
         this.fogData.end = cloudDistance * this.fogDistanceMultiplier;
@@ -162,8 +175,6 @@ public class CloudRenderer {
 
         RenderSystem.enableDepthTest();
 
-        this.vertexBuffer.bind();
-
         boolean insideClouds = cameraY < cloudHeight + 4.5f && cameraY > cloudHeight - 0.5f;
         boolean fastClouds = cloudRenderMode == CloudStatus.FAST;
 
@@ -185,7 +196,7 @@ public class CloudRenderer {
         RenderSystem.depthMask(true);
         RenderSystem.colorMask(false, false, false, false);
 
-        this.vertexBuffer.drawWithShader(modelViewMatrix, projectionMatrix, this.shader);
+        this.drawTiles(modelViewMatrix, projectionMatrix, centerCellX, centerCellZ);
 
         // PASS 2: Render geometry
         RenderSystem.enableBlend();
@@ -195,12 +206,10 @@ public class CloudRenderer {
         RenderSystem.depthFunc(GL30C.GL_EQUAL);
         RenderSystem.colorMask(true, true, true, true);
 
-        this.vertexBuffer.drawWithShader(modelViewMatrix, projectionMatrix, this.shader);
+        this.drawTiles(modelViewMatrix, projectionMatrix, centerCellX, centerCellZ);
 
         matrices.popPose();
 
-        VertexBuffer.unbind();
-
         RenderSystem.disableBlend();
         RenderSystem.depthFunc(GL30C.GL_LEQUAL);
 
@@ -259,114 +268,207 @@ public class CloudRenderer {
         }
     }
 
-    private void rebuildGeometry(BufferBuilder bufferBuilder, int cloudDistance, int centerCellX, int centerCellZ) {
-        var writer = VertexBufferWriter.of(bufferBuilder);
+    private void updateTiles(int cloudDistance, int centerCellX, int centerCellZ) {
+        this.tileMinX = Math.floorDiv(centerCellX - cloudDistance, TILE_SIZE);
+        this.tileMinZ = Math.floorDiv(centerCellZ - cloudDistance, TILE_SIZE);
+        this.tileMaxX = Math.floorDiv(centerCellX + cloudDistance - 1, TILE_SIZE);
+        this.tileMaxZ = Math.floorDiv(centerCellZ + cloudDistance - 1, TILE_SIZE);
 
-        boolean fastClouds = cloudRenderMode == CloudStatus.FAST;
+        for (var it = this.tiles.values().iterator(); it.hasNext(); ) {
+            CloudTile tile = it.next();
+
+            if (!this.isTileInRange(tile, TILE_RETENTION_DISTANCE)) {
+                tile.delete();
+                it.remove();
+            }
+        }
 
-        for (int offsetX = -cloudDistance; offsetX < cloudDistance; offsetX++) {
-            for (int offsetZ = -cloudDistance; offsetZ < cloudDistance; offsetZ++) {
-                int connectedEdges = this.edges.getEdges(centerCellX + offsetX, centerCellZ + offsetZ);
+        // Build the tiles synchronously if there is nothing to show yet, otherwise they are streamed in as they finish
+        boolean synchronous = this.tiles.isEmpty();
 
-                if (connectedEdges == 0) {
+        var edges = this.edges;
+        float cloudSizeX = this.cloudSizeX;
+        float cloudSizeZ = this.cloudSizeZ;
+        boolean fastClouds = this.cloudRenderMode == CloudStatus.FAST;
+
+        for (int tileX = this.tileMinX; tileX <= this.tileMaxX; tileX++) {
+            for (int tileZ = this.tileMinZ; tileZ <= this.tileMaxZ; tileZ++) {
+                long key = ChunkPos.asLong(tileX, tileZ);
+
+                if (this.tiles.containsKey(key)) {
                     continue;
                 }
 
-                int texel = this.edges.getColor(centerCellX + offsetX, centerCellZ + offsetZ);
-
-                float x = offsetX * this.cloudSizeX;
-                float z = offsetZ * this.cloudSizeZ;
+                final int x = tileX, z = tileZ;
+                CompletableFuture<NativeBuffer> geometry;
 
-                try (MemoryStack stack = MemoryStack.stackPush()) {
-                    final long buffer = stack.nmalloc((fastClouds ? 4 : (6 * 4)) * ColorVertex.STRIDE);
+                if (synchronous) {
+                    geometry = CompletableFuture.completedFuture(buildTileGeometry(edges, x, z, cloudSizeX, cloudSizeZ, fastClouds));
+                } else {
+                    geometry = CompletableFuture.supplyAsync(() -> buildTileGeometry(edges, x, z, cloudSizeX, cloudSizeZ, fastClouds), Util.backgroundExecutor());
+                }
 
-                    long ptr = buffer;
-                    int count = 0;
+                this.tiles.put(key, new CloudTile(tileX, tileZ, geometry));
+            }
+        }
+    }
 
-                    // -Y
-                    if ((connectedEdges & DIR_NEG_Y) != 0) {
-                        int mixedColor = ColorMixer.mul(texel, fastClouds ? CLOUD_COLOR_POS_Y : CLOUD_COLOR_NEG_Y);
+    private void uploadFinishedTiles() {
+        for (CloudTile tile : this.tiles.values()) {
+            if (tile.isBuildFinished()) {
+                tile.upload();
+            }
+        }
+    }
 
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 0.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + 0.0f, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 0.0f, z + 0.0f, mixedColor);
+    private void drawTiles(Matrix4f modelViewMatrix, Matrix4f projectionMatrix, int centerCellX, int centerCellZ) {
+        for (CloudTile tile : this.tiles.values()) {
+            if (tile.vertexBuffer == null || !this.isTileInRange(tile, 0)) {
+                continue;
+            }
 
-                        count += 4;
-                    }
+            // The geometry of each tile is relative to its origin
+            float offsetX = ((tile.x * TILE_SIZE) - centerCellX) * this.cloudSizeX;
+            float offsetZ = ((tile.z * TILE_SIZE) - centerCellZ) * this.cloudSizeZ;
 
-                    // Only emit -Y geometry to emulate vanilla fast clouds
-                    if (fastClouds) {
-                        writer.push(stack, buffer, count, ColorVertex.FORMAT);
-                        continue;
-                    }
+            this.tileModelViewMatrix.set(modelViewMatrix)
+                    .translate(offsetX, 0.0f, offsetZ);
 
-                    // +Y
-                    if ((connectedEdges & DIR_POS_Y) != 0) {
-                        int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_POS_Y);
+            tile.vertexBuffer.bind();
+            tile.vertexBuffer.drawWithShader(this.tileModelViewMatrix, projectionMatrix, this.shader);
+        }
 
-                        ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 4.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 4.0f, z + 0.0f, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + 0.0f, mixedColor);
+        VertexBuffer.unbind();
+    }
 
-                        count += 4;
-                    }
+    private boolean isTileInRange(CloudTile tile, int margin) {
+        return tile.x >= this.tileMinX - margin && tile.x <= this.tileMaxX + margin &&
+                tile.z >= this.tileMinZ - margin && tile.z <= this.tileMaxZ + margin;
+    }
 
-                    // -X
-                    if ((connectedEdges & DIR_NEG_X) != 0) {
-                        int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_NEG_X);
+    private void clearTiles() {
+        for (CloudTile tile : this.tiles.values()) {
+            tile.delete();
+        }
 
-                        ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + 0.0f, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + 0.0f, mixedColor);
+        this.tiles.clear();
+    }
 
-                        count += 4;
-                    }
+    /**
+     * Builds the geometry of all cloud cells within a tile, relative to the tile's origin. This only reads immutable
+     * state, so it can be called from any thread.
+     *
+     * @return The vertices of the tile in {@link ColorVertex} format, or null if the tile has no geometry
+     */
+    private static @Nullable NativeBuffer buildTileGeometry(CloudEdges edges, int tileX, int tileZ, float cloudSizeX, float cloudSizeZ, boolean fastClouds) {
+        int originX = tileX * TILE_SIZE;
+        int originZ = tileZ * TILE_SIZE;
 
-                    // +X
-                    if ((connectedEdges & DIR_POS_X) != 0) {
-                        int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_POS_X);
+        int faceCount = 0;
 
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 4.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 0.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 0.0f, z + 0.0f, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 4.0f, z + 0.0f, mixedColor);
+        for (int offsetX = 0; offsetX < TILE_SIZE; offsetX++) {
+            for (int offsetZ = 0; offsetZ < TILE_SIZE; offsetZ++) {
+                int connectedEdges = edges.getEdges(originX + offsetX, originZ + offsetZ);
 
-                        count += 4;
-                    }
+                // Only emit -Y geometry to emulate vanilla fast clouds
+                faceCount += Integer.bitCount(fastClouds ? (connectedEdges & DIR_NEG_Y) : connectedEdges);
+            }
+        }
 
-                    // -Z
-                    if ((connectedEdges & DIR_NEG_Z) != 0) {
-                        int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_NEG_Z);
+        if (faceCount == 0) {
+            return null;
+        }
 
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 4.0f, z + 0.0f, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 0.0f, z + 0.0f, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + 0.0f, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + 0.0f, mixedColor);
+        NativeBuffer geometry = new NativeBuffer(faceCount * 4 * ColorVertex.STRIDE);
+        long ptr = MemoryUtil.memAddress(geometry.getDirectBuffer());
 
-                        count += 4;
-                    }
+        for (int offsetX = 0; offsetX < TILE_SIZE; offsetX++) {
+            for (int offsetZ = 0; offsetZ < TILE_SIZE; offsetZ++) {
+                int connectedEdges = edges.getEdges(originX + offsetX, originZ + offsetZ);
 
-                    // +Z
-                    if ((connectedEdges & DIR_POS_Z) != 0) {
-                        int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_POS_Z);
+                if (connectedEdges == 0) {
+                    continue;
+                }
 
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 0.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + this.cloudSizeX, 4.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + this.cloudSizeZ, mixedColor);
-                        ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + this.cloudSizeZ, mixedColor);
+                int texel = edges.getColor(originX + offsetX, originZ + offsetZ);
 
-                        count += 4;
-                    }
+                float x = offsetX * cloudSizeX;
+                float z = offsetZ * cloudSizeZ;
 
-                    if (count > 0) {
-                        writer.push(stack, buffer, count, ColorVertex.FORMAT);
-                    }
-                }
+                ptr = writeCell(ptr, connectedEdges, texel, x, z, cloudSizeX, cloudSizeZ, fastClouds);
             }
         }
+
+        return geometry;
+    }
+
+    private static long writeCell(long ptr, int connectedEdges, int texel, float x, float z, float cloudSizeX, float cloudSizeZ, boolean fastClouds) {
+        // -Y
+        if ((connectedEdges & DIR_NEG_Y) != 0) {
+            int mixedColor = ColorMixer.mul(texel, fastClouds ? CLOUD_COLOR_POS_Y : CLOUD_COLOR_NEG_Y);
+
+            ptr = writeVertex(ptr, x + cloudSizeX, 0.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + 0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 0.0f, z + 0.0f, mixedColor);
+        }
+
+        // Only emit -Y geometry to emulate vanilla fast clouds
+        if (fastClouds) {
+            return ptr;
+        }
+
+        // +Y
+        if ((connectedEdges & DIR_POS_Y) != 0) {
+            int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_POS_Y);
+
+            ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 4.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 4.0f, z + 0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + 0.0f, mixedColor);
+        }
+
+        // -X
+        if ((connectedEdges & DIR_NEG_X) != 0) {
+            int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_NEG_X);
+
+            ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + 0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + 0.0f, mixedColor);
+        }
+
+        // +X
+        if ((connectedEdges & DIR_POS_X) != 0) {
+            int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_POS_X);
+
+            ptr = writeVertex(ptr, x + cloudSizeX, 4.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 0.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 0.0f, z + 0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 4.0f, z + 0.0f, mixedColor);
+        }
+
+        // -Z
+        if ((connectedEdges & DIR_NEG_Z) != 0) {
+            int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_NEG_Z);
+
+            ptr = writeVertex(ptr, x + cloudSizeX, 4.0f, z + 0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 0.0f, z + 0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + 0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + 0.0f, mixedColor);
+        }
+
+        // +Z
+        if ((connectedEdges & DIR_POS_Z) != 0) {
+            int mixedColor = ColorMixer.mul(texel, CLOUD_COLOR_POS_Z);
+
+            ptr = writeVertex(ptr, x + cloudSizeX, 0.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + cloudSizeX, 4.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 4.0f, z + cloudSizeZ, mixedColor);
+            ptr = writeVertex(ptr, x + 0.0f, 0.0f, z + cloudSizeZ, mixedColor);
+        }
+
+        return ptr;
     }
 
     private static long writeVertex(long buffer, float x, float y, float z, int color) {
@@ -405,10 +507,7 @@ public class CloudRenderer {
             this.shader = null;
         }
 
-        if (this.vertexBuffer != null) {
-            this.vertexBuffer.close();
-            this.vertexBuffer = null;
-        }
+        this.clearTiles();
     }
 
     private static CloudEdges createCloudEdges() {
@@ -425,6 +524,70 @@ public class CloudRenderer {
         }
     }
 
+    /**
+     * A square group of cloud cells whose geometry is built once and kept for as long as it is near the camera.
+     */
+    private static class CloudTile {
+        private final int x, z;
+
+        private CompletableFuture<NativeBuffer> geometry;
+        private VertexBuffer vertexBuffer;
+
+        private CloudTile(int x, int z, CompletableFuture<NativeBuffer> geometry) {
+            this.x = x;
+            this.z = z;
+            this.geometry = geometry;
+        }
+
+        public boolean isBuildFinished() {
+            return this.geometry != null && this.geometry.isDone();
+        }
+
+        public void upload() {
+            NativeBuffer geometry = this.geometry.join();
+            this.geometry = null;
+
+            if (geometry == null) {
+                return;
+            }
+
+            try {
+                BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+                bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+
+                try (MemoryStack stack = MemoryStack.stackPush()) {
+                    VertexBufferWriter.of(bufferBuilder)
+                            .push(stack, MemoryUtil.memAddress(geometry.getDirectBuffer()), geometry.getLength() / ColorVertex.STRIDE, ColorVertex.FORMAT);
+                }
+
+                this.vertexBuffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+                this.vertexBuffer.bind();
+                this.vertexBuffer.upload(bufferBuilder.end());
+
+                VertexBuffer.unbind();
+            } finally {
+                geometry.free();
+            }
+        }
+
+        public void delete() {
+            if (this.geometry != null) {
+                // The build may still be running, in which case its result is freed as soon as it finishes
+                this.geometry.thenAccept(geometry -> {
+                    if (geometry != null) {
+                        geometry.free();
+                    }
+                });
+                this.geometry = null;
+            }
+
+            if (this.vertexBuffer != null) {
+                this.vertexBuffer.close();
+                this.vertexBuffer = null;
+            }
+        }
+    }
+
     private static class CloudEdges {
         private final byte[] edges;
         private final int[] colors;
@@ -4,7 +4,9 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import org.embeddedt.embeddium.render.matrix_stack.CachingPoseStack;
 import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
 import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
 import net.caffeinemc.mods.sodium.api.vertex.format.common.ModelVertex;
+import net.caffeinemc.mods.sodium.api.vertex.serializer.VertexSerializerRegistry;
 import net.minecraft.client.model.geom.ModelPart;
 import net.minecraft.core.Direction;
 import org.apache.commons.lang3.ArrayUtils;
@@ -12,17 +14,16 @@ import org.joml.Matrix4f;
 import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.lwjgl.system.MemoryStack;
-import org.lwjgl.system.MemoryUtil;
 
 import java.util.List;
 
 public class EntityRenderer {
 
-    private static final int NUM_CUBE_VERTICES = 8;
-    private static final int NUM_CUBE_FACES = 6;
-    private static final int NUM_FACE_VERTICES = 4;
+    static final int NUM_CUBE_VERTICES = 8;
+    static final int NUM_CUBE_FACES = 6;
+    static final int NUM_FACE_VERTICES = 4;
 
-    private static final int
+    static final int
             FACE_NEG_Y = 0, // DOWN
             FACE_POS_Y = 1, // UP
             FACE_NEG_Z = 2, // NORTH
@@ -30,7 +31,7 @@ public class EntityRenderer {
             FACE_NEG_X = 4, // WEST
             FACE_POS_X = 5; // EAST
 
-    private static final int
+    static final int
             VERTEX_X1_Y1_Z1 = 0,
             VERTEX_X2_Y1_Z1 = 1,
             VERTEX_X2_Y2_Z1 = 2,
@@ -41,11 +42,12 @@ public class EntityRenderer {
             VERTEX_X1_Y2_Z2 = 7;
 
 
-    private static final long SCRATCH_BUFFER = MemoryUtil.nmemAlignedAlloc(64, NUM_CUBE_FACES * NUM_FACE_VERTICES * ModelVertex.STRIDE);
-    private static final MemoryStack STACK = MemoryStack.create();
+    /**
+     * The maximum number of vertices from a {@link ModelPartTemplate} which are written before being pushed.
+     */
+    private static final int TEMPLATE_BATCH_VERTICES = 16 * NUM_CUBE_FACES * NUM_FACE_VERTICES;
 
-    private static final Vector3f[] CUBE_CORNERS = new Vector3f[NUM_CUBE_VERTICES];
-    private static final int[][] CUBE_VERTICES = new int[][] {
+    static final int[][] CUBE_VERTICES = new int[][] {
             { VERTEX_X2_Y1_Z2, VERTEX_X1_Y1_Z2, VERTEX_X1_Y1_Z1, VERTEX_X2_Y1_Z1 },
             { VERTEX_X2_Y2_Z1, VERTEX_X1_Y2_Z1, VERTEX_X1_Y2_Z2, VERTEX_X2_Y2_Z2 },
             { VERTEX_X2_Y1_Z1, VERTEX_X1_Y1_Z1, VERTEX_X1_Y2_Z1, VERTEX_X2_Y2_Z1 },
@@ -54,32 +56,63 @@ public class EntityRenderer {
             { VERTEX_X1_Y1_Z1, VERTEX_X1_Y1_Z2, VERTEX_X1_Y2_Z2, VERTEX_X1_Y2_Z1 },
     };
 
-    private static final Vector3f[][] VERTEX_POSITIONS = new Vector3f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
-    private static final Vector3f[][] VERTEX_POSITIONS_MIRRORED = new Vector3f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
+    /**
+     * The scratch state used while emitting geometry. Each thread has its own, so that models can be rendered from
+     * any thread (see {@link ParallelModelRenderer}).
+     */
+    private static final ThreadLocal<ThreadState> STATE = ThreadLocal.withInitial(ThreadState::new);
 
-    private static final Vector2f[][] VERTEX_TEXTURES = new Vector2f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
-    private static final Vector2f[][] VERTEX_TEXTURES_MIRRORED = new Vector2f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
+    private static final class ThreadState {
+        private final MemoryStack stack = MemoryStack.create();
 
-    private static final int[] CUBE_NORMALS = new int[NUM_CUBE_FACES];
-    private static final int[] CUBE_NORMALS_MIRRORED = new int[NUM_CUBE_FACES];
+        private final long cuboidBuffer;
+        private final long templateBuffer;
 
-    static {
-        for (int cornerIndex = 0; cornerIndex < NUM_CUBE_VERTICES; cornerIndex++) {
-            CUBE_CORNERS[cornerIndex] = new Vector3f();
-        }
+        private final Vector3f[] cubeCorners = new Vector3f[NUM_CUBE_VERTICES];
 
-        for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
-            for (int vertexIndex = 0; vertexIndex < NUM_FACE_VERTICES; vertexIndex++) {
-                VERTEX_TEXTURES[quadIndex][vertexIndex] = new Vector2f();
-                VERTEX_POSITIONS[quadIndex][vertexIndex] = CUBE_CORNERS[CUBE_VERTICES[quadIndex][vertexIndex]];
+        private final Vector3f[][] vertexPositions = new Vector3f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
+        private final Vector3f[][] vertexPositionsMirrored = new Vector3f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
+
+        private final Vector2f[][] vertexTextures = new Vector2f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
+        private final Vector2f[][] vertexTexturesMirrored = new Vector2f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
+
+        private final int[] cubeNormals = new int[NUM_CUBE_FACES];
+        private final int[] cubeNormalsMirrored = new int[NUM_CUBE_FACES];
+
+        private float[] templateCorners = new float[16 * NUM_CUBE_VERTICES * 3];
+
+        private ThreadState() {
+            // The scratch buffers live at the bottom of the stack for as long as the thread does, and are freed along
+            // with it. Anything pushed by a vertex writer is allocated above them.
+            this.stack.push();
+            this.cuboidBuffer = this.stack.nmalloc(64, NUM_CUBE_FACES * NUM_FACE_VERTICES * ModelVertex.STRIDE);
+            this.templateBuffer = this.stack.nmalloc(64, TEMPLATE_BATCH_VERTICES * ModelVertex.STRIDE);
+
+            for (int cornerIndex = 0; cornerIndex < NUM_CUBE_VERTICES; cornerIndex++) {
+                this.cubeCorners[cornerIndex] = new Vector3f();
+            }
+
+            for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
+                for (int vertexIndex = 0; vertexIndex < NUM_FACE_VERTICES; vertexIndex++) {
+                    this.vertexTextures[quadIndex][vertexIndex] = new Vector2f();
+                    this.vertexPositions[quadIndex][vertexIndex] = this.cubeCorners[CUBE_VERTICES[quadIndex][vertexIndex]];
+                }
+            }
+
+            for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
+                for (int vertexIndex = 0; vertexIndex < NUM_FACE_VERTICES; vertexIndex++) {
+                    this.vertexTexturesMirrored[quadIndex][vertexIndex] = this.vertexTextures[quadIndex][3 - vertexIndex];
+                    this.vertexPositionsMirrored[quadIndex][vertexIndex] = this.vertexPositions[quadIndex][3 - vertexIndex];
+                }
             }
         }
 
-        for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
-            for (int vertexIndex = 0; vertexIndex < NUM_FACE_VERTICES; vertexIndex++) {
-                VERTEX_TEXTURES_MIRRORED[quadIndex][vertexIndex] = VERTEX_TEXTURES[quadIndex][3 - vertexIndex];
-                VERTEX_POSITIONS_MIRRORED[quadIndex][vertexIndex] = VERTEX_POSITIONS[quadIndex][3 - vertexIndex];
+        private float[] getTemplateCorners(int length) {
+            if (this.templateCorners.length < length) {
+                this.templateCorners = new float[length];
             }
+
+            return this.templateCorners;
         }
     }
 
@@ -126,34 +159,119 @@ public class EntityRenderer {
         prepareNormals(matrices);
 
         for (ModelCuboid cuboid : cuboids) {
-            prepareVertices(matrices, cuboid);
+            renderCuboidFast(matrices, writer, cuboid, light, overlay, color);
+        }
+    }
+
+    public static void renderCuboidFast(PoseStack.Pose matrices, VertexBufferWriter writer, ModelCuboid cuboid, int light, int overlay, int color) {
+        var state = STATE.get();
+
+        prepareVertices(state, matrices, cuboid);
+
+        var vertexCount = emitQuads(state, cuboid, color, overlay, light);
+
+        state.stack.push();
+        writer.push(state.stack, state.cuboidBuffer, vertexCount, ModelVertex.FORMAT);
+        state.stack.pop();
+    }
+
+    /**
+     * Renders all cuboids of a model part from its precompiled template. The corners are transformed once each, and the
+     * vertices are then written and pushed in large batches rather than one cuboid at a time.
+     */
+    public static void renderTemplate(PoseStack.Pose matrices, VertexBufferWriter writer, ModelPartTemplate template, int light, int overlay, int color) {
+        if (template.vertexCount == 0) {
+            return;
+        }
+
+        var state = STATE.get();
+
+        prepareNormals(state, matrices);
 
-            var vertexCount = emitQuads(cuboid, color, overlay, light);
+        var corners = transformTemplateCorners(state, matrices.pose(), template);
 
-            STACK.push();
-            writer.push(STACK, SCRATCH_BUFFER, vertexCount, ModelVertex.FORMAT);
-            STACK.pop();
+        for (int start = 0; start < template.vertexCount; start += TEMPLATE_BATCH_VERTICES) {
+            int count = Math.min(TEMPLATE_BATCH_VERTICES, template.vertexCount - start);
+
+            writeTemplateVertices(state.templateBuffer, template, corners, state.cubeNormals, start, count, light, overlay, color);
+
+            state.stack.push();
+            writer.push(state.stack, state.templateBuffer, count, ModelVertex.FORMAT);
+            state.stack.pop();
         }
     }
 
-    public static void renderCuboidFast(PoseStack.Pose matrices, VertexBufferWriter writer, ModelCuboid cuboid, int light, int overlay, int color) {
-        prepareVertices(matrices, cuboid);
+    /**
+     * Writes all vertices of a model part's template directly into the given memory, converting them to the given
+     * format. The result is identical to pushing the vertices from {@link #renderTemplate} into a buffer with that
+     * format. This can be called from any thread.
+     *
+     * @param normals The transformed normal of each face, see {@link #transformNormals(PoseStack.Pose, int[])}
+     */
+    static void writeTemplate(Matrix4f pose, int[] normals, ModelPartTemplate template, int light, int overlay, int color,
+                              long dst, VertexFormatDescription format) {
+        var state = STATE.get();
+        var corners = transformTemplateCorners(state, pose, template);
+
+        if (format == ModelVertex.FORMAT) {
+            writeTemplateVertices(dst, template, corners, normals, 0, template.vertexCount, light, overlay, color);
+            return;
+        }
+
+        var serializer = VertexSerializerRegistry.instance()
+                .get(ModelVertex.FORMAT, format);
+
+        for (int start = 0; start < template.vertexCount; start += TEMPLATE_BATCH_VERTICES) {
+            int count = Math.min(TEMPLATE_BATCH_VERTICES, template.vertexCount - start);
+
+            writeTemplateVertices(state.templateBuffer, template, corners, normals, start, count, light, overlay, color);
+            serializer.serialize(state.templateBuffer, dst, count);
+
+            dst += (long) count * format.stride();
+        }
+    }
+
+    private static float[] transformTemplateCorners(ThreadState state, Matrix4f pose, ModelPartTemplate template) {
+        var localCorners = template.corners;
+        var corners = state.getTemplateCorners(localCorners.length);
+
+        for (int i = 0; i < localCorners.length; i += 3) {
+            float x = localCorners[i + 0];
+            float y = localCorners[i + 1];
+            float z = localCorners[i + 2];
 
-        var vertexCount = emitQuads(cuboid, color, overlay, light);
+            corners[i + 0] = MatrixHelper.transformPositionX(pose, x, y, z);
+            corners[i + 1] = MatrixHelper.transformPositionY(pose, x, y, z);
+            corners[i + 2] = MatrixHelper.transformPositionZ(pose, x, y, z);
+        }
+
+        return corners;
+    }
+
+    private static void writeTemplateVertices(long ptr, ModelPartTemplate template, float[] corners, int[] normals,
+                                              int start, int count, int light, int overlay, int color) {
+        var vertexCorners = template.vertexCorners;
+        var texCoords = template.vertexTexCoords;
+        var quadNormals = template.quadNormals;
 
-        STACK.push();
-        writer.push(STACK, SCRATCH_BUFFER, vertexCount, ModelVertex.FORMAT);
-        STACK.pop();
+        for (int vertexIndex = start; vertexIndex < start + count; vertexIndex++) {
+            int corner = vertexCorners[vertexIndex] * 3;
+            int normal = normals[quadNormals[vertexIndex / NUM_FACE_VERTICES]];
+
+            ModelVertex.write(ptr, corners[corner + 0], corners[corner + 1], corners[corner + 2], color,
+                    texCoords[(vertexIndex * 2) + 0], texCoords[(vertexIndex * 2) + 1], overlay, light, normal);
+            ptr += ModelVertex.STRIDE;
+        }
     }
 
-    private static int emitQuads(ModelCuboid cuboid, int color, int overlay, int light) {
-        final var positions = cuboid.mirror ? VERTEX_POSITIONS_MIRRORED : VERTEX_POSITIONS;
-        final var textures = cuboid.mirror ? VERTEX_TEXTURES_MIRRORED : VERTEX_TEXTURES;
-        final var normals = cuboid.mirror ? CUBE_NORMALS_MIRRORED :  CUBE_NORMALS;
+    private static int emitQuads(ThreadState state, ModelCuboid cuboid, int color, int overlay, int light) {
+        final var positions = cuboid.mirror ? state.vertexPositionsMirrored : state.vertexPositions;
+        final var textures = cuboid.mirror ? state.vertexTexturesMirrored : state.vertexTextures;
+        final var normals = cuboid.mirror ? state.cubeNormalsMirrored : state.cubeNormals;
 
         var vertexCount = 0;
 
-        long ptr = SCRATCH_BUFFER;
+        long ptr = state.cuboidBuffer;
 
         for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
             if (!cuboid.shouldDrawFace(quadIndex)) {
@@ -182,39 +300,53 @@ public class EntityRenderer {
         ModelVertex.write(ptr, pos.x, pos.y, pos.z, color, tex.x, tex.y, overlay, light, normal);
     }
 
-    private static void prepareVertices(PoseStack.Pose matrices, ModelCuboid cuboid) {
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y1_Z1], cuboid.x1, cuboid.y1, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y1_Z1], cuboid.x2, cuboid.y1, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y2_Z1], cuboid.x2, cuboid.y2, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y2_Z1], cuboid.x1, cuboid.y2, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y1_Z2], cuboid.x1, cuboid.y1, cuboid.z2, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y1_Z2], cuboid.x2, cuboid.y1, cuboid.z2, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y2_Z2], cuboid.x2, cuboid.y2, cuboid.z2, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y2_Z2], cuboid.x1, cuboid.y2, cuboid.z2, matrices.pose());
-
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_NEG_Y], cuboid.u1, cuboid.v0, cuboid.u2, cuboid.v1);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_POS_Y], cuboid.u2, cuboid.v1, cuboid.u3, cuboid.v0);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_NEG_Z], cuboid.u1, cuboid.v1, cuboid.u2, cuboid.v2);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_POS_Z], cuboid.u4, cuboid.v1, cuboid.u5, cuboid.v2);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_NEG_X], cuboid.u2, cuboid.v1, cuboid.u4, cuboid.v2);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_POS_X], cuboid.u0, cuboid.v1, cuboid.u1, cuboid.v2);
+    private static void prepareVertices(ThreadState state, PoseStack.Pose matrices, ModelCuboid cuboid) {
+        final var corners = state.cubeCorners;
+        final var textures = state.vertexTextures;
+
+        buildVertexPosition(corners[VERTEX_X1_Y1_Z1], cuboid.x1, cuboid.y1, cuboid.z1, matrices.pose());
+        buildVertexPosition(corners[VERTEX_X2_Y1_Z1], cuboid.x2, cuboid.y1, cuboid.z1, matrices.pose());
+        buildVertexPosition(corners[VERTEX_X2_Y2_Z1], cuboid.x2, cuboid.y2, cuboid.z1, matrices.pose());
+        buildVertexPosition(corners[VERTEX_X1_Y2_Z1], cuboid.x1, cuboid.y2, cuboid.z1, matrices.pose());
+        buildVertexPosition(corners[VERTEX_X1_Y1_Z2], cuboid.x1, cuboid.y1, cuboid.z2, matrices.pose());
+        buildVertexPosition(corners[VERTEX_X2_Y1_Z2], cuboid.x2, cuboid.y1, cuboid.z2, matrices.pose());
+        buildVertexPosition(corners[VERTEX_X2_Y2_Z2], cuboid.x2, cuboid.y2, cuboid.z2, matrices.pose());
+        buildVertexPosition(corners[VERTEX_X1_Y2_Z2], cuboid.x1, cuboid.y2, cuboid.z2, matrices.pose());
+
+        buildVertexTexCoord(textures[FACE_NEG_Y], cuboid.u1, cuboid.v0, cuboid.u2, cuboid.v1);
+        buildVertexTexCoord(textures[FACE_POS_Y], cuboid.u2, cuboid.v1, cuboid.u3, cuboid.v0);
+        buildVertexTexCoord(textures[FACE_NEG_Z], cuboid.u1, cuboid.v1, cuboid.u2, cuboid.v2);
+        buildVertexTexCoord(textures[FACE_POS_Z], cuboid.u4, cuboid.v1, cuboid.u5, cuboid.v2);
+        buildVertexTexCoord(textures[FACE_NEG_X], cuboid.u2, cuboid.v1, cuboid.u4, cuboid.v2);
+        buildVertexTexCoord(textures[FACE_POS_X], cuboid.u0, cuboid.v1, cuboid.u1, cuboid.v2);
     }
 
     public static void prepareNormals(PoseStack.Pose matrices) {
-        CUBE_NORMALS[FACE_NEG_Y] = MatrixHelper.transformNormal(matrices.normal(), Direction.DOWN);
-        CUBE_NORMALS[FACE_POS_Y] = MatrixHelper.transformNormal(matrices.normal(), Direction.UP);
-        CUBE_NORMALS[FACE_NEG_Z] = MatrixHelper.transformNormal(matrices.normal(), Direction.NORTH);
-        CUBE_NORMALS[FACE_POS_Z] = MatrixHelper.transformNormal(matrices.normal(), Direction.SOUTH);
-        CUBE_NORMALS[FACE_POS_X] = MatrixHelper.transformNormal(matrices.normal(), Direction.WEST);
-        CUBE_NORMALS[FACE_NEG_X] = MatrixHelper.transformNormal(matrices.normal(), Direction.EAST);
+        prepareNormals(STATE.get(), matrices);
+    }
+
+    private static void prepareNormals(ThreadState state, PoseStack.Pose matrices) {
+        final var normals = state.cubeNormals;
+        final var normalsMirrored = state.cubeNormalsMirrored;
+
+        transformNormals(matrices, normals);
 
         // When mirroring is used, the normals for EAST and WEST are swapped.
-        CUBE_NORMALS_MIRRORED[FACE_NEG_Y] = CUBE_NORMALS[FACE_NEG_Y];
-        CUBE_NORMALS_MIRRORED[FACE_POS_Y] = CUBE_NORMALS[FACE_POS_Y];
-        CUBE_NORMALS_MIRRORED[FACE_NEG_Z] = CUBE_NORMALS[FACE_NEG_Z];
-        CUBE_NORMALS_MIRRORED[FACE_POS_Z] = CUBE_NORMALS[FACE_POS_Z];
-        CUBE_NORMALS_MIRRORED[FACE_POS_X] = CUBE_NORMALS[FACE_NEG_X]; // mirrored
-        CUBE_NORMALS_MIRRORED[FACE_NEG_X] = CUBE_NORMALS[FACE_POS_X]; // mirrored
+        normalsMirrored[FACE_NEG_Y] = normals[FACE_NEG_Y];
+        normalsMirrored[FACE_POS_Y] = normals[FACE_POS_Y];
+        normalsMirrored[FACE_NEG_Z] = normals[FACE_NEG_Z];
+        normalsMirrored[FACE_POS_Z] = normals[FACE_POS_Z];
+        normalsMirrored[FACE_POS_X] = normals[FACE_NEG_X]; // mirrored
+        normalsMirrored[FACE_NEG_X] = normals[FACE_POS_X]; // mirrored
+    }
+
+    static void transformNormals(PoseStack.Pose matrices, int[] normals) {
+        normals[FACE_NEG_Y] = MatrixHelper.transformNormal(matrices.normal(), Direction.DOWN);
+        normals[FACE_POS_Y] = MatrixHelper.transformNormal(matrices.normal(), Direction.UP);
+        normals[FACE_NEG_Z] = MatrixHelper.transformNormal(matrices.normal(), Direction.NORTH);
+        normals[FACE_POS_Z] = MatrixHelper.transformNormal(matrices.normal(), Direction.SOUTH);
+        normals[FACE_POS_X] = MatrixHelper.transformNormal(matrices.normal(), Direction.WEST);
+        normals[FACE_NEG_X] = MatrixHelper.transformNormal(matrices.normal(), Direction.EAST);
     }
 
     private static void buildVertexPosition(Vector3f vector, float x, float y, float z, Matrix4f matrix) {
@@ -0,0 +1,196 @@
+package me.jellysquid.mods.sodium.client.render.immediate.model;
+
+import me.jellysquid.mods.sodium.client.model.ModelCuboidAccessor;
+import net.minecraft.client.model.geom.ModelPart;
+
+import java.util.List;
+
+import static me.jellysquid.mods.sodium.client.render.immediate.model.EntityRenderer.*;
+
+/**
+ * The precompiled geometry of all cuboids directly owned by a {@link ModelPart}, in the part's local space.
+ *
+ * <p>Everything which does not depend on the pose of the part (corner positions, which corners and texture coordinates
+ * each vertex uses, and which face normal it has) is computed once, so that rendering the part only needs to transform
+ * the corners and write out the vertices in a single pass.</p>
+ *
+ * <p>Mods are allowed to replace the cubes of a model part at runtime, so a template remembers the cubes it was
+ * compiled from and must be checked with {@link #isValidFor(List)} before use.</p>
+ */
+public class ModelPartTemplate {
+    private final ModelPart.Cube[] cubes;
+
+    /**
+     * Whether all cubes could be compiled. If not, the cubes must be rendered individually.
+     */
+    private final boolean compiled;
+
+    /**
+     * The local-space position of each corner, as (x, y, z) triples. Each cuboid has {@link EntityRenderer#NUM_CUBE_VERTICES}
+     * corners.
+     */
+    final float[] corners;
+
+    /**
+     * The index of the corner used by each vertex.
+     */
+    final int[] vertexCorners;
+
+    /**
+     * The texture coordinates of each vertex, as (u, v) pairs.
+     */
+    final float[] vertexTexCoords;
+
+    /**
+     * The index into the part's transformed normals used by each quad.
+     */
+    final byte[] quadNormals;
+
+    final int vertexCount;
+
+    private ModelPartTemplate(ModelPart.Cube[] cubes, boolean compiled, float[] corners, int[] vertexCorners,
+                              float[] vertexTexCoords, byte[] quadNormals, int vertexCount) {
+        this.cubes = cubes;
+        this.compiled = compiled;
+        this.corners = corners;
+        this.vertexCorners = vertexCorners;
+        this.vertexTexCoords = vertexTexCoords;
+        this.quadNormals = quadNormals;
+        this.vertexCount = vertexCount;
+    }
+
+    public static ModelPartTemplate compile(List<ModelPart.Cube> cubeList) {
+        var cubes = cubeList.toArray(ModelPart.Cube[]::new);
+        var cuboids = new ModelCuboid[cubes.length];
+
+        int quadCount = 0;
+
+        for (int i = 0; i < cubes.length; i++) {
+            var cuboid = ((ModelCuboidAccessor) cubes[i]).embeddium$getSimpleCuboid();
+
+            if (cuboid == null) {
+                // This cube has custom rendering logic which we can't capture
+                return new ModelPartTemplate(cubes, false, null, null, null, null, 0);
+            }
+
+            cuboids[i] = cuboid;
+
+            for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
+                if (cuboid.shouldDrawFace(quadIndex)) {
+                    quadCount++;
+                }
+            }
+        }
+
+        int vertexCount = quadCount * NUM_FACE_VERTICES;
+
+        var corners = new float[cuboids.length * NUM_CUBE_VERTICES * 3];
+        var vertexCorners = new int[vertexCount];
+        var vertexTexCoords = new float[vertexCount * 2];
+        var quadNormals = new byte[quadCount];
+
+        int vertexIndex = 0;
+        int quadOffset = 0;
+
+        for (int cuboidIndex = 0; cuboidIndex < cuboids.length; cuboidIndex++) {
+            var cuboid = cuboids[cuboidIndex];
+            int cornerBase = cuboidIndex * NUM_CUBE_VERTICES;
+
+            writeCorners(corners, cornerBase, cuboid);
+
+            for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
+                if (!cuboid.shouldDrawFace(quadIndex)) {
+                    continue;
+                }
+
+                float[] rect = getFaceTexCoords(cuboid, quadIndex);
+
+                for (int i = 0; i < NUM_FACE_VERTICES; i++) {
+                    // Mirrored cuboids use the vertices of each face in reverse order
+                    int faceVertex = cuboid.mirror ? (NUM_FACE_VERTICES - 1) - i : i;
+
+                    vertexCorners[vertexIndex] = cornerBase + CUBE_VERTICES[quadIndex][faceVertex];
+                    vertexTexCoords[(vertexIndex * 2) + 0] = rect[FACE_VERTEX_U[faceVertex]];
+                    vertexTexCoords[(vertexIndex * 2) + 1] = rect[FACE_VERTEX_V[faceVertex]];
+
+                    vertexIndex++;
+                }
+
+                quadNormals[quadOffset++] = (byte) getNormalIndex(quadIndex, cuboid.mirror);
+            }
+        }
+
+        return new ModelPartTemplate(cubes, true, corners, vertexCorners, vertexTexCoords, quadNormals, vertexCount);
+    }
+
+    /**
+     * {@return whether this template was compiled from exactly the given cubes}
+     */
+    public boolean isValidFor(List<ModelPart.Cube> cubes) {
+        if (cubes.size() != this.cubes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < this.cubes.length; i++) {
+            if (cubes.get(i) != this.cubes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * {@return whether the cubes were compiled into this template, or if they must be rendered individually}
+     */
+    public boolean isCompiled() {
+        return this.compiled;
+    }
+
+    private static void writeCorners(float[] corners, int cornerBase, ModelCuboid cuboid) {
+        writeCorner(corners, cornerBase + VERTEX_X1_Y1_Z1, cuboid.x1, cuboid.y1, cuboid.z1);
+        writeCorner(corners, cornerBase + VERTEX_X2_Y1_Z1, cuboid.x2, cuboid.y1, cuboid.z1);
+        writeCorner(corners, cornerBase + VERTEX_X2_Y2_Z1, cuboid.x2, cuboid.y2, cuboid.z1);
+        writeCorner(corners, cornerBase + VERTEX_X1_Y2_Z1, cuboid.x1, cuboid.y2, cuboid.z1);
+        writeCorner(corners, cornerBase + VERTEX_X1_Y1_Z2, cuboid.x1, cuboid.y1, cuboid.z2);
+        writeCorner(corners, cornerBase + VERTEX_X2_Y1_Z2, cuboid.x2, cuboid.y1, cuboid.z2);
+        writeCorner(corners, cornerBase + VERTEX_X2_Y2_Z2, cuboid.x2, cuboid.y2, cuboid.z2);
+        writeCorner(corners, cornerBase + VERTEX_X1_Y2_Z2, cuboid.x1, cuboid.y2, cuboid.z2);
+    }
+
+    private static void writeCorner(float[] corners, int corner, float x, float y, float z) {
+        corners[(corner * 3) + 0] = x;
+        corners[(corner * 3) + 1] = y;
+        corners[(corner * 3) + 2] = z;
+    }
+
+    // The texture rectangle of each face, as (u1, v1, u2, v2)
+    private static float[] getFaceTexCoords(ModelCuboid cuboid, int quadIndex) {
+        return switch (quadIndex) {
+            case FACE_NEG_Y -> new float[] { cuboid.u1, cuboid.v0, cuboid.u2, cuboid.v1 };
+            case FACE_POS_Y -> new float[] { cuboid.u2, cuboid.v1, cuboid.u3, cuboid.v0 };
+            case FACE_NEG_Z -> new float[] { cuboid.u1, cuboid.v1, cuboid.u2, cuboid.v2 };
+            case FACE_POS_Z -> new float[] { cuboid.u4, cuboid.v1, cuboid.u5, cuboid.v2 };
+            case FACE_NEG_X -> new float[] { cuboid.u2, cuboid.v1, cuboid.u4, cuboid.v2 };
+            case FACE_POS_X -> new float[] { cuboid.u0, cuboid.v1, cuboid.u1, cuboid.v2 };
+            default -> throw new IllegalArgumentException("Invalid face index: " + quadIndex);
+        };
+    }
+
+    // Which element of the texture rectangle is used for the U and V of each vertex in a face
+    private static final int[] FACE_VERTEX_U = new int[] { 2, 0, 0, 2 };
+    private static final int[] FACE_VERTEX_V = new int[] { 1, 1, 3, 3 };
+
+    private static int getNormalIndex(int quadIndex, boolean mirror) {
+        if (mirror) {
+            // When mirroring is used, the normals for EAST and WEST are swapped.
+            if (quadIndex == FACE_POS_X) {
+                return FACE_NEG_X;
+            } else if (quadIndex == FACE_NEG_X) {
+                return FACE_POS_X;
+            }
+        }
+
+        return quadIndex;
+    }
+}
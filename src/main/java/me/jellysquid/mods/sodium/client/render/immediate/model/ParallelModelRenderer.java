@@ -0,0 +1,154 @@
+package me.jellysquid.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.PoseStack;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.render.vertex.buffer.ExtendedBufferBuilder;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
+import org.joml.Matrix4f;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the vertices of model parts on multiple threads while entities are being rendered.
+ *
+ * <p>Instead of writing a model part's vertices immediately, the space for them is reserved in the target buffer
+ * builder and a job is recorded with everything needed to fill it in later. Since the space is reserved in the order
+ * the parts are rendered, any other geometry written to the same buffer stays in the same place. Before the buffer is
+ * sorted or drawn, all pending jobs for it are run in parallel, each writing only into its own reserved range. The
+ * result is byte-for-byte identical to rendering serially.</p>
+ *
+ * <p>This is only used for buffer builders, and only on the render thread while the level renderer is drawing entities.
+ * Any other vertex consumer (e.g. the outline or decal consumers) is written to immediately.</p>
+ */
+public class ParallelModelRenderer {
+    /**
+     * The number of pending vertices in a buffer below which the jobs are run on the render thread, as the cost of
+     * waking up worker threads outweighs the work.
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private static boolean active;
+
+    /**
+     * Starts or stops deferring model part geometry. Must be called from the render thread.
+     */
+    public static void setActive(boolean active) {
+        ParallelModelRenderer.active = active && SodiumClientMod.options().advanced.useParallelEntityGeometry;
+    }
+
+    /**
+     * Tries to defer writing the vertices of a model part's template until the target buffer is finished.
+     *
+     * @return True if the part will be written later, otherwise false if it must be rendered immediately
+     */
+    public static boolean tryDefer(VertexBufferWriter writer, PoseStack.Pose matrices, ModelPartTemplate template,
+                                   int light, int overlay, int color) {
+        if (!active || !(writer instanceof ExtendedBufferBuilder builder) || !RenderSystem.isOnRenderThread()) {
+            return false;
+        }
+
+        if (template.vertexCount == 0) {
+            return true;
+        }
+
+        int offset = builder.embeddium$reserveVertices(template.vertexCount);
+        builder.embeddium$getDeferredModelBatch()
+                .add(matrices, template, light, overlay, color, offset);
+
+        return true;
+    }
+
+    /**
+     * The model part geometry which is waiting to be written into a single buffer builder.
+     */
+    public static class Batch {
+        private final ObjectArrayList<Job> jobs = new ObjectArrayList<>();
+
+        private int jobCount;
+        private int vertexCount;
+
+        private void add(PoseStack.Pose matrices, ModelPartTemplate template, int light, int overlay, int color, int offset) {
+            if (this.jobCount == this.jobs.size()) {
+                this.jobs.add(new Job());
+            }
+
+            var job = this.jobs.get(this.jobCount++);
+            job.pose.set(matrices.pose());
+            EntityRenderer.transformNormals(matrices, job.normals);
+
+            job.template = template;
+            job.light = light;
+            job.overlay = overlay;
+            job.color = color;
+            job.offset = offset;
+
+            this.vertexCount += template.vertexCount;
+        }
+
+        public boolean isEmpty() {
+            return this.jobCount == 0;
+        }
+
+        /**
+         * Writes all pending geometry into the buffer. Must be called before the contents of the buffer are read.
+         *
+         * @param buffer The current storage of the buffer builder, which may have been reallocated since the geometry
+         *               was deferred
+         * @param format The vertex format of the buffer builder
+         */
+        public void flush(ByteBuffer buffer, VertexFormatDescription format) {
+            if (this.jobCount == 0) {
+                return;
+            }
+
+            long base = MemoryUtil.memAddress0(buffer);
+
+            if (this.jobCount > 1 && this.vertexCount >= PARALLEL_THRESHOLD) {
+                IntStream.range(0, this.jobCount)
+                        .parallel()
+                        .forEach(index -> this.jobs.get(index).write(base, format));
+            } else {
+                for (int index = 0; index < this.jobCount; index++) {
+                    this.jobs.get(index).write(base, format);
+                }
+            }
+
+            this.clear();
+        }
+
+        /**
+         * Drops all pending geometry, for when the buffer builder is discarded.
+         */
+        public void clear() {
+            for (int index = 0; index < this.jobCount; index++) {
+                this.jobs.get(index).template = null;
+            }
+
+            this.jobCount = 0;
+            this.vertexCount = 0;
+        }
+    }
+
+    private static class Job {
+        private final Matrix4f pose = new Matrix4f();
+        private final int[] normals = new int[EntityRenderer.NUM_CUBE_FACES];
+
+        private ModelPartTemplate template;
+        private int light, overlay, color;
+
+        /**
+         * The offset in bytes of the reserved range from the start of the buffer.
+         */
+        private int offset;
+
+        private void write(long base, VertexFormatDescription format) {
+            EntityRenderer.writeTemplate(this.pose, this.normals, this.template, this.light, this.overlay, this.color,
+                    base + this.offset, format);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package me.jellysquid.mods.sodium.client.render.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name(ChunkBuildJobEvent.NAME)
+@Label("Chunk Build Job")
+@Category({ "Embeddium", "Rendering" })
+@Description("A chunk meshing or sorting job executed by a chunk builder thread")
+@StackTrace(false)
+class ChunkBuildJobEvent extends jdk.jfr.Event {
+    static final String NAME = "embeddium.ChunkBuildJob";
+
+    @Label("Task")
+    String task;
+
+    @Label("Job Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long jobDuration;
+}
@@ -0,0 +1,206 @@
+package me.jellysquid.mods.sodium.client.render.profiler;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import jdk.jfr.FlightRecorder;
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times the major stages of each frame. The timings are emitted as JFR events whenever a flight recording which
+ * enables them is running, and are kept in a history of recent frames for the overlay when the render profiler is
+ * enabled in the options. When neither is the case, a timed stage costs a few field reads.
+ *
+ * <p>A stage is timed by passing the value returned by {@link #begin()} to {@link #end(RenderStage, long)} once the
+ * stage has finished.</p>
+ */
+public final class RenderProfiler {
+    /**
+     * The number of frames which are kept in the history.
+     */
+    public static final int HISTORY_SIZE = 240;
+
+    private static final RenderStage[] STAGES = RenderStage.values();
+
+    // These event instances are only used to query whether their type is enabled by any running recording, so that
+    // no events are created while nothing is recording them
+    private static final RenderStageEvent STAGE_EVENT_PROBE;
+    private static final ChunkBuildJobEvent JOB_EVENT_PROBE;
+
+    static {
+        try {
+            FlightRecorder.register(RenderStageEvent.class);
+            FlightRecorder.register(ChunkBuildJobEvent.class);
+        } catch (Throwable t) {
+            // The events will never be enabled, but the overlay can still be used
+            SodiumClientMod.logger().warn("Failed to register render profiler events with JFR", t);
+        }
+
+        STAGE_EVENT_PROBE = new RenderStageEvent();
+        JOB_EVENT_PROBE = new ChunkBuildJobEvent();
+    }
+
+    private static volatile boolean historyEnabled;
+
+    // The time spent by the render thread in each stage during the current frame, excluding any nested stages
+    private static final long[] currentStageTimes = new long[STAGES.length];
+
+    // The time spent by all threads in chunk build jobs during the current frame
+    private static final LongAdder currentJobTime = new LongAdder();
+
+    private static final long[][] stageTimeHistory = new long[HISTORY_SIZE][STAGES.length];
+    private static final long[] frameTimeHistory = new long[HISTORY_SIZE];
+
+    private static int historyHead;
+    private static int historyLength;
+
+    private static long lastFrameEnd = System.nanoTime();
+
+    private RenderProfiler() {
+
+    }
+
+    /**
+     * {@return the start time to pass to {@link #end(RenderStage, long)}, or zero if the stage does not need to be timed}
+     */
+    public static long begin() {
+        return (historyEnabled || STAGE_EVENT_PROBE.isEnabled()) ? System.nanoTime() : 0L;
+    }
+
+    public static void end(RenderStage stage, long start) {
+        end(stage, null, start);
+    }
+
+    /**
+     * Finishes timing a stage.
+     *
+     * @param detail Extra information about this instance of the stage, which is only converted to a string and
+     *               included when a JFR event is emitted
+     * @param start The value returned by {@link #begin()} before the stage was started
+     */
+    public static void end(RenderStage stage, @Nullable Object detail, long start) {
+        if (start == 0L) {
+            return;
+        }
+
+        long duration = System.nanoTime() - start;
+
+        if (historyEnabled && RenderSystem.isOnRenderThread()) {
+            currentStageTimes[stage.ordinal()] += duration;
+
+            var parent = stage.getParent();
+
+            if (parent != null) {
+                currentStageTimes[parent.ordinal()] -= duration;
+            }
+        }
+
+        // Only create the event if a recording will accept it, as this is called many times per frame
+        if (STAGE_EVENT_PROBE.isEnabled()) {
+            var event = new RenderStageEvent();
+            event.stage = stage.getName();
+            event.detail = detail != null ? detail.toString() : null;
+            event.stageDuration = duration;
+            event.commit();
+        }
+    }
+
+    /**
+     * {@return the start time to pass to {@link #endJob(Object, long)}, or zero if the job does not need to be timed}
+     */
+    public static long beginJob() {
+        return (historyEnabled || JOB_EVENT_PROBE.isEnabled()) ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Finishes timing a chunk build job. This can be called from any thread.
+     */
+    public static void endJob(Object task, long start) {
+        if (start == 0L) {
+            return;
+        }
+
+        long duration = System.nanoTime() - start;
+
+        if (historyEnabled) {
+            currentJobTime.add(duration);
+        }
+
+        if (JOB_EVENT_PROBE.isEnabled()) {
+            var event = new ChunkBuildJobEvent();
+            event.task = task.getClass().getSimpleName();
+            event.jobDuration = duration;
+            event.commit();
+        }
+    }
+
+    /**
+     * Moves the timings of the current frame into the history. This must be called by the render thread once at the
+     * end of every frame.
+     */
+    public static void endFrame() {
+        long now = System.nanoTime();
+
+        if (historyEnabled) {
+            long[] stageTimes = stageTimeHistory[historyHead];
+            System.arraycopy(currentStageTimes, 0, stageTimes, 0, STAGES.length);
+            stageTimes[RenderStage.CHUNK_BUILD_JOBS.ordinal()] = currentJobTime.sumThenReset();
+
+            frameTimeHistory[historyHead] = now - lastFrameEnd;
+
+            historyHead = (historyHead + 1) % HISTORY_SIZE;
+            historyLength = Math.min(historyLength + 1, HISTORY_SIZE);
+        }
+
+        Arrays.fill(currentStageTimes, 0L);
+        lastFrameEnd = now;
+
+        boolean enabled = SodiumClientMod.options().advanced.enableRenderProfiler;
+
+        if (!enabled) {
+            historyLength = 0;
+            currentJobTime.reset();
+        }
+
+        historyEnabled = enabled;
+    }
+
+    public static boolean isHistoryEnabled() {
+        return historyEnabled;
+    }
+
+    /**
+     * {@return the number of frames in the history}
+     */
+    public static int getHistoryLength() {
+        return historyLength;
+    }
+
+    /**
+     * {@return the duration of a frame in the history, in nanoseconds}
+     *
+     * @param age The number of frames which have finished since the frame, where zero is the most recent frame
+     */
+    public static long getFrameTime(int age) {
+        return frameTimeHistory[getHistoryIndex(age)];
+    }
+
+    /**
+     * {@return the time spent in a stage during a frame in the history, excluding the time spent in nested stages}
+     *
+     * @param age The number of frames which have finished since the frame, where zero is the most recent frame
+     */
+    public static long getStageTime(int age, RenderStage stage) {
+        return stageTimeHistory[getHistoryIndex(age)][stage.ordinal()];
+    }
+
+    private static int getHistoryIndex(int age) {
+        if (age < 0 || age >= historyLength) {
+            throw new IndexOutOfBoundsException(age);
+        }
+
+        return Math.floorMod(historyHead - 1 - age, HISTORY_SIZE);
+    }
+}
@@ -0,0 +1,111 @@
+package me.jellysquid.mods.sodium.client.render.profiler;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+
+/**
+ * Draws the frame history of the {@link RenderProfiler} as a graph in the bottom right corner of the screen, with
+ * one column per frame made up of the time spent in each stage, and a legend of the average times above it.
+ */
+public class RenderProfilerOverlay {
+    private static final RenderStage[] STAGES = RenderStage.values();
+
+    private static final int GRAPH_HEIGHT = 68;
+    private static final long NANOS_PER_PIXEL = 250_000L;
+
+    // The time budget of a frame at 60 FPS, which is marked on the graph
+    private static final long TARGET_FRAME_TIME = 16_666_667L;
+
+    private static final int BACKGROUND_COLOR = 0x90202020;
+    private static final int OTHER_COLOR = 0xFF607D8B;
+    private static final int TARGET_COLOR = 0xFFFFFFFF;
+    private static final int TEXT_COLOR = 0xFFE0E0E0;
+
+    public static void render(GuiGraphics graphics) {
+        int length = RenderProfiler.getHistoryLength();
+
+        if (length == 0) {
+            return;
+        }
+
+        var font = Minecraft.getInstance().font;
+
+        int right = graphics.guiWidth() - 2;
+        int left = right - RenderProfiler.HISTORY_SIZE;
+        int bottom = graphics.guiHeight() - 2;
+        int top = bottom - GRAPH_HEIGHT;
+
+        long[] totalStageTimes = new long[STAGES.length];
+        long totalFrameTime = 0L;
+
+        for (int age = 0; age < length; age++) {
+            totalFrameTime += RenderProfiler.getFrameTime(age);
+
+            for (var stage : STAGES) {
+                totalStageTimes[stage.ordinal()] += RenderProfiler.getStageTime(age, stage);
+            }
+        }
+
+        final long averageFrameTime = totalFrameTime / length;
+
+        graphics.drawManaged(() -> {
+            graphics.fill(left, top, right, bottom, BACKGROUND_COLOR);
+
+            for (int age = 0; age < length; age++) {
+                int x = right - age - 1;
+                long elapsed = 0L;
+
+                for (var stage : STAGES) {
+                    // Chunk build jobs mostly run on other threads, so they are not part of the frame time
+                    if (stage == RenderStage.CHUNK_BUILD_JOBS) {
+                        continue;
+                    }
+
+                    long time = RenderProfiler.getStageTime(age, stage);
+                    drawSegment(graphics, x, bottom, top, elapsed, time, stage.getColor());
+
+                    elapsed += time;
+                }
+
+                drawSegment(graphics, x, bottom, top, elapsed, RenderProfiler.getFrameTime(age) - elapsed, OTHER_COLOR);
+            }
+
+            int targetY = bottom - (int) (TARGET_FRAME_TIME / NANOS_PER_PIXEL);
+
+            if (targetY > top) {
+                graphics.hLine(left, right - 1, targetY, TARGET_COLOR);
+            }
+
+            int lineHeight = font.lineHeight + 1;
+            int y = top - ((STAGES.length + 1) * lineHeight);
+
+            graphics.drawString(font, "frame: %s ms (%d FPS)".formatted(formatMillis(averageFrameTime), averageFrameTime > 0 ? 1_000_000_000L / averageFrameTime : 0),
+                    left, y, TEXT_COLOR);
+
+            for (var stage : STAGES) {
+                y += lineHeight;
+
+                graphics.fill(left, y, left + font.lineHeight - 2, y + font.lineHeight - 2, stage.getColor());
+                graphics.drawString(font, "%s: %s ms".formatted(stage.getName(), formatMillis(totalStageTimes[stage.ordinal()] / length)),
+                        left + font.lineHeight, y, TEXT_COLOR);
+            }
+        });
+    }
+
+    private static void drawSegment(GuiGraphics graphics, int x, int bottom, int top, long start, long duration, int color) {
+        if (duration <= 0L) {
+            return;
+        }
+
+        int y1 = Math.max(top, bottom - (int) ((start + duration) / NANOS_PER_PIXEL));
+        int y2 = Math.max(top, bottom - (int) (start / NANOS_PER_PIXEL));
+
+        if (y1 < y2) {
+            graphics.fill(x, y1, x + 1, y2, color);
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return "%.2f".formatted(nanos / 1_000_000.0D);
+    }
+}
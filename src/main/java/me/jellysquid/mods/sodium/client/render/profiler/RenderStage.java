@@ -0,0 +1,50 @@
+package me.jellysquid.mods.sodium.client.render.profiler;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The stages of a frame which are timed by the {@link RenderProfiler}.
+ */
+public enum RenderStage {
+    OCCLUSION_CULLING("occlusion_culling", 0xFF4CAF50, null),
+    SUBMIT_REBUILDS("submit_rebuilds", 0xFFFFC107, null),
+    PREPARE_SECTIONS("prepare_sections", 0xFFFF7043, SUBMIT_REBUILDS),
+    UPLOAD_CHUNKS("upload_chunks", 0xFF29B6F6, null),
+    RENDER_TERRAIN("render_terrain", 0xFF7E57C2, null),
+    RENDER_BLOCK_ENTITIES("render_block_entities", 0xFFEC407A, null),
+    RENDER_CLOUDS("render_clouds", 0xFFECEFF1, null),
+
+    /**
+     * The time spent by all threads executing chunk build jobs. This does not contribute to the frame time unless the
+     * render thread has to wait for the jobs to finish.
+     */
+    CHUNK_BUILD_JOBS("chunk_build_jobs", 0xFF8D6E63, null);
+
+    private final String name;
+    private final int color;
+    private final @Nullable RenderStage parent;
+
+    RenderStage(String name, int color, @Nullable RenderStage parent) {
+        this.name = name;
+        this.color = color;
+        this.parent = parent;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * {@return the ARGB color used to draw this stage in the overlay}
+     */
+    public int getColor() {
+        return this.color;
+    }
+
+    /**
+     * {@return the stage which this stage always runs within, or null if it is not nested}
+     */
+    public @Nullable RenderStage getParent() {
+        return this.parent;
+    }
+}
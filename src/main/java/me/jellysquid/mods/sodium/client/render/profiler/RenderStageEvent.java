@@ -0,0 +1,28 @@
+package me.jellysquid.mods.sodium.client.render.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name(RenderStageEvent.NAME)
+@Label("Render Stage")
+@Category({ "Embeddium", "Rendering" })
+@Description("A timed stage of the level renderer")
+@StackTrace(false)
+class RenderStageEvent extends jdk.jfr.Event {
+    static final String NAME = "embeddium.RenderStage";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Detail")
+    @Description("Extra information about the stage, such as the terrain pass being drawn")
+    String detail;
+
+    @Label("Stage Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long stageDuration;
+}
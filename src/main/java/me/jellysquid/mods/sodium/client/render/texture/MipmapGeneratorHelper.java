@@ -0,0 +1,204 @@
+package me.jellysquid.mods.sodium.client.render.texture;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import me.jellysquid.mods.sodium.client.util.NativeImageHelper;
+import me.jellysquid.mods.sodium.client.util.color.ColorSRGB;
+import net.minecraft.client.renderer.texture.SpriteContents;
+import net.minecraft.util.FastColor;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates mipmaps using the alpha-weighted, linear color space filter described in
+ * {@link me.jellysquid.mods.sodium.mixin.features.textures.mipmaps.MipmapHelperMixin}.
+ *
+ * <p>Each mip level is produced by walking the rows of the previous level directly in memory, rather than fetching and
+ * storing every texel through the bounds-checked accessors of {@link NativeImage}. Since sprites are independent of each
+ * other, the mip levels of all sprites in an atlas can also be generated in parallel, see
+ * {@link #runWithParallelMipmaps(Runnable)}.</p>
+ */
+public class MipmapGeneratorHelper {
+    private static final int STRIDE = 4;
+
+    /**
+     * The sprites whose mip levels were requested by the current thread while collecting them, or null if they should be
+     * generated immediately.
+     */
+    private static final ThreadLocal<List<PendingSprite>> PENDING_SPRITES = new ThreadLocal<>();
+
+    private record PendingSprite(SpriteContents sprite, int mipLevel) {
+
+    }
+
+    /**
+     * Generates the missing mip levels up to the given level. Existing levels are kept as-is.
+     *
+     * @return The images for each mip level, which is the given array if no levels are missing
+     */
+    public static NativeImage[] generateMipLevels(NativeImage[] images, int mipLevel) {
+        if (mipLevel + 1 <= images.length) {
+            return images;
+        }
+
+        NativeImage[] levels = new NativeImage[mipLevel + 1];
+        levels[0] = images[0];
+
+        for (int level = 1; level <= mipLevel; level++) {
+            if (level < images.length) {
+                levels[level] = images[level];
+            } else {
+                NativeImage src = levels[level - 1];
+                NativeImage dst = new NativeImage(src.getWidth() >> 1, src.getHeight() >> 1, false);
+
+                downsample(src, dst);
+
+                levels[level] = dst;
+            }
+        }
+
+        return levels;
+    }
+
+    private static void downsample(NativeImage src, NativeImage dst) {
+        long pSrc = NativeImageHelper.getPointerRGBA(src);
+        long pDst = NativeImageHelper.getPointerRGBA(dst);
+
+        long srcRowStride = (long) src.getWidth() * STRIDE;
+
+        int width = dst.getWidth();
+        int height = dst.getHeight();
+
+        for (int y = 0; y < height; y++) {
+            long pRow0 = pSrc + ((y * 2L) * srcRowStride);
+            long pRow1 = pRow0 + srcRowStride;
+            long pOut = pDst + ((long) y * width * STRIDE);
+
+            for (int x = 0; x < width; x++) {
+                int one = MemoryUtil.memGetInt(pRow0);
+                int two = MemoryUtil.memGetInt(pRow0 + STRIDE);
+                int three = MemoryUtil.memGetInt(pRow1);
+                int four = MemoryUtil.memGetInt(pRow1 + STRIDE);
+
+                MemoryUtil.memPutInt(pOut, blend(one, two, three, four));
+
+                pRow0 += STRIDE * 2;
+                pRow1 += STRIDE * 2;
+                pOut += STRIDE;
+            }
+        }
+    }
+
+    /**
+     * Blends a 2x2 block of texels into a single texel of the next mip level.
+     */
+    public static int blend(int one, int two, int three, int four) {
+        // Large areas of most textures are a single color, and converting a color to linear space and back is exact
+        if (one == two && one == three && one == four) {
+            return one;
+        }
+
+        // First blend horizontally, then blend vertically.
+        //
+        // This works well for the case where our change is the most impactful (grass side overlays)
+        return weightedAverageColor(weightedAverageColor(one, two), weightedAverageColor(three, four));
+    }
+
+    private static int weightedAverageColor(int one, int two) {
+        int alphaOne = FastColor.ABGR32.alpha(one);
+        int alphaTwo = FastColor.ABGR32.alpha(two);
+
+        // In the case where the alpha values of the same, we can get by with an unweighted average.
+        if (alphaOne == alphaTwo) {
+            return averageRgb(one, two, alphaOne);
+        }
+
+        // If one of our pixels is fully transparent, ignore it.
+        // We just take the value of the other pixel as-is. To compensate for not changing the color value, we
+        // divide the alpha value by 4 instead of 2.
+        if (alphaOne == 0) {
+            return (two & 0x00FFFFFF) | ((alphaTwo >> 2) << 24);
+        }
+
+        if (alphaTwo == 0) {
+            return (one & 0x00FFFFFF) | ((alphaOne >> 2) << 24);
+        }
+
+        // Use the alpha values to compute relative weights of each color.
+        float scale = 1.0f / (alphaOne + alphaTwo);
+
+        float relativeWeightOne = alphaOne * scale;
+        float relativeWeightTwo = alphaTwo * scale;
+
+        // Convert the color components into linear space, then multiply the corresponding weight.
+        float oneR = ColorSRGB.srgbToLinear(FastColor.ABGR32.red(one)) * relativeWeightOne;
+        float oneG = ColorSRGB.srgbToLinear(FastColor.ABGR32.green(one)) * relativeWeightOne;
+        float oneB = ColorSRGB.srgbToLinear(FastColor.ABGR32.blue(one)) * relativeWeightOne;
+
+        float twoR = ColorSRGB.srgbToLinear(FastColor.ABGR32.red(two)) * relativeWeightTwo;
+        float twoG = ColorSRGB.srgbToLinear(FastColor.ABGR32.green(two)) * relativeWeightTwo;
+        float twoB = ColorSRGB.srgbToLinear(FastColor.ABGR32.blue(two)) * relativeWeightTwo;
+
+        // Combine the color components of each color
+        float linearR = oneR + twoR;
+        float linearG = oneG + twoG;
+        float linearB = oneB + twoB;
+
+        // Take the average alpha of both alpha values
+        int averageAlpha = (alphaOne + alphaTwo) >> 1;
+
+        // Convert to sRGB and pack the colors back into an integer.
+        return ColorSRGB.linearToSrgb(linearR, linearG, linearB, averageAlpha);
+    }
+
+    // Computes a non-weighted average of the two sRGB colors in linear space, avoiding brightness losses.
+    private static int averageRgb(int a, int b, int alpha) {
+        float ar = ColorSRGB.srgbToLinear(FastColor.ABGR32.red(a));
+        float ag = ColorSRGB.srgbToLinear(FastColor.ABGR32.green(a));
+        float ab = ColorSRGB.srgbToLinear(FastColor.ABGR32.blue(a));
+
+        float br = ColorSRGB.srgbToLinear(FastColor.ABGR32.red(b));
+        float bg = ColorSRGB.srgbToLinear(FastColor.ABGR32.green(b));
+        float bb = ColorSRGB.srgbToLinear(FastColor.ABGR32.blue(b));
+
+        return ColorSRGB.linearToSrgb((ar + br) * 0.5f, (ag + bg) * 0.5f, (ab + bb) * 0.5f, alpha);
+    }
+
+    /**
+     * Runs a task which generates the mip levels of sprites one after another, but collects the sprites instead and then
+     * generates their mip levels in parallel once the task returns. If called from a worker of a fork-join pool, the
+     * work is spread across that pool.
+     */
+    public static void runWithParallelMipmaps(Runnable task) {
+        var pending = new ArrayList<PendingSprite>();
+
+        PENDING_SPRITES.set(pending);
+
+        try {
+            task.run();
+        } finally {
+            PENDING_SPRITES.remove();
+        }
+
+        pending.parallelStream()
+                .forEach(entry -> entry.sprite().increaseMipLevel(entry.mipLevel()));
+    }
+
+    /**
+     * Defers generating the mip levels of a sprite if called from within {@link #runWithParallelMipmaps(Runnable)}.
+     *
+     * @return True if the mip levels will be generated later, otherwise false if they must be generated immediately
+     */
+    public static boolean tryDefer(SpriteContents sprite, int mipLevel) {
+        var pending = PENDING_SPRITES.get();
+
+        if (pending == null) {
+            return false;
+        }
+
+        pending.add(new PendingSprite(sprite, mipLevel));
+
+        return true;
+    }
+}
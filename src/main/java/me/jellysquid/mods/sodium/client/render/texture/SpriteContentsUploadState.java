@@ -0,0 +1,30 @@
+package me.jellysquid.mods.sodium.client.render.texture;
+
+/**
+ * Tracks which animation frame was last uploaded into the atlas for a sprite, so that an interpolated frame can be
+ * uploaded partially when most of the atlas region is already correct.
+ */
+public interface SpriteContentsUploadState {
+    /**
+     * The contents of the sprite's atlas region are unknown (e.g. nothing has been uploaded yet).
+     */
+    int UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+     * {@return the state for when the atlas region contains the given frame as-is}
+     */
+    static int rawFrame(int index) {
+        return -(index + 1);
+    }
+
+    /**
+     * {@return the state for when the atlas region contains an interpolation between the given frames}
+     */
+    static int interpolatedFrame(int current, int next) {
+        return (current << 16) | next;
+    }
+
+    int embeddium$getUploadedFrame();
+
+    void embeddium$setUploadedFrame(int state);
+}
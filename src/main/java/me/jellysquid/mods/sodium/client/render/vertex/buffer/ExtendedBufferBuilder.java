@@ -1,5 +1,6 @@
 package me.jellysquid.mods.sodium.client.render.vertex.buffer;
 
+import me.jellysquid.mods.sodium.client.render.immediate.model.ParallelModelRenderer;
 import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
 import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
 
@@ -12,4 +13,13 @@ public interface ExtendedBufferBuilder extends VertexBufferWriter {
     VertexFormatDescription sodium$getFormatDescription();
     boolean sodium$usingFixedColor();
     SodiumBufferBuilder sodium$getDelegate();
+
+    /**
+     * Reserves space for the given number of vertices at the current position, to be written before the buffer is
+     * finished.
+     * @return The offset in bytes of the reserved space from the start of the buffer
+     */
+    int embeddium$reserveVertices(int count);
+
+    ParallelModelRenderer.Batch embeddium$getDeferredModelBatch();
 }
@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.vertex.serializers;
 
 import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceMaps;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
 import me.jellysquid.mods.sodium.client.render.vertex.serializers.generated.VertexSerializerFactory;
 import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
@@ -14,7 +15,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class VertexSerializerRegistryImpl implements VertexSerializerRegistry {
     private static final Logger LOGGER = LoggerFactory.getLogger(VertexSerializerRegistryImpl.class);
@@ -31,13 +32,18 @@ public class VertexSerializerRegistryImpl implements VertexSerializerRegistry {
         }
     }
 
-    private final Long2ReferenceMap<VertexSerializer> cache = new Long2ReferenceOpenHashMap<>();
-    private final StampedLock lock = new StampedLock();
+    /**
+     * The serializers which have been created so far. The map is never modified after being published, and is replaced
+     * with a new copy whenever a serializer is added, so that lookups don't need to take a lock. Only a handful of
+     * format pairs are ever used, so the cost of copying is negligible.
+     */
+    private volatile Long2ReferenceMap<VertexSerializer> cache = Long2ReferenceMaps.emptyMap();
+    private final ReentrantLock lock = new ReentrantLock();
 
     @Override
     public VertexSerializer get(VertexFormatDescription srcFormat, VertexFormatDescription dstFormat) {
         var identifier = createKey(srcFormat, dstFormat);
-        var serializer = this.find(identifier);
+        var serializer = this.cache.get(identifier);
 
         if (serializer == null) {
             serializer = this.create(identifier, srcFormat, dstFormat);
@@ -47,11 +53,11 @@ public class VertexSerializerRegistryImpl implements VertexSerializerRegistry {
     }
 
     private VertexSerializer create(long identifier, VertexFormatDescription srcFormat, VertexFormatDescription dstFormat) {
-        var stamp = this.lock.writeLock();
+        this.lock.lock();
 
         try {
             // Additional lookup to avoid calling createSerializer twice
-            // Necessary because 'find' only acquires a non-exclusive lock
+            // Necessary because another thread may have created it while we were waiting for the lock
             var cached = this.cache.get(identifier);
             if (cached != null) {
                 return cached;
@@ -59,20 +65,14 @@ public class VertexSerializerRegistryImpl implements VertexSerializerRegistry {
 
             // Create serializer
             var serializer = createSerializer(srcFormat, dstFormat);
-            this.cache.put(identifier, serializer);
-            return serializer;
-        } finally {
-            this.lock.unlockWrite(stamp);
-        }
-    }
 
-    private VertexSerializer find(long identifier) {
-        var stamp = this.lock.readLock();
+            var cache = new Long2ReferenceOpenHashMap<>(this.cache);
+            cache.put(identifier, serializer);
+            this.cache = cache;
 
-        try {
-            return this.cache.get(identifier);
+            return serializer;
         } finally {
-            this.lock.unlockRead(stamp);
+            this.lock.unlock();
         }
     }
 
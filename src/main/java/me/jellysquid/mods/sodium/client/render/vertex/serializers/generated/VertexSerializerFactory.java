@@ -51,7 +51,9 @@ public class VertexSerializerFactory {
             methodVisitor.visitEnd();
         }
 
-        {
+        if (isContiguousCopy(memoryCopies, srcFormat, dstFormat)) {
+            generateContiguousCopy(classWriter, name, dstFormat.stride());
+        } else {
             // Local variable table slots
             final int localThis = 0;
             final int localSrcPointer = 1;
@@ -166,6 +168,54 @@ public class VertexSerializerFactory {
         return new Bytecode(classWriter.toByteArray());
     }
 
+    /**
+     * Returns whether every vertex in the source format has exactly the same layout as in the destination format,
+     * in which case the whole buffer can be copied at once instead of vertex by vertex.
+     */
+    private static boolean isContiguousCopy(List<MemoryTransfer> memoryCopies, VertexFormatDescription srcFormat, VertexFormatDescription dstFormat) {
+        if (srcFormat.stride() != dstFormat.stride() || memoryCopies.size() != 1) {
+            return false;
+        }
+
+        var op = memoryCopies.get(0);
+
+        return op.src() == 0 && op.dst() == 0 && op.length() == dstFormat.stride();
+    }
+
+    private static void generateContiguousCopy(ClassWriter classWriter, String name, int stride) {
+        // Local variable table slots
+        final int localThis = 0;
+        final int localSrcPointer = 1;
+        final int localDstPointer = 3;
+        final int localVertexCount = 5;
+
+        // Serialization method
+        MethodVisitor methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "serialize", "(JJI)V", null, null);
+        methodVisitor.visitCode();
+
+        // MemoryUtil.memCopy(src, dst, (long) vertexCount * stride)
+        Label labelCopy = new Label();
+        methodVisitor.visitLabel(labelCopy);
+        methodVisitor.visitVarInsn(Opcodes.LLOAD, localSrcPointer);
+        methodVisitor.visitVarInsn(Opcodes.LLOAD, localDstPointer);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, localVertexCount);
+        methodVisitor.visitInsn(Opcodes.I2L);
+        methodVisitor.visitLdcInsn((long) stride);
+        methodVisitor.visitInsn(Opcodes.LMUL);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(MemoryUtil.class), "memCopy", "(JJJ)V", false);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+
+        // Describe the local variable table
+        Label labelExit = new Label();
+        methodVisitor.visitLabel(labelExit);
+        methodVisitor.visitLocalVariable("this", "L" + name + ";", null, labelCopy, labelExit, localThis);
+        methodVisitor.visitLocalVariable("src", "J", null, labelCopy, labelExit, localSrcPointer);
+        methodVisitor.visitLocalVariable("dst", "J", null, labelCopy, labelExit, localDstPointer);
+        methodVisitor.visitLocalVariable("vertexCount", "I", null, labelCopy, labelExit, localVertexCount);
+        methodVisitor.visitMaxs(8, 6);
+        methodVisitor.visitEnd();
+    }
+
     private static List<MemoryTransfer> createMemoryTransferList(VertexFormatDescription srcVertexFormat, VertexFormatDescription dstVertexFormat) {
         var ops = new ArrayList<MemoryTransfer>();
 
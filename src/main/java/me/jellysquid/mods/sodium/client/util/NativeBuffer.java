@@ -1,11 +1,9 @@
 package me.jellysquid.mods.sodium.client.util;
 
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceMap;
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceMaps;
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 import org.lwjgl.system.MemoryUtil;
 
 import java.lang.ref.PhantomReference;
@@ -13,23 +11,35 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class NativeBuffer {
     private static final Logger LOGGER = LogManager.getLogger(NativeBuffer.class);
 
     private static final ReferenceQueue<NativeBuffer> RECLAIM_QUEUE = new ReferenceQueue<>();
-    private static final Reference2ReferenceMap<Reference<NativeBuffer>, BufferReference> ACTIVE_BUFFERS =
-            Reference2ReferenceMaps.synchronize(new Reference2ReferenceOpenHashMap<>());
 
-    private static long ALLOCATED = 0L;
+    // Keeps the references of live buffers reachable, so that they are enqueued if the buffer is leaked
+    private static final Set<BufferReference> ACTIVE_BUFFERS = ConcurrentHashMap.newKeySet();
 
     private final BufferReference ref;
+    private final int length;
 
     public NativeBuffer(int capacity) {
-        this.ref = allocate(capacity);
+        this(allocate(capacity), capacity, capacity, null);
+    }
+
+    /**
+     * Wraps an existing allocation, of which only the first {@code length} bytes are exposed. If an owner is given,
+     * the allocation is handed back to it when this buffer is freed (or reclaimed after being leaked) instead of being
+     * deallocated.
+     */
+    public NativeBuffer(long address, int capacity, int length, @Nullable Owner owner) {
+        this.ref = new BufferReference(this, address, capacity, owner, getStackTrace());
+        this.length = length;
 
-        ACTIVE_BUFFERS.put(new PhantomReference<>(this, RECLAIM_QUEUE), this.ref);
+        ACTIVE_BUFFERS.add(this.ref);
     }
 
     public static NativeBuffer copy(ByteBuffer src) {
@@ -41,15 +51,18 @@ public class NativeBuffer {
     public ByteBuffer getDirectBuffer() {
         this.ref.checkFreed();
 
-        return MemoryUtil.memByteBuffer(this.ref.address, this.ref.length);
+        return MemoryUtil.memByteBuffer(this.ref.address, this.length);
     }
 
     public void free() {
         deallocate(this.ref);
+
+        ACTIVE_BUFFERS.remove(this.ref);
+        this.ref.clear();
     }
 
     public int getLength() {
-        return this.ref.length;
+        return this.length;
     }
 
     public static void reclaim(boolean forceGc) {
@@ -60,7 +73,8 @@ public class NativeBuffer {
         Reference<? extends NativeBuffer> ref;
 
         while ((ref = RECLAIM_QUEUE.poll()) != null) {
-            BufferReference buf = ACTIVE_BUFFERS.remove(ref);
+            BufferReference buf = (BufferReference) ref;
+            ACTIVE_BUFFERS.remove(buf);
 
             if (buf.freed) {
                 continue;
@@ -70,19 +84,19 @@ public class NativeBuffer {
 
             if (buf.allocationSite != null) {
                 LOGGER.warn("Reclaimed {} bytes at address {} that were leaked from allocation site:\n{}",
-                        buf.length, buf.address,
+                        buf.capacity, buf.address,
                         Arrays.stream(buf.allocationSite)
                                 .map(StackTraceElement::toString)
                                 .collect(Collectors.joining("\n")));
             } else {
                 LOGGER.warn("Reclaimed {} bytes at address {} that were leaked from an unknown location (logging is disabled)",
-                        buf.length, buf.address);
+                        buf.capacity, buf.address);
             }
         }
     }
 
     public static long getTotalAllocated() {
-        return ALLOCATED;
+        return NativeMemoryTracker.getAllocatedBytes(NativeMemoryTag.NATIVE_BUFFER);
     }
 
     private static StackTraceElement[] getStackTrace() {
@@ -92,12 +106,12 @@ public class NativeBuffer {
 
     private static final int MAX_ALLOCATION_ATTEMPTS = 3;
 
-    private static BufferReference allocate(int bytes) {
+    static long allocate(int bytes) {
         long address = 0;
         int attempts = 0;
 
         while (++attempts <= MAX_ALLOCATION_ATTEMPTS) {
-            address = MemoryUtil.nmemAlloc(bytes);
+            address = NativeMemoryTracker.malloc(NativeMemoryTag.NATIVE_BUFFER, bytes);
 
             if (address != MemoryUtil.NULL) {
                 break;
@@ -114,34 +128,35 @@ public class NativeBuffer {
             throw new OutOfMemoryError("Couldn't allocate %s bytes after %s attempts".formatted(bytes, attempts));
         }
 
-        StackTraceElement[] stackTrace = getStackTrace();
-
-        BufferReference ref = new BufferReference(address, bytes, stackTrace);
-        ALLOCATED += ref.length;
-
-        return ref;
+        return address;
     }
 
     private static void deallocate(BufferReference ref) {
         ref.checkFreed();
         ref.freed = true;
 
-        MemoryUtil.nmemFree(ref.address);
-
-        ALLOCATED -= ref.length;
+        if (ref.owner != null) {
+            ref.owner.release(ref.address, ref.capacity);
+        } else {
+            NativeMemoryTracker.free(NativeMemoryTag.NATIVE_BUFFER, ref.address, ref.capacity);
+        }
     }
 
-    private static class BufferReference {
+    private static class BufferReference extends PhantomReference<NativeBuffer> {
         public final long address;
-        public final int length;
+        public final int capacity;
+        public final Owner owner;
 
         public final StackTraceElement[] allocationSite;
 
-        public boolean freed;
+        public volatile boolean freed;
+
+        private BufferReference(NativeBuffer buffer, long address, int capacity, Owner owner, StackTraceElement[] allocationSite) {
+            super(buffer, RECLAIM_QUEUE);
 
-        private BufferReference(long address, int length, StackTraceElement[] allocationSite) {
             this.address = address;
-            this.length = length;
+            this.capacity = capacity;
+            this.owner = owner;
             this.allocationSite = allocationSite;
         }
 
@@ -151,4 +166,14 @@ public class NativeBuffer {
             }
         }
     }
+
+    /**
+     * Manages allocations which are wrapped by buffers, such as a pool or a mapped staging buffer.
+     */
+    public interface Owner {
+        /**
+         * Takes back an allocation after the buffer wrapping it was freed. This can be called from any thread.
+         */
+        void release(long address, int capacity);
+    }
 }
@@ -0,0 +1,134 @@
+package me.jellysquid.mods.sodium.client.util;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of native allocations which are handed out as {@link NativeBuffer}s and returned when those buffers are
+ * freed, so that short-lived buffers (such as the meshes produced by chunk builds, which are freed once they have been
+ * uploaded) don't cause a malloc/free pair each.
+ *
+ * <p>Requests are rounded up to a size class, which are the powers of two and the midpoints between them, so that at
+ * most a third of each allocation is wasted. Requests larger than the biggest size class are not pooled. Buffers are
+ * usually acquired by the chunk build workers and released by the render thread after upload, which makes per-thread
+ * caches useless, so each size class is instead a small stack guarded by its own lock. The number of idle bytes kept
+ * by the pool is bounded by {@link #MAX_RETAINED_BYTES}; anything released beyond that is deallocated.</p>
+ */
+public class NativeBufferPool {
+    private static final int MIN_SIZE_SHIFT = 12; // 4 KiB
+    private static final int MAX_SIZE_SHIFT = 23; // 8 MiB
+
+    private static final long MAX_RETAINED_BYTES = 64L * 1024L * 1024L;
+
+    private static final int[] CLASS_SIZES = createClassSizes();
+    private static final SizeClass[] CLASSES = new SizeClass[CLASS_SIZES.length];
+
+    private static final AtomicLong RETAINED_BYTES = new AtomicLong();
+
+    private static final NativeBuffer.Owner OWNER = NativeBufferPool::release;
+
+    static {
+        for (int i = 0; i < CLASSES.length; i++) {
+            CLASSES[i] = new SizeClass();
+        }
+    }
+
+    /**
+     * Returns a buffer with the given length, which is backed by a pooled allocation where possible. The contents of
+     * the buffer are undefined. Freeing the buffer returns its allocation to the pool.
+     */
+    public static NativeBuffer acquire(int length) {
+        int index = getSizeClass(length);
+
+        if (index < 0) {
+            return new NativeBuffer(length);
+        }
+
+        int capacity = CLASS_SIZES[index];
+        long address = CLASSES[index].poll();
+
+        if (address != MemoryUtil.NULL) {
+            RETAINED_BYTES.addAndGet(-capacity);
+        } else {
+            address = NativeBuffer.allocate(capacity);
+        }
+
+        return new NativeBuffer(address, capacity, length, OWNER);
+    }
+
+    private static void release(long address, int capacity) {
+        int index = getSizeClass(capacity);
+
+        if (RETAINED_BYTES.addAndGet(capacity) <= MAX_RETAINED_BYTES) {
+            CLASSES[index].push(address);
+        } else {
+            RETAINED_BYTES.addAndGet(-capacity);
+            NativeMemoryTracker.free(NativeMemoryTag.NATIVE_BUFFER, address, capacity);
+        }
+    }
+
+    /**
+     * Deallocates all idle allocations held by the pool. Buffers which are still in use will return to the pool as
+     * usual when they are freed.
+     */
+    public static void clear() {
+        for (int i = 0; i < CLASSES.length; i++) {
+            int capacity = CLASS_SIZES[i];
+            long address;
+
+            while ((address = CLASSES[i].poll()) != MemoryUtil.NULL) {
+                RETAINED_BYTES.addAndGet(-capacity);
+                NativeMemoryTracker.free(NativeMemoryTag.NATIVE_BUFFER, address, capacity);
+            }
+        }
+    }
+
+    /**
+     * {@return the number of bytes held by idle allocations in the pool}
+     */
+    public static long getRetainedBytes() {
+        return RETAINED_BYTES.get();
+    }
+
+    /**
+     * {@return the index of the smallest size class which can hold the given number of bytes, or -1 if there is none}
+     */
+    private static int getSizeClass(int bytes) {
+        int index = Arrays.binarySearch(CLASS_SIZES, bytes);
+
+        if (index < 0) {
+            index = -(index + 1);
+        }
+
+        return index < CLASS_SIZES.length ? index : -1;
+    }
+
+    private static int[] createClassSizes() {
+        int[] sizes = new int[((MAX_SIZE_SHIFT - MIN_SIZE_SHIFT) * 2) + 1];
+        int i = 0;
+
+        for (int shift = MIN_SIZE_SHIFT; shift < MAX_SIZE_SHIFT; shift++) {
+            sizes[i++] = 1 << shift;
+            sizes[i++] = 3 << (shift - 1);
+        }
+
+        sizes[i] = 1 << MAX_SIZE_SHIFT;
+
+        return sizes;
+    }
+
+    private static class SizeClass {
+        private final LongArrayList addresses = new LongArrayList();
+
+        public synchronized long poll() {
+            return this.addresses.isEmpty() ? MemoryUtil.NULL : this.addresses.popLong();
+        }
+
+        public synchronized void push(long address) {
+            this.addresses.push(address);
+        }
+    }
+}
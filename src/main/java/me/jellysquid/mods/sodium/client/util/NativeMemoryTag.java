@@ -0,0 +1,24 @@
+package me.jellysquid.mods.sodium.client.util;
+
+/**
+ * The subsystems which native memory allocations are attributed to by the {@link NativeMemoryTracker}.
+ */
+public enum NativeMemoryTag {
+    NATIVE_BUFFER("native_buffer"),
+    CHUNK_MESH_BUILDER("chunk_mesh_builder"),
+    DRAW_BATCH("draw_batch"),
+    SECTION_RENDER_DATA("section_render_data"),
+    PARTICLE_BATCH("particle_batch");
+
+    public static final NativeMemoryTag[] VALUES = NativeMemoryTag.values();
+
+    private final String name;
+
+    NativeMemoryTag(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+}
@@ -0,0 +1,260 @@
+package me.jellysquid.mods.sodium.client.util;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import net.minecraft.Util;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps account of the native memory which is allocated by each subsystem, so that the off-heap memory used by the
+ * renderer can be sized and leaks can be found. Allocations can either be made through the helpers of this class,
+ * which mirror those of {@link MemoryUtil}, or be reported after the fact for memory which is allocated elsewhere.
+ * Only memory which is freed explicitly may be tracked, as anything released by the garbage collector (such as direct
+ * byte buffers, which the JVM accounts for itself) would never have its free recorded.
+ *
+ * <p>All accounting is lock-free. While memory tracing is enabled in the options, the call stacks of a random sample
+ * of allocations are also recorded, see {@link #SAMPLE_INTERVAL}.</p>
+ */
+public class NativeMemoryTracker {
+    /**
+     * On average, one in this many allocations has its call stack recorded while memory tracing is enabled.
+     */
+    private static final int SAMPLE_INTERVAL = 32;
+
+    private static final int MAX_SAMPLED_FRAMES = 8;
+
+    private static final Gauge[] GAUGES = new Gauge[NativeMemoryTag.VALUES.length];
+    private static final Gauge TOTAL = new Gauge();
+
+    private static final Map<AllocationSite, SiteStats> SAMPLED_SITES = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < GAUGES.length; i++) {
+            GAUGES[i] = new Gauge();
+        }
+    }
+
+    public static long malloc(NativeMemoryTag tag, long bytes) {
+        long ptr = MemoryUtil.nmemAlloc(bytes);
+
+        if (ptr != MemoryUtil.NULL) {
+            recordAllocation(tag, bytes);
+        }
+
+        return ptr;
+    }
+
+    public static long calloc(NativeMemoryTag tag, long count, long size) {
+        long ptr = MemoryUtil.nmemCalloc(count, size);
+
+        if (ptr != MemoryUtil.NULL) {
+            recordAllocation(tag, count * size);
+        }
+
+        return ptr;
+    }
+
+    public static long realloc(NativeMemoryTag tag, long ptr, long oldBytes, long newBytes) {
+        long newPtr = MemoryUtil.nmemRealloc(ptr, newBytes);
+
+        if (newPtr != MemoryUtil.NULL) {
+            recordReallocation(tag, oldBytes, newBytes);
+        }
+
+        return newPtr;
+    }
+
+    public static long alignedAlloc(NativeMemoryTag tag, long alignment, long bytes) {
+        long ptr = MemoryUtil.nmemAlignedAlloc(alignment, bytes);
+
+        if (ptr != MemoryUtil.NULL) {
+            recordAllocation(tag, bytes);
+        }
+
+        return ptr;
+    }
+
+    public static void free(NativeMemoryTag tag, long ptr, long bytes) {
+        if (ptr != MemoryUtil.NULL) {
+            MemoryUtil.nmemFree(ptr);
+            recordFree(tag, bytes);
+        }
+    }
+
+    public static void alignedFree(NativeMemoryTag tag, long ptr, long bytes) {
+        if (ptr != MemoryUtil.NULL) {
+            MemoryUtil.nmemAlignedFree(ptr);
+            recordFree(tag, bytes);
+        }
+    }
+
+    /**
+     * Reports an allocation which was made without going through this class.
+     */
+    public static void recordAllocation(NativeMemoryTag tag, long bytes) {
+        GAUGES[tag.ordinal()].add(bytes, 1);
+        TOTAL.add(bytes, 1);
+
+        if (SodiumClientMod.options().advanced.enableMemoryTracing && ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) == 0) {
+            sampleAllocationSite(tag, bytes);
+        }
+    }
+
+    /**
+     * Reports that an allocation was resized without going through this class. A reallocation of a null pointer
+     * should be reported with an old size of zero, in which case it is counted as a new allocation.
+     */
+    public static void recordReallocation(NativeMemoryTag tag, long oldBytes, long newBytes) {
+        if (oldBytes == 0L) {
+            recordAllocation(tag, newBytes);
+        } else {
+            GAUGES[tag.ordinal()].add(newBytes - oldBytes, 0);
+            TOTAL.add(newBytes - oldBytes, 0);
+        }
+    }
+
+    /**
+     * Reports that an allocation was freed without going through this class.
+     */
+    public static void recordFree(NativeMemoryTag tag, long bytes) {
+        GAUGES[tag.ordinal()].add(-bytes, -1);
+        TOTAL.add(-bytes, -1);
+    }
+
+    /**
+     * {@return the number of bytes currently allocated for the given tag}
+     */
+    public static long getAllocatedBytes(NativeMemoryTag tag) {
+        return GAUGES[tag.ordinal()].bytes.get();
+    }
+
+    /**
+     * {@return the number of bytes currently allocated for all tags}
+     */
+    public static long getTotalAllocatedBytes() {
+        return TOTAL.bytes.get();
+    }
+
+    /**
+     * {@return the highest number of bytes which were allocated at once for all tags}
+     */
+    public static long getPeakAllocatedBytes() {
+        return TOTAL.peakBytes.get();
+    }
+
+    private static void sampleAllocationSite(NativeMemoryTag tag, long bytes) {
+        String stack = StackWalker.getInstance()
+                .walk(frames -> frames
+                        .dropWhile(frame -> frame.getClassName().equals(NativeMemoryTracker.class.getName()))
+                        .limit(MAX_SAMPLED_FRAMES)
+                        .map(StackWalker.StackFrame::toStackTraceElement)
+                        .map(StackTraceElement::toString)
+                        .collect(Collectors.joining("\n    at ", "    at ", "")));
+
+        SiteStats stats = SAMPLED_SITES.computeIfAbsent(new AllocationSite(tag, stack), k -> new SiteStats());
+        stats.samples.increment();
+        stats.bytes.add(bytes);
+    }
+
+    /**
+     * Writes the current gauges and the sampled allocation sites to a new file in the given directory.
+     *
+     * @return The path of the report
+     */
+    public static Path writeReport(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        Path path = directory.resolve("native-memory-" + Util.getFilenameFormattedDateTime() + ".txt");
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.printf("%s native memory report%n%n", SodiumClientMod.MODNAME);
+
+            writer.printf("%-20s %14s %14s %12s %14s%n", "tag", "bytes", "peak bytes", "live", "allocations");
+
+            for (var tag : NativeMemoryTag.VALUES) {
+                writeGauge(writer, tag.getName(), GAUGES[tag.ordinal()]);
+            }
+
+            writeGauge(writer, "total", TOTAL);
+            writer.println();
+
+            for (var pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+                writer.printf("JVM %s buffers: %d bytes in %d buffers%n", pool.getName(), pool.getMemoryUsed(), pool.getCount());
+            }
+
+            writer.println();
+
+            if (SAMPLED_SITES.isEmpty()) {
+                writer.println("No allocation sites were sampled. Enable memory tracing in the options to sample them.");
+                return path;
+            }
+
+            var sites = new ArrayList<>(SAMPLED_SITES.entrySet());
+            sites.sort(Comparator.comparingLong((Map.Entry<AllocationSite, SiteStats> entry) -> entry.getValue().bytes.sum()).reversed());
+
+            writer.printf("Sampled allocation sites (1 in %d allocations, estimated totals)%n", SAMPLE_INTERVAL);
+
+            for (var entry : sites) {
+                var site = entry.getKey();
+                var stats = entry.getValue();
+
+                writer.println();
+                writer.printf("[%s] ~%d allocations, ~%d bytes%n", site.tag.getName(),
+                        stats.samples.sum() * SAMPLE_INTERVAL, stats.bytes.sum() * SAMPLE_INTERVAL);
+                writer.println(site.stack);
+            }
+        }
+
+        return path;
+    }
+
+    private static void writeGauge(PrintWriter writer, String name, Gauge gauge) {
+        writer.printf("%-20s %14d %14d %12d %14d%n", name, gauge.bytes.get(), gauge.peakBytes.get(), gauge.count.get(), gauge.allocations.sum());
+    }
+
+    private static class Gauge {
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong peakBytes = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+        private final LongAdder allocations = new LongAdder();
+
+        private void add(long bytes, int count) {
+            long total = this.bytes.addAndGet(bytes);
+
+            if (total > this.peakBytes.get()) {
+                this.peakBytes.accumulateAndGet(total, Math::max);
+            }
+
+            if (count != 0) {
+                this.count.addAndGet(count);
+
+                if (count > 0) {
+                    this.allocations.add(count);
+                }
+            }
+        }
+    }
+
+    private record AllocationSite(NativeMemoryTag tag, String stack) {
+
+    }
+
+    private static class SiteStats {
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+}
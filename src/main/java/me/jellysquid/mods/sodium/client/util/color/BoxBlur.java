@@ -31,54 +31,49 @@ public class BoxBlur {
         blurImpl(tmp, data, width, height, radius); // Y-axis
     }
 
+    // The red and blue channels are summed together in one integer, with each channel in its own 16-bit lane. A window
+    // has at most 15 samples, so the sum of each channel (at most 15 * 255) never carries into the next lane.
+    private static final int RED_BLUE_MASK = 0x00FF00FF;
+
     private static void blurImpl(int[] src, int[] dst, int width, int height, int radius) {
         int multiplier = getAveragingMultiplier((radius * 2) + 1);
 
         for (int y = 0; y < height; y++) {
             int srcRowOffset = ColorBuffer.getIndex(0, y, width);
 
-            int red, green, blue;
+            int redBlue, green;
 
             {
+                // Extend the window backwards by repeating the colors at the edge N times
                 int color = src[srcRowOffset];
-                red = ColorARGB.unpackRed(color);
-                green = ColorARGB.unpackGreen(color);
-                blue = ColorARGB.unpackBlue(color);
+                redBlue = (color & RED_BLUE_MASK) * (radius + 1);
+                green = ColorARGB.unpackGreen(color) * (radius + 1);
             }
 
-            // Extend the window backwards by repeating the colors at the edge N times
-            red += red * radius;
-            green += green * radius;
-            blue += blue * radius;
-
             // Extend the window forwards by sampling ahead N times
             for (int x = 1; x <= radius; x++) {
                 var color = src[srcRowOffset + x];
-                red += ColorARGB.unpackRed(color);
+                redBlue += color & RED_BLUE_MASK;
                 green += ColorARGB.unpackGreen(color);
-                blue += ColorARGB.unpackBlue(color);
             }
 
             for (int x = 0; x < width; x++) {
                 // The x and y coordinates are transposed to flip the output image
                 //noinspection SuspiciousNameCombination
-                dst[ColorBuffer.getIndex(y, x, width)] = averageRGB(red, green, blue, multiplier);
+                dst[ColorBuffer.getIndex(y, x, width)] = averageRGB(redBlue >>> 16, green, redBlue & 0xFFFF, multiplier);
 
                 {
                     // Remove the color values that are behind the window
                     var color = src[srcRowOffset + Math.max(0, x - radius)];
-
-                    red -= ColorARGB.unpackRed(color);
+                    redBlue -= color & RED_BLUE_MASK;
                     green -= ColorARGB.unpackGreen(color);
-                    blue -= ColorARGB.unpackBlue(color);
                 }
 
                 {
                     // Add the color values that are ahead of the window
                     var color = src[srcRowOffset + Math.min(width - 1, x + radius + 1)];
-                    red += ColorARGB.unpackRed(color);
+                    redBlue += color & RED_BLUE_MASK;
                     green += ColorARGB.unpackGreen(color);
-                    blue += ColorARGB.unpackBlue(color);
                 }
             }
         }
@@ -140,6 +135,26 @@ public class BoxBlur {
             return this.data[getIndex(x, y, this.width)];
         }
 
+        public void copyFrom(ColorBuffer other) {
+            if (other.width != this.width || other.height != this.height) {
+                throw new IllegalArgumentException("Color buffers must have same dimensions");
+            }
+
+            System.arraycopy(other.data, 0, this.data, 0, this.data.length);
+        }
+
+        public void copyFrom(int[] data) {
+            if (data.length != this.data.length) {
+                throw new IllegalArgumentException("Color data must have same size as buffer");
+            }
+
+            System.arraycopy(data, 0, this.data, 0, this.data.length);
+        }
+
+        public int[] copyData() {
+            return this.data.clone();
+        }
+
         public static int getIndex(int x, int y, int width) {
             return (y * width) + x;
         }
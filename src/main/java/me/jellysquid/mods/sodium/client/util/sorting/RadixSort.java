@@ -0,0 +1,120 @@
+package me.jellysquid.mods.sodium.client.util.sorting;
+
+import java.util.Arrays;
+
+/**
+ * A least-significant-digit radix sort over integer keys which produces a permutation of indices, without allocating.
+ */
+public class RadixSort extends AbstractSort {
+    private static final int DIGIT_BITS = 8;
+    private static final int DIGIT_COUNT = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = DIGIT_COUNT - 1;
+    private static final int PASSES = Integer.SIZE / DIGIT_BITS;
+
+    /**
+     * The required length of the array used to count digits.
+     */
+    public static final int COUNTS_LENGTH = DIGIT_COUNT * PASSES;
+
+    /**
+     * Below this many elements, the fixed cost of counting digits outweighs the benefit over an insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 64;
+
+    /**
+     * Converts a float into a key which orders in the opposite direction when compared as an unsigned integer, so that
+     * sorting the keys in ascending order sorts the original values in descending order.
+     */
+    public static int descendingKey(float value) {
+        int bits = Float.floatToRawIntBits(value);
+
+        // Flip all bits of negative numbers and only the sign bit of positive numbers, which makes the
+        // unsigned integer order match the float order, then invert the result
+        return ~(bits ^ ((bits >> 31) | 0x80000000));
+    }
+
+    /**
+     * Sorts the first {@code count} indices in ascending order of their keys (compared as unsigned integers). The sort
+     * is stable. The key arrays are used as scratch space, and their contents are undefined afterward.
+     *
+     * @param keys The key of each element, indexed by position in {@code indices}
+     * @param indices The element indices to sort, which will contain the sorted order on return
+     * @param scratchKeys Scratch space of at least {@code count} elements
+     * @param scratchIndices Scratch space of at least {@code count} elements
+     * @param counts Scratch space of at least {@link #COUNTS_LENGTH} elements
+     */
+    public static void sort(int[] keys, int[] indices, int[] scratchKeys, int[] scratchIndices, int[] counts, int count) {
+        if (count < INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, indices, count);
+            return;
+        }
+
+        Arrays.fill(counts, 0, COUNTS_LENGTH, 0);
+
+        for (int i = 0; i < count; i++) {
+            int key = keys[i];
+
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[(pass << DIGIT_BITS) + ((key >>> (pass * DIGIT_BITS)) & DIGIT_MASK)]++;
+            }
+        }
+
+        int[] srcKeys = keys, srcIndices = indices;
+        int[] dstKeys = scratchKeys, dstIndices = scratchIndices;
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            int base = pass << DIGIT_BITS;
+            int shift = pass * DIGIT_BITS;
+
+            // If every key has the same digit, this pass wouldn't change the order
+            if (counts[base + ((srcKeys[0] >>> shift) & DIGIT_MASK)] == count) {
+                continue;
+            }
+
+            int offset = 0;
+
+            for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+                int digitCount = counts[base + digit];
+                counts[base + digit] = offset;
+                offset += digitCount;
+            }
+
+            for (int i = 0; i < count; i++) {
+                int key = srcKeys[i];
+                int dst = counts[base + ((key >>> shift) & DIGIT_MASK)]++;
+
+                dstKeys[dst] = key;
+                dstIndices[dst] = srcIndices[i];
+            }
+
+            int[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+
+            int[] tmpIndices = srcIndices;
+            srcIndices = dstIndices;
+            dstIndices = tmpIndices;
+        }
+
+        if (srcIndices != indices) {
+            System.arraycopy(srcIndices, 0, indices, 0, count);
+        }
+    }
+
+    private static void insertionSort(int[] keys, int[] indices, int count) {
+        for (int i = 1; i < count; i++) {
+            int key = keys[i];
+            int index = indices[i];
+            int j = i - 1;
+
+            while (j >= 0 && Integer.compareUnsigned(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+}
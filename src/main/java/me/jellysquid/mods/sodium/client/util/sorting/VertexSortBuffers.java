@@ -0,0 +1,78 @@
+package me.jellysquid.mods.sodium.client.util.sorting;
+
+import org.joml.Vector3f;
+
+/**
+ * Reusable scratch storage for sorting the quads of an immediate-mode buffer. The centers of each quad are stored
+ * in a flat array rather than as individual vectors, and all arrays are kept between sorts so that sorting doesn't
+ * allocate once they have grown large enough.
+ */
+public class VertexSortBuffers {
+    private float[] centers = new float[0];
+    private int[] keys = new int[0];
+    private int[] indices = new int[0];
+    private int[] scratchKeys = new int[0];
+    private int[] scratchIndices = new int[0];
+    private final int[] counts = new int[RadixSort.COUNTS_LENGTH];
+
+    private int quadCount;
+
+    /**
+     * Prepares the buffers for the given number of quads, discarding any previous contents.
+     */
+    public void reset(int quadCount) {
+        if (this.keys.length < quadCount) {
+            int capacity = Math.max(quadCount, this.keys.length + (this.keys.length >> 1));
+
+            this.centers = new float[capacity * 3];
+            this.keys = new int[capacity];
+            this.indices = new int[capacity];
+            this.scratchKeys = new int[capacity];
+            this.scratchIndices = new int[capacity];
+        }
+
+        this.quadCount = quadCount;
+    }
+
+    public void setCenter(int quad, float x, float y, float z) {
+        int offset = quad * 3;
+
+        this.centers[offset + 0] = x;
+        this.centers[offset + 1] = y;
+        this.centers[offset + 2] = z;
+    }
+
+    public int getQuadCount() {
+        return this.quadCount;
+    }
+
+    /**
+     * {@return the center of each quad, as an array of vectors}
+     */
+    public Vector3f[] createCenterVectors() {
+        var vectors = new Vector3f[this.quadCount];
+
+        for (int quad = 0; quad < this.quadCount; quad++) {
+            int offset = quad * 3;
+            vectors[quad] = new Vector3f(this.centers[offset + 0], this.centers[offset + 1], this.centers[offset + 2]);
+        }
+
+        return vectors;
+    }
+
+    /**
+     * Sorts the quads in descending order of the given sorter's key.
+     * @return An array whose first {@link #getQuadCount()} elements are the quad indices in sorted order
+     */
+    public int[] sort(VertexSorters.AbstractVertexSorter sorter) {
+        sorter.computeKeys(this.centers, this.keys, this.quadCount);
+
+        for (int quad = 0; quad < this.quadCount; quad++) {
+            this.indices[quad] = quad;
+        }
+
+        RadixSort.sort(this.keys, this.indices, this.scratchKeys, this.scratchIndices, this.counts, this.quadCount);
+
+        return this.indices;
+    }
+}
@@ -8,6 +8,10 @@ public class VertexSorters {
         return new SortByDistance(origin);
     }
 
+    public static VertexSorting sortByDistance(VertexSorting.DistanceFunction function) {
+        return new SortByDistanceFunction(function);
+    }
+
     private static class SortByDistance extends AbstractVertexSorter {
         private final Vector3f origin;
 
@@ -19,9 +23,48 @@ public class VertexSorters {
         protected float getKey(Vector3f position) {
             return this.origin.distanceSquared(position);
         }
+
+        @Override
+        public void computeKeys(float[] centers, int[] keys, int count) {
+            float originX = this.origin.x;
+            float originY = this.origin.y;
+            float originZ = this.origin.z;
+
+            for (int index = 0; index < count; index++) {
+                float dx = originX - centers[(index * 3) + 0];
+                float dy = originY - centers[(index * 3) + 1];
+                float dz = originZ - centers[(index * 3) + 2];
+
+                keys[index] = RadixSort.descendingKey((dx * dx) + (dy * dy) + (dz * dz));
+            }
+        }
+    }
+
+    private static class SortByDistanceFunction extends AbstractVertexSorter {
+        private final VertexSorting.DistanceFunction function;
+
+        private SortByDistanceFunction(VertexSorting.DistanceFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        protected float getKey(Vector3f position) {
+            return this.function.apply(position);
+        }
+
+        @Override
+        public void computeKeys(float[] centers, int[] keys, int count) {
+            // The sorter may be shared between threads, so the vector passed to the function can't be a field
+            var position = new Vector3f();
+
+            for (int index = 0; index < count; index++) {
+                position.set(centers[(index * 3) + 0], centers[(index * 3) + 1], centers[(index * 3) + 2]);
+                keys[index] = RadixSort.descendingKey(this.function.apply(position));
+            }
+        }
     }
 
-    private static abstract class AbstractVertexSorter implements VertexSorting {
+    public static abstract class AbstractVertexSorter implements VertexSorting {
         @Override
         public final int[] sort(Vector3f[] positions) {
             return this.mergeSort(positions);
@@ -38,5 +81,11 @@ public class VertexSorters {
         }
 
         protected abstract float getKey(Vector3f object);
+
+        /**
+         * Computes the radix sort key (see {@link RadixSort#descendingKey(float)}) of each position, where positions are
+         * stored as consecutive (x, y, z) triples.
+         */
+        public abstract void computeKeys(float[] centers, int[] keys, int count);
     }
 }
@@ -134,6 +134,9 @@ public class WorldSlice implements BlockAndTintGetter, BiomeColorView, FabricBlo
         final int maxChunkY = origin.getY() + NEIGHBOR_CHUNK_RADIUS;
         final int maxChunkZ = origin.getZ() + NEIGHBOR_CHUNK_RADIUS;
 
+        // Must be read before any biome data is copied, see SharedBiomeColorCache
+        long biomeColorEpoch = world instanceof ClientLevel clientLevel ? SharedBiomeColorCache.get(clientLevel).getEpoch() : 0;
+
         ClonedChunkSection[] sections = new ClonedChunkSection[SECTION_ARRAY_SIZE];
 
         for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
@@ -145,7 +148,9 @@ public class WorldSlice implements BlockAndTintGetter, BiomeColorView, FabricBlo
             }
         }
 
-        return new ChunkRenderContext(origin, sections, volume).withMeshAppenders(meshAppenders);
+        return new ChunkRenderContext(origin, sections, volume)
+                .withMeshAppenders(meshAppenders)
+                .withBiomeColorEpoch(biomeColorEpoch);
     }
 
     @SuppressWarnings("unchecked")
@@ -159,7 +164,8 @@ public class WorldSlice implements BlockAndTintGetter, BiomeColorView, FabricBlo
         this.blockEntityRenderDataArrays = new Int2ReferenceMap[SECTION_ARRAY_SIZE];
 
         this.biomeSlice = new BiomeSlice();
-        this.biomeColors = new BiomeColorCache(this.biomeSlice, Minecraft.getInstance().options.biomeBlendRadius().get());
+        this.biomeColors = new BiomeColorCache(this.biomeSlice, SharedBiomeColorCache.get(world),
+                Minecraft.getInstance().options.biomeBlendRadius().get());
 
         for (BlockState[] blockArray : this.blockArrays) {
             Arrays.fill(blockArray, EMPTY_BLOCK_STATE);
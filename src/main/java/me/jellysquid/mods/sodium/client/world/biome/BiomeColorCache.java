@@ -9,9 +9,12 @@ import net.minecraft.util.Mth;
 import net.minecraft.world.level.ColorResolver;
 import net.minecraft.world.level.biome.Biome;
 
+import java.util.Arrays;
+
 public class BiomeColorCache {
     private static final int NEIGHBOR_BLOCK_RADIUS = 2;
     private final BiomeSlice biomeData;
+    private final SharedBiomeColorCache sharedColors;
 
     private final Reference2ReferenceOpenHashMap<ColorResolver, Slice[]> slices;
     private long populateStamp;
@@ -25,8 +28,12 @@ public class BiomeColorCache {
 
     private final int sizeXZ, sizeY;
 
-    public BiomeColorCache(BiomeSlice biomeData, int blendRadius) {
+    private int chunkX, chunkZ;
+    private long sharedColorsEpoch;
+
+    public BiomeColorCache(BiomeSlice biomeData, SharedBiomeColorCache sharedColors, int blendRadius) {
         this.biomeData = biomeData;
+        this.sharedColors = sharedColors;
         this.blendRadius = Math.min(7, blendRadius);
 
         this.sizeXZ = 16 + ((NEIGHBOR_BLOCK_RADIUS + this.blendRadius) * 2);
@@ -47,6 +54,10 @@ public class BiomeColorCache {
         this.maxY = (context.getOrigin().maxBlockY() + NEIGHBOR_BLOCK_RADIUS);
         this.maxZ = (context.getOrigin().maxBlockZ() + NEIGHBOR_BLOCK_RADIUS) + this.blendRadius;
 
+        this.chunkX = context.getOrigin().getX();
+        this.chunkZ = context.getOrigin().getZ();
+        this.sharedColorsEpoch = context.getBiomeColorEpoch();
+
         this.populateStamp++;
     }
 
@@ -72,7 +83,7 @@ public class BiomeColorCache {
         Slice slice = sliceArray[relY];
 
         if (slice.lastPopulateStamp < this.populateStamp) {
-            this.updateColorBuffers(relY, resolver, slice);
+            this.updateColorBuffers(relY, resolver, sliceArray);
         }
 
         var buffer = slice.getBuffer();
@@ -91,16 +102,54 @@ public class BiomeColorCache {
         return sliceArray;
     }
 
-    private void updateColorBuffers(int relY, ColorResolver resolver, Slice slice) {
+    private void updateColorBuffers(int relY, ColorResolver resolver, Slice[] sliceArray) {
+        Slice slice = sliceArray[relY];
         int worldY = this.minY + relY;
 
+        slice.lastPopulateStamp = this.populateStamp;
+
+        // Another thread (or an earlier build of this section) may have already computed the colors of this layer
+        int[] sharedColors = this.sharedColors.get(resolver, this.chunkX, this.chunkZ, worldY, this.blendRadius);
+
+        if (sharedColors != null) {
+            slice.buffer.copyFrom(sharedColors);
+            slice.hasBiomes = false;
+            return;
+        }
+
         for (int worldZ = this.minZ; worldZ <= this.maxZ; worldZ++) {
             for (int worldX = this.minX; worldX <= this.maxX; worldX++) {
-                Biome biome = this.biomeData.getBiome(worldX, worldY, worldZ).value();
+                int relativeX = worldX - this.minX;
+                int relativeZ = worldZ - this.minZ;
+
+                slice.biomes[ColorBuffer.getIndex(relativeX, relativeZ, this.sizeXZ)] = this.biomeData.getBiome(worldX, worldY, worldZ).value();
+            }
+        }
+
+        slice.hasBiomes = true;
 
+        // Biomes rarely change between layers, and the color resolvers only depend on the biome and horizontal position.
+        // If an adjacent layer has already been populated from the same biomes, its blurred colors can be copied as-is.
+        Slice neighbor = this.findMatchingNeighbor(sliceArray, relY);
+
+        if (neighbor != null) {
+            slice.buffer.copyFrom(neighbor.buffer);
+        } else {
+            this.computeColors(worldY, resolver, slice);
+        }
+
+        this.sharedColors.put(resolver, this.chunkX, this.chunkZ, worldY, this.blendRadius, slice.buffer.copyData(),
+                this.sharedColorsEpoch);
+    }
+
+    private void computeColors(int worldY, ColorResolver resolver, Slice slice) {
+        for (int worldZ = this.minZ; worldZ <= this.maxZ; worldZ++) {
+            for (int worldX = this.minX; worldX <= this.maxX; worldX++) {
                 int relativeX = worldX - this.minX;
                 int relativeZ = worldZ - this.minZ;
 
+                Biome biome = slice.biomes[ColorBuffer.getIndex(relativeX, relativeZ, this.sizeXZ)];
+
                 slice.buffer.set(relativeX, relativeZ, resolver.getColor(biome, worldX, worldZ));
             }
         }
@@ -108,20 +157,40 @@ public class BiomeColorCache {
         if (this.blendRadius > 0) {
             BoxBlur.blur(slice.buffer, this.tempColorBuffer, this.blendRadius);
         }
+    }
 
-        slice.lastPopulateStamp = this.populateStamp;
+    private Slice findMatchingNeighbor(Slice[] sliceArray, int relY) {
+        Slice slice = sliceArray[relY];
+
+        if (relY > 0 && slice.hasSameBiomes(sliceArray[relY - 1], this.populateStamp)) {
+            return sliceArray[relY - 1];
+        }
+
+        if (relY + 1 < sliceArray.length && slice.hasSameBiomes(sliceArray[relY + 1], this.populateStamp)) {
+            return sliceArray[relY + 1];
+        }
+
+        return null;
     }
 
     private static class Slice {
         private final ColorBuffer buffer;
+        private final Biome[] biomes;
+        private boolean hasBiomes;
         private long lastPopulateStamp;
 
         private Slice(int size) {
             this.buffer = new ColorBuffer(size, size);
+            this.biomes = new Biome[size * size];
         }
 
         public ColorBuffer getBuffer() {
             return this.buffer;
         }
+
+        private boolean hasSameBiomes(Slice other, long populateStamp) {
+            // Biomes don't override equals, so this compares them by identity
+            return other.lastPopulateStamp == populateStamp && other.hasBiomes && Arrays.equals(this.biomes, other.biomes);
+        }
     }
 }
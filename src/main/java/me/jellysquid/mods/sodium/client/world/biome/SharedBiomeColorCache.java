@@ -0,0 +1,169 @@
+package me.jellysquid.mods.sodium.client.world.biome;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.ColorResolver;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Holds the blended biome colors of recently built sections for a level, so that they can be reused by any chunk
+ * meshing thread. Biome data rarely changes, so sections which are rebuilt after block updates, or sections
+ * which share layers with a neighbor in the same column, can skip fetching the biomes and blurring the colors again.
+ *
+ * <p>Each entry holds the colors of one horizontal layer around a chunk column, as produced by {@link BiomeColorCache}.
+ * The colors of a column depend on the biomes of the neighboring chunks, so loading or unloading a chunk invalidates
+ * all columns around it. Since chunk meshing tasks run behind the client thread, a task may only store colors if no
+ * chunk has been invalidated since its biome data was copied, see {@link #getEpoch()}.</p>
+ */
+public class SharedBiomeColorCache {
+    /**
+     * The maximum number of colors held by the cache across all entries (16 MiB).
+     */
+    private static final int MAX_CACHED_COLORS = 4 * 1024 * 1024;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Columns are evicted in the order they were created once the cache is full
+    private final Long2ObjectLinkedOpenHashMap<Column> columns = new Long2ObjectLinkedOpenHashMap<>();
+    private int cachedColors;
+
+    private int blendRadius = -1;
+
+    private volatile long epoch;
+
+    public static SharedBiomeColorCache get(ClientLevel world) {
+        return ((Holder) world).embeddium$getSharedBiomeColors();
+    }
+
+    /**
+     * {@return the number of invalidations so far} Colors computed from biome data copied before an invalidation must
+     * not be stored.
+     */
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * {@return the cached colors of a layer, or null if they are not cached} The returned array must not be modified.
+     */
+    public int[] get(ColorResolver resolver, int chunkX, int chunkZ, int worldY, int blendRadius) {
+        long stamp = this.lock.readLock();
+
+        try {
+            if (this.blendRadius != blendRadius) {
+                return null;
+            }
+
+            var column = this.columns.get(ChunkPos.asLong(chunkX, chunkZ));
+
+            if (column == null) {
+                return null;
+            }
+
+            return column.get(resolver, worldY);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Stores the colors of a layer. The array is owned by the cache afterward and must not be modified.
+     *
+     * @param epoch The epoch at the time the biome data used to compute the colors was copied
+     */
+    public void put(ColorResolver resolver, int chunkX, int chunkZ, int worldY, int blendRadius, int[] colors, long epoch) {
+        long stamp = this.lock.writeLock();
+
+        try {
+            if (this.epoch != epoch) {
+                return;
+            }
+
+            if (this.blendRadius != blendRadius) {
+                this.clearColumns();
+                this.blendRadius = blendRadius;
+            }
+
+            var key = ChunkPos.asLong(chunkX, chunkZ);
+            var column = this.columns.get(key);
+
+            if (column == null) {
+                this.columns.putAndMoveToLast(key, column = new Column());
+            }
+
+            if (column.put(resolver, worldY, colors)) {
+                this.cachedColors += colors.length;
+            }
+
+            while (this.cachedColors > MAX_CACHED_COLORS && this.columns.size() > 1) {
+                this.cachedColors -= this.columns.removeFirst().colorCount;
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes all colors which were computed using the biomes of the given chunk. Must be called from the client thread
+     * whenever the biomes of a chunk are loaded, replaced, or unloaded.
+     */
+    public void invalidateChunk(int chunkX, int chunkZ) {
+        long stamp = this.lock.writeLock();
+
+        try {
+            this.epoch++;
+
+            for (int offsetX = -1; offsetX <= 1; offsetX++) {
+                for (int offsetZ = -1; offsetZ <= 1; offsetZ++) {
+                    var column = this.columns.remove(ChunkPos.asLong(chunkX + offsetX, chunkZ + offsetZ));
+
+                    if (column != null) {
+                        this.cachedColors -= column.colorCount;
+                    }
+                }
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    private void clearColumns() {
+        this.columns.clear();
+        this.cachedColors = 0;
+    }
+
+    private static class Column {
+        private final Reference2ObjectOpenHashMap<ColorResolver, Int2ObjectOpenHashMap<int[]>> layers = new Reference2ObjectOpenHashMap<>();
+        private int colorCount;
+
+        private int[] get(ColorResolver resolver, int worldY) {
+            var layers = this.layers.get(resolver);
+
+            if (layers == null) {
+                return null;
+            }
+
+            return layers.get(worldY);
+        }
+
+        private boolean put(ColorResolver resolver, int worldY, int[] colors) {
+            var layers = this.layers.computeIfAbsent(resolver, (key) -> new Int2ObjectOpenHashMap<>());
+
+            if (layers.putIfAbsent(worldY, colors) != null) {
+                return false;
+            }
+
+            this.colorCount += colors.length;
+
+            return true;
+        }
+    }
+
+    public interface Holder {
+        SharedBiomeColorCache embeddium$getSharedBiomeColors();
+    }
+}
@@ -12,6 +12,7 @@ public class ChunkRenderContext {
     private final ClonedChunkSection[] sections;
     private final BoundingBox volume;
     private List<MeshAppender> meshAppenders = Collections.emptyList();
+    private long biomeColorEpoch;
 
     public ChunkRenderContext(SectionPos origin, ClonedChunkSection[] sections, BoundingBox volume) {
         this.origin = origin;
@@ -24,6 +25,11 @@ public class ChunkRenderContext {
         return this;
     }
 
+    public ChunkRenderContext withBiomeColorEpoch(long biomeColorEpoch) {
+        this.biomeColorEpoch = biomeColorEpoch;
+        return this;
+    }
+
     public ClonedChunkSection[] getSections() {
         return this.sections;
     }
@@ -39,4 +45,11 @@ public class ChunkRenderContext {
     public List<MeshAppender> getMeshAppenders() {
         return this.meshAppenders;
     }
+
+    /**
+     * {@return the epoch of the level's shared biome color cache at the time the biome data was copied}
+     */
+    public long getBiomeColorEpoch() {
+        return this.biomeColorEpoch;
+    }
 }
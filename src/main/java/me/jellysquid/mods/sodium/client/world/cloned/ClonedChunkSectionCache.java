@@ -1,6 +1,8 @@
 package me.jellysquid.mods.sodium.client.world.cloned;
 
 import it.unimi.dsi.fastutil.longs.Long2ReferenceLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -117,6 +119,29 @@ public class ClonedChunkSectionCache {
         }
     }
 
+    /**
+     * Invalidates the cached sections at all the given positions (see {@link SectionPos#asLong(int, int, int)}) while
+     * only acquiring the lock once.
+     */
+    public void invalidate(LongCollection positions) {
+        this.writeLock.lock();
+        try {
+            if (positions.size() > this.positionToEntry.size()) {
+                for (LongIterator it = this.positionToEntry.keySet().iterator(); it.hasNext(); ) {
+                    if (positions.contains(it.nextLong())) {
+                        it.remove();
+                    }
+                }
+            } else {
+                for (LongIterator it = positions.iterator(); it.hasNext(); ) {
+                    this.positionToEntry.remove(it.nextLong());
+                }
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
     private static long getMonotonicTimeSource() {
         // Should be monotonic in JDK 17 on sane platforms...
         return System.nanoTime();
@@ -37,6 +37,7 @@ public class MixinConfig {
         this.addMixinRule("features.gui.hooks", true);
         this.addMixinRule("features.gui.hooks.console", true);
         this.addMixinRule("features.gui.hooks.debug", true);
+        this.addMixinRule("features.gui.hooks.profiler", true);
         this.addMixinRule("features.gui.hooks.settings", true);
 
         this.addMixinRule("features.gui.screen", true);
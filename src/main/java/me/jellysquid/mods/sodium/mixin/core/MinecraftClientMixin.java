@@ -4,6 +4,7 @@ import com.mojang.realmsclient.client.RealmsClient;
 import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.gui.screen.ConfigCorruptedScreen;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderProfiler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.client.main.GameConfig;
@@ -82,6 +83,8 @@ public class MinecraftClientMixin {
         }
 
         this.fences.enqueue(fence);
+
+        RenderProfiler.endFrame();
     }
 
     /**
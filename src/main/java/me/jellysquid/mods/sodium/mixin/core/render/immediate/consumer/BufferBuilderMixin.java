@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.mixin.core.render.immediate.consumer;
 
 import com.mojang.blaze3d.vertex.DefaultedVertexConsumer;
+import me.jellysquid.mods.sodium.client.render.immediate.model.ParallelModelRenderer;
 import me.jellysquid.mods.sodium.client.render.vertex.buffer.ExtendedBufferBuilder;
 import me.jellysquid.mods.sodium.client.render.vertex.buffer.SodiumBufferBuilder;
 import net.caffeinemc.mods.sodium.api.memory.MemoryIntrinsics;
@@ -17,8 +18,10 @@ import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import com.mojang.blaze3d.vertex.BufferBuilder;
 import com.mojang.blaze3d.vertex.VertexFormat;
+import org.joml.Vector3f;
 import java.nio.ByteBuffer;
 
 @Mixin(BufferBuilder.class)
@@ -45,6 +48,9 @@ public abstract class BufferBuilderMixin extends DefaultedVertexConsumer impleme
 
     private SodiumBufferBuilder fastDelegate;
 
+    @Unique
+    private ParallelModelRenderer.Batch deferredModelBatch;
+
     @Inject(method = "switchFormat",
         at = @At(
             value = "FIELD",
@@ -64,6 +70,28 @@ public abstract class BufferBuilderMixin extends DefaultedVertexConsumer impleme
         if (this.fastDelegate != null) {
             this.fastDelegate.reset();
         }
+
+        if (this.deferredModelBatch != null) {
+            this.deferredModelBatch.clear();
+        }
+    }
+
+    @Inject(method = "makeQuadSortingPoints", at = @At("HEAD"))
+    private void flushDeferredGeometryBeforeSorting(CallbackInfoReturnable<Vector3f[]> cir) {
+        this.flushDeferredGeometry();
+    }
+
+    @Inject(method = "storeRenderedBuffer", at = @At("HEAD"))
+    private void flushDeferredGeometryBeforeStoring(CallbackInfoReturnable<BufferBuilder.RenderedBuffer> cir) {
+        this.flushDeferredGeometry();
+    }
+
+    @Unique
+    private void flushDeferredGeometry() {
+        // The vertices of deferred model parts must be written before anything reads the contents of the buffer
+        if (this.deferredModelBatch != null && !this.deferredModelBatch.isEmpty()) {
+            this.deferredModelBatch.flush(this.buffer, this.format);
+        }
     }
 
     @Override
@@ -95,6 +123,30 @@ public abstract class BufferBuilderMixin extends DefaultedVertexConsumer impleme
         this.nextElementByte += length;
     }
 
+    @Override
+    public int embeddium$reserveVertices(int count) {
+        var length = count * this.stride;
+
+        // Ensure that there is always space for 1 more vertex; see BufferBuilder.next()
+        this.ensureCapacity(length + this.stride);
+
+        var offset = this.nextElementByte;
+
+        this.vertices += count;
+        this.nextElementByte += length;
+
+        return offset;
+    }
+
+    @Override
+    public ParallelModelRenderer.Batch embeddium$getDeferredModelBatch() {
+        if (this.deferredModelBatch == null) {
+            this.deferredModelBatch = new ParallelModelRenderer.Batch();
+        }
+
+        return this.deferredModelBatch;
+    }
+
     @Unique
     private void copySlow(long src, long dst, int count, VertexFormatDescription format) {
         VertexSerializerRegistry.instance()
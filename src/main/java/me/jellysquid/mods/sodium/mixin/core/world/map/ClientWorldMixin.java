@@ -3,6 +3,7 @@ package me.jellysquid.mods.sodium.mixin.core.world.map;
 import me.jellysquid.mods.sodium.client.render.chunk.map.ChunkStatus;
 import me.jellysquid.mods.sodium.client.render.chunk.map.ChunkTracker;
 import me.jellysquid.mods.sodium.client.render.chunk.map.ChunkTrackerHolder;
+import me.jellysquid.mods.sodium.client.world.biome.SharedBiomeColorCache;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.chunk.LevelChunk;
@@ -15,22 +16,34 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 
 @Mixin(ClientLevel.class)
-public class ClientWorldMixin implements ChunkTrackerHolder {
+public class ClientWorldMixin implements ChunkTrackerHolder, SharedBiomeColorCache.Holder {
     @Unique
     private final ChunkTracker chunkTracker = new ChunkTracker();
 
+    @Unique
+    private final SharedBiomeColorCache sharedBiomeColors = new SharedBiomeColorCache();
+
     @Override
     public ChunkTracker sodium$getTracker() {
         return Validate.notNull(this.chunkTracker);
     }
 
+    @Override
+    public SharedBiomeColorCache embeddium$getSharedBiomeColors() {
+        return this.sharedBiomeColors;
+    }
+
     @Inject(method = "onChunkLoaded", at = @At("RETURN"))
     private void markLoaded(ChunkPos pChunkPos, CallbackInfo ci) {
         this.chunkTracker.onChunkStatusAdded(pChunkPos.x, pChunkPos.z, ChunkStatus.FLAG_HAS_BLOCK_DATA);
+
+        // Also called after the biomes of a loaded chunk are replaced
+        this.sharedBiomeColors.invalidateChunk(pChunkPos.x, pChunkPos.z);
     }
 
     @Inject(method = "unload", at = @At("RETURN"))
     private void markUnloaded(LevelChunk chunk, CallbackInfo ci) {
         this.chunkTracker.onChunkStatusRemoved(chunk.getPos().x, chunk.getPos().z, ChunkStatus.FLAG_HAS_BLOCK_DATA);
+        this.sharedBiomeColors.invalidateChunk(chunk.getPos().x, chunk.getPos().z);
     }
 }
@@ -4,7 +4,9 @@ import com.google.common.collect.Lists;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.render.SodiumWorldRenderer;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
-import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import me.jellysquid.mods.sodium.client.util.NativeBufferPool;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTag;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTracker;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.components.DebugScreenOverlay;
@@ -16,6 +18,7 @@ import org.spongepowered.asm.mixin.injection.Redirect;
 
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.List;
 
 import static me.jellysquid.mods.sodium.client.SodiumClientMod.MODNAME;
 
@@ -38,6 +41,8 @@ public abstract class DebugHudMixin {
             strings.addAll(renderer.getDebugStrings());
         }
 
+        strings.addAll(getNativeMemoryStrings());
+
         for (int i = 0; i < strings.size(); i++) {
             String str = strings.get(i);
 
@@ -58,6 +63,29 @@ public abstract class DebugHudMixin {
 
     @Unique
     private static long getNativeMemoryUsage() {
-        return ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getUsed() + NativeBuffer.getTotalAllocated();
+        return ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getUsed() + NativeMemoryTracker.getTotalAllocatedBytes();
+    }
+
+    @Unique
+    private static List<String> getNativeMemoryStrings() {
+        List<String> strings = new ArrayList<>();
+        strings.add("Native Memory: %sMB (peak %sMB)".formatted(MathUtil.toMib(NativeMemoryTracker.getTotalAllocatedBytes()),
+                MathUtil.toMib(NativeMemoryTracker.getPeakAllocatedBytes())));
+
+        for (var tag : NativeMemoryTag.VALUES) {
+            long bytes = NativeMemoryTracker.getAllocatedBytes(tag);
+
+            if (bytes > 0L) {
+                strings.add("- %s: %sKB".formatted(tag.getName(), bytes / 1024L));
+            }
+        }
+
+        long pooledBytes = NativeBufferPool.getRetainedBytes();
+
+        if (pooledBytes > 0L) {
+            strings.add("- native_buffer (pooled): %sKB".formatted(pooledBytes / 1024L));
+        }
+
+        return strings;
     }
 }
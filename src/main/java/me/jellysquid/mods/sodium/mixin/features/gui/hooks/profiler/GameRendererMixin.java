@@ -0,0 +1,44 @@
+package me.jellysquid.mods.sodium.mixin.features.gui.hooks.profiler;
+
+import me.jellysquid.mods.sodium.client.render.profiler.RenderProfiler;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderProfilerOverlay;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.RenderBuffers;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(GameRenderer.class)
+public class GameRendererMixin {
+    @Shadow
+    @Final
+    Minecraft minecraft;
+
+    @Shadow
+    @Final
+    private RenderBuffers renderBuffers;
+
+    @Inject(method = "render", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/gui/GuiGraphics;flush()V", shift = At.Shift.AFTER))
+    private void onRender(float tickDelta, long startTime, boolean tick, CallbackInfo ci) {
+        if (!RenderProfiler.isHistoryEnabled() || this.minecraft.options.hideGui || this.minecraft.level == null) {
+            return;
+        }
+
+        this.minecraft.getProfiler()
+                .push("embeddium_profiler_overlay");
+
+        GuiGraphics drawContext = new GuiGraphics(this.minecraft, this.renderBuffers.bufferSource());
+
+        RenderProfilerOverlay.render(drawContext);
+
+        drawContext.flush();
+
+        this.minecraft.getProfiler()
+                .pop();
+    }
+}
@@ -0,0 +1,31 @@
+package me.jellysquid.mods.sodium.mixin.features.render.entity.cull;
+
+import me.jellysquid.mods.sodium.client.render.entity.EntityCullingState;
+import net.minecraft.world.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+@Mixin(Entity.class)
+public class EntityMixin implements EntityCullingState {
+    @Unique
+    private int embeddium$cullingPass = -1;
+
+    @Unique
+    private boolean embeddium$visible;
+
+    @Override
+    public int embeddium$getCullingPass() {
+        return this.embeddium$cullingPass;
+    }
+
+    @Override
+    public boolean embeddium$isVisible() {
+        return this.embeddium$visible;
+    }
+
+    @Override
+    public void embeddium$setVisibility(int pass, boolean visible) {
+        this.embeddium$cullingPass = pass;
+        this.embeddium$visible = visible;
+    }
+}
@@ -4,6 +4,8 @@ import me.jellysquid.mods.sodium.client.model.ModelCuboidAccessor;
 import me.jellysquid.mods.sodium.client.render.immediate.model.EntityRenderer;
 import me.jellysquid.mods.sodium.client.render.immediate.model.ModelCuboid;
 import me.jellysquid.mods.sodium.client.render.immediate.model.ModelPartData;
+import me.jellysquid.mods.sodium.client.render.immediate.model.ModelPartTemplate;
+import me.jellysquid.mods.sodium.client.render.immediate.model.ParallelModelRenderer;
 import me.jellysquid.mods.sodium.client.render.vertex.VertexConsumerUtils;
 import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
 import net.caffeinemc.mods.sodium.api.util.ColorABGR;
@@ -61,6 +63,9 @@ public class ModelPartMixin implements ModelPartData {
     @Unique
     private ModelCuboid[] sodium$cuboids;
 
+    @Unique
+    private ModelPartTemplate embeddium$template;
+
     @Inject(method = "<init>", at = @At("RETURN"))
     private void onInit(List<ModelPart.Cube> cuboids, Map<String, ModelPart> children, CallbackInfo ci) {
         var copies = new ModelCuboid[cuboids.size()];
@@ -102,11 +107,26 @@ public class ModelPartMixin implements ModelPartData {
 
         ci.cancel();
 
-        EntityRenderer.prepareNormals(matrixPose);
-
         var cubes = this.cubes;
         int packedColor = ColorABGR.pack(red, green, blue, alpha);
 
+        var template = this.embeddium$template;
+
+        if (template == null || !template.isValidFor(cubes)) {
+            // The cubes were replaced since the template was compiled (or this is the first render)
+            this.embeddium$template = template = ModelPartTemplate.compile(cubes);
+        }
+
+        if (template.isCompiled()) {
+            if (!ParallelModelRenderer.tryDefer(writer, matrixPose, template, light, overlay, packedColor)) {
+                EntityRenderer.renderTemplate(matrixPose, writer, template, light, overlay, packedColor);
+            }
+
+            return;
+        }
+
+        EntityRenderer.prepareNormals(matrixPose);
+
         //noinspection ForLoopReplaceableByForEach
         for(int i = 0; i < cubes.size(); i++) {
             var cube = cubes.get(i);
@@ -1,6 +1,8 @@
 
 package me.jellysquid.mods.sodium.mixin.features.render.immediate.buffer_builder.sorting;
 
+import me.jellysquid.mods.sodium.client.util.sorting.VertexSortBuffers;
+import me.jellysquid.mods.sodium.client.util.sorting.VertexSorters;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3f;
 import org.lwjgl.system.MemoryUtil;
@@ -8,6 +10,9 @@ import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import com.mojang.blaze3d.vertex.BufferBuilder;
 import com.mojang.blaze3d.vertex.VertexFormat;
 import com.mojang.blaze3d.vertex.VertexSorting;
@@ -38,16 +43,30 @@ public abstract class BufferBuilderMixin {
     @Nullable
     private VertexSorting sorting;
 
+    /**
+     * Marker stored in {@link #sortingPoints} while the quad centers are only held in {@link #embeddium$sortBuffers}.
+     */
+    @Unique
+    private static final Vector3f[] DEFERRED_SORTING_POINTS = new Vector3f[0];
+
+    @Unique
+    private VertexSortBuffers embeddium$sortBuffers;
+
     /**
      * @author JellySquid
-     * @reason Avoid slow memory accesses
+     * @reason Avoid slow memory accesses, and avoid allocating a vector per quad
      */
     @Overwrite
     private Vector3f[] makeQuadSortingPoints() {
         int vertexStride = this.format.getVertexSize();
         int primitiveCount = this.vertices / 4;
 
-        Vector3f[] centers = new Vector3f[primitiveCount];
+        if (this.embeddium$sortBuffers == null) {
+            this.embeddium$sortBuffers = new VertexSortBuffers();
+        }
+
+        var buffers = this.embeddium$sortBuffers;
+        buffers.reset(primitiveCount);
 
         for (int index = 0; index < primitiveCount; ++index) {
             long v1 = MemoryUtil.memAddress(this.buffer, this.renderedBufferPointer + (((index * 4) + 0) * vertexStride));
@@ -61,10 +80,18 @@ public abstract class BufferBuilderMixin {
             float y2 = MemoryUtil.memGetFloat(v2 + 4);
             float z2 = MemoryUtil.memGetFloat(v2 + 8);
 
-            centers[index] = new Vector3f((x1 + x2) * 0.5F, (y1 + y2) * 0.5F, (z1 + z2) * 0.5F);
+            buffers.setCenter(index, (x1 + x2) * 0.5F, (y1 + y2) * 0.5F, (z1 + z2) * 0.5F);
         }
 
-        return centers;
+        // The vectors are only created if something asks for the sort state, see embeddium$createSortingPoints
+        return DEFERRED_SORTING_POINTS;
+    }
+
+    @Inject(method = "getSortState", at = @At("HEAD"))
+    private void embeddium$createSortingPoints(CallbackInfoReturnable<BufferBuilder.SortState> cir) {
+        if (this.sortingPoints == DEFERRED_SORTING_POINTS) {
+            this.sortingPoints = this.embeddium$sortBuffers.createCenterVectors();
+        }
     }
 
     /**
@@ -74,8 +101,15 @@ public abstract class BufferBuilderMixin {
     @Overwrite
     private void putSortedQuadIndices(VertexFormat.IndexType indexType) {
         if (this.sorting != null) {
-            int[] indices = this.sorting.sort(this.sortingPoints);
-            this.writePrimitiveIndices(indexType, indices);
+            if (this.sortingPoints == DEFERRED_SORTING_POINTS && this.sorting instanceof VertexSorters.AbstractVertexSorter sorter) {
+                // Sort straight from the flat center array, without creating any intermediate objects
+                int[] indices = this.embeddium$sortBuffers.sort(sorter);
+                this.writePrimitiveIndices(indexType, indices, this.embeddium$sortBuffers.getQuadCount());
+            } else {
+                Vector3f[] points = this.sortingPoints == DEFERRED_SORTING_POINTS ? this.embeddium$sortBuffers.createCenterVectors() : this.sortingPoints;
+                int[] indices = this.sorting.sort(points);
+                this.writePrimitiveIndices(indexType, indices, indices.length);
+            }
         }
     }
 
@@ -83,13 +117,13 @@ public abstract class BufferBuilderMixin {
     private static final int[] VERTEX_ORDER = new int[] { 0, 1, 2, 2, 3, 0 };
 
     @Unique
-    private void writePrimitiveIndices(VertexFormat.IndexType indexType, int[] indices) {
+    private void writePrimitiveIndices(VertexFormat.IndexType indexType, int[] indices, int count) {
         long ptr = MemoryUtil.memAddress(this.buffer, this.nextElementByte);
 
         switch (indexType.bytes) {
             case 2 -> { // SHORT
-                for (int index : indices) {
-                    int start = index * 4;
+                for (int i = 0; i < count; i++) {
+                    int start = indices[i] * 4;
 
                     for (int offset : VERTEX_ORDER) {
                         MemoryUtil.memPutShort(ptr, (short) (start + offset));
@@ -98,8 +132,8 @@ public abstract class BufferBuilderMixin {
                 }
             }
             case 4 -> { // INT
-                for (int index : indices) {
-                    int start = index * 4;
+                for (int i = 0; i < count; i++) {
+                    int start = indices[i] * 4;
 
                     for (int offset : VERTEX_ORDER) {
                         MemoryUtil.memPutInt(ptr, (start + offset));
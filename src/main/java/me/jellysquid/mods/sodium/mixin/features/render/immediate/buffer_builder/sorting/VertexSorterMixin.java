@@ -16,4 +16,13 @@ public interface VertexSorterMixin {
     static VertexSorting byDistance(float x, float y, float z) {
         return VertexSorters.sortByDistance(new Vector3f(x, y, z));
     }
+
+    /**
+     * @author agent
+     * @reason Allow sorting without creating a vector per quad
+     */
+    @Overwrite
+    static VertexSorting byDistance(VertexSorting.DistanceFunction function) {
+        return VertexSorters.sortByDistance(function);
+    }
 }
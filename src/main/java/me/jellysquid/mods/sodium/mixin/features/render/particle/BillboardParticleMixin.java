@@ -10,6 +10,7 @@ import net.minecraft.client.particle.Particle;
 import net.minecraft.client.particle.SingleQuadParticle;
 import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
+import org.embeddedt.embeddium.render.particle.BillboardParticleBatch;
 import org.joml.Quaternionf;
 import org.lwjgl.system.MemoryStack;
 import org.spongepowered.asm.mixin.Mixin;
@@ -46,9 +47,12 @@ public abstract class BillboardParticleMixin extends Particle {
      */
     @Inject(method = "render", at = @At("HEAD"), cancellable = true)
     private void buildGeometryFast(VertexConsumer vertexConsumer, Camera camera, float tickDelta, CallbackInfo ci) {
-        var writer = VertexBufferWriter.tryOf(vertexConsumer);
+        var batch = BillboardParticleBatch.INSTANCE;
+        boolean batched = batch.canAdd(this, vertexConsumer);
 
-        if (writer == null) {
+        var writer = batched ? null : VertexBufferWriter.tryOf(vertexConsumer);
+
+        if (!batched && writer == null) {
             return;
         }
 
@@ -60,6 +64,14 @@ public abstract class BillboardParticleMixin extends Particle {
         float y = (float) (Mth.lerp(tickDelta, this.yo, this.y) - vec3d.y());
         float z = (float) (Mth.lerp(tickDelta, this.zo, this.z) - vec3d.z());
 
+        if (batched) {
+            // The geometry is written together with the rest of the render type's particles, see ParticleEngineMixin
+            batch.add(camera, x, y, z, this.getQuadSize(tickDelta), this.roll == 0.0F ? 0.0F : Mth.lerp(tickDelta, this.oRoll, this.roll),
+                    this.getU0(), this.getU1(), this.getV0(), this.getV1(),
+                    ColorABGR.pack(this.rCol, this.gCol, this.bCol, this.alpha), this.getLightColor(tickDelta));
+            return;
+        }
+
         Quaternionf quaternion;
 
         if (this.roll == 0.0F) {
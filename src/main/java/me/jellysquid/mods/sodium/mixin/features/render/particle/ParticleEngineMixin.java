@@ -0,0 +1,39 @@
+package me.jellysquid.mods.sodium.mixin.features.render.particle;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.minecraft.client.Camera;
+import net.minecraft.client.particle.Particle;
+import net.minecraft.client.particle.ParticleEngine;
+import org.embeddedt.embeddium.render.particle.BillboardParticleBatch;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ParticleEngine.class)
+public class ParticleEngineMixin {
+    @Inject(method = "render", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/particle/ParticleRenderType;begin(Lcom/mojang/blaze3d/vertex/BufferBuilder;Lnet/minecraft/client/renderer/texture/TextureManager;)V", shift = At.Shift.AFTER))
+    private void beginParticleBatch(CallbackInfo ci) {
+        BillboardParticleBatch.INSTANCE.begin(Tesselator.getInstance().getBuilder());
+    }
+
+    @WrapOperation(method = "render", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/particle/Particle;render(Lcom/mojang/blaze3d/vertex/VertexConsumer;Lnet/minecraft/client/Camera;F)V"))
+    private void renderParticle(Particle particle, VertexConsumer consumer, Camera camera, float tickDelta, Operation<Void> original) {
+        var batch = BillboardParticleBatch.INSTANCE;
+
+        // Keep the order of the geometry the same by writing out the batch before a particle which renders itself
+        if (batch.isActive() && !BillboardParticleBatch.canBatch(particle)) {
+            batch.flush();
+        }
+
+        original.call(particle, consumer, camera, tickDelta);
+    }
+
+    @Inject(method = "render", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/particle/ParticleRenderType;end(Lcom/mojang/blaze3d/vertex/Tesselator;)V"))
+    private void endParticleBatch(CallbackInfo ci) {
+        BillboardParticleBatch.INSTANCE.end();
+    }
+}
@@ -0,0 +1,37 @@
+package me.jellysquid.mods.sodium.mixin.features.render.world;
+
+import me.jellysquid.mods.sodium.client.render.blockentity.BlockEntityRenderVersion;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(BlockEntity.class)
+public class BlockEntityMixin implements BlockEntityRenderVersion {
+    @Unique
+    private int embeddium$renderVersion;
+
+    @Inject(method = "load", at = @At("RETURN"))
+    private void onDataLoaded(CompoundTag tag, CallbackInfo ci) {
+        this.embeddium$renderVersion++;
+    }
+
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void onBlockStateChanged(BlockState state, CallbackInfo ci) {
+        this.embeddium$renderVersion++;
+    }
+
+    @Override
+    public int embeddium$getRenderVersion() {
+        return this.embeddium$renderVersion;
+    }
+
+    @Override
+    public void embeddium$invalidateRenderVersion() {
+        this.embeddium$renderVersion++;
+    }
+}
@@ -0,0 +1,20 @@
+package me.jellysquid.mods.sodium.mixin.features.render.world;
+
+import me.jellysquid.mods.sodium.client.render.blockentity.BlockEntityRenderVersion;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.minecraft.world.level.block.entity.SignText;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(SignBlockEntity.class)
+public class SignBlockEntityMixin {
+    // The sign edit screen changes the text on the client without the data of the sign being loaded again
+    @Inject(method = "setText", at = @At("RETURN"))
+    private void onTextChanged(SignText text, boolean isFrontText, CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValueZ()) {
+            ((BlockEntityRenderVersion) (Object) this).embeddium$invalidateRenderVersion();
+        }
+    }
+}
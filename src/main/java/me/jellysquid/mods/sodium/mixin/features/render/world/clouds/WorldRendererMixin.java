@@ -2,6 +2,8 @@ package me.jellysquid.mods.sodium.mixin.features.render.world.clouds;
 
 import com.mojang.blaze3d.vertex.PoseStack;
 import me.jellysquid.mods.sodium.client.render.immediate.CloudRenderer;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderProfiler;
+import me.jellysquid.mods.sodium.client.render.profiler.RenderStage;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.renderer.LevelRenderer;
@@ -40,7 +42,10 @@ public class WorldRendererMixin {
         boolean renderFasterClouds = true; //!Screen.hasAltDown()
 
         if (renderFasterClouds) {
+            long start = RenderProfiler.begin();
             this.cloudRenderer.render(this.level, this.minecraft.player, matrices, projectionMatrix, this.ticks, tickDelta, x, y, z);
+            RenderProfiler.end(RenderStage.RENDER_CLOUDS, start);
+
             ci.cancel();
         }
     }
@@ -1,5 +1,7 @@
 package me.jellysquid.mods.sodium.mixin.features.textures.animations.upload;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import me.jellysquid.mods.sodium.client.render.texture.SpriteContentsUploadState;
 import me.jellysquid.mods.sodium.client.util.NativeImageHelper;
 import me.jellysquid.mods.sodium.mixin.features.textures.SpriteContentsInvoker;
 import net.caffeinemc.mods.sodium.api.util.ColorMixer;
@@ -24,6 +26,12 @@ public class SpriteContentsInterpolationMixin {
     @Unique
     private static final int STRIDE = 4;
 
+    /**
+     * The regions which differ between each pair of consecutive frames, see {@link #findChangedRegions(int, int, int)}.
+     */
+    @Unique
+    private final Int2ObjectOpenHashMap<int[]> changedRegions = new Int2ObjectOpenHashMap<>();
+
     /**
      * @author IMS
      * @reason Replace fragile Shadow
@@ -55,15 +63,45 @@ public class SpriteContentsInterpolationMixin {
         // The mix factor between the current and next frame
         float mix = 1.0F - (float) accessor.getFrameTicks() / (float) animationFrame.getTime();
 
+        int frameRowSize = animation2.getFrameRowSize();
+        int state = SpriteContentsUploadState.interpolatedFrame(curIndex, nextIndex);
+
+        int[] changedRegions = this.changedRegions.get(state);
+
+        if (changedRegions == null) {
+            this.changedRegions.put(state, changedRegions = this.findChangedRegions(curIndex, nextIndex, frameRowSize));
+        }
+
+        var uploadState = (SpriteContentsUploadState) this.parent;
+        int uploadedFrame = uploadState.embeddium$getUploadedFrame();
+
+        // Outside the changed regions, the interpolated frame is identical to the current frame. If the atlas already
+        // contains either the current frame or an earlier interpolation between the same frames, only the changed regions
+        // need to be blended and uploaded.
+        boolean partial = uploadedFrame == state || uploadedFrame == SpriteContentsUploadState.rawFrame(curIndex);
+
         for (int layer = 0; layer < this.activeFrame.length; layer++) {
             int width = this.parent.width() >> layer;
             int height = this.parent.height() >> layer;
 
-            int curX = ((curIndex % animation2.getFrameRowSize()) * width);
-            int curY = ((curIndex / animation2.getFrameRowSize()) * height);
+            int minX = 0, minY = 0, maxX = width, maxY = height;
+
+            if (partial) {
+                minX = changedRegions[(layer * 4) + 0];
+                minY = changedRegions[(layer * 4) + 1];
+                maxX = changedRegions[(layer * 4) + 2];
+                maxY = changedRegions[(layer * 4) + 3];
+
+                if (minX >= maxX || minY >= maxY) {
+                    continue;
+                }
+            }
 
-            int nextX = ((nextIndex % animation2.getFrameRowSize()) * width);
-            int nextY = ((nextIndex / animation2.getFrameRowSize()) * height);
+            int curX = ((curIndex % frameRowSize) * width);
+            int curY = ((curIndex / frameRowSize) * height);
+
+            int nextX = ((nextIndex % frameRowSize) * width);
+            int nextY = ((nextIndex / frameRowSize) * height);
 
             NativeImage src = ((SpriteContentsAccessor) this.parent).getImages()[layer];
             NativeImage dst = this.activeFrame[layer];
@@ -71,12 +109,14 @@ public class SpriteContentsInterpolationMixin {
             long ppSrcPixel = NativeImageHelper.getPointerRGBA(src);
             long ppDstPixel = NativeImageHelper.getPointerRGBA(dst);
 
-            for (int layerY = 0; layerY < height; layerY++) {
+            for (int layerY = minY; layerY < maxY; layerY++) {
                 // Pointers to the pixel array for the current and next frame
-                long pRgba1 = ppSrcPixel + (curX + (long) (curY + layerY) * src.getWidth()) * STRIDE;
-                long pRgba2 = ppSrcPixel + (nextX + (long) (nextY + layerY) * src.getWidth()) * STRIDE;
+                long pRgba1 = ppSrcPixel + (curX + minX + (long) (curY + layerY) * src.getWidth()) * STRIDE;
+                long pRgba2 = ppSrcPixel + (nextX + minX + (long) (nextY + layerY) * src.getWidth()) * STRIDE;
 
-                for (int layerX = 0; layerX < width; layerX++) {
+                long pDst = ppDstPixel + (minX + (long) layerY * dst.getWidth()) * STRIDE;
+
+                for (int layerX = minX; layerX < maxX; layerX++) {
                     int rgba1 = MemoryUtil.memGetInt(pRgba1);
                     int rgba2 = MemoryUtil.memGetInt(pRgba2);
 
@@ -87,16 +127,78 @@ public class SpriteContentsInterpolationMixin {
                     int alpha = rgba1 & 0xFF000000;
 
                     // Update the pixel within the interpolated frame using the combined RGB and A components
-                    MemoryUtil.memPutInt(ppDstPixel, mixedRgb | alpha);
+                    MemoryUtil.memPutInt(pDst, mixedRgb | alpha);
 
                     pRgba1 += STRIDE;
                     pRgba2 += STRIDE;
 
-                    ppDstPixel += STRIDE;
+                    pDst += STRIDE;
+                }
+            }
+
+            if (partial) {
+                dst.upload(layer, (x >> layer) + minX, (y >> layer) + minY, minX, minY, maxX - minX, maxY - minY, this.activeFrame.length > 1, false);
+            }
+        }
+
+        if (!partial) {
+            ((SpriteContentsInvoker) this.parent).invokeUpload(x, y, 0, 0, this.activeFrame);
+        }
+
+        uploadState.embeddium$setUploadedFrame(state);
+    }
+
+    /**
+     * Finds the bounding box of the pixels in each mip layer which differ between two frames. Interpolation keeps the
+     * alpha of the current frame, so only the RGB components are compared.
+     *
+     * @return The bounds of each layer as (minX, minY, maxX, maxY), where the maximum is exclusive and an empty region is
+     * all zeroes
+     */
+    @Unique
+    private int[] findChangedRegions(int curIndex, int nextIndex, int frameRowSize) {
+        int[] regions = new int[this.activeFrame.length * 4];
+
+        for (int layer = 0; layer < this.activeFrame.length; layer++) {
+            int width = this.parent.width() >> layer;
+            int height = this.parent.height() >> layer;
+
+            int curX = ((curIndex % frameRowSize) * width);
+            int curY = ((curIndex / frameRowSize) * height);
+
+            int nextX = ((nextIndex % frameRowSize) * width);
+            int nextY = ((nextIndex / frameRowSize) * height);
+
+            NativeImage src = ((SpriteContentsAccessor) this.parent).getImages()[layer];
+            long ppSrcPixel = NativeImageHelper.getPointerRGBA(src);
+
+            int minX = width, minY = height, maxX = 0, maxY = 0;
+
+            for (int layerY = 0; layerY < height; layerY++) {
+                long pRgba1 = ppSrcPixel + (curX + (long) (curY + layerY) * src.getWidth()) * STRIDE;
+                long pRgba2 = ppSrcPixel + (nextX + (long) (nextY + layerY) * src.getWidth()) * STRIDE;
+
+                for (int layerX = 0; layerX < width; layerX++) {
+                    if (((MemoryUtil.memGetInt(pRgba1) ^ MemoryUtil.memGetInt(pRgba2)) & 0x00FFFFFF) != 0) {
+                        minX = Math.min(minX, layerX);
+                        minY = Math.min(minY, layerY);
+                        maxX = Math.max(maxX, layerX + 1);
+                        maxY = Math.max(maxY, layerY + 1);
+                    }
+
+                    pRgba1 += STRIDE;
+                    pRgba2 += STRIDE;
                 }
             }
+
+            if (minX < maxX) {
+                regions[(layer * 4) + 0] = minX;
+                regions[(layer * 4) + 1] = minY;
+                regions[(layer * 4) + 2] = maxX;
+                regions[(layer * 4) + 3] = maxY;
+            }
         }
 
-        ((SpriteContentsInvoker) this.parent).invokeUpload(x, y, 0, 0, this.activeFrame);
+        return regions;
     }
 }
@@ -0,0 +1,30 @@
+package me.jellysquid.mods.sodium.mixin.features.textures.animations.upload;
+
+import me.jellysquid.mods.sodium.client.render.texture.SpriteContentsUploadState;
+import net.minecraft.client.renderer.texture.SpriteContents;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(SpriteContents.class)
+public class SpriteContentsMixin implements SpriteContentsUploadState {
+    @Unique
+    private int embeddium$uploadedFrame = SpriteContentsUploadState.UNKNOWN;
+
+    @Inject(method = "uploadFrame", at = @At("HEAD"))
+    private void onUploadFrame(int x, int y, int frameIndex, CallbackInfo ci) {
+        this.embeddium$uploadedFrame = SpriteContentsUploadState.rawFrame(frameIndex);
+    }
+
+    @Override
+    public int embeddium$getUploadedFrame() {
+        return this.embeddium$uploadedFrame;
+    }
+
+    @Override
+    public void embeddium$setUploadedFrame(int state) {
+        this.embeddium$uploadedFrame = state;
+    }
+}
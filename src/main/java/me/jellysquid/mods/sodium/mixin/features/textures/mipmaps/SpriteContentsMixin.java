@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.mixin.features.textures.mipmaps;
 
 import com.mojang.blaze3d.platform.NativeImage;
+import me.jellysquid.mods.sodium.client.render.texture.MipmapGeneratorHelper;
 import me.jellysquid.mods.sodium.client.util.NativeImageHelper;
 import me.jellysquid.mods.sodium.client.util.color.ColorSRGB;
 import net.minecraft.client.Minecraft;
@@ -17,7 +18,9 @@ import org.spongepowered.asm.mixin.Mutable;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * This Mixin is partially ported from Iris at <a href="https://github.com/IrisShaders/Iris/blob/41095ac23ea0add664afd1b85c414d1f1ed94066/src/main/java/net/coderbot/iris/mixin/bettermipmaps/MixinTextureAtlasSprite.java">MixinTextureAtlasSprite</a>.
@@ -133,6 +136,13 @@ public class SpriteContentsMixin implements SpriteTransparencyLevelHolder {
         }
     }
 
+    @Inject(method = "increaseMipLevel", at = @At("HEAD"), cancellable = true)
+    private void embeddium$deferMipLevels(int mipLevel, CallbackInfo ci) {
+        if (MipmapGeneratorHelper.tryDefer((SpriteContents) (Object) this, mipLevel)) {
+            ci.cancel();
+        }
+    }
+
     @Override
     public SpriteTransparencyLevel embeddium$getTransparencyLevel() {
         return this.embeddium$transparencyLevel;
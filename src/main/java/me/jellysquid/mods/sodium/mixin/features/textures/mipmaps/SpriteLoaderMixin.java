@@ -0,0 +1,23 @@
+package me.jellysquid.mods.sodium.mixin.features.textures.mipmaps;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import me.jellysquid.mods.sodium.client.render.texture.MipmapGeneratorHelper;
+import net.minecraft.client.renderer.texture.SpriteLoader;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Mixin(SpriteLoader.class)
+public class SpriteLoaderMixin {
+    /**
+     * Vanilla generates the mip levels of every sprite in the atlas one after another in a single task. Generate them
+     * in parallel instead, since each sprite only touches its own images.
+     */
+    @WrapOperation(method = "stitch", at = @At(value = "INVOKE", target = "Ljava/util/concurrent/CompletableFuture;runAsync(Ljava/lang/Runnable;Ljava/util/concurrent/Executor;)Ljava/util/concurrent/CompletableFuture;"))
+    private CompletableFuture<Void> generateMipmapsInParallel(Runnable task, Executor executor, Operation<CompletableFuture<Void>> original) {
+        return original.call((Runnable) () -> MipmapGeneratorHelper.runWithParallelMipmaps(task), executor);
+    }
+}
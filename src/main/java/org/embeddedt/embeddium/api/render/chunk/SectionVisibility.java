@@ -0,0 +1,36 @@
+package org.embeddedt.embeddium.api.render.chunk;
+
+import me.jellysquid.mods.sodium.client.render.SodiumWorldRenderer;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The set of chunk sections which were reached by the most recent culling pass of the level renderer. A section which
+ * was not reached cannot be seen from the camera this frame, so anything entirely contained within such sections can
+ * be culled.
+ * <p></p>
+ * Queries are cheap (a few bit tests for most boxes), but the results are only valid until the next frame is culled,
+ * and must only be made from the render thread.
+ */
+@ApiStatus.NonExtendable
+public interface SectionVisibility {
+    /**
+     * @return The visibility of sections for the active level renderer, or null if there is none
+     */
+    static @Nullable SectionVisibility current() {
+        var renderer = SodiumWorldRenderer.instanceNullable();
+
+        return renderer != null ? renderer.getSectionVisibility() : null;
+    }
+
+    /**
+     * @return True if the section at the given section coordinates was reached by the last culling pass
+     */
+    boolean isSectionVisible(int x, int y, int z);
+
+    /**
+     * @return True if any section within the given range of section coordinates (inclusive) was reached by the last
+     * culling pass
+     */
+    boolean isAnySectionVisible(int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+}
@@ -1,6 +1,9 @@
 package org.embeddedt.embeddium.impl.gametest.tests;
 
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockOcclusionCache;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.DefaultMaterials;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.builder.GreedyFaceMerger;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -10,7 +13,12 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import org.embeddedt.embeddium.impl.gametest.content.TestRegistry;
 import org.embeddedt.embeddium.impl.gametest.content.client.InstrumentingModelWrapper;
+import org.embeddedt.embeddium.impl.gametest.util.CompactMeshUtils;
 import org.embeddedt.embeddium.impl.gametest.util.TestUtils;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class EmbeddiumGameTests {
     /**
@@ -47,4 +55,104 @@ public class EmbeddiumGameTests {
         TestUtils.clientBarrier();
         helper.succeedWhen(airBlockModel::hasBeenCalled);
     }
+
+    /**
+     * Test that merging faces produces a mesh which rasterizes to the same texels, light and color as the original,
+     * that quads which overlap candidates are still drawn after them, and that no merged edge passes through a vertex
+     * of other geometry.
+     */
+    @GameTest
+    public static void testGreedyFaceMergingPreservesMesh(GameTestHelper helper) {
+        final int atlasSize = 256;
+        final float spriteSize = 16.0f / atlasSize;
+        final int axis = 1;
+        final float plane = 4.0f;
+
+        int material = DefaultMaterials.SOLID.bits();
+        int light = 0x00F00030, otherLight = 0x00800050;
+
+        long floor = MemoryUtil.nmemAlloc(CompactMeshUtils.QUAD_STRIDE * 258);
+        long merged = MemoryUtil.nmemAlloc(CompactMeshUtils.QUAD_STRIDE * 258);
+        long walls = MemoryUtil.nmemAlloc(CompactMeshUtils.QUAD_STRIDE * 2);
+        var merger = new GreedyFaceMerger(atlasSize, atlasSize);
+
+        try {
+            int quadCount = 0;
+
+            // A floor with a hole in it, and areas which differ in sprite, texture rotation, color and light
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    if (x == 6 && z == 6) {
+                        continue;
+                    }
+
+                    boolean otherSprite = x >= 8 && x <= 11 && z >= 2 && z <= 6;
+                    float u = (otherSprite ? 3 : 2) * spriteSize, v = (otherSprite ? 5 : 1) * spriteSize;
+
+                    CompactMeshUtils.writeQuad(floor + ((long) quadCount++ * CompactMeshUtils.QUAD_STRIDE), axis, plane,
+                            x, z, x + 1, z + 1, material, (x == 13 && z == 7) ? 0xFF80C0FF : 0xFFFFFFFF,
+                            z >= 14 ? otherLight : light, u, v, u + spriteSize, v + spriteSize,
+                            (x >= 2 && x <= 4 && z >= 9 && z <= 11) ? 1 : 0);
+                }
+            }
+
+            // A quad with varying light over several cells, and a second quad for a cell which already has one
+            long overlay = floor + ((long) quadCount++ * CompactMeshUtils.QUAD_STRIDE);
+            CompactMeshUtils.writeQuad(overlay, axis, plane, 9, 9, 12, 11, material, 0xFFFFFFFF, light,
+                    0.0f, 0.0f, spriteSize, spriteSize, 0);
+            MemoryUtil.memPutInt(overlay + 16, otherLight);
+
+            CompactMeshUtils.writeQuad(floor + ((long) quadCount++ * CompactMeshUtils.QUAD_STRIDE), axis, plane,
+                    14, 1, 15, 2, material, 0xFFFFFFFF, light, 1.0f - spriteSize, 1.0f - spriteSize, 1.0f, 1.0f, 0);
+
+            // A wall standing on the floor, and a quad with corners between two grid points of the floor
+            CompactMeshUtils.writeQuad(walls, 0, 6.0f, plane, 3.0f, plane + 1.0f, 4.0f, material, 0xFFFFFFFF, light,
+                    0.0f, 0.0f, spriteSize, spriteSize, 0);
+            CompactMeshUtils.writeQuad(walls + CompactMeshUtils.QUAD_STRIDE, 2, 15.0f, 0.25f, plane, 0.5f, plane + 0.5f,
+                    material, 0xFFFFFFFF, light, 0.0f, 0.0f, spriteSize, spriteSize, 0);
+
+            int vertexCount = quadCount * 4;
+            MemoryUtil.memCopy(floor, merged, (long) quadCount * CompactMeshUtils.QUAD_STRIDE);
+
+            merger.begin();
+            merger.addSectionVertices(merged, vertexCount);
+            merger.addSectionVertices(walls, 8);
+
+            int mergedVertexCount = merger.merge(merged, vertexCount, ModelQuadFacing.POS_Y);
+
+            helper.assertTrue(mergedVertexCount < vertexCount, "Did not merge any faces");
+
+            // Sample the center of every texel of the floor
+            for (int j = 0; j < 16 * 16; j++) {
+                for (int i = 0; i < 16 * 16; i++) {
+                    float a = (i + 0.5f) / 16, b = (j + 0.5f) / 16;
+
+                    var expected = CompactMeshUtils.sample(floor, vertexCount, axis, plane, a, b, atlasSize, atlasSize);
+                    var actual = CompactMeshUtils.sample(merged, mergedVertexCount, axis, plane, a, b, atlasSize, atlasSize);
+
+                    if (expected == null ? actual != null : (actual == null || !expected.isSimilar(actual))) {
+                        helper.fail("Merged mesh differs at " + a + ", " + b + ": expected " + expected + ", got " + actual);
+                    }
+                }
+            }
+
+            List<float[]> vertices = new ArrayList<>();
+            CompactMeshUtils.collectPlaneVertices(merged, mergedVertexCount, axis, plane, vertices);
+            CompactMeshUtils.collectPlaneVertices(walls, 8, axis, plane, vertices);
+
+            float[] vertex = CompactMeshUtils.findVertexInsideMergedEdge(merged, mergedVertexCount, axis, vertices);
+
+            if (vertex != null) {
+                helper.fail("Merged edge passes through the vertex at " + vertex[0] + ", " + vertex[1]);
+            }
+        } finally {
+            MemoryUtil.nmemFree(floor);
+            MemoryUtil.nmemFree(merged);
+            MemoryUtil.nmemFree(walls);
+
+            merger.destroy();
+        }
+
+        helper.succeed();
+    }
 }
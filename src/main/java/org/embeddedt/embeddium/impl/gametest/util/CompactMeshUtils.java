@@ -0,0 +1,216 @@
+package org.embeddedt.embeddium.impl.gametest.util;
+
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.parameters.MaterialParameters;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.builder.GreedyFaceMerger;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.impl.CompactChunkVertex;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.List;
+
+/**
+ * Writes and rasterizes axis-aligned quads of the compact vertex format on the CPU, so that meshes can be compared
+ * without rendering them. Samples are resolved to the texel, light and color which the terrain shaders would produce.
+ */
+public class CompactMeshUtils {
+    public static final int QUAD_STRIDE = CompactChunkVertex.STRIDE * 4;
+
+    private static final int OFFSET_POSITION = 0;
+    private static final int OFFSET_MATERIAL = 6;
+    private static final int OFFSET_COLOR = 8;
+    private static final int OFFSET_TEXTURE = 12;
+    private static final int OFFSET_LIGHT = 16;
+
+    private static final float TEXTURE_SCALE = 1.0f / 32768.0f;
+
+    // The corners of a quad in winding order, as offsets along the two axes of its plane
+    private static final int[] CORNER_A = { 0, 0, 1, 1 };
+    private static final int[] CORNER_B = { 0, 1, 1, 0 };
+
+    public record Sample(int texelU, int texelV, float blockLight, float skyLight, float red, float green, float blue, float alpha) {
+        private static final float EPSILON = 1.0e-4f;
+
+        public boolean isSimilar(Sample other) {
+            return this.texelU == other.texelU && this.texelV == other.texelV &&
+                    Math.abs(this.blockLight - other.blockLight) < EPSILON && Math.abs(this.skyLight - other.skyLight) < EPSILON &&
+                    Math.abs(this.red - other.red) < EPSILON && Math.abs(this.green - other.green) < EPSILON &&
+                    Math.abs(this.blue - other.blue) < EPSILON && Math.abs(this.alpha - other.alpha) < EPSILON;
+        }
+    }
+
+    /**
+     * Writes a quad which covers a rectangle of a plane, and maps it to a rectangle of the atlas which is rotated by the
+     * given number of quarter turns.
+     */
+    public static void writeQuad(long ptr, int axis, float plane, float minA, float minB, float maxA, float maxB,
+                                 int material, int color, int light,
+                                 float minU, float minV, float maxU, float maxV, int rotation) {
+        for (int i = 0; i < 4; i++) {
+            long vertex = ptr + ((long) i * CompactChunkVertex.STRIDE);
+            int texCorner = (i + rotation) & 3;
+
+            MemoryUtil.memPutShort(vertex + OFFSET_POSITION + (axis * 2), CompactChunkVertex.encodePosition(plane));
+            MemoryUtil.memPutShort(vertex + OFFSET_POSITION + (getPlaneAxisA(axis) * 2),
+                    CompactChunkVertex.encodePosition(CORNER_A[i] != 0 ? maxA : minA));
+            MemoryUtil.memPutShort(vertex + OFFSET_POSITION + (getPlaneAxisB(axis) * 2),
+                    CompactChunkVertex.encodePosition(CORNER_B[i] != 0 ? maxB : minB));
+            MemoryUtil.memPutByte(vertex + OFFSET_MATERIAL, (byte) material);
+            MemoryUtil.memPutByte(vertex + OFFSET_MATERIAL + 1, (byte) 0);
+            MemoryUtil.memPutInt(vertex + OFFSET_COLOR, color);
+            MemoryUtil.memPutShort(vertex + OFFSET_TEXTURE, CompactChunkVertex.encodeTexture(CORNER_A[texCorner] != 0 ? maxU : minU));
+            MemoryUtil.memPutShort(vertex + OFFSET_TEXTURE + 2, CompactChunkVertex.encodeTexture(CORNER_B[texCorner] != 0 ? maxV : minV));
+            MemoryUtil.memPutInt(vertex + OFFSET_LIGHT, light);
+        }
+    }
+
+    /**
+     * Finds the last quad in the mesh which lies in the given plane and covers the given point of it, as that is the
+     * quad which is visible there when quads have equal depth.
+     *
+     * @return The sample of that quad at the point, or null if no quad covers it
+     */
+    public static @Nullable Sample sample(long ptr, int vertexCount, int axis, float plane, float a, float b,
+                                          int atlasWidth, int atlasHeight) {
+        for (int quad = (vertexCount / 4) - 1; quad >= 0; quad--) {
+            Sample sample = sampleQuad(ptr + ((long) quad * QUAD_STRIDE), axis, plane, a, b, atlasWidth, atlasHeight);
+
+            if (sample != null) {
+                return sample;
+            }
+        }
+
+        return null;
+    }
+
+    private static @Nullable Sample sampleQuad(long quadPtr, int axis, float plane, float a, float b,
+                                               int atlasWidth, int atlasHeight) {
+        float minA = Float.POSITIVE_INFINITY, maxA = Float.NEGATIVE_INFINITY;
+        float minB = Float.POSITIVE_INFINITY, maxB = Float.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < 4; i++) {
+            long vertex = quadPtr + ((long) i * CompactChunkVertex.STRIDE);
+
+            if (getPosition(vertex, axis) != plane) {
+                return null;
+            }
+
+            minA = Math.min(minA, getPosition(vertex, getPlaneAxisA(axis)));
+            maxA = Math.max(maxA, getPosition(vertex, getPlaneAxisA(axis)));
+            minB = Math.min(minB, getPosition(vertex, getPlaneAxisB(axis)));
+            maxB = Math.max(maxB, getPosition(vertex, getPlaneAxisB(axis)));
+        }
+
+        if (a <= minA || a >= maxA || b <= minB || b >= maxB) {
+            return null;
+        }
+
+        float s = (a - minA) / (maxA - minA), t = (b - minB) / (maxB - minB);
+
+        // The attributes of the vertices are interpolated bilinearly, which for the affine attributes of a rectangle is
+        // the same as interpolating them across either of its triangles
+        float[] values = new float[8];
+
+        for (int i = 0; i < 4; i++) {
+            long vertex = quadPtr + ((long) i * CompactChunkVertex.STRIDE);
+
+            float weight = (getPosition(vertex, getPlaneAxisA(axis)) == maxA ? s : 1.0f - s) *
+                    (getPosition(vertex, getPlaneAxisB(axis)) == maxB ? t : 1.0f - t);
+
+            values[0] += weight * Short.toUnsignedInt(MemoryUtil.memGetShort(vertex + OFFSET_TEXTURE)) * TEXTURE_SCALE;
+            values[1] += weight * Short.toUnsignedInt(MemoryUtil.memGetShort(vertex + OFFSET_TEXTURE + 2)) * TEXTURE_SCALE;
+            values[2] += weight * Byte.toUnsignedInt(MemoryUtil.memGetByte(vertex + OFFSET_LIGHT));
+            values[3] += weight * Byte.toUnsignedInt(MemoryUtil.memGetByte(vertex + OFFSET_LIGHT + 2));
+
+            for (int channel = 0; channel < 4; channel++) {
+                values[4 + channel] += weight * Byte.toUnsignedInt(MemoryUtil.memGetByte(vertex + OFFSET_COLOR + channel)) / 255.0f;
+            }
+        }
+
+        float u = values[0], v = values[1];
+
+        // The tile bounds are flat, so they are taken from the provoking vertex
+        int material = Byte.toUnsignedInt(MemoryUtil.memGetByte(quadPtr + OFFSET_MATERIAL));
+
+        if (((material >> MaterialParameters.OFFSET_TILED) & 1) != 0) {
+            float tileWidth = (float) Math.pow(2.0, -((material >> MaterialParameters.OFFSET_TILE_SCALE) & 15));
+            float tileHeight = tileWidth * atlasWidth / atlasHeight;
+
+            int tileIndexU = Byte.toUnsignedInt(MemoryUtil.memGetByte(quadPtr + OFFSET_LIGHT + 1));
+            int tileIndexV = Byte.toUnsignedInt(MemoryUtil.memGetByte(quadPtr + OFFSET_LIGHT + 3));
+
+            float tileU = u * GreedyFaceMerger.MAX_SPAN, tileV = v * GreedyFaceMerger.MAX_SPAN;
+
+            u = (tileIndexU * tileWidth) + ((tileU - (float) Math.floor(tileU)) * tileWidth);
+            v = (tileIndexV * tileHeight) + ((tileV - (float) Math.floor(tileV)) * tileHeight);
+        }
+
+        return new Sample((int) Math.floor(u * atlasWidth), (int) Math.floor(v * atlasHeight),
+                values[2], values[3], values[4], values[5], values[6], values[7]);
+    }
+
+    /**
+     * Adds the position within the given plane of every vertex of the mesh which lies in that plane.
+     */
+    public static void collectPlaneVertices(long ptr, int vertexCount, int axis, float plane, List<float[]> vertices) {
+        for (int i = 0; i < vertexCount; i++) {
+            long vertex = ptr + ((long) i * CompactChunkVertex.STRIDE);
+
+            if (getPosition(vertex, axis) == plane) {
+                vertices.add(new float[] { getPosition(vertex, getPlaneAxisA(axis)), getPosition(vertex, getPlaneAxisB(axis)) });
+            }
+        }
+    }
+
+    /**
+     * Finds a vertex which lies inside of an edge of a merged quad in the mesh, where rasterization could leave a
+     * crack. Edges which are one block long are ignored, as the quads which were merged have the same edges.
+     *
+     * @return The position of the vertex within the plane, or null if there is none
+     */
+    public static float @Nullable [] findVertexInsideMergedEdge(long ptr, int vertexCount, int axis, List<float[]> vertices) {
+        for (int quad = 0; quad < vertexCount / 4; quad++) {
+            long quadPtr = ptr + ((long) quad * QUAD_STRIDE);
+
+            if (((Byte.toUnsignedInt(MemoryUtil.memGetByte(quadPtr + OFFSET_MATERIAL)) >> MaterialParameters.OFFSET_TILED) & 1) == 0) {
+                continue;
+            }
+
+            float minA = Float.POSITIVE_INFINITY, maxA = Float.NEGATIVE_INFINITY;
+            float minB = Float.POSITIVE_INFINITY, maxB = Float.NEGATIVE_INFINITY;
+
+            for (int i = 0; i < 4; i++) {
+                long vertex = quadPtr + ((long) i * CompactChunkVertex.STRIDE);
+
+                minA = Math.min(minA, getPosition(vertex, getPlaneAxisA(axis)));
+                maxA = Math.max(maxA, getPosition(vertex, getPlaneAxisA(axis)));
+                minB = Math.min(minB, getPosition(vertex, getPlaneAxisB(axis)));
+                maxB = Math.max(maxB, getPosition(vertex, getPlaneAxisB(axis)));
+            }
+
+            for (float[] vertex : vertices) {
+                float a = vertex[0], b = vertex[1];
+
+                boolean insideEdgeA = (maxA - minA) > 1.0f && (b == minB || b == maxB) && a > minA && a < maxA;
+                boolean insideEdgeB = (maxB - minB) > 1.0f && (a == minA || a == maxA) && b > minB && b < maxB;
+
+                if (insideEdgeA || insideEdgeB) {
+                    return vertex;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static float getPosition(long vertex, int axis) {
+        return CompactChunkVertex.decodePosition(MemoryUtil.memGetShort(vertex + OFFSET_POSITION + (axis * 2)));
+    }
+
+    private static int getPlaneAxisA(int axis) {
+        return axis == 0 ? 1 : 0;
+    }
+
+    private static int getPlaneAxisB(int axis) {
+        return axis == 2 ? 1 : 2;
+    }
+}
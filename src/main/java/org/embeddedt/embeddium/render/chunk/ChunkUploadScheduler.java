@@ -0,0 +1,242 @@
+package org.embeddedt.embeddium.render.chunk;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceLinkedOpenHashMap;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
+import me.jellysquid.mods.sodium.client.util.MathUtil;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Holds completed chunk build outputs until they are uploaded, and decides which of them are uploaded each frame.
+ *
+ * <p>Uploading every output as soon as it arrives causes large frame time spikes when many sections finish building
+ * at once (e.g. after teleporting). Instead, outputs are ordered so that visible sections closest to the camera are
+ * uploaded first, and only as many as fit within the per-frame byte and time budgets are taken. The remainder stays
+ * queued for the following frames.</p>
+ *
+ * <p>The scheduler itself does not touch any graphics state, the caller is responsible for uploading the outputs it
+ * returns and reporting back how long that took.</p>
+ */
+public class ChunkUploadScheduler {
+    /**
+     * The weight given to newly measured upload timings in the moving average.
+     */
+    private static final double UPLOAD_COST_SMOOTHING = 0.1;
+
+    /**
+     * The largest fraction of the previous frame's duration which uploads may take, so that the time budget doesn't
+     * make up most of the frame at high frame rates.
+     */
+    private static final double MAX_FRAME_FRACTION = 0.5;
+
+    private final Reference2ReferenceLinkedOpenHashMap<RenderSection, ChunkBuildOutput> pendingOutputs = new Reference2ReferenceLinkedOpenHashMap<>();
+
+    private final long sizeBudget;
+    private final long timeBudget;
+
+    private long pendingBytes;
+
+    /**
+     * The moving average of the time (in nanoseconds) taken to upload a byte, or zero if no uploads were measured yet.
+     */
+    private double averageUploadCost;
+
+    private long lastUploadBudget;
+
+    /**
+     * @param sizeBudget The maximum number of bytes to upload per frame, or zero for no limit
+     * @param timeBudget The maximum time (in nanoseconds) to spend uploading per frame, or zero for no limit
+     */
+    public ChunkUploadScheduler(long sizeBudget, long timeBudget) {
+        this.sizeBudget = sizeBudget > 0 ? sizeBudget : Long.MAX_VALUE;
+        this.timeBudget = timeBudget > 0 ? timeBudget : Long.MAX_VALUE;
+    }
+
+    /**
+     * Adds an output to the queue. If an older output for the same section is still queued, it is replaced and
+     * its resources are deleted. Outputs which are stale or belong to a removed section are deleted immediately.
+     */
+    public void enqueue(ChunkBuildOutput output) {
+        if (isStale(output)) {
+            output.delete();
+            return;
+        }
+
+        var previous = this.pendingOutputs.get(output.render);
+
+        if (previous != null && !shouldReplace(previous, output)) {
+            output.delete();
+            return;
+        }
+
+        this.pendingOutputs.put(output.render, output);
+        this.pendingBytes += output.getUploadSize();
+
+        if (previous != null) {
+            this.pendingBytes -= previous.getUploadSize();
+            previous.delete();
+        }
+    }
+
+    private static boolean shouldReplace(ChunkBuildOutput previous, ChunkBuildOutput output) {
+        if (previous.buildTime >= output.buildTime) {
+            return false;
+        }
+
+        // A resort is computed from the sort state of the geometry which is currently uploaded. If a full rebuild is
+        // still waiting to be uploaded, the resort doesn't apply to it, so keep the rebuild instead.
+        return previous.isIndexOnlyUpload() || !output.isIndexOnlyUpload();
+    }
+
+    private static boolean isStale(ChunkBuildOutput output) {
+        return output.render.isDisposed() || output.render.getLastBuiltFrame() > output.buildTime;
+    }
+
+    /**
+     * Removes the outputs which should be uploaded this frame from the queue and returns them. Visible sections are
+     * taken before invisible ones, and closer sections before farther ones. At least one output is always returned
+     * if the queue is not empty, so that progress is made even if a single output exceeds the budget.
+     *
+     * @param cameraPosition The current position of the camera
+     * @param frame The current frame, used to determine which sections are visible
+     * @param frameDuration The duration of the previous frame in nanoseconds, or zero if it is not known
+     * @param uploadSizeLimit The maximum number of bytes the staging buffer can accept this frame
+     * @param unlimited Whether all queued outputs should be returned, ignoring the budget
+     * @param isUrgent Sections for which outputs are always uploaded immediately, regardless of the budget
+     */
+    public List<ChunkBuildOutput> dequeue(Vec3 cameraPosition, int frame, long frameDuration, long uploadSizeLimit,
+                                          boolean unlimited, Predicate<RenderSection> isUrgent) {
+        var candidates = new ObjectArrayList<ChunkBuildOutput>(this.pendingOutputs.size());
+
+        for (var it = this.pendingOutputs.values().iterator(); it.hasNext(); ) {
+            var output = it.next();
+
+            if (isStale(output)) {
+                // The section was removed or rebuilt through other means since the output was queued
+                this.pendingBytes -= output.getUploadSize();
+                output.delete();
+                it.remove();
+                continue;
+            }
+
+            candidates.add(output);
+        }
+
+        long budget = unlimited ? Long.MAX_VALUE : this.getUploadBudget(uploadSizeLimit, frameDuration);
+        this.lastUploadBudget = budget;
+
+        if (budget == Long.MAX_VALUE) {
+            this.pendingOutputs.clear();
+            this.pendingBytes = 0;
+
+            return candidates;
+        }
+
+        float x = (float) cameraPosition.x;
+        float y = (float) cameraPosition.y;
+        float z = (float) cameraPosition.z;
+
+        candidates.sort(Comparator.<ChunkBuildOutput>comparingInt(output -> output.render.getLastVisibleFrame() == frame ? 0 : 1)
+                .thenComparingDouble(output -> output.render.getSquaredDistance(x, y, z)));
+
+        var selected = new ObjectArrayList<ChunkBuildOutput>();
+        long selectedBytes = 0;
+        boolean budgetExhausted = false;
+
+        for (var output : candidates) {
+            long size = output.getUploadSize();
+
+            if (budgetExhausted || (!selected.isEmpty() && selectedBytes + size > budget)) {
+                // Keep the remaining outputs in priority order, but still let urgent ones through
+                budgetExhausted = true;
+
+                if (!isUrgent.test(output.render)) {
+                    continue;
+                }
+            }
+
+            selected.add(output);
+            selectedBytes += size;
+
+            this.pendingOutputs.remove(output.render);
+        }
+
+        this.pendingBytes -= selectedBytes;
+
+        return selected;
+    }
+
+    private long getUploadBudget(long uploadSizeLimit, long frameDuration) {
+        long budget = Math.min(this.sizeBudget, uploadSizeLimit);
+
+        long timeBudget = this.timeBudget;
+
+        if (frameDuration > 0L) {
+            timeBudget = Math.min(timeBudget, (long) (frameDuration * MAX_FRAME_FRACTION));
+        }
+
+        if (timeBudget != Long.MAX_VALUE && this.averageUploadCost > 0.0) {
+            budget = Math.min(budget, (long) (timeBudget / this.averageUploadCost));
+        }
+
+        return budget;
+    }
+
+    /**
+     * Records the time taken to upload the outputs returned by {@link #dequeue}, so that the time budget can be
+     * converted into a number of bytes.
+     */
+    public void onUploadFinished(long bytes, long nanos) {
+        if (bytes <= 0 || nanos <= 0) {
+            return;
+        }
+
+        double cost = (double) nanos / bytes;
+
+        if (this.averageUploadCost == 0.0) {
+            this.averageUploadCost = cost;
+        } else {
+            this.averageUploadCost += (cost - this.averageUploadCost) * UPLOAD_COST_SMOOTHING;
+        }
+    }
+
+    /**
+     * {@return the number of outputs waiting to be uploaded}
+     */
+    public int getQueueDepth() {
+        return this.pendingOutputs.size();
+    }
+
+    /**
+     * {@return the total size in bytes of the outputs waiting to be uploaded}
+     */
+    public long getPendingBytes() {
+        return this.pendingBytes;
+    }
+
+    public boolean isEmpty() {
+        return this.pendingOutputs.isEmpty();
+    }
+
+    /**
+     * Deletes all queued outputs.
+     */
+    public void clear() {
+        for (var output : this.pendingOutputs.values()) {
+            output.delete();
+        }
+
+        this.pendingOutputs.clear();
+        this.pendingBytes = 0;
+    }
+
+    public String getDebugString() {
+        return String.format("Upload Queue: %d (%d MiB) | Budget=%s", this.pendingOutputs.size(), MathUtil.toMib(this.pendingBytes),
+                this.lastUploadBudget == Long.MAX_VALUE ? "none" : (this.lastUploadBudget / 1024L) + " KiB");
+    }
+}
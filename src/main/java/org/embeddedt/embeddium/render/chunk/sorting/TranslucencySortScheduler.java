@@ -0,0 +1,367 @@
+package org.embeddedt.embeddium.render.chunk.sorting;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import me.jellysquid.mods.sodium.client.render.chunk.ChunkUpdateType;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSectionFlags;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import me.jellysquid.mods.sodium.client.render.viewport.Viewport;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Decides which sections containing dynamically sorted translucent geometry should be resorted after the camera moves.
+ *
+ * <p>Rather than walking every visible section, the scheduler keeps an index of the sections which actually require
+ * dynamic sorting. Those sections are split into distance tiers, with farther tiers requiring the camera to move
+ * further before a resort is scheduled and being re-evaluated less often, since the order of their quads changes
+ * much more slowly relative to the camera.</p>
+ *
+ * <p>The index is bucketed by render region. Each update first tests the bounds of every bucket, and only visits the
+ * sections of buckets which are within the frustum and which span a distance tier that is due to be evaluated, so the
+ * work done per update is linear in the number of regions holding sortable sections plus the sections actually
+ * evaluated, rather than in the total number of sortable sections.</p>
+ *
+ * <p>The number of sort tasks submitted each frame is limited by a CPU time budget, which is converted into a task
+ * count using a moving average of the measured sort task cost.</p>
+ */
+public class TranslucencySortScheduler {
+    /**
+     * The time (in nanoseconds) per worker thread which sort tasks may consume each frame.
+     */
+    private static final long SORT_TIME_BUDGET_PER_THREAD = 2_000_000L;
+
+    /**
+     * The minimum number of sort tasks which will be submitted each frame, regardless of their measured cost.
+     */
+    private static final int MIN_SORT_TASKS = 4;
+
+    /**
+     * The cost assumed for a sort task before any have been measured.
+     */
+    private static final long INITIAL_SORT_COST = 100_000L;
+
+    /**
+     * The weight given to newly measured sort timings in the moving average.
+     */
+    private static final double SORT_COST_SMOOTHING = 0.05;
+
+    private static final int REGION_WIDTH_SH = Integer.numberOfTrailingZeros(RenderRegion.REGION_WIDTH);
+    private static final int REGION_HEIGHT_SH = Integer.numberOfTrailingZeros(RenderRegion.REGION_HEIGHT);
+    private static final int REGION_LENGTH_SH = Integer.numberOfTrailingZeros(RenderRegion.REGION_LENGTH);
+
+    // The margin (in blocks) added to the bounds of a region when testing it against the frustum, see OcclusionCuller
+    private static final float REGION_MARGIN = 1.125f;
+
+    private final Long2ObjectLinkedOpenHashMap<RegionBucket> buckets = new Long2ObjectLinkedOpenHashMap<>();
+    private int sortableSectionCount;
+
+    private double averageSortCost = INITIAL_SORT_COST;
+
+    private int updateCount;
+
+    private int lastScheduledCount;
+
+    public enum Tier {
+        /**
+         * Sections near the camera, which are resorted as soon as the camera moves by a block.
+         */
+        NEAR(2, 1.0, 1),
+        /**
+         * Sections at a moderate distance, which are resorted once the camera moves by a few blocks.
+         */
+        MEDIUM(8, 4.0, 2),
+        /**
+         * All other sections, which are resorted rarely and only after large camera movements.
+         */
+        FAR(Integer.MAX_VALUE, 8.0, 4);
+
+        public static final Tier[] VALUES = values();
+
+        /**
+         * The maximum distance (in sections, along any axis) from the camera for a section to be part of this tier.
+         */
+        private final int maxSectionDistance;
+        /**
+         * The squared distance (in blocks) the camera must move before sections in this tier are resorted.
+         */
+        private final double minCameraMovementSq;
+        /**
+         * The number of scheduler updates between each evaluation of sections in this tier.
+         */
+        private final int updateInterval;
+
+        Tier(int maxSectionDistance, double minCameraMovement, int updateInterval) {
+            this.maxSectionDistance = maxSectionDistance;
+            this.minCameraMovementSq = minCameraMovement * minCameraMovement;
+            this.updateInterval = updateInterval;
+        }
+
+        public static Tier forDistance(int sectionDistance) {
+            for (Tier tier : VALUES) {
+                if (sectionDistance <= tier.maxSectionDistance) {
+                    return tier;
+                }
+            }
+
+            return FAR;
+        }
+    }
+
+    /**
+     * Updates the index entry for the given section. This should be called whenever the sort states of a section
+     * change.
+     */
+    public void onSortStatesChanged(RenderSection section) {
+        if (section.isNeedsDynamicTranslucencySorting()) {
+            this.addSection(section);
+        } else {
+            this.removeSection(section);
+        }
+    }
+
+    public void onSectionRemoved(RenderSection section) {
+        this.removeSection(section);
+    }
+
+    private void addSection(RenderSection section) {
+        int x = section.getChunkX() >> REGION_WIDTH_SH;
+        int y = section.getChunkY() >> REGION_HEIGHT_SH;
+        int z = section.getChunkZ() >> REGION_LENGTH_SH;
+
+        var bucket = this.buckets.get(RenderRegion.key(x, y, z));
+
+        if (bucket == null) {
+            bucket = new RegionBucket(x, y, z);
+            this.buckets.put(RenderRegion.key(x, y, z), bucket);
+        }
+
+        if (bucket.sections.add(section)) {
+            this.sortableSectionCount++;
+        }
+    }
+
+    private void removeSection(RenderSection section) {
+        long key = RenderRegion.key(section.getChunkX() >> REGION_WIDTH_SH, section.getChunkY() >> REGION_HEIGHT_SH,
+                section.getChunkZ() >> REGION_LENGTH_SH);
+
+        var bucket = this.buckets.get(key);
+
+        if (bucket != null && bucket.sections.remove(section)) {
+            this.sortableSectionCount--;
+
+            if (bucket.sections.isEmpty()) {
+                this.buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Records the time taken by a completed sort task, so that the per-frame budget can follow the actual cost.
+     */
+    public void onSortCompleted(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+
+        this.averageSortCost += (nanos - this.averageSortCost) * SORT_COST_SMOOTHING;
+    }
+
+    /**
+     * Returns the number of sort tasks which may be submitted this frame.
+     *
+     * @param threadCount The number of worker threads available
+     * @param schedulingBudget The number of tasks the chunk builder is willing to accept
+     */
+    public int getSortTaskBudget(int threadCount, int schedulingBudget) {
+        long timeBudget = SORT_TIME_BUDGET_PER_THREAD * Math.max(1, threadCount);
+        int taskBudget = (int) Math.min(Integer.MAX_VALUE, timeBudget / Math.max(1L, (long) this.averageSortCost));
+
+        // Count sort tasks as requiring a quarter of the resources of a mesh task at most
+        return Math.max(MIN_SORT_TASKS, Math.min(taskBudget, schedulingBudget * 4));
+    }
+
+    /**
+     * Finds the sortable sections which are visible and which the camera has moved far enough away from to require
+     * a resort, and adds them to the corresponding rebuild queues.
+     */
+    public void scheduleUpdates(Map<ChunkUpdateType, ArrayDeque<RenderSection>> rebuildLists, Viewport viewport, Vec3 cameraPosition,
+                                int frame, boolean allowImportant, Predicate<RenderSection> isImportant) {
+        var sortRebuildList = rebuildLists.get(ChunkUpdateType.SORT);
+        var importantSortRebuildList = rebuildLists.get(ChunkUpdateType.IMPORTANT_SORT);
+
+        int camSectionX = SectionPos.blockToSectionCoord(cameraPosition.x);
+        int camSectionY = SectionPos.blockToSectionCoord(cameraPosition.y);
+        int camSectionZ = SectionPos.blockToSectionCoord(cameraPosition.z);
+
+        int update = this.updateCount++;
+        int scheduled = 0;
+
+        for (var bucketIt = this.buckets.values().iterator(); bucketIt.hasNext(); ) {
+            var bucket = bucketIt.next();
+
+            if (!bucket.isDue(update, camSectionX, camSectionY, camSectionZ) || !bucket.isWithinFrustum(viewport)) {
+                continue;
+            }
+
+            scheduled += this.scheduleUpdates(bucket, sortRebuildList, importantSortRebuildList, viewport, cameraPosition,
+                    camSectionX, camSectionY, camSectionZ, update, frame, allowImportant, isImportant);
+
+            if (bucket.sections.isEmpty()) {
+                bucketIt.remove();
+            }
+        }
+
+        this.lastScheduledCount = scheduled;
+    }
+
+    private int scheduleUpdates(RegionBucket bucket, ArrayDeque<RenderSection> sortRebuildList, ArrayDeque<RenderSection> importantSortRebuildList,
+                                Viewport viewport, Vec3 cameraPosition, int camSectionX, int camSectionY, int camSectionZ,
+                                int update, int frame, boolean allowImportant, Predicate<RenderSection> isImportant) {
+        int scheduled = 0;
+
+        for (Iterator<RenderSection> it = bucket.sections.iterator(); it.hasNext(); ) {
+            var section = it.next();
+
+            if (section.isDisposed() || !section.isNeedsDynamicTranslucencySorting()) {
+                // The section's sort data was discarded since it was indexed
+                it.remove();
+                this.sortableSectionCount--;
+                continue;
+            }
+
+            if (!section.isBuilt() || !isVisible(section, viewport, frame)) {
+                continue;
+            }
+
+            int sectionDistance = Math.max(Math.abs(section.getChunkX() - camSectionX),
+                    Math.max(Math.abs(section.getChunkY() - camSectionY), Math.abs(section.getChunkZ() - camSectionZ)));
+            Tier tier = Tier.forDistance(sectionDistance);
+
+            if ((update % tier.updateInterval) != 0) {
+                // Not this tier's turn to be evaluated
+                continue;
+            }
+
+            ChunkUpdateType type = ChunkUpdateType.getPromotionUpdateType(section.getPendingUpdate(),
+                    (allowImportant && isImportant.test(section)) ? ChunkUpdateType.IMPORTANT_SORT : ChunkUpdateType.SORT);
+
+            if (type == null) {
+                // We wouldn't be able to resort this section anyway
+                continue;
+            }
+
+            double dx = cameraPosition.x - section.lastCameraX;
+            double dy = cameraPosition.y - section.lastCameraY;
+            double dz = cameraPosition.z - section.lastCameraZ;
+            double camDelta = (dx * dx) + (dy * dy) + (dz * dz);
+
+            if (camDelta < tier.minCameraMovementSq) {
+                // Didn't move enough, ignore
+                continue;
+            }
+
+            boolean cameraChangedSection = camSectionX != SectionPos.blockToSectionCoord(section.lastCameraX) ||
+                    camSectionY != SectionPos.blockToSectionCoord(section.lastCameraY) ||
+                    camSectionZ != SectionPos.blockToSectionCoord(section.lastCameraZ);
+
+            if (cameraChangedSection || section.isAlignedWithSectionOnGrid(camSectionX, camSectionY, camSectionZ)) {
+                section.setPendingUpdate(type);
+                // Inject it into the rebuild lists
+                (type == ChunkUpdateType.IMPORTANT_SORT ? importantSortRebuildList : sortRebuildList).add(section);
+
+                section.lastCameraX = cameraPosition.x;
+                section.lastCameraY = cameraPosition.y;
+                section.lastCameraZ = cameraPosition.z;
+
+                scheduled++;
+            }
+        }
+
+        return scheduled;
+    }
+
+    private static boolean isVisible(RenderSection section, Viewport viewport, int frame) {
+        return section.getLastVisibleFrame() == frame &&
+                (section.getFlags() & (1 << RenderSectionFlags.HAS_BLOCK_GEOMETRY)) != 0 &&
+                OcclusionCuller.isWithinFrustum(viewport, section);
+    }
+
+    public void clear() {
+        this.buckets.clear();
+        this.sortableSectionCount = 0;
+    }
+
+    public String getDebugString() {
+        return String.format("Sort Scheduler: Indexed=%d (%d regions) | Queued=%d | Cost=%dus",
+                this.sortableSectionCount, this.buckets.size(), this.lastScheduledCount, (long) this.averageSortCost / 1000L);
+    }
+
+    /**
+     * The sortable sections within a single render region.
+     */
+    private static class RegionBucket {
+        private final ReferenceLinkedOpenHashSet<RenderSection> sections = new ReferenceLinkedOpenHashSet<>();
+
+        // The bounds of the region, in section coordinates (inclusive)
+        private final int minX, minY, minZ;
+        private final int maxX, maxY, maxZ;
+
+        private RegionBucket(int x, int y, int z) {
+            this.minX = x << REGION_WIDTH_SH;
+            this.minY = y << REGION_HEIGHT_SH;
+            this.minZ = z << REGION_LENGTH_SH;
+
+            this.maxX = this.minX + RenderRegion.REGION_WIDTH - 1;
+            this.maxY = this.minY + RenderRegion.REGION_HEIGHT - 1;
+            this.maxZ = this.minZ + RenderRegion.REGION_LENGTH - 1;
+        }
+
+        /**
+         * {@return true if any of the distance tiers which the sections of this region can fall into is evaluated in
+         * the given update}
+         */
+        private boolean isDue(int update, int camSectionX, int camSectionY, int camSectionZ) {
+            int nearest = Math.max(getNearestDistance(camSectionX, this.minX, this.maxX),
+                    Math.max(getNearestDistance(camSectionY, this.minY, this.maxY), getNearestDistance(camSectionZ, this.minZ, this.maxZ)));
+            int farthest = Math.max(getFarthestDistance(camSectionX, this.minX, this.maxX),
+                    Math.max(getFarthestDistance(camSectionY, this.minY, this.maxY), getFarthestDistance(camSectionZ, this.minZ, this.maxZ)));
+
+            Tier nearestTier = Tier.forDistance(nearest), farthestTier = Tier.forDistance(farthest);
+
+            for (int i = nearestTier.ordinal(); i <= farthestTier.ordinal(); i++) {
+                if ((update % Tier.VALUES[i].updateInterval) == 0) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private boolean isWithinFrustum(Viewport viewport) {
+            int centerX = ((this.minX << 4) + ((this.maxX + 1) << 4)) >> 1;
+            int centerY = ((this.minY << 4) + ((this.maxY + 1) << 4)) >> 1;
+            int centerZ = ((this.minZ << 4) + ((this.maxZ + 1) << 4)) >> 1;
+
+            return viewport.isBoxVisible(centerX, centerY, centerZ,
+                    (RenderRegion.REGION_WIDTH << 3) + REGION_MARGIN,
+                    (RenderRegion.REGION_HEIGHT << 3) + REGION_MARGIN,
+                    (RenderRegion.REGION_LENGTH << 3) + REGION_MARGIN);
+        }
+
+        private static int getNearestDistance(int pos, int min, int max) {
+            return Math.max(0, Math.max(min - pos, pos - max));
+        }
+
+        private static int getFarthestDistance(int pos, int min, int max) {
+            return Math.max(Math.abs(pos - min), Math.abs(pos - max));
+        }
+    }
+}
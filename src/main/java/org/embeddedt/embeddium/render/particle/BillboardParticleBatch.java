@@ -0,0 +1,264 @@
+package org.embeddedt.embeddium.render.particle;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTag;
+import me.jellysquid.mods.sodium.client.util.NativeMemoryTracker;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.common.ParticleVertex;
+import net.minecraft.client.Camera;
+import net.minecraft.client.particle.Particle;
+import net.minecraft.client.particle.SingleQuadParticle;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.lwjgl.system.MemoryStack;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Collects the billboard particles of a single {@link net.minecraft.client.particle.ParticleRenderType} and writes
+ * their geometry in one pass, instead of building and pushing each particle's quad individually.
+ *
+ * <p>Per-particle attributes are stored as a structure of arrays. All particles in a batch share the camera rotation,
+ * so the rotated billboard axes only need to be computed once per batch, and each corner is then a couple of
+ * multiply-adds. Very large batches are written in parallel, since each particle's vertices are independent.</p>
+ *
+ * <p>A batch is only active between {@link #begin(VertexConsumer)} and {@link #end()}, which the particle engine calls
+ * around each render type. Particles rendered into any other vertex consumer are not affected.</p>
+ */
+public class BillboardParticleBatch {
+    public static final BillboardParticleBatch INSTANCE = new BillboardParticleBatch();
+
+    /**
+     * The number of particles above which vertices are written on multiple threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 16384;
+
+    /**
+     * The number of particles written by each task when writing in parallel.
+     */
+    private static final int PARALLEL_SLICE_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int VERTICES_PER_PARTICLE = 4;
+
+    private static final Class<?>[] RENDER_PARAMETERS = new Class<?>[] { VertexConsumer.class, Camera.class, float.class };
+
+    private static final ClassValue<Boolean> USES_DEFAULT_RENDER = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return !overridesRender(type);
+        }
+    };
+
+    private VertexConsumer target;
+    private VertexBufferWriter writer;
+
+    private final Quaternionf rotation = new Quaternionf();
+    private final Vector3f axisX = new Vector3f();
+    private final Vector3f axisY = new Vector3f();
+
+    private int count;
+    private int capacity;
+
+    private float[] x, y, z;
+    private float[] size;
+    private float[] roll;
+    private float[] minU, maxU, minV, maxV;
+    private int[] color;
+    private int[] light;
+
+    private long pVertexBuffer;
+    private long vertexBufferCapacity;
+
+    private BillboardParticleBatch() {
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Starts collecting particles which are rendered into the given vertex consumer.
+     */
+    public void begin(VertexConsumer target) {
+        this.flush();
+
+        this.target = target;
+        this.writer = VertexBufferWriter.tryOf(target);
+    }
+
+    /**
+     * Writes all collected particles and stops collecting.
+     */
+    public void end() {
+        this.flush();
+
+        this.target = null;
+        this.writer = null;
+    }
+
+    /**
+     * {@return whether the given particle can be added to this batch when rendered into the given consumer}
+     */
+    public boolean canAdd(Particle particle, VertexConsumer consumer) {
+        return this.writer != null && consumer == this.target && canBatch(particle);
+    }
+
+    /**
+     * {@return whether the given particle's geometry can be batched, i.e. it is a billboard particle whose class does
+     * not replace the vanilla rendering logic}
+     */
+    public static boolean canBatch(Particle particle) {
+        return particle instanceof SingleQuadParticle && USES_DEFAULT_RENDER.get(particle.getClass());
+    }
+
+    public boolean isActive() {
+        return this.writer != null;
+    }
+
+    public void add(Camera camera, float x, float y, float z, float size, float roll,
+                    float minU, float maxU, float minV, float maxV, int color, int light) {
+        if (this.count == 0) {
+            this.setRotation(camera.rotation());
+        } else if (!this.rotation.equals(camera.rotation())) {
+            // Particles are always rendered with the same camera, but don't rely on it
+            this.flush();
+            this.setRotation(camera.rotation());
+        }
+
+        if (this.count >= this.capacity) {
+            this.allocate(this.capacity * 2);
+        }
+
+        int i = this.count++;
+
+        this.x[i] = x;
+        this.y[i] = y;
+        this.z[i] = z;
+        this.size[i] = size;
+        this.roll[i] = roll;
+        this.minU[i] = minU;
+        this.maxU[i] = maxU;
+        this.minV[i] = minV;
+        this.maxV[i] = maxV;
+        this.color[i] = color;
+        this.light[i] = light;
+    }
+
+    private void setRotation(Quaternionf rotation) {
+        this.rotation.set(rotation);
+
+        // The corners of a particle are offsets along the camera's rotated X and Y axes
+        this.axisX.set(1.0f, 0.0f, 0.0f).rotate(this.rotation);
+        this.axisY.set(0.0f, 1.0f, 0.0f).rotate(this.rotation);
+    }
+
+    /**
+     * Writes the geometry for all collected particles into the target, and clears the batch.
+     */
+    public void flush() {
+        int count = this.count;
+
+        if (count == 0) {
+            return;
+        }
+
+        this.count = 0;
+
+        long bytes = (long) count * VERTICES_PER_PARTICLE * ParticleVertex.STRIDE;
+
+        if (bytes > this.vertexBufferCapacity) {
+            this.pVertexBuffer = NativeMemoryTracker.realloc(NativeMemoryTag.PARTICLE_BATCH, this.pVertexBuffer, this.vertexBufferCapacity, bytes);
+            this.vertexBufferCapacity = bytes;
+        }
+
+        if (count >= PARALLEL_THRESHOLD) {
+            int slices = (count + PARALLEL_SLICE_SIZE - 1) / PARALLEL_SLICE_SIZE;
+
+            IntStream.range(0, slices)
+                    .parallel()
+                    .forEach(slice -> this.writeVertices(slice * PARALLEL_SLICE_SIZE, Math.min(count, (slice + 1) * PARALLEL_SLICE_SIZE)));
+        } else {
+            this.writeVertices(0, count);
+        }
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            this.writer.push(stack, this.pVertexBuffer, count * VERTICES_PER_PARTICLE, ParticleVertex.FORMAT);
+        }
+    }
+
+    private void writeVertices(int start, int end) {
+        float axisXx = this.axisX.x, axisXy = this.axisX.y, axisXz = this.axisX.z;
+        float axisYx = this.axisY.x, axisYy = this.axisY.y, axisYz = this.axisY.z;
+
+        long ptr = this.pVertexBuffer + ((long) start * VERTICES_PER_PARTICLE * ParticleVertex.STRIDE);
+
+        for (int i = start; i < end; i++) {
+            float size = this.size[i];
+            float roll = this.roll[i];
+
+            float rx, ry, rz, ux, uy, uz;
+
+            if (roll == 0.0f) {
+                rx = axisXx * size; ry = axisXy * size; rz = axisXz * size;
+                ux = axisYx * size; uy = axisYy * size; uz = axisYz * size;
+            } else {
+                // Rotating the corner around Z before applying the camera rotation is the same as rotating the axes
+                float sin = (float) Math.sin(roll) * size;
+                float cos = (float) Math.cos(roll) * size;
+
+                rx = (axisXx * cos) + (axisYx * sin); ry = (axisXy * cos) + (axisYy * sin); rz = (axisXz * cos) + (axisYz * sin);
+                ux = (axisYx * cos) - (axisXx * sin); uy = (axisYy * cos) - (axisXy * sin); uz = (axisYz * cos) - (axisXz * sin);
+            }
+
+            float x = this.x[i], y = this.y[i], z = this.z[i];
+            float minU = this.minU[i], maxU = this.maxU[i], minV = this.minV[i], maxV = this.maxV[i];
+            int color = this.color[i], light = this.light[i];
+
+            ParticleVertex.put(ptr, x - rx - ux, y - ry - uy, z - rz - uz, maxU, maxV, color, light);
+            ptr += ParticleVertex.STRIDE;
+
+            ParticleVertex.put(ptr, x - rx + ux, y - ry + uy, z - rz + uz, maxU, minV, color, light);
+            ptr += ParticleVertex.STRIDE;
+
+            ParticleVertex.put(ptr, x + rx + ux, y + ry + uy, z + rz + uz, minU, minV, color, light);
+            ptr += ParticleVertex.STRIDE;
+
+            ParticleVertex.put(ptr, x + rx - ux, y + ry - uy, z + rz - uz, minU, maxV, color, light);
+            ptr += ParticleVertex.STRIDE;
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.x = grow(this.x, capacity);
+        this.y = grow(this.y, capacity);
+        this.z = grow(this.z, capacity);
+        this.size = grow(this.size, capacity);
+        this.roll = grow(this.roll, capacity);
+        this.minU = grow(this.minU, capacity);
+        this.maxU = grow(this.maxU, capacity);
+        this.minV = grow(this.minV, capacity);
+        this.maxV = grow(this.maxV, capacity);
+        this.color = this.color == null ? new int[capacity] : Arrays.copyOf(this.color, capacity);
+        this.light = this.light == null ? new int[capacity] : Arrays.copyOf(this.light, capacity);
+
+        this.capacity = capacity;
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static boolean overridesRender(Class<?> type) {
+        // Method names are obfuscated in production, so look for any method with the signature of render() declared
+        // between the particle's class and SingleQuadParticle
+        for (Class<?> clazz = type; clazz != null && clazz != SingleQuadParticle.class; clazz = clazz.getSuperclass()) {
+            for (var method : clazz.getDeclaredMethods()) {
+                if (method.getReturnType() == void.class && Arrays.equals(method.getParameterTypes(), RENDER_PARAMETERS)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
 const uint MATERIAL_USE_MIP_OFFSET = 0u;
 const uint MATERIAL_ALPHA_CUTOFF_OFFSET = 1u;
+const uint MATERIAL_TILED_OFFSET = 3u;
+const uint MATERIAL_TILE_SCALE_OFFSET = 4u;
 
 const float[4] ALPHA_CUTOFF = float[4](0.0, 0.1, 0.5, 1.0);
 
@@ -9,4 +11,13 @@ float _material_mip_bias(uint material) {
 
 float _material_alpha_cutoff(uint material) {
     return ALPHA_CUTOFF[(material >> MATERIAL_ALPHA_CUTOFF_OFFSET) & 3u];
-}
\ No newline at end of file
+}
+
+bool _material_is_tiled(uint material) {
+    return ((material >> MATERIAL_TILED_OFFSET) & 1u) != 0u;
+}
+
+// The width of the sprite repeated by a merged face in atlas coordinates, which is always a power of two
+float _material_tile_width(uint material) {
+    return exp2(-float((material >> MATERIAL_TILE_SCALE_OFFSET) & 15u));
+}
@@ -16,6 +16,11 @@ uint _draw_id;
 // The material bits for the primitive
 uint _material_params;
 
+#ifdef USE_FACE_MERGING
+// The position of the sprite within the block atlas for merged faces, in units of the sprite's size
+uvec2 _vert_tile_index;
+#endif
+
 #ifdef USE_VERTEX_COMPRESSION
 in uvec4 a_PosId;
 in vec4 a_Color;
@@ -33,7 +38,13 @@ in ivec2 a_LightCoord;
 void _vert_init() {
     _vert_position = (vec3(a_PosId.xyz) * VERT_POS_SCALE + VERT_POS_OFFSET);
     _vert_tex_diffuse_coord = (a_TexCoord * VERT_TEX_SCALE);
+#ifdef USE_FACE_MERGING
+    // The upper bytes of the light coordinates hold the position of the sprite for merged faces
+    _vert_tex_light_coord = a_LightCoord & ivec2(0xFF);
+    _vert_tile_index = uvec2(a_LightCoord >> 8) & uvec2(0xFFu);
+#else
     _vert_tex_light_coord = a_LightCoord;
+#endif
     _vert_color = a_Color;
 
     _draw_id = (a_PosId.w >> 8u) & 0xFFu;